@@ -0,0 +1,284 @@
+package agentIO;
+
+import controllers.PlayAgent;
+import controllers.TD.ntuple4.NTuple4;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * Binary container format for agents ({@code *.agt.bin}), an alternative to {@code *.agt.zip} for agents with large
+ * n-tuple LUTs (e.g. Othello, RubiksCube).
+ * <p>
+ * In {@code *.agt.zip} the whole agent, including every LUT of every {@link NTuple4}, goes through a GZIP'ed
+ * {@link ObjectOutputStream}. Loading a large agent takes minutes and needs about twice the final size in heap.
+ * In {@code *.agt.bin} only the <b>metadata</b> of the agent (everything except the LUTs) is Java-serialized, the LUTs
+ * are stored as raw little-endian blocks which are read with {@link FileChannel#map}. {@link NTuple4} detaches and
+ * re-attaches its LUT when it is (de-)serialized through the streams {@link LutOutputStream} and
+ * {@link LutInputStream} of this class.
+ * <p>
+ * File layout (all numbers little-endian):
+ * <pre>
+ *   header        int MAGIC, int VERSION, long metaOffset, long metaLength, int nBlocks, int 0
+ *   block table   nBlocks * (int type, int 0, long offset, long length)      type: 0=double, 1=float, 2=short
+ *   metadata      Java-serialized agent without LUTs
+ *   blocks        raw LUT data, each block starts at an 8-byte aligned offset
+ * </pre>
+ * There are two ways to load:
+ * <ul>
+ *     <li> {@code mapped=false}: the LUTs are copied from the file into heap arrays. The agent can be trained further.
+ *     <li> {@code mapped=true}: the LUTs stay off-heap, as <b>read-only</b> memory-mapped buffers. Loading takes nearly
+ *     		constant time (the OS pages the LUTs in on demand) and several processes can share the same pages. Meant
+ *     		for playing and evaluation (e.g. tournaments), an attempt to train such an agent throws an exception.
+ * </ul>
+ * Blocks are limited to {@link Integer#MAX_VALUE} bytes if {@code mapped=true}.
+ */
+public class AgentBinaryIO {
+	public static final String SUFFIX = ".agt.bin";
+
+	private static final int MAGIC = 0x42474247;		// "GBGB" in little-endian order
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 32;
+	private static final int BLOCK_ENTRY_BYTES = 24;
+	private static final int CHUNK_BYTES = 1 << 20;		// buffer size for writing / copying blocks
+
+	public static final int TYPE_DOUBLE = 0;
+	public static final int TYPE_FLOAT = 1;
+	public static final int TYPE_SHORT = 2;
+
+	private static final int[] ELEM_BYTES = {8, 4, 2};
+
+	/**
+	 * Save agent {@code pa} in binary container format.
+	 *
+	 * @param pa		the agent
+	 * @param filePath	the file (suffix {@link #SUFFIX} recommended)
+	 * @throws IOException if the agent is not serializable or the file can not be written
+	 */
+	public static void save(PlayAgent pa, String filePath) throws IOException {
+		ByteArrayOutputStream meta = new ByteArrayOutputStream();
+		LutOutputStream los = new LutOutputStream(meta);
+		los.writeObject(pa);
+		los.close();
+		int nBlocks = los.blocks.size();
+
+		long metaOffset = HEADER_BYTES + (long) nBlocks * BLOCK_ENTRY_BYTES;
+		ByteBuffer head = ByteBuffer.allocate((int) metaOffset).order(ByteOrder.LITTLE_ENDIAN);
+		head.putInt(MAGIC).putInt(VERSION).putLong(metaOffset).putLong(meta.size()).putInt(nBlocks).putInt(0);
+		long[] offsets = new long[nBlocks];
+		long offset = align8(metaOffset + meta.size());
+		for (int b=0; b<nBlocks; b++) {
+			int type = typeOf(los.blocks.get(b));
+			long length = java.lang.reflect.Array.getLength(los.blocks.get(b));
+			head.putInt(type).putInt(0).putLong(offset).putLong(length);
+			offsets[b] = offset;
+			offset = align8(offset + length*ELEM_BYTES[type]);
+		}
+		head.flip();
+
+		try (FileChannel ch = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			writeFully(ch, head, 0);
+			writeFully(ch, ByteBuffer.wrap(meta.toByteArray()), metaOffset);
+			ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			for (int b=0; b<nBlocks; b++)
+				writeBlock(ch, los.blocks.get(b), offsets[b], chunk);
+		}
+	}
+
+	/**
+	 * Load an agent saved with {@link #save(PlayAgent, String)}.
+	 * The caller has to call {@link PlayAgent#instantiateAfterLoading()} afterwards (as for {@code *.agt.zip}).
+	 *
+	 * @param filePath	the file
+	 * @param mapped	if true, the LUTs are read-only, memory-mapped buffers, else heap arrays (see class doc)
+	 * @return the agent
+	 * @throws IOException if the file can not be read or has the wrong format
+	 */
+	public static PlayAgent load(String filePath, boolean mapped) throws IOException {
+		try (FileChannel ch = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+			ByteBuffer head = readFully(ch, 0, HEADER_BYTES);
+			if (head.getInt() != MAGIC)
+				throw new IOException("ERROR: " + filePath + " is not a GBG binary agent file");
+			int version = head.getInt();
+			if (version != VERSION)
+				throw new IOException("ERROR: " + filePath + " has unsupported version " + version);
+			long metaOffset = head.getLong();
+			long metaLength = head.getLong();
+			int nBlocks = head.getInt();
+
+			ByteBuffer table = readFully(ch, HEADER_BYTES, nBlocks * BLOCK_ENTRY_BYTES);
+			int[] types = new int[nBlocks];
+			long[] offsets = new long[nBlocks];
+			long[] lengths = new long[nBlocks];
+			for (int b=0; b<nBlocks; b++) {
+				types[b] = table.getInt();
+				table.getInt();
+				offsets[b] = table.getLong();
+				lengths[b] = table.getLong();
+			}
+
+			if (metaLength < 0 || metaOffset + metaLength > ch.size())
+				throw new IOException("ERROR: " + filePath + " is truncated (metadata)");
+			// the metadata is streamed from the file and not copied into the heap first, since it may be larger than
+			// 2 GB (e.g. for NTuple2 agents, which keep their LUTs in the metadata)
+			InputStream meta = new BufferedInputStream(Channels.newInputStream(ch.position(metaOffset)), CHUNK_BYTES);
+			try (LutInputStream lis = new LutInputStream(meta, ch, types, offsets, lengths, mapped)) {
+				Object obj = lis.readObject();
+				if (!(obj instanceof PlayAgent))
+					throw new IOException("ERROR: " + filePath + " does not contain a PlayAgent, but "
+							+ obj.getClass().getName());
+				return (PlayAgent) obj;
+			} catch (ClassNotFoundException e) {
+				throw new IOException("ERROR: unknown class in " + filePath + " [" + e.getMessage() + "]", e);
+			}
+		}
+	}
+
+	/**
+	 * The stream which writes the agent metadata. Objects holding a LUT (see {@link NTuple4}) do not write it to this
+	 * stream, but register it with {@link #addBlock(Object)} and write only the returned block number.
+	 */
+	public static class LutOutputStream extends ObjectOutputStream {
+		private final ArrayList<Object> blocks = new ArrayList<>();
+
+		LutOutputStream(OutputStream out) throws IOException {
+			super(out);
+		}
+
+		/**
+		 * @param array a {@code double[]}, {@code float[]} or {@code short[]}
+		 * @return the block number of {@code array}
+		 */
+		public int addBlock(Object array) {
+			typeOf(array);		// check type
+			blocks.add(array);
+			return blocks.size()-1;
+		}
+	}
+
+	/**
+	 * The stream which reads the agent metadata. Objects holding a LUT (see {@link NTuple4}) read the block number and
+	 * fetch the LUT with {@link #getBlock(int)}.
+	 */
+	public static class LutInputStream extends ObjectInputStream {
+		private final FileChannel ch;
+		private final int[] types;
+		private final long[] offsets, lengths;
+		private final boolean mapped;
+
+		LutInputStream(InputStream in, FileChannel ch, int[] types, long[] offsets, long[] lengths, boolean mapped)
+				throws IOException {
+			super(in);
+			this.ch = ch;
+			this.types = types;
+			this.offsets = offsets;
+			this.lengths = lengths;
+			this.mapped = mapped;
+		}
+
+		/**
+		 * @param b		the block number
+		 * @return	if {@code mapped}: a read-only {@link DoubleBuffer}, {@link FloatBuffer} or {@link ShortBuffer} on the
+		 * 			mapped file region, else a {@code double[]}, {@code float[]} or {@code short[]} holding a copy
+		 */
+		public Object getBlock(int b) throws IOException {
+			if (b < 0 || b >= types.length)
+				throw new IOException("ERROR: LUT block " + b + " not found");
+			long bytes = lengths[b]*ELEM_BYTES[types[b]];
+			if (mapped) {
+				if (bytes > Integer.MAX_VALUE)
+					throw new IOException("ERROR: LUT block " + b + " too large for memory-mapping (" + bytes + " bytes)");
+				ByteBuffer bb = ch.map(FileChannel.MapMode.READ_ONLY, offsets[b], bytes).order(ByteOrder.LITTLE_ENDIAN);
+				return switch (types[b]) {
+					case TYPE_FLOAT -> bb.asFloatBuffer();
+					case TYPE_SHORT -> bb.asShortBuffer();
+					default -> bb.asDoubleBuffer();
+				};
+			}
+			int n = (int) lengths[b];
+			Object array = switch (types[b]) {
+				case TYPE_FLOAT -> new float[n];
+				case TYPE_SHORT -> new short[n];
+				default -> new double[n];
+			};
+			readBlock(ch, array, offsets[b]);
+			return array;
+		}
+	}
+
+	private static int typeOf(Object array) {
+		if (array instanceof double[]) return TYPE_DOUBLE;
+		if (array instanceof float[]) return TYPE_FLOAT;
+		if (array instanceof short[]) return TYPE_SHORT;
+		throw new IllegalArgumentException("LUT block has to be double[], float[] or short[], not "
+				+ (array == null ? "null" : array.getClass().getName()));
+	}
+
+	private static long align8(long offset) {
+		return (offset + 7) & ~7L;
+	}
+
+	private static void writeFully(FileChannel ch, ByteBuffer buf, long pos) throws IOException {
+		while (buf.hasRemaining())
+			pos += ch.write(buf, pos);
+	}
+
+	private static ByteBuffer readFully(FileChannel ch, long pos, int length) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buf.hasRemaining())
+			if (ch.read(buf, pos + buf.position()) < 0)
+				throw new EOFException("ERROR: unexpected end of binary agent file");
+		return buf.flip();
+	}
+
+	/**
+	 * Write {@code array} in chunks of {@link #CHUNK_BYTES} little-endian bytes to {@code ch} at position {@code pos}.
+	 */
+	private static void writeBlock(FileChannel ch, Object array, long pos, ByteBuffer chunk) throws IOException {
+		int type = typeOf(array);
+		int n = java.lang.reflect.Array.getLength(array);
+		int perChunk = CHUNK_BYTES / ELEM_BYTES[type];
+		for (int k=0; k<n; k+=perChunk) {
+			int m = Math.min(perChunk, n-k);
+			chunk.clear();
+			switch (type) {
+				case TYPE_FLOAT -> chunk.asFloatBuffer().put((float[]) array, k, m);
+				case TYPE_SHORT -> chunk.asShortBuffer().put((short[]) array, k, m);
+				default -> chunk.asDoubleBuffer().put((double[]) array, k, m);
+			}
+			chunk.limit(m*ELEM_BYTES[type]);
+			writeFully(ch, chunk, pos);
+			pos += (long) m*ELEM_BYTES[type];
+		}
+	}
+
+	/**
+	 * Fill {@code array} from the little-endian bytes at position {@code pos} of {@code ch}.
+	 */
+	private static void readBlock(FileChannel ch, Object array, long pos) throws IOException {
+		int type = typeOf(array);
+		int n = java.lang.reflect.Array.getLength(array);
+		int perChunk = CHUNK_BYTES / ELEM_BYTES[type];
+		ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		for (int k=0; k<n; k+=perChunk) {
+			int m = Math.min(perChunk, n-k);
+			chunk.clear().limit(m*ELEM_BYTES[type]);
+			while (chunk.hasRemaining())
+				if (ch.read(chunk, pos + chunk.position()) < 0)
+					throw new EOFException("ERROR: unexpected end of binary agent file");
+			chunk.flip();
+			switch (type) {
+				case TYPE_FLOAT -> chunk.asFloatBuffer().get((float[]) array, k, m);
+				case TYPE_SHORT -> chunk.asShortBuffer().get((short[]) array, k, m);
+				default -> chunk.asDoubleBuffer().get((double[]) array, k, m);
+			}
+			pos += (long) m*ELEM_BYTES[type];
+		}
+	}
+}
@@ -27,6 +27,7 @@ import java.util.zip.GZIPOutputStream;
 public class LoadSaveGBG {
 	private JFileChooserApprove fc = null;
 	private final FileFilter tdAgentExt = new ExtensionFilter("agt.zip", "TD-Agents");
+	private final FileFilter tdAgentBinExt = new ExtensionFilter("agt.bin", "TD-Agents (binary)");
 	private final FileFilter tdTSRExt = new ExtensionFilter("tsr.zip", "Tournament-Result");
 	private final FileFilter txtExt = new ExtensionFilter(".txt.zip", "Compressed Text-Files (.txt.zip)");
 	private final Arena arenaGame;
@@ -113,7 +114,8 @@ public class LoadSaveGBG {
 	 * Save agent to disk without file chooser dialog
 	 * 
 	 * @param pa	the agent
-	 * @param filePath the location on disk
+	 * @param filePath the location on disk. If it has suffix {@link AgentBinaryIO#SUFFIX}, the agent is saved in
+	 *                 binary container format (see {@link AgentBinaryIO}), else as GZIP'ed object stream.
 	 * @throws IOException
 	 */
 	public void saveGBGAgent(PlayAgent pa, String filePath) throws IOException {
@@ -122,6 +124,13 @@ public class LoadSaveGBG {
 		if (pa==null) {
 			throw new IOException("ERROR: pa=null, there is no agent to save to disk");
 		}
+
+		if (filePath.toLowerCase().endsWith(AgentBinaryIO.SUFFIX)) {
+			AgentBinaryIO.save(pa, filePath);
+			if(arenaGame!=null)
+				arenaGame.setStatusMessage("Done.");
+			return;
+		}
 		
 		try {
 			fos = new FileOutputStream(filePath);
@@ -439,11 +448,15 @@ public class LoadSaveGBG {
 	 * not yet have certain elements, which are then filled in from defaults)
 	 * 
 	 * @param filePath		if null, open a file choose dialog. If not null, open this fully 
-	 * 						qualified file with suffix .agt.zip.
+	 * 						qualified file with suffix .agt.zip (or {@link AgentBinaryIO#SUFFIX}, then the LUTs are
+	 * 						loaded into heap arrays, see {@link #loadGBGAgentMapped(String)} for the read-only variant).
 	 * @return				the agent loaded
 	 * @throws IOException
 	 */
 	public PlayAgent loadGBGAgent(String filePath) throws IOException {
+		if (filePath!=null && filePath.toLowerCase().endsWith(AgentBinaryIO.SUFFIX))
+			return loadGBGAgentBinary(filePath, false);
+
 		ObjectInputStream ois = null;
 		FileInputStream fis = null;
 		File file = null;
@@ -468,13 +481,17 @@ public class LoadSaveGBG {
 			if (fc==null) throw new IOException("No JFileChooser present!");
 			
 			fc.removeChoosableFileFilter(txtExt);
+			fc.addChoosableFileFilter(tdAgentBinExt);
 			fc.setFileFilter(tdAgentExt);
 			fc.setCurrentDirectory(new File(strDir));
 			fc.setAcceptAllFileFilterUsed(false);
 
 			int returnVal = fc.showOpenDialog(arenaFrame);
+			fc.removeChoosableFileFilter(tdAgentBinExt);
 
 			if (returnVal == JFileChooser.APPROVE_OPTION) {
+				if (fc.getSelectedFile().getPath().toLowerCase().endsWith(AgentBinaryIO.SUFFIX))
+					return loadGBGAgentBinary(fc.getSelectedFile().getPath(), false);
 				try {
 					file = fc.getSelectedFile();
 					filePath = file.getPath();
@@ -534,6 +551,57 @@ public class LoadSaveGBG {
 		return pa;
 	}
 
+	/**
+	 * Load an agent in binary container format (suffix {@link AgentBinaryIO#SUFFIX}) with <b>read-only,
+	 * memory-mapped</b> LUTs. This loads in nearly constant time and keeps the LUTs off-heap, but the agent can not be
+	 * trained further. Meant for playing and evaluation, e.g. in tournaments (see {@link #loadMultipleGBGAgent()}).
+	 *
+	 * @param filePath		fully qualified file
+	 * @return				the agent loaded
+	 * @throws IOException	if the file can not be read
+	 */
+	public PlayAgent loadGBGAgentMapped(String filePath) throws IOException {
+		return loadGBGAgentBinary(filePath, true);
+	}
+
+	private PlayAgent loadGBGAgentBinary(String filePath, boolean mapped) throws IOException {
+		PlayAgent pa;
+		try {
+			pa = AgentBinaryIO.load(filePath, mapped);
+		} catch (IOException e) {
+			if(arenaGame!=null)
+				arenaGame.setStatusMessage("[ERROR: Could not load agent from " + filePath + " !]");
+			throw e;
+		}
+		prepareLoadedAgent(pa, filePath);
+		return pa;
+	}
+
+	/**
+	 * The treatment of each agent after loading, independent of the file format: instantiate the transient
+	 * elements and fill in defaults for elements which older agents on disk might not yet have.
+	 *
+	 * @param pa		the agent read
+	 * @param filePath	the file it was read from
+	 */
+	private void prepareLoadedAgent(PlayAgent pa, String filePath) {
+		pa.setAgentFile(filePath);
+		pa.instantiateAfterLoading();	// special treatment of agents after loading (if necessary)
+		// [instantiateAfterLoading replaces completely the long and complicated switch statement we had here before (!)]
+
+		// Some older agents on disk might not have ParOther m_oPar.
+		// If this is the case, replace the null value with a default ParOther.
+		if (pa.getParOther() == null) {
+			((AgentBase) pa).setDefaultParOther();
+		}
+		if (pa.getParReplay() == null) {
+			((AgentBase) pa).setDefaultParReplay();
+		}
+		if (pa.getParWrapper() == null) {
+			((AgentBase) pa).setDefaultParWrapper(pa.getParOther());
+		}
+	}
+
 	/**
 	 * load saved tournament results from disk to reopen visualization
 	 * @param filePath		if null, open a file choose dialog. If not null, open this fully
@@ -679,7 +747,9 @@ public class LoadSaveGBG {
 
 	/**
 	 * Load multiple GBG agents from disk and update them, if necessary (older agents on disk might 
-	 * not yet have certain elements, which are then filled in from defaults)
+	 * not yet have certain elements, which are then filled in from defaults). Agents in binary container format
+	 * ({@link AgentBinaryIO#SUFFIX}) are loaded with read-only, memory-mapped LUTs (see
+	 * {@link #loadGBGAgentMapped(String)}), since the tournament system only plays them.
 	 * 
 	 * @return object to transfer the loaded agents and their filenames
 	 * @throws IOException
@@ -712,6 +782,7 @@ public class LoadSaveGBG {
 		JFileChooser fileChooser = new JFileChooser();
 		fileChooser.setMultiSelectionEnabled(true);
 		fileChooser.removeChoosableFileFilter(txtExt);
+		fileChooser.addChoosableFileFilter(tdAgentBinExt);
 		fileChooser.setFileFilter(tdAgentExt);
 		fileChooser.setCurrentDirectory(new File(strDir));
 		fileChooser.setAcceptAllFileFilterUsed(false);
@@ -729,40 +800,45 @@ public class LoadSaveGBG {
 				PlayAgent pa;
 				File file = files[i];
 
-				try {
-					filePath = file.getPath();
-					fis = new FileInputStream(filePath);
-				} catch (IOException e) {
-					if(arenaGame!=null)
-						arenaGame.setStatusMessage("[ERROR: Could not open file " + filePath + " !]");
-					throw e;
-				}
+				filePath = file.getPath();
+				if (filePath.toLowerCase().endsWith(AgentBinaryIO.SUFFIX)) {
+					// the tournament only plays the agents: keep their LUTs off-heap and read-only
+					pa = loadGBGAgentMapped(filePath);
+				} else {
+					try {
+						fis = new FileInputStream(filePath);
+					} catch (IOException e) {
+						if(arenaGame!=null)
+							arenaGame.setStatusMessage("[ERROR: Could not open file " + filePath + " !]");
+						throw e;
+					}
 
-				GZIPInputStream gs;
-				try {
-					gs = new GZIPInputStream(fis);
-				} catch (IOException e1) {
-					if(arenaGame!=null)
-						arenaGame.setStatusMessage("[ERROR: Could not create ZIP-InputStream for" + filePath + " !]");
-					throw e1;
-				}
+					GZIPInputStream gs;
+					try {
+						gs = new GZIPInputStream(fis);
+					} catch (IOException e1) {
+						if(arenaGame!=null)
+							arenaGame.setStatusMessage("[ERROR: Could not create ZIP-InputStream for" + filePath + " !]");
+						throw e1;
+					}
 
-				long fileLength = estimateGZIPLength(file);
-				final ProgressTrackingObjectInputStream ptis = new ProgressTrackingObjectInputStream(
-						gs, new agentIO.IOProgress(fileLength));
-				try {
-					ois = new ObjectInputStream(ptis);
-				} catch (IOException e1) {
-					ptis.close();
-					if(arenaGame!=null)
-						arenaGame.setStatusMessage("[ERROR: Could not create ObjectInputStream for" + filePath + " !]");
-					throw e1;
-				}
+					long fileLength = estimateGZIPLength(file);
+					final ProgressTrackingObjectInputStream ptis = new ProgressTrackingObjectInputStream(
+							gs, new agentIO.IOProgress(fileLength));
+					try {
+						ois = new ObjectInputStream(ptis);
+					} catch (IOException e1) {
+						ptis.close();
+						if(arenaGame!=null)
+							arenaGame.setStatusMessage("[ERROR: Could not create ObjectInputStream for" + filePath + " !]");
+						throw e1;
+					}
 
-				//final JDialog dlg = createProgressDialog(ptis, "Loading...");
+					//final JDialog dlg = createProgressDialog(ptis, "Loading...");
+
+					pa = transformObjectToPlayAgent(ois, fis, filePath);
+				}
 
-				pa = transformObjectToPlayAgent(ois, fis, filePath);
-				
 				//output[i][0] = pa;
 				Path p = Paths.get(filePath);
 				String fileNameSource = p.getFileName().toString();
@@ -796,9 +872,7 @@ public class LoadSaveGBG {
 			Object obj = ois.readObject();
 			if (obj instanceof PlayAgent) {
 				pa = (PlayAgent) obj;
-				pa.setAgentFile(filePath);
-				pa.instantiateAfterLoading();	// special treatment of agents after loading (if necessary)
-				// [instantiateAfterLoading replaces completely the long and complicated switch statement we had here before (!)]
+				prepareLoadedAgent(pa, filePath);
 			} else {
 //				disposeProgressDialog(dlg);
 				if(arenaGame!=null)
@@ -809,18 +883,6 @@ public class LoadSaveGBG {
 								+ filePath + "!]");
 				throw new ClassNotFoundException("ERROR: Unknown agent class");
 			}
-				
-			// Some older agents on disk might not have ParOther m_oPar.
-			// If this is the case, replace the null value with a default ParOther.
-			if (pa.getParOther() == null) {
-				((AgentBase) pa).setDefaultParOther();
-			}
-			if (pa.getParReplay() == null) {
-				((AgentBase) pa).setDefaultParReplay();
-			}
-			if (pa.getParWrapper() == null) {
-				((AgentBase) pa).setDefaultParWrapper(pa.getParOther());
-			}
 
 //			disposeProgressDialog(dlg);
 //			arenaGame.setProgress(null);
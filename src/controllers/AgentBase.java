@@ -2,6 +2,7 @@ package controllers;
 
 import java.io.Serial;
 import java.io.Serializable;
+import java.util.Random;
 
 import controllers.TD.ntuple2.TDNTuple3Agt;
 import games.Arena;
@@ -175,6 +176,32 @@ abstract public class AgentBase implements PlayAgent, Serializable {
 	@Override
 	public PlayAgent getWrappedPlayAgent() { return this; }
 
+	/**
+	 * Re-seed (in place) the random number generators of {@link #getRandomGenerators()}, the {@code i}th one with
+	 * {@code seed+i}. A wrapper re-seeds in addition its wrapped agent (with {@code seed+}number of its own
+	 * generators), so that a wrapped agent is reproducible as a whole.
+	 *
+	 * @param seed the new seed
+	 */
+	@Override
+	public void setRandomSeed(long seed) {
+		Random[] rands = getRandomGenerators();
+		for (int i=0; i<rands.length; i++)
+			if (rands[i]!=null) rands[i].setSeed(seed+i);
+		if (isWrapper() && getWrappedPlayAgent()!=null)
+			getWrappedPlayAgent().setRandomSeed(seed+rands.length);
+	}
+
+	/**
+	 * Agents drawing random numbers override this method, so that {@link #setRandomSeed(long)} reaches all their
+	 * generators.
+	 *
+	 * @return the random number generators of the agent (none in {@link AgentBase})
+	 */
+	protected Random[] getRandomGenerators() {
+		return new Random[0];
+	}
+
 	/**
 	 * @see #trainAgent(StateObservation)
 	 */
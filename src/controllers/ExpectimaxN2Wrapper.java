@@ -394,4 +394,9 @@ public class ExpectimaxN2Wrapper extends AgentBase implements PlayAgent, Seriali
 
 	}
 
-}
\ No newline at end of file
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
+}
@@ -8,6 +8,7 @@ import games.StateObsNondeterministic;
 import params.ParMaxN;
 import params.ParOther;
 import tools.ScoreTuple;
+import tools.TranspositionTable;
 import tools.Types;
 import tools.Types.ACTIONS;
 import tools.Types.ACTIONS_VT;
@@ -57,6 +58,8 @@ public class ExpectimaxNAgent extends AgentBase implements PlayAgent, Serializab
 	//	protected boolean m_rgs=true;  // use now AgentBase::m_oPar.getRewardIsGameScore()
 	private boolean m_useHashMap=true;	// new 2021-10-18
 	private final HashMap<String,ScoreTuple> hm;
+	private int m_ttBits=0;				// if > 0, use tt instead of hm
+	private transient TranspositionTable tt = null;
 	protected int countTerminal;		// # of terminal node visits in getNextAction2
 	protected int countMaxDepth;		// # of premature returns due to maxDepth in getNextAction2
 	private final boolean DBG_EWN = false;
@@ -91,6 +94,7 @@ public class ExpectimaxNAgent extends AgentBase implements PlayAgent, Serializab
 		m_depth = mpar.getMaxNDepth();
 		hm = new HashMap<>();
 		m_useHashMap = mpar.getMaxNUseHashmap();
+		m_ttBits = mpar.getMaxNTransTableBits();
 		setAgentState(AgentState.TRAINED);		// do again to set oPar's agent state to TRAINED
 	}
 	
@@ -117,6 +121,15 @@ public class ExpectimaxNAgent extends AgentBase implements PlayAgent, Serializab
 		//m_arena.m_xab.setOParFrom(n, this.getParOther() );  // now in super
 	}
 
+	/**
+	 * @return the transposition table, (re-)allocated if it does not fit to {@code so}'s number of players
+	 */
+	private TranspositionTable getTransTable(StateObservation so) {
+		if (tt==null || tt.getNumPlayers()!=so.getNumPlayers())
+			tt = new TranspositionTable(m_ttBits, so.getNumPlayers());
+		return tt;
+	}
+
 	private ScoreTuple retrieveFromHashMap(boolean m_useHashMap, String stringRep) {
 		ScoreTuple sc = null;
 		if (m_useHashMap) {
@@ -319,7 +332,17 @@ public class ExpectimaxNAgent extends AgentBase implements PlayAgent, Serializab
 				//System.out.print(NewSO);
 				//System.out.println("depth="+depth);
 
-				if (depth<this.m_depth) {
+				if (depth<this.m_depth && m_useHashMap && m_ttBits>0) {
+					long key = NewSO.getHashKey();
+					sc = getTransTable(NewSO).retrieve(key, m_depth-depth);
+					if (sc==null) {
+						// here is the recursion:
+						currScoreTuple = getEAScoreTuple(NewSO, silent,depth+1);
+						tt.store(key, m_depth-depth, currScoreTuple);
+					} else {
+						currScoreTuple = sc;
+					}
+				} else if (depth<this.m_depth) {
 					stringRep = NewSO.uniqueStringDescr();
 					sc = retrieveFromHashMap(m_useHashMap,stringRep);
 					if (sc==null) {
@@ -664,6 +687,11 @@ public class ExpectimaxNAgent extends AgentBase implements PlayAgent, Serializab
 		return "EA";
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 	public int getDepth() {
 		return m_depth;
 	}
@@ -719,7 +719,12 @@ public class MCAgentN extends AgentBase implements PlayAgent {
 				+ ", # agents:"+ m_mcPar.getNumAgents();
 		return cs;
     }
-    
+
+    @Override
+    protected Random[] getRandomGenerators() {
+        return new Random[]{random};
+    }
+
 } // class MCAgentN
 
 class ResultContainer {
@@ -15,8 +15,16 @@ import tools.ScoreTuple;
 import tools.Types;
 
 import java.io.Serializable;
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 /**
@@ -27,6 +35,11 @@ import java.util.Random;
  * 		<a href="http://gvgai.net/cont.php">http://gvgai.net/cont.php</a><br>
  * (with a bug fix concerning the number of available actions and  
  *  extensions for 1- and 2-player games)
+ * <p>
+ * If {@link ParMCTS#getNumThreads()} {@code > 1}, each move is searched with <b>root parallelization</b>: 
+ * {@link ParMCTS#getNumThreads()} independent trees (each with its own random generator) are searched in parallel, 
+ * each with {@link ParMCTS#getNumIter()} iterations. Then the children of their roots are merged, as set by 
+ * {@link ParMCTS#getMergeMode()}.
  * 
  * @author Wolfgang Konen, TH Koeln, 2016
  * 
@@ -41,6 +54,15 @@ public class MCTSAgentT extends AgentBase implements PlayAgent, Serializable
      */
     private SingleMCTSPlayer mctsPlayer;
 
+    /**
+     * the trees for root parallelization, {@code trees[0]} is {@link #mctsPlayer} (only constructed if 
+     * {@link ParMCTS#getNumThreads()} {@code > 1})
+     */
+    private transient SingleMCTSPlayer[] trees;
+    private transient ExecutorService executorService;
+    private transient Cleaner.Cleanable executorCleanup;
+    private static final Cleaner CLEANER = Cleaner.create();
+
 	/**
 	 * change the version ID for serialization only if a newer version is no longer 
 	 * compatible with an older one (older .agt.zip will become unreadable or you have
@@ -103,6 +125,7 @@ public class MCTSAgentT extends AgentBase implements PlayAgent, Serializable
         m_Timer = new ElapsedCpuTimer(TimerType.CPU_TIME);
         m_Timer.setMaxTimeMillis(40);
         mctsPlayer.instantiateAfterLoading();
+        trees = null;
         return true;
 	}
 	
@@ -132,19 +155,142 @@ public class MCTSAgentT extends AgentBase implements PlayAgent, Serializable
      */
     public Types.ACTIONS act(StateObservation stateObs, ElapsedCpuTimer elapsedTimer
     						, double[] vtable) {
+    	return act(stateObs, elapsedTimer, vtable, false);
+    }
+
+    /**
+     * @param reuse		if true, re-use the subtree of the last move as far as possible (see 
+     * 					{@link SingleMCTSPlayer#initReuse(StateObservation)}) and keep the subtree of the 
+     * 					selected action for the next call
+     */
+    private Types.ACTIONS act(StateObservation stateObs, ElapsedCpuTimer elapsedTimer
+    						, double[] vtable, boolean reuse) {
+    	if (getParMCTS().getNumThreads() > 1)
+    		return actParallel(stateObs, elapsedTimer, vtable, reuse);
 
     	//Set the available actions for stateObs.
     	mctsPlayer.initActions(stateObs);				// /WK/ needed to get always the right 'actions'
         //Set the state observation object as the new root of the tree.
-        mctsPlayer.init(stateObs);
+        if (reuse) 
+        	mctsPlayer.initReuse(stateObs);
+        else
+        	mctsPlayer.init(stateObs);
 
         //Determine the action using MCTS...
         int action = mctsPlayer.run(elapsedTimer, vtable);
+        if (reuse)
+        	mctsPlayer.setLastSelectedNode(mctsPlayer.m_root.children[action]);
 
         //... and return it.
         return mctsPlayer.actions[action];
     }
 
+    /**
+     * Root parallelization: like {@link #act(StateObservation, ElapsedCpuTimer, double[], boolean)}, but search 
+     * {@link ParMCTS#getNumThreads()} trees in parallel and merge the children of their roots into the root of 
+     * {@link #mctsPlayer}:
+     * <ul>
+     * <li> [sum]: add the visit counts and values, then take {@link SingleTreeNode#bestAction()}
+     * <li> [vote]: take the action which is {@link SingleTreeNode#bestAction()} in most trees (ties are broken by 
+     * 		the summed values, see {@link SingleTreeNode#mostVotedAction(int[])}) 
+     * </ul>
+     * {@code vtable} gets the summed values in both cases.
+     * <p>
+     * Tree 0 is searched by the calling thread. If it is interrupted while waiting for the other trees, the result of
+     * tree 0 alone is taken (and the interrupt flag is set again).
+     */
+    private Types.ACTIONS actParallel(StateObservation stateObs, ElapsedCpuTimer elapsedTimer
+    						, double[] vtable, boolean reuse) {
+    	int numThreads = getParMCTS().getNumThreads();
+    	if (trees == null || trees.length != numThreads) {
+    		trees = new SingleMCTSPlayer[numThreads];
+    		trees[0] = mctsPlayer;
+    		// seeded from mctsPlayer's generator, so that the trees are reproducible after setRandomSeed:
+    		for (int k = 1; k < numThreads; k++)
+    			trees[k] = new SingleMCTSPlayer(this,new Random(mctsPlayer.m_rnd.nextLong()),getParMCTS());
+    	}
+    	long maxTime = Math.max(1, elapsedTimer.remainingTimeMillis());
+
+    	// each tree is searched on its own copy of stateObs, with its own (thread CPU time) timer:
+    	ArrayList<Callable<Integer>> callables = new ArrayList<>();
+    	for (int k = 0; k < numThreads; k++) {
+    		SingleMCTSPlayer player = trees[k];
+    		StateObservation so = (k == 0) ? stateObs : stateObs.copy();
+    		callables.add(() -> {
+    			player.initActions(so);
+    			if (reuse)
+    				player.initReuse(so);
+    			else
+    				player.init(so);
+    			ElapsedCpuTimer timer = new ElapsedCpuTimer(elapsedTimer.type);
+    			timer.setMaxTimeMillis(maxTime);
+    			return player.run(timer, new double[so.getNumAvailableActions()+1]);
+    		});
+    	}
+
+    	if (executorService==null) {
+    		executorService = Executors.newWorkStealingPool();
+    		// (the cleanup action must not reference this agent, otherwise it would never become unreachable)
+    		executorCleanup = CLEANER.register(this, executorService::shutdown);
+    	}
+    	ArrayList<Future<Integer>> futures = new ArrayList<>();
+    	for (int k = 1; k < numThreads; k++)
+    		futures.add(executorService.submit(callables.get(k)));
+    	int[] votes = new int[stateObs.getNumAvailableActions()];
+    	SingleMCTSPlayer[] merged = trees;
+    	try {
+    		votes[callables.get(0).call()]++;
+    		for (Future<Integer> future : futures)
+    			votes[future.get()]++;
+    	} catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		for (Future<Integer> future : futures)
+    			future.cancel(true);
+    		// the other trees may still be searched: take tree 0 only and do not use them again
+    		merged = new SingleMCTSPlayer[]{mctsPlayer};
+    		Arrays.fill(votes, 0);
+    		votes[mctsPlayer.m_root.bestAction()]++;
+    		trees = null;
+    	} catch (ExecutionException e) {
+    		throw new IllegalStateException(e.getCause());
+    	} catch (Exception e) {
+    		throw new IllegalStateException(e);
+    	}
+
+    	SingleTreeNode root = mctsPlayer.m_root;
+    	for (int k = 1; k < merged.length; k++)
+    		root.mergeRoot(merged[k].m_root);
+    	int action = (getParMCTS().getMergeMode() == 1) ? root.mostVotedAction(votes) : root.bestAction();
+    	root.fillVTable(vtable);
+        if (reuse)
+        	for (SingleMCTSPlayer player : merged)
+        		player.setLastSelectedNode(player.m_root.children[action]);
+
+        return mctsPlayer.actions[action];
+    }
+
+    /**
+     * Shut down the thread pool of the root parallelization. It is created again with the next parallel search. (If
+     * the agent is discarded without calling this method, the pool is shut down when the agent is garbage collected.)
+     */
+    public void shutdownPool() {
+    	if (executorCleanup != null)
+    		executorCleanup.clean();		// shuts executorService down (only once)
+    	executorCleanup = null;
+    	executorService = null;
+    }
+
+    /**
+     * When starting a new episode, the tree of the last move must not be re-used
+     */
+    @Override
+    public void resetAgent() {
+    	mctsPlayer.setLastSelectedNode(null);
+    	if (trees != null)
+    		for (SingleMCTSPlayer player : trees)
+    			player.setLastSelectedNode(null);
+    }
+
 //	/**
 //	 * Get the best next action and return it
 //	 * @param so			current game state (not changed on return)
@@ -235,7 +381,7 @@ public class MCTSAgentT extends AgentBase implements PlayAgent, Serializable
 		m_Timer.reset();
 		
 		// Ask MCTS for the best action ...
-		actBest = act(so,m_Timer,VTable);
+		actBest = act(so,m_Timer,VTable,getParMCTS().getReuseTree());
 		
 		double bestScore = VTable[actions.size()];
 		System.arraycopy(VTable, 0, vtable, 0, vtable.length);
@@ -325,7 +471,8 @@ public class MCTSAgentT extends AgentBase implements PlayAgent, Serializable
 		return cs + ": iterations:" + getParMCTS().getNumIter()
 				+ ", rollout depth:" + getParMCTS().getRolloutDepth()
 				+ ", K_UCT:"+ getParMCTS().getK_UCT()
-				+ ", tree depth:" + getParMCTS().getTreeDepth();
+				+ ", tree depth:" + getParMCTS().getTreeDepth()
+				+ ((getParMCTS().getNumThreads() > 1) ? ", threads:" + getParMCTS().getNumThreads() : "");
 	}
 
 	public ParMCTS getParMCTS() {
@@ -339,9 +486,24 @@ public class MCTSAgentT extends AgentBase implements PlayAgent, Serializable
     public int getNIterations() {
         return mctsPlayer.getNUM_ITERS();
     }
+
+    /**
+     * @return the visits of the root node after the last search (more than {@link #getNIterations()}, if a 
+     * 		subtree of the previous move was re-used)
+     */
+    public int getNRootVisits() {
+        return mctsPlayer.m_root.getNVisits();
+    }
 	public double getK() {
 		return mctsPlayer.getK();
 	}
 
-}
+	@Override
+	protected Random[] getRandomGenerators() {
+		if (trees == null) return new Random[]{mctsPlayer.m_rnd};
+		Random[] rands = new Random[trees.length];
+		for (int k = 0; k < trees.length; k++) rands[k] = trees[k].m_rnd;		// trees[0] is mctsPlayer
+		return rands;
+	}
 
+}
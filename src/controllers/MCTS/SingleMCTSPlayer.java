@@ -1,5 +1,6 @@
 package controllers.MCTS;
 
+import games.ObserverBase;
 import games.StateObservation;
 import params.ParMCTS;
 import params.ParOther;
@@ -32,6 +33,12 @@ public class SingleMCTSPlayer implements Serializable
 
     public transient Types.ACTIONS[] actions; 			
 
+    /**
+     * the child of the root which was selected in the last call of {@link MCTSAgentT#getNextAction2}. If 
+     * {@link ParMCTS#getReuseTree()} is true, its subtree is re-used in the next call (see {@link #initReuse(StateObservation)})
+     */
+    private transient SingleTreeNode lastSelectedNode = null;
+
     private int NUM_ACTIONS;
 // --- this is now in ParMCTS: ---
 //    private int ROLLOUT_DEPTH = DEFAULT_ROLLOUT_DEPTH;
@@ -76,6 +83,7 @@ public class SingleMCTSPlayer implements Serializable
 	public boolean instantiateAfterLoading() {
         m_rnd = new Random();
         m_root = new SingleTreeNode(m_rnd,this);
+        lastSelectedNode = null;
         return true;
 	}
 	
@@ -126,6 +134,50 @@ public class SingleMCTSPlayer implements Serializable
     														 // allows fewer actions than MCTSAgentT.NUM_ACTIONS 
     }
 
+    /**
+     * Like {@link #init(StateObservation)}, but re-use the subtree of {@link #lastSelectedNode} if possible: The 
+     * moves made since then (by the opponents) are taken from {@link ObserverBase#getLastMoves()} and followed 
+     * down from {@link #lastSelectedNode}. If the node reached is in the tree, it becomes the new root 
+     * with all its visit counts and values (see {@link SingleTreeNode#makeRoot(int)}). Otherwise, or if the game 
+     * is not deterministic, a new tree is built.
+     * 
+     * @param so current state of the game.
+     * @return true, if a subtree of the last tree is re-used
+     */
+    public boolean initReuse(StateObservation so) {
+    	SingleTreeNode node = findReusableNode(so);
+    	if (node == null) {
+    		init(so);
+    		return false;
+    	}
+    	node.makeRoot(m_parMCTS.getMaxNodes());
+    	m_root = node;
+    	return true;
+    }
+
+    private SingleTreeNode findReusableNode(StateObservation so) {
+    	if (lastSelectedNode == null || !so.isDeterministicGame() || !(so instanceof ObserverBase))
+    		return null;
+    	ArrayList<Integer> pastActions = ((ObserverBase) so).getLastMoves();
+    	// as in MCTSWrapperAgent: sz is the size of lastMoves at the time lastSelectedNode was selected
+    	int sz = ((ObserverBase) lastSelectedNode.m_state).getLastMoves().size();
+    	if (sz == 0 || sz > pastActions.size() || pastActions.get(sz-1) != lastSelectedNode.m_act.toInt())
+    		return null;		// e.g. a new episode
+    	SingleTreeNode node = lastSelectedNode;
+    	for (int i = sz; i < pastActions.size() && node != null; i++)
+    		node = node.getChild(pastActions.get(i));
+    	if (node == null || node.m_state.isGameOver() || !node.m_state.stringDescr().equals(so.stringDescr()))
+    		return null;
+    	return node;
+    }
+
+    /**
+     * @param node the child of the root that was selected (or null, if nothing should be re-used)
+     */
+    public void setLastSelectedNode(SingleTreeNode node) {
+    	this.lastSelectedNode = node;
+    }
+
     /**
      * Runs MCTS to decide the action to take. It does not reset the tree.
      * @param elapsedTimer Timer when the action returned is due.
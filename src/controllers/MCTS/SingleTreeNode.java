@@ -7,6 +7,7 @@ import tools.Types;
 
 import java.io.Serializable;
 import java.text.DecimalFormat;
+import java.util.ArrayDeque;
 import java.util.Random;
 
 //import controllers.MCTS0.SingleTreeNode0;
@@ -33,7 +34,11 @@ public class SingleTreeNode implements Serializable
 	 */
 	public double totValue;
 	private int nVisits=0;
-	public static Random m_rnd = null;
+	/**
+	 * the random generator of the tree (of its {@link SingleMCTSPlayer}). Not static, since several trees may be
+	 * searched in parallel (see {@link params.ParMCTS#getNumThreads()})
+	 */
+	private final transient Random m_rnd;
 	private int m_depth;
 //	private static double[] lastBounds = new double[] { 0, 1 };
 //	private static double[] curBounds = new double[] { 0, 1 };
@@ -145,6 +150,7 @@ public class SingleTreeNode implements Serializable
 		double acumTimeTaken = 0;
 		long remaining = elapsedTimer.remainingTimeMillis();
 		int numIters = 0;
+		int reusedVisits = this.nVisits;	// > 0, if the tree of the last move is re-used
 
 		int remainingLimit = 5;
 		while (numIters < m_player.getNUM_ITERS()) { // /WK/ fixed number of
@@ -188,32 +194,11 @@ public class SingleTreeNode implements Serializable
 			// " + acumTimeTaken + " (" + remaining + ")");
 		}
 
-		// fill VTable
-		double bestValue = -Double.MAX_VALUE;
-		double v;
-		double deltaGS = (m_state.getMaxGameScore()-m_state.getMinGameScore());
-		double minGS = m_state.getMinGameScore();
-		int K = m_state.getNumAvailableActions();
-		for (int k = 0; k < K; k++) {
-			for (int i = 0; i < children.length; i++) {
-				if (children[i]!=null) {	// needed for safety (RubiksCube & default start state)
-					if (children[i].m_act == m_state.getAction(k)) {
-						v = children[i].totValue / children[i].nVisits;
-						if (m_player.getNormalize()) {
-							VTable[k] = v*deltaGS + minGS;		// map back to interval [minGS,maxGS]
-						} else {
-							VTable[k] = v;
-						}
-						if (VTable[k] > bestValue) bestValue = VTable[k];
-					}
-				}
-			}
-		}
-		VTable[K] = bestValue;
+		fillVTable(VTable);
 
 		// /WK/ here follow some diagnostic checks (not required for normal operation)
 		
-		assert this.nVisits == numIters : "mroot's visits do not match numIters!";
+		assert this.nVisits == reusedVisits + numIters : "mroot's visits do not match numIters!";
 		this.printChildInfo(0, true);
 
 		/*
@@ -311,6 +296,36 @@ public class SingleTreeNode implements Serializable
 		return val/visits;
 	}
 
+	/**
+	 * Fill {@code VTable} with the values of the children of {@code this}, the root node: {@code U(i)} (see 
+	 * {@link #mctsSearch(ElapsedCpuTimer, double[])}) in the first K entries and their maximum in {@code VTable[K]}.
+	 * 
+	 * @param VTable	an array of length K+1, where K is the number of available moves for the root state
+	 */
+	public void fillVTable(double[] VTable) {
+		double bestValue = -Double.MAX_VALUE;
+		double v;
+		double deltaGS = (m_state.getMaxGameScore()-m_state.getMinGameScore());
+		double minGS = m_state.getMinGameScore();
+		int K = m_state.getNumAvailableActions();
+		for (int k = 0; k < K; k++) {
+			for (int i = 0; i < children.length; i++) {
+				if (children[i]!=null) {	// needed for safety (RubiksCube & default start state)
+					if (children[i].m_act == m_state.getAction(k)) {
+						v = children[i].totValue / children[i].nVisits;
+						if (m_player.getNormalize()) {
+							VTable[k] = v*deltaGS + minGS;		// map back to interval [minGS,maxGS]
+						} else {
+							VTable[k] = v;
+						}
+						if (VTable[k] > bestValue) bestValue = VTable[k];
+					}
+				}
+			}
+		}
+		VTable[K] = bestValue;
+	}
+
 	public SingleTreeNode treePolicy() {
 
 		SingleTreeNode cur = this;
@@ -521,6 +536,11 @@ public class SingleTreeNode implements Serializable
 	/**
 	 * Play a rollout from {@code this.m_state}. This rollout consists of random actions. 
 	 * <p>
+	 * If the game supports {@link StateObservation#undo(int)}, the rollout is played on {@code this.m_state} itself 
+	 * and its actions are taken back afterwards, so that no copy is needed. (A tree is searched by one thread only,
+	 * thus the leaf state is the scratch state of this thread. The root state belongs to the caller and is always 
+	 * copied.)
+	 * <p>
 	 * This method is valid for N-player games with arbitrary N.
 	 * 
 	 * @return the value vector (game reward vector) of the rollout, i. e.
@@ -528,7 +548,8 @@ public class SingleTreeNode implements Serializable
 	 */
 	public double[] rollOut()
 	{
-		StateObservation rollerState = m_state.copy();
+		boolean undo = (parent != null && m_state.canUndo());
+		StateObservation rollerState = undo ? m_state : m_state.copy();
 		int thisDepth = this.m_depth;
 
 		while (!finishRollout(rollerState, thisDepth)) {
@@ -546,6 +567,8 @@ public class SingleTreeNode implements Serializable
 		if (rollerState.isGameOver())
 			m_player.nRolloutFinished++;
 		double[] delta = value(rollerState);
+		if (undo)
+			rollerState.undo(thisDepth - this.m_depth);
 		// // /WK/ not really clear what the following normalizations are for.
 		// // Is it part of MCTS or part of the special GVGP implementation?
 		// if(delta < curBounds[0]) curBounds[0] = delta;
@@ -916,6 +939,112 @@ public class SingleTreeNode implements Serializable
 		return selected;
 	}
 
+	/**
+	 * Root parallelization: add the visit counts and total values of the children of {@code other}, the root of an
+	 * independent tree for the same state, to the children of {@code this}, the root of the first tree. Afterwards 
+	 * {@link #bestAction()}, {@link #mostVisitedAction()} and {@link #fillVTable(double[])} work on the merged 
+	 * statistics. A child which only {@code other} has expanded is adopted as a leaf with its statistics (not with 
+	 * its subtree, which belongs to the other tree and may be searched again by it, see tree re-use).
+	 * 
+	 * @param other		the root of another tree (the children have the same order, since the states are equal)
+	 */
+	public void mergeRoot(SingleTreeNode other) {
+		assert other.children.length == children.length : "The roots do not have the same state!";
+		for (int i = 0; i < children.length; i++) {
+			SingleTreeNode oc = other.children[i];
+			if (oc == null) continue;
+			if (children[i] == null)
+				children[i] = new SingleTreeNode(oc.m_state.copy(), oc.m_act, this, this.m_rnd, this.m_player);
+			children[i].nVisits += oc.nVisits;
+			children[i].totValue += oc.totValue;
+			nVisits += oc.nVisits;
+		}
+	}
+
+	/**
+	 * Root parallelization with majority vote.
+	 * 
+	 * @param votes		{@code votes[i]} is the number of trees whose {@link #bestAction()} is {@code i}
+	 * @return the index {@code i} of the child of {@code this} with the most votes. Ties are broken by the value
+	 * 			{@code U(i)} of {@link #bestAction()}.
+	 */
+	public int mostVotedAction(int[] votes) {
+		int selected = -1;
+		double bestValue = -Double.MAX_VALUE;
+
+		for (int i = 0; i < children.length; i++) {
+			if (children[i] != null) {
+				double value = children[i].totValue / children[i].nVisits;
+				if (selected == -1 || votes[i] > votes[selected] 
+						|| (votes[i] == votes[selected] && value > bestValue)) {
+					bestValue = value;
+					selected = i;
+				}
+			}
+		}
+
+		assert (selected != -1) : "Selection in mostVotedAction() did not work!";
+
+		return selected;
+	}
+
+	/**
+	 * @param action	the action key ({@link Types.ACTIONS#toInt()})
+	 * @return the child of {@code this} reached by {@code action}, or {@code null} if it is not (yet) expanded
+	 */
+	public SingleTreeNode getChild(int action) {
+		for (SingleTreeNode c : children)
+			if (c != null && c.m_act.toInt() == action)
+				return c;
+		return null;
+	}
+
+	/**
+	 * Make {@code this} the new root of the tree (tree re-use): detach it from its parent (so that the rest of 
+	 * the old tree becomes garbage), set the depths of its subtree relative to {@code this} and drop its 'birth' 
+	 * visit (the visits of the root are the sum of its children's visits, see {@link #printChildInfo(int, boolean)}).
+	 * {@code totValue} is reset to 0 as for a new root: {@link #backUp(SingleTreeNode, double[])} does not update 
+	 * it for the root, so the old value (from the perspective of the former parent) would be stale.
+	 * <p>
+	 * If the subtree has more than {@code maxNodes} nodes, the deepest branches are pruned: the nodes are kept in 
+	 * breadth-first order, the children of {@code this} are always kept. A node whose children are pruned will 
+	 * expand them again.
+	 * 
+	 * @param maxNodes	the maximum number of nodes to keep (&le; 0: no limit)
+	 * @return the number of nodes kept
+	 */
+	public int makeRoot(int maxNodes) {
+		parent = null;
+		m_depth = 0;
+		nVisits = 0;
+		totValue = 0.0;
+		for (SingleTreeNode c : children)
+			if (c != null) nVisits += c.nVisits;
+
+		int count = 1;
+		ArrayDeque<SingleTreeNode> queue = new ArrayDeque<>();
+		queue.add(this);
+		while (!queue.isEmpty()) {
+			SingleTreeNode n = queue.poll();
+			for (int i = 0; i < n.children.length; i++) {
+				SingleTreeNode c = n.children[i];
+				if (c == null) continue;
+				if (maxNodes > 0 && count >= maxNodes && n != this) {
+					n.children[i] = null;		// prune the subtree of c
+					continue;
+				}
+				c.m_depth = n.m_depth + 1;
+				count++;
+				queue.add(c);
+			}
+		}
+		return count;
+	}
+
+	public int getNVisits() {
+		return nVisits;
+	}
+
 	public boolean notFullyExpanded() {
 		for (SingleTreeNode tn : children) {
 			if (tn == null) {
@@ -412,6 +412,10 @@ public class MCTSEChanceNode
     /**
      * Starting from this leaf node a game with random actions will be played until the game 
      * is over or the maximum rollout depth is reached.
+     * <p>
+     * If the game supports {@link StateObservation#undo(int)}, the rollout is played on {@code so} itself and its 
+     * actions are taken back afterwards (as in {@link controllers.MCTS.SingleTreeNode#rollOut()}, the root state
+     * is always copied).
      *
      * @return 	a vector of length N, where the {@code i}th element holds q(reward[{@code i}]), the reward
      * 			for the {@code i}th player in state {@code so} after the rollout is finished.<br>
@@ -419,7 +423,9 @@ public class MCTSEChanceNode
      */
     public ScoreTuple rollOut() {
         boolean stopConditionMet;
-        StateObservation rollerState = so.copy();
+        boolean undo = (parentNode != null && so.canUndo());
+        StateObservation rollerState = undo ? so : so.copy();
+        int nAdvance = 0;
         int maxDepth = this.m_player.getROLLOUT_DEPTH();
 
         //for(int i = this.depth; i < maxDepth; i++) {  // this alternative was implemented before 03/2021, but we think
@@ -436,10 +442,12 @@ public class MCTSEChanceNode
                 if (rollerState.getNumAvailableActions() > 0) {
                     int action = ThreadLocalRandom.current().nextInt(rollerState.getNumAvailableActions());
                     rollerState.advance(rollerState.getAction(action), null);
+                    nAdvance++;
                 }
                 else {
                     // If the current player has no available action: we have a pass situation
                     // (like in Othello): We should pass over to the next player and just continue (!)
+                    assert !undo : "a pass cannot be taken back with undo()";
                     rollerState.passToNextPlayer();
                 }
                 // --- only for debug ---
@@ -457,7 +465,10 @@ public class MCTSEChanceNode
         }
 
 //        return rollerState.getReward(so,m_player.rgs);
-        return valueFnc(rollerState,so);  			// NEW version: N-player tuple
+        ScoreTuple tup = valueFnc(rollerState,so);  	// NEW version: N-player tuple
+        if (undo)
+            rollerState.undo(nAdvance);
+        return tup;
     }
 
     /**
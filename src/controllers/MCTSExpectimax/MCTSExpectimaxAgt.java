@@ -248,4 +248,10 @@ public class MCTSExpectimaxAgt extends AgentBase implements PlayAgent
 		return player.getParMCTSE();
 	}
 	
+
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{player.random};
+	}
+
 }
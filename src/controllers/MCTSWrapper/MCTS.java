@@ -1,7 +1,11 @@
 package controllers.MCTSWrapper;
 
+import controllers.MCTSWrapper.passStates.GameStateIncludingPass;
 import controllers.MCTSWrapper.stateApproximation.Approximator;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+
 /***
  * A class that encapsulates the algorithm for a monte carlo tree search for 2-player games.
  * The games must have separate states for situations where a player has to pass.
@@ -67,24 +71,170 @@ public final class MCTS {
         // Next step is to select a child node based on the PUCT algorithm.
         // This child node will be expanded in the next recursive call of this method.
 
-        final var selected = node.selectChild(c_puct); // Returns a tuple containing the selected
-                                                       // node and the action that leads to it.
-        final var selectedAction = selected.element1;
-        final var selectedNode = selected.element2;
+        final var selectedSlot = node.selectSlot(c_puct);  // Returns the slot of the action selected by PUCT.
+        final var selectedNode = node.getOrCreateChild(selectedSlot);
 
         final var childValue = search(selectedNode, depth+1); // Recursive call of the tree search for the child node
 
-        // Update the nodes mean value (Q) with the childValue.
-        final var visitCount = node.getN(selectedAction);
-        final var meanValue = node.getQ(selectedAction);
-        node.meanValues.put(
-            selectedAction.getId(),
-            (visitCount * meanValue + childValue) / (visitCount + 1)
-        );
-
-        // Increment the nodes visit count (N).
-        node.incrementVisitCount(selectedAction);
+        // Update the nodes mean value (Q) with the childValue and increment the nodes visit count (N).
+        node.update(selectedSlot, childValue);
 
         return sign * childValue;                   // /WK/ sign
     }
+
+    /**
+     * Thread-safe variant of {@link #search(MCTSNode, int)} for tree-parallel MCTS: several threads may call it
+     * concurrently on the same tree.
+     * <p>
+     * Each node is locked only while a thread selects a child (and adds a virtual loss to it), while it expands the
+     * node, or while it updates the node's statistics. A node reached by several threads before it is expanded is
+     * evaluated only once, the other threads wait for the evaluation and continue the descent afterwards.
+     * <p>
+     * The {@link Approximator} is called concurrently from different threads, it has to be thread-safe for prediction.
+     *
+     * @param node Node where the tree search starts.
+     * @return The evaluation of a reached leaf node's game state (negated on each recursion level for 2-player games).
+     */
+    public double searchParallel(final MCTSNode node, final int depth) {
+        final int sign = node.gameState.getNumPlayers()==1 ? (+1) : (-1);
+
+        if (node.gameState.isFinalGameState())
+            return sign * node.gameState.getFinalGameScore();
+
+        if (depth > this.maxDepth) {
+            return -1;
+        }
+        // just info (not synchronized, so it may miss an update from time to time)
+        if (depth > largestDepth) largestDepth=depth;
+
+        synchronized (node) {
+            if (!node.isExpanded()) {
+                final var valueAndMoveProbabilities = node.gameState.getApproximatedValueAndMoveProbabilities(approximator);
+                node.setMoveProbabilities(valueAndMoveProbabilities.element2);
+                node.setExpanded();
+                return sign * valueAndMoveProbabilities.element1;
+            }
+        }
+
+        final var selectedSlot = node.selectSlotWithVirtualLoss(c_puct);
+        final var selectedNode = node.getChildAt(selectedSlot);
+
+        final var childValue = searchParallel(selectedNode, depth+1);
+
+        node.revertVirtualLossAndUpdate(selectedSlot, childValue);
+
+        return sign * childValue;
+    }
+
+    /**
+     * Batched Monte Carlo tree search: perform {@code k} descents from {@code root}, collect the non-expanded leaves
+     * they reach and evaluate these leaves together with one call of {@link Approximator#predictBatch(java.util.List)}.
+     * Then all {@code k} paths are backed up.
+     * <p>
+     * During the collection phase each descended edge carries a virtual loss (see
+     * {@link MCTSNode#selectSlotWithVirtualLoss(double)}), so that the descents spread over different leaves. If a leaf
+     * is reached by several descents, it is evaluated only once and each of its paths is backed up with its value.
+     * Paths ending in a final state (or exceeding {@code maxDepth}) are backed up immediately.
+     * <p>
+     * The result after {@code k} descents is in general not the same as after {@code k} calls of
+     * {@link #search(MCTSNode, int)}, because the later descents of a batch do not yet see the values of the earlier
+     * ones. The method is thread-safe in the same sense as {@link #searchParallel(MCTSNode, int)}.
+     *
+     * @param root Node where the tree search starts.
+     * @param k    number of descents (iterations) in this batch
+     */
+    public void searchBatch(final MCTSNode root, final int k) {
+        final ArrayList<SearchPath> pendingPaths = new ArrayList<>(k);
+        final ArrayList<MCTSNode> leaves = new ArrayList<>(k);
+
+        for (int i = 0; i < k; i++) {
+            final SearchPath path = new SearchPath();
+            MCTSNode node = root;
+            int depth = 0;
+            while (true) {
+                final int sign = node.gameState.getNumPlayers()==1 ? (+1) : (-1);
+                if (node.gameState.isFinalGameState()) {
+                    path.backup(sign * node.gameState.getFinalGameScore());
+                    break;
+                }
+                if (depth > this.maxDepth) {
+                    path.backup(-1);
+                    break;
+                }
+                if (depth > largestDepth) largestDepth=depth;
+
+                synchronized (node) {
+                    if (!node.isExpanded()) {
+                        int leafIndex = leaves.indexOf(node);
+                        if (leafIndex == -1) {
+                            leafIndex = leaves.size();
+                            leaves.add(node);
+                        }
+                        path.leafIndex = leafIndex;
+                        pendingPaths.add(path);
+                        break;
+                    }
+                }
+
+                final int slot = node.selectSlotWithVirtualLoss(c_puct);
+                path.add(node, slot);
+                node = node.getChildAt(slot);
+                depth++;
+            }
+        }
+
+        if (leaves.isEmpty()) return;
+
+        final ArrayList<GameStateIncludingPass> leafStates = new ArrayList<>(leaves.size());
+        for (final var leaf : leaves) leafStates.add(leaf.gameState);
+        final var valuesAndMoveProbabilities =
+                GameStateIncludingPass.getApproximatedValuesAndMoveProbabilities(leafStates, approximator);
+
+        final double[] leafValues = new double[leaves.size()];
+        for (int j = 0; j < leaves.size(); j++) {
+            final MCTSNode leaf = leaves.get(j);
+            final int sign = leaf.gameState.getNumPlayers()==1 ? (+1) : (-1);
+            synchronized (leaf) {
+                if (!leaf.isExpanded()) {       // another thread might have expanded it in the meantime
+                    leaf.setMoveProbabilities(valuesAndMoveProbabilities.get(j).element2);
+                    leaf.setExpanded();
+                }
+            }
+            leafValues[j] = sign * valuesAndMoveProbabilities.get(j).element1;
+        }
+
+        for (final var path : pendingPaths)
+            path.backup(leafValues[path.leafIndex]);
+    }
+
+    /**
+     * The nodes and action slots visited by one descent of {@link #searchBatch(MCTSNode, int)}.
+     */
+    private static final class SearchPath {
+        private MCTSNode[] nodes = new MCTSNode[16];
+        private int[] slots = new int[16];
+        private int length = 0;
+        int leafIndex = -1;
+
+        void add(final MCTSNode node, final int slot) {
+            if (length == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * length);
+                slots = Arrays.copyOf(slots, 2 * length);
+            }
+            nodes[length] = node;
+            slots[length] = slot;
+            length++;
+        }
+
+        /**
+         * Back up the value of the leaf (as seen from the leaf's parent) along the path, removing the virtual losses.
+         * As in {@link MCTS#search(MCTSNode, int)}, the value is negated on each level for 2-player games.
+         */
+        void backup(double childValue) {
+            for (int i = length - 1; i >= 0; i--) {
+                nodes[i].revertVirtualLossAndUpdate(slots[i], childValue);
+                if (nodes[i].gameState.getNumPlayers() != 1) childValue = -childValue;
+            }
+        }
+    }
 }
@@ -5,13 +5,24 @@ import controllers.MCTSWrapper.passStates.GameStateIncludingPass;
 import controllers.MCTSWrapper.utils.Tuple;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Node of a monte carlo tree search.
  * This node is implemented as a linked list and thus also represents a search tree at the same time.
+ * <p>
+ * The node statistics (child nodes, move probabilities P, mean values Q and visit counts N) are stored in dense
+ * primitive arrays indexed by the <b>action slot</b>, i.e. the position of an action in
+ * {@link GameStateIncludingPass#getAvailableActionsIncludingPassActions()}. This avoids the boxing and hashing costs of
+ * the former {@code HashMap<Integer,...>} representation, and {@link #selectSlot(double)} (the PUCT loop) is
+ * allocation-free. The arrays are created lazily on first access, so that leaf nodes which are never expanded
+ * (e.g. final states) do not pay for them.
+ * <p>
+ * Methods taking an {@code actionId} (the id of an {@link ApplicableAction}) map it to its slot by a linear scan over
+ * the available actions. They are meant for the (rare) calls from {@link MCTSWrapperAgent}, not for the search loop.
+ * <p>
+ * For the parallel search {@link MCTS#searchParallel(MCTSNode, int)} the node offers the synchronized methods
+ * {@link #selectSlotWithVirtualLoss(double)}, {@link #getChildAt(int)} and {@link #revertVirtualLossAndUpdate(int, double)}.
+ * Each node is its own lock, so that threads working in different parts of the tree do not block each other.
  */
 public final class MCTSNode {
     /**
@@ -21,20 +32,38 @@ public final class MCTSNode {
      */
     public final GameStateIncludingPass gameState;
 
-    public final Map<Integer, MCTSNode> childNodes;
-    public final Map<Integer, Double> moveProbabilities;
-    public final Map<Integer, Double> meanValues;
-    public final Map<Integer, Integer> visitCounts;
+    private ApplicableAction[] actions;
+    private MCTSNode[] childNodes;
+    private double[] moveProbabilities;
+    private double[] meanValues;
+    private int[] visitCounts;
+    private int sumVisitCounts;     // sum of all visitCounts[] = how often this node has been visited
+    private int[] virtualLosses;    // only allocated in parallel search
+    private int sumVirtualLosses;   // sum of all virtualLosses[] = number of threads currently searching below this node
+
+    /**
+     * The value assumed for each pending (virtual) visit in parallel search. It makes a path that is currently
+     * searched by one thread look worse for the other threads, so that they spread out over the tree.
+     */
+    static final double VIRTUAL_LOSS = -1.0;
 
     private boolean expanded;
 
     public MCTSNode(final GameStateIncludingPass gameState) {
         this.gameState = gameState;
+    }
 
-        childNodes = new HashMap<>();
-        moveProbabilities = new HashMap<>();
-        meanValues = new HashMap<>();
-        visitCounts = new HashMap<>();
+    /**
+     * Allocate the statistics arrays, sized by the number of available actions (including pass actions).
+     */
+    private void ensureArrays() {
+        if (actions == null) {
+            actions = gameState.getAvailableActionsIncludingPassActions();
+            childNodes = new MCTSNode[actions.length];
+            moveProbabilities = new double[actions.length];
+            meanValues = new double[actions.length];
+            visitCounts = new int[actions.length];
+        }
     }
 
     public void setExpanded() {
@@ -52,137 +81,207 @@ public final class MCTSNode {
      * @throws IllegalArgumentException If the moveProps array's size doesn't equal the count of available actions.
      */
     public void setMoveProbabilities(final double[] moveProps) {
-        final var availableActions = gameState.getAvailableActionsIncludingPassActions();
+        ensureArrays();
 
-        if (availableActions.length != moveProps.length)
+        if (actions.length != moveProps.length)
             throw new IllegalArgumentException("The length of moveProps array has to match the count of available actions");
 
-        for (int i = 0; i < moveProps.length; i++) {
-            moveProbabilities.put(availableActions[i].getId(), moveProps[i]);
-        }
+        System.arraycopy(moveProps, 0, moveProbabilities, 0, moveProps.length);
     }
 
-
     public Tuple<ApplicableAction, MCTSNode> selectChild(final double c_puct) {
-        final var availableActions = gameState.getAvailableActionsIncludingPassActions();
-
-//        // /WK/ debug check
-//        if (visitCounts.size()==0) {
-//            System.err.println("[selectChild] *** Warning: visitCounts.size==0 ! ***");
-//            System.err.println("sumVC="+sum(visitCounts.values())+", Q(a_0)="+getQ(availableActions[0])); // should be both 0
-//        }
-//        if (meanValues.size()==0) {
-//            System.err.println("[selectChild] *** Warning: meanValues.size==0 ! ***");
-//        }
-
-        var vsz = visitCounts.size();       // how often this node been has visited
-        var bestValue = Double.NEGATIVE_INFINITY;
-        ApplicableAction bestAction = null;
+        final int slot = selectSlot(c_puct);
+        return new Tuple<>(actions[slot], getOrCreateChild(slot));
+    }
 
-        // only needed for the experimental code below (search for bestP_act)
-        //ApplicableAction bestP_act = null;
-        //if (vsz==0 && ConfigWrapper.EPS<0) bestP_act = selectBestFromP(availableActions);
+    /**
+     * Select the action slot with the highest PUCT value. This is the allocation-free core of
+     * {@link #selectChild(double)}.
+     *
+     * @param c_puct the PUCT parameter
+     * @return the slot of the selected action
+     */
+    int selectSlot(final double c_puct) {
+        ensureArrays();
 
-        for (final var a : availableActions) {
-            // In case visitCounst.size()>0, select according to the normal PUCT formula (EPS negligible, because |EPS| << 1)
-            // In case visitCounts.size()==0 && EPS>0, select bestAction = argmax(getP(a)).
+        var bestValue = Double.NEGATIVE_INFINITY;
+        int bestSlot = -1;
+        final var sqrtSum = Math.sqrt(sumVisitCounts + sumVirtualLosses + ConfigWrapper.EPS);
+
+        for (int i = 0; i < actions.length; i++) {
+            var q = meanValues[i];
+            var n = visitCounts[i];
+            if (sumVirtualLosses > 0 && virtualLosses[i] > 0) {
+                // parallel search: count the pending visits of other threads as visits with value VIRTUAL_LOSS
+                q = (n * q + virtualLosses[i] * VIRTUAL_LOSS) / (n + virtualLosses[i]);
+                n += virtualLosses[i];
+            }
+
+            // In case sumVisitCounts>0, select according to the normal PUCT formula (EPS negligible, because |EPS| << 1)
+            // In case sumVisitCounts==0 && EPS>0, select bestAction = argmax(getP(a)).
             // [This is because a non-visited node has getQ(a) = getN(a) = 0.]
             // This is the solution from Surag Nair, and it is the *recommended* choice.
-            var value = getQ(a) + c_puct * getP(a) * Math.sqrt(sum(visitCounts.values())+ConfigWrapper.EPS) / (1 + getN(a));
-            // In case visitCounts.size()==0 && EPS==0, select the 1st action. This is the case originally
+            var value = q + c_puct * moveProbabilities[i] * sqrtSum / (1 + n);
+            // In case sumVisitCounts==0 && EPS==0, select the 1st action. This is the case originally
             // provided by JS, and it seemed first better in the Othello-case (but later we found that it is comparable to EPS>0).
 
-            // In case visitCounts.size()==0 && EPS <0, select a random action
+            // In case sumVisitCounts==0 && EPS <0, select a random action
             // (experimental option: ... that is NOT argmax(getP(a))).
-            if (vsz==0 && ConfigWrapper.EPS<0) {    // is EPS<0 on average as good as (EPS==0)-solution?
+            if (sumVisitCounts==0 && ConfigWrapper.EPS<0) {    // is EPS<0 on average as good as (EPS==0)-solution?
                 value = Math.random();
-                //if (a.getId()==bestP_act.getId()) value = -1;   // experimental: avoid the action argmax(getP(a))
             }
 
             if (value > bestValue) {
                 bestValue = value;
-                bestAction = a;
+                bestSlot = i;
             }
         }
 
-        assert bestAction != null;
-
-//        // /WK/ debug check only
-//        var bestValue2 = Double.NEGATIVE_INFINITY;
-//        ApplicableAction bestAction2 = null;
-//        if (ConfigWrapper.EPS>0) {
-//            for (final var a : availableActions) {
-//                double value;
-//                // this variant is more closely to the Surag-Nair code. It should give exactly the same actions
-//                if (getN(a)==0) {
-//                    value = c_puct * getP(a) * Math.sqrt(sum(visitCounts.values()) + ConfigWrapper.EPS) ;
-//                } else {
-//                    value = getQ(a) + c_puct * getP(a) * Math.sqrt(sum(visitCounts.values())+ ConfigWrapper.EPS) / (1 + getN(a));
-//                }
-//                if (value > bestValue2) {
-//                    bestValue2 = value;
-//                    bestAction2 = a;
-//                }
-//            }
-//            if (bestAction.getId()!=bestAction2.getId()) {
-//                int dummy = 1;
-//            }
-//            assert (bestAction.getId()==bestAction2.getId()) : "Check bestAction2 failed!";
-//            if (vsz==0)
-//                assert (bestAction.getId()==selectBestFromP(availableActions).getId()) : "Check selectBestFromP failed!";
-//        }
-
-        final MCTSNode child;
-        if (childNodes.containsKey(bestAction.getId())) {
-            child = childNodes.get(bestAction.getId());
-        } else {
-            child = new MCTSNode(gameState.advance(bestAction));    // a new, non-expanded node
-            childNodes.put(bestAction.getId(), child);
-        }
+        assert bestSlot != -1;
+        return bestSlot;
+    }
 
-        return new Tuple<>(bestAction, child);
+    /**
+     * @param slot the action slot
+     * @return the child node reached by the action in {@code slot}. If it does not exist yet, a new, non-expanded
+     *         node is created and stored.
+     */
+    MCTSNode getOrCreateChild(final int slot) {
+        if (childNodes[slot] == null)
+            childNodes[slot] = new MCTSNode(gameState.advance(actions[slot]));    // a new, non-expanded node
+        return childNodes[slot];
     }
 
     /**
-     * @param availableActions
-     * @return the action argmax(getP(a)) (the first maximizing action, if there are more than one with the same max)
+     * Update mean value Q and visit count N of the action in {@code slot} with a new value from a search below it.
      */
-    private ApplicableAction selectBestFromP(ApplicableAction[] availableActions) {
-        var bestValue = Double.NEGATIVE_INFINITY;
-        ApplicableAction bestAction = null;
-        for (final var a : availableActions) {
-            var value = getP(a);
-            if (value > bestValue) {
-                bestValue = value;
-                bestAction = a;
-            }
-        }
-        return bestAction;
+    void update(final int slot, final double childValue) {
+        final var visitCount = visitCounts[slot];
+        meanValues[slot] = (visitCount * meanValues[slot] + childValue) / (visitCount + 1);
+        visitCounts[slot] = visitCount + 1;
+        sumVisitCounts++;
     }
 
-    private static double sum(final Collection<Integer> values) {
-        return values.stream().mapToInt(it -> it).sum();
+    /**
+     * Thread-safe variant of {@link #selectSlot(double)} for parallel search: select the action slot with the highest
+     * PUCT value, add a virtual loss to it and make sure that its child node exists.
+     * The virtual loss has to be removed later with {@link #revertVirtualLossAndUpdate(int, double)}.
+     *
+     * @param c_puct the PUCT parameter
+     * @return the slot of the selected action
+     */
+    synchronized int selectSlotWithVirtualLoss(final double c_puct) {
+        ensureArrays();
+        if (virtualLosses == null)
+            virtualLosses = new int[actions.length];
+        final int slot = selectSlot(c_puct);
+        virtualLosses[slot]++;
+        sumVirtualLosses++;
+        getOrCreateChild(slot);
+        return slot;
+    }
+
+    /**
+     * @param slot the action slot
+     * @return the child node for {@code slot} (it has to exist, see {@link #selectSlotWithVirtualLoss(double)})
+     */
+    synchronized MCTSNode getChildAt(final int slot) {
+        return childNodes[slot];
+    }
+
+    /**
+     * Thread-safe counterpart of {@link #update(int, double)} for parallel search: remove the virtual loss added by
+     * {@link #selectSlotWithVirtualLoss(double)} and update Q and N of the action in {@code slot}.
+     */
+    synchronized void revertVirtualLossAndUpdate(final int slot, final double childValue) {
+        virtualLosses[slot]--;
+        sumVirtualLosses--;
+        update(slot, childValue);
+    }
+
+    ApplicableAction getAction(final int slot) {
+        ensureArrays();
+        return actions[slot];
+    }
+
+    /**
+     * @param actionId the id of an {@link ApplicableAction}
+     * @return its slot or -1, if no available action has this id
+     */
+    private int slotOf(final int actionId) {
+        ensureArrays();
+        for (int i = 0; i < actions.length; i++)
+            if (actions[i].getId() == actionId) return i;
+        return -1;
+    }
+
+    /**
+     * @param actionId the id of an {@link ApplicableAction}
+     * @return the child node reached by this action or null, if it was not created during search
+     */
+    public MCTSNode getChild(final int actionId) {
+        final int slot = slotOf(actionId);
+        return (slot == -1) ? null : childNodes[slot];
+    }
+
+    /**
+     * @return the total number of visits of this node (sum of the visit counts over all actions)
+     */
+    public int getSumVisitCounts() {
+        return sumVisitCounts;
+    }
+
+    /**
+     * @return the id of the action with the highest visit count (the first one in case of ties)
+     */
+    public int getMostVisitedActionId() {
+        return actions[argmax(visitCounts)].getId();
+    }
+
+    /**
+     * @return the id of the action with the highest move probability (the first one in case of ties)
+     */
+    public int getMostProbableActionId() {
+        return actions[argmax(moveProbabilities)].getId();
+    }
+
+    private static int argmax(final int[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++)
+            if (values[i] > values[best]) best = i;
+        return best;
+    }
+
+    private static int argmax(final double[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++)
+            if (values[i] > values[best]) best = i;
+        return best;
     }
 
     double getQ(final ApplicableAction action) {
-        return meanValues.getOrDefault(action.getId(), 0.0);
+        final int slot = slotOf(action.getId());
+        return (slot == -1) ? 0.0 : meanValues[slot];
     }
 
     int getN(final ApplicableAction action) {
-        return visitCounts.getOrDefault(action.getId(), 0);
+        final int slot = slotOf(action.getId());
+        return (slot == -1) ? 0 : visitCounts[slot];
     }
 
     double getP(final ApplicableAction action) {
-        return moveProbabilities.getOrDefault(action.getId(), 0.0);
+        final int slot = slotOf(action.getId());
+        return (slot == -1) ? 0.0 : moveProbabilities[slot];
     }
 
-    public ArrayList<Integer> getLastMoves() { return gameState.getLastMoves(); }
-
-    void incrementVisitCount(final ApplicableAction action) {
-        visitCounts.put(
-            action.getId(),
-            getN(action) + 1
-        );
+    /**
+     * @return the visit counts of all available actions (in slot order). The returned array must not be modified.
+     */
+    int[] getVisitCounts() {
+        ensureArrays();
+        return visitCounts;
     }
 
-}
\ No newline at end of file
+    public ArrayList<Integer> getLastMoves() { return gameState.getLastMoves(); }
+
+}
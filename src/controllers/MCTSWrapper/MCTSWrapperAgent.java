@@ -16,10 +16,14 @@ import tools.ScoreTuple;
 import tools.Types;
 
 import java.io.Serializable;
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * PlayAgent that performs a Monte Carlo Tree Search (MCTS) to calculate the next action to be selected.
@@ -48,6 +52,16 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
 
     private final Random rand; // generate random Numbers
 
+    /**
+     * the thread pool for parallel search (only used if {@link ParWrapper#getWrapperMCTS_threads()} &gt; 1),
+     * created on demand with {@link #poolThreads} threads
+     */
+    private transient ExecutorService executorService = null;
+    private transient int poolThreads = 0;
+    // shuts the executorService down, when it is replaced or when the agent is no longer reachable
+    private transient Cleaner.Cleanable executorCleanup = null;
+    private static final Cleaner CLEANER = Cleaner.create();
+
     /**
      * @param iterations   Number of monte carlo iterations to be performed before the next action is selected.
      * @param c_puct       A PUCT parameter that controls the importance of exploring new nodes instead of exploiting known ones.
@@ -153,8 +167,7 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
             assert (sz>0) : "Wrongly sz=lastMoves.size()==0. [Probably advance does not call super.addToLastMoves.]";
             assert (pastActions.get(sz-1)==lastSelectedAction) : "Oops, action mismatch!";  // /WK/ general check
             for (int i = sz; i < pastActions.size(); i++) {
-                node = node.childNodes.get(pastActions.get(i));
-                //node = node.childNodes.getOrDefault(pastActions.get(i), null);   // alternative suggestion from JS
+                node = node.getChild(pastActions.get(i));
 
 //              if (node!=null) {
 //                  if (node.gameState.isFinalGameState()) {        // /WK/ debug
@@ -207,11 +220,21 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
         if (exploMode!=2) {     // in case exploMode==2, we do not need the MCTS search, because we take a random action anyway
             mcts.largestDepth=0;
             // Performs the given number of mcts iterations.
-            for (int i = 0; i < iterations; i++) {
-                mcts.search(mctsNode,0);
+            int nThreads = this.getParWrapper().getWrapperMCTS_threads();
+            int batchSize = this.getParWrapper().getWrapperMCTS_batchSize();
+            if (nThreads > 1) {
+                searchParallel(mctsNode, nThreads, batchSize);
+            } else if (batchSize > 1) {
+                for (int i = 0; i < iterations; i += batchSize) {
+                    mcts.searchBatch(mctsNode, Math.min(batchSize, iterations - i));
+                }
+            } else {
+                for (int i = 0; i < iterations; i++) {
+                    mcts.search(mctsNode,0);
+                }
             }
 
-            if (mctsNode.visitCounts.size()==0) {
+            if (mctsNode.getSumVisitCounts()==0) {
                 // As far as we see, this can only happen if iterations==1 (which is not a sensible choice),
                 // but we leave it in as debug check for the moment.
                 // We return always action 0 (which may or may not be a sensible choice)
@@ -227,16 +250,14 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
         switch (exploMode) {
             case 0 -> {
                 // case EXPLORATION_MODE==0 or the greedy case of EXPLORATION_MODE==2: exploit, take action with max visit counts
-                lastSelectedAction = mctsNode.visitCounts.entrySet().stream().max(
-                        Comparator.comparingDouble(Map.Entry::getValue)
-                ).orElseThrow().getKey();
+                lastSelectedAction = mctsNode.getMostVisitedActionId();
                 // Caches the child node belonging to the previously selected action.
-                lastSelectedNode = mctsNode.childNodes.get(lastSelectedAction);
+                lastSelectedNode = mctsNode.getChild(lastSelectedAction);
             }
             case 1 -> {
                 // case EXPLORATION_MODE==1: sample an action proportional to visit counts
                 lastSelectedAction = selectActionProportional(mctsNode);
-                lastSelectedNode = mctsNode.childNodes.get(lastSelectedAction);
+                lastSelectedNode = mctsNode.getChild(lastSelectedAction);
                 //lastSelectedNode = null;    // do not reuse the tree if random action.
             }
             case 2 -> {
@@ -245,9 +266,7 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
                 final var vBest2 = Arrays.stream(vTable2).max().orElse(Double.NaN);
                 ScoreTuple scBest2 = new ScoreTuple(sob, vBest2);
                 mctsNode.setMoveProbabilities(vTable2);
-                int selectedAction = mctsNode.moveProbabilities.entrySet().stream().max(
-                        Comparator.comparingDouble(Map.Entry::getValue)
-                ).orElseThrow().getKey();
+                int selectedAction = mctsNode.getMostProbableActionId();
                 lastSelectedNode = null;    // IMPORTANT: we have to reset lastSelectedNode after each random
                                             // action because the tree is then no longer valid (this reset may
                                             // affect adversely the quality of training)
@@ -264,7 +283,7 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
 
         // Pass states should not be cached.
         while (lastSelectedNode != null && lastSelectedNode.gameState.lazyMustPass.value()) {
-            lastSelectedNode = lastSelectedNode.childNodes.get(new PassAction().getId());
+            lastSelectedNode = lastSelectedNode.getChild(new PassAction().getId());
         }
 
         // --- debug info RubiksCube ---
@@ -282,16 +301,81 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
         );
     }   // getNextAction2
 
+    /**
+     * Perform {@link #iterations} MCTS iterations on the tree below {@code mctsNode} with {@code nThreads} threads
+     * working concurrently on the same tree (tree-parallel MCTS, see {@link MCTS#searchParallel(MCTSNode, int)}).
+     * If {@code batchSize > 1}, each thread performs its iterations in batches with
+     * {@link MCTS#searchBatch(MCTSNode, int)}.
+     * The method returns when all iterations are done.
+     * <p>
+     * All threads share {@link #approximator}, which has to be thread-safe for prediction (see
+     * {@link PlayAgentApproximator}).
+     *
+     * @param mctsNode  the root node
+     * @param nThreads  number of threads
+     * @param batchSize number of leaves evaluated together
+     */
+    private void searchParallel(final MCTSNode mctsNode, final int nThreads, final int batchSize) {
+        if (executorService==null || poolThreads!=nThreads) {
+            shutdownPool();
+            executorService = Executors.newWorkStealingPool(nThreads);
+            // (the cleanup action must not reference this agent, otherwise it would never become unreachable)
+            executorCleanup = CLEANER.register(this, executorService::shutdown);
+            poolThreads = nThreads;
+        }
+        final AtomicInteger iterCount = new AtomicInteger(0);
+        ArrayList<Callable<Object>> callables = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            callables.add(() -> {
+                if (batchSize > 1) {
+                    int start;
+                    while ((start = iterCount.getAndAdd(batchSize)) < iterations) {
+                        mcts.searchBatch(mctsNode, Math.min(batchSize, iterations - start));
+                    }
+                } else {
+                    while (iterCount.getAndIncrement() < iterations) {
+                        mcts.searchParallel(mctsNode,0);
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            executorService.invokeAll(callables).forEach(future -> {
+                try {
+                    future.get();
+                }
+                catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Shut down the thread pool of the parallel search. It is created again with the next parallel search. (If the
+     * agent is discarded without calling this method, the pool is shut down when the agent is garbage collected.)
+     */
+    public void shutdownPool() {
+        if (executorCleanup != null)
+            executorCleanup.clean();        // shuts executorService down (only once)
+        executorCleanup = null;
+        executorService = null;
+        poolThreads = 0;
+    }
+
     // just a check whether this is faster than getVTableFor --> see MCTSWrapperAgentTest::getVTableForTest.
     // getVTable2For is 5x faster than getVTableFor, but it has only negligible effect on overall performance since
     // it is called seldom.
     public double[] getVTable2For(final MCTSNode mctsNode) {
-        ApplicableAction[] arrAction = mctsNode.gameState.getAvailableActionsIncludingPassActions();
-        double[] vTab = new double[arrAction.length];
+        int[] visitCounts = mctsNode.getVisitCounts();
+        double[] vTab = new double[visitCounts.length];
         double v, sum = 0;
         int i=0;
-        for (var action : arrAction) {
-            v = mctsNode.visitCounts.getOrDefault(action.getId(), 0);
+        for (var n : visitCounts) {
+            v = n;
             sum += v;
             vTab[i++] = v;
         }
@@ -302,8 +386,8 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
     public double[] getVTableFor(final MCTSNode mctsNode) {
         return getDistributionOver(
             Arrays
-                    .stream(mctsNode.gameState.getAvailableActionsIncludingPassActions())
-                    .mapToDouble(action -> mctsNode.visitCounts.getOrDefault(action.getId(), 0))
+                    .stream(mctsNode.getVisitCounts())
+                    .asDoubleStream()
                     .toArray()
         );
     }
@@ -346,18 +430,19 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
     /**
      * Return the cumulative distribution function for {@code mctsNode}'s visit counts
      * @param mctsNode the node
+     * @param arrAction the available actions of {@code mctsNode} (in the order of its action slots)
      * @return array of length (numberAvailableActions + 1)
      */
     public double[] getCumulTable2For(final MCTSNode mctsNode, ApplicableAction[] arrAction) {
+        int[] visitCounts = mctsNode.getVisitCounts();     // indexed by action slot, same order as arrAction
+        assert visitCounts.length == arrAction.length;
         double v, sum = 0;
-        int i=1;
         double[] cTab = new double[arrAction.length+1];
         cTab[0]=0;
-        for (var action : arrAction) {
-            v = mctsNode.visitCounts.getOrDefault(action.getId(), 0);
-            cTab[i] = cTab[i-1]+v;
+        for (int i=0; i<visitCounts.length; i++) {
+            v = visitCounts[i];
+            cTab[i+1] = cTab[i]+v;
             sum += v;
-            i++;
         }
         for (int j=0; j<cTab.length; j++) cTab[j] /= sum;
         return cTab;
@@ -389,6 +474,11 @@ public final class MCTSWrapperAgent extends AgentBase implements PlayAgent, Seri
         return cs;
     }
 
+    @Override
+    protected Random[] getRandomGenerators() {
+        return new Random[]{rand};
+    }
+
     @Override
     public PlayAgent getWrappedPlayAgent() {
         return approximator.getWrappedPlayAgent();
@@ -12,6 +12,7 @@ import tools.ScoreTuple;
 import tools.Types;
 
 import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Represents a game state where pass states are not skipped.
@@ -183,6 +184,40 @@ public final class GameStateIncludingPass {
             : approximator.predict(state);
     }
 
+    /**
+     * Batched variant of {@link #getApproximatedValueAndMoveProbabilities(Approximator)}: all game states are evaluated
+     * in one call of {@link Approximator#predictBatch(List)}. Pass situations are treated as in the single-state
+     * variant.
+     *
+     * @param gameStates   the game states to evaluate
+     * @param approximator A component that is able to approximate the necessary values v and p for a Monte Carlo Tree Search.
+     * @return A list of tuples containing the values v and p for each element of {@code gameStates} (same order).
+     */
+    public static List<Tuple<Double, double[]>> getApproximatedValuesAndMoveProbabilities(
+            final List<GameStateIncludingPass> gameStates,
+            final Approximator approximator
+    ) {
+        final List<StateObservation> states = new ArrayList<>(gameStates.size());
+        for (final var gs : gameStates) {
+            states.add(gs.lazyMustPass.value()
+                    ? StateObservationExtensions.passToNextPlayer(gs.state)
+                    : gs.state);
+        }
+
+        final var valuesAndPolicies = approximator.predictBatch(states);
+
+        final List<Tuple<Double, double[]>> result = new ArrayList<>(gameStates.size());
+        for (int i = 0; i < gameStates.size(); i++) {
+            if (gameStates.get(i).lazyMustPass.value()) {
+                assert(gameStates.get(i).state.getNumPlayers()==2) : "Error in GameStateIncludingPass: Tuple creation is only valid for 2-player games!";
+                result.add(new Tuple<>(-valuesAndPolicies.get(i).element1, new double[]{1.0}));
+            } else {
+                result.add(valuesAndPolicies.get(i));
+            }
+        }
+        return result;
+    }
+
     /**
      * This is for MCTSExpWrapper (without pass possibility)
      *
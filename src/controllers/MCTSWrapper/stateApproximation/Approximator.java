@@ -4,6 +4,9 @@ import controllers.MCTSWrapper.utils.Tuple;
 import controllers.PlayAgent;
 import games.StateObservation;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A component used to approximate the value v and
  * the vector of move probabilities <b>p</b> of a given state.
@@ -11,11 +14,32 @@ import games.StateObservation;
 public interface Approximator {
     /**
      * Predicts the value v and the move probabilities p of a given StateObservation.
+     * <p>
+     * In tree-parallel search ({@link controllers.MCTSWrapper.MCTS#searchParallel(controllers.MCTSWrapper.MCTSNode, int)
+     * MCTS.searchParallel}) this method is called concurrently from several threads on the same object. An
+     * approximator used there must be thread-safe for prediction.
      *
      * @return A tuple containing the value v and an array for the vector <b>p</b>.
      */
     Tuple<Double, double[]> predict(final StateObservation stateObservation);
 
+    /**
+     * Predicts the values v and the move probabilities p of several StateObservations in one call.
+     * <p>
+     * This is used by {@link controllers.MCTSWrapper.MCTS#searchBatch(controllers.MCTSWrapper.MCTSNode, int)
+     * MCTS.searchBatch}, which collects several leaves before it evaluates them. The default implementation calls
+     * {@link #predict(StateObservation)} for each state. Approximators that can share work between the states of a
+     * batch should override it.
+     *
+     * @return a list of tuples (v, <b>p</b>), one for each element of {@code stateObservations} (same order)
+     */
+    default List<Tuple<Double, double[]>> predictBatch(final List<StateObservation> stateObservations) {
+        final List<Tuple<Double, double[]>> result = new ArrayList<>(stateObservations.size());
+        for (final var so : stateObservations)
+            result.add(predict(so));
+        return result;
+    }
+
 //    /**
 //     * @return The approximator's estimate of the final score for that game state.
 //     */
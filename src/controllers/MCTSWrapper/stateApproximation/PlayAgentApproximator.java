@@ -2,14 +2,26 @@ package controllers.MCTSWrapper.stateApproximation;
 
 import controllers.MCTSWrapper.utils.Tuple;
 import controllers.PlayAgent;
+import controllers.TD.ntuple4.TDNTuple4Agt;
 import games.StateObservation;
+import tools.Types;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * A component that approximates the value v and the
  * vector of move probabilities <b>p</b> of a state as predicted by a wrapped {@link PlayAgent}.
+ * <p>
+ * {@link #predict(StateObservation)} calls {@link PlayAgent#getNextAction2(StateObservation, boolean, boolean, boolean)
+ * getNextAction2} of the wrapped agent with {@code random=false}. It is thread-safe (as required for the tree-parallel
+ * search of {@link controllers.MCTSWrapper.MCTSWrapperAgent}, {@link params.ParWrapper#getWrapperMCTS_threads()}
+ * &gt; 1) only if this call is thread-safe for the wrapped agent. This holds for the n-tuple agents, which only read
+ * their LUTs and use per-thread scratch buffers, as long as they are not trained at the same time. It does
+ * <b>not</b> hold for agents which keep search state between calls, e.g. {@link controllers.MCTS.MCTSAgentT} or
+ * {@link controllers.MaxNAgent}: wrap them only with one thread.
  */
 public final class PlayAgentApproximator implements Approximator, Serializable {
     private final PlayAgent agent;
@@ -32,6 +44,30 @@ public final class PlayAgentApproximator implements Approximator, Serializable {
         );
     }
 
+    /**
+     * Predicts the values v and the move probabilities p of several states. If the wrapped agent is a
+     * {@link TDNTuple4Agt}, all states are evaluated with one call of
+     * {@link TDNTuple4Agt#getNextAction2Batch(List)}, which gives the same values as {@link #predict(StateObservation)}.
+     * For all other agents, {@link #predict(StateObservation)} is called for each state.
+     *
+     * @return a list of tuples (v, <b>p</b>), one for each element of {@code stateObservations} (same order)
+     */
+    @Override
+    public List<Tuple<Double, double[]>> predictBatch(final List<StateObservation> stateObservations) {
+        if (!(agent instanceof TDNTuple4Agt))
+            return Approximator.super.predictBatch(stateObservations);
+
+        final Types.ACTIONS_VT[] actions_vt = ((TDNTuple4Agt) agent).getNextAction2Batch(stateObservations);
+        final List<Tuple<Double, double[]>> result = new ArrayList<>(stateObservations.size());
+        for (int i = 0; i < actions_vt.length; i++) {
+            result.add(new Tuple<>(
+                actions_vt[i].getVBest(),
+                moveProbabilitiesForVTable(actions_vt[i].getVTable(), stateObservations.get(i))
+            ));
+        }
+        return result;
+    }
+
     // removed 'static' in front of double[] (needed for optSoftmax) --> any unwanted side effects?
     private double[] moveProbabilitiesForVTable(final double[] vTable, final StateObservation stateObservation) {
         assert (vTable.length == stateObservation.getNumAvailableActions()) : "Ooops, wrong size for vTable!";
@@ -404,4 +404,9 @@ public class MaxN2Wrapper extends AgentBase implements PlayAgent, Serializable {
 
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 }
@@ -5,12 +5,15 @@ import games.StateObservation;
 import params.MaxNParams;
 import params.ParMaxN;
 import params.ParOther;
+import tools.ElapsedCpuTimer;
 import tools.ScoreTuple;
+import tools.TranspositionTable;
 import tools.Types.ACTIONS;
 import tools.Types.ACTIONS_VT;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Random;
 
@@ -19,7 +22,12 @@ import java.util.Random;
  * Max-N is the generalization of the well-known Minimax agent to N players. It works on {@link ScoreTuple}, 
  * an N-tuple of game scores. It traverses the game tree up to a prescribed 
  * depth (default: 10, see {@link ParMaxN}). To speed up calculations, already 
- * visited states are stored in a HashMap.  
+ * visited states are stored in a HashMap or - if {@link ParMaxN#getMaxNTransTableBits()} &gt; 0 - in a
+ * fixed-size {@link TranspositionTable} with {@code long} keys (see {@link StateObservation#getHashKey()}).
+ * <p>
+ * For 2-player zero-sum games, {@link ParMaxN#getMaxNAlphaBeta()} switches to alpha-beta search in negamax form
+ * with iterative deepening: each iteration searches first the moves that were best in the previous iteration, and
+ * with a time budget ({@link ParMaxN#getMaxNTimeBudget()}) the result of the deepest completed iteration is returned.
  * <p>
  * {@link MaxNAgent} is for <b>deterministic</b> games. For non-deterministic games see 
  * {@link ExpectimaxNAgent}.
@@ -40,6 +48,26 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
 	protected boolean m_useHashMap=false; //true;
 	private final Random rand;
 	private final HashMap<String,ScoreTuple> hm;
+	protected int m_ttBits=0;		// if > 0, use tt instead of hm
+	private transient TranspositionTable tt = null;
+	protected boolean m_alphaBeta=false;	// if true, use alpha-beta search in 2-player games
+	protected int m_timeBudget=0;			// time budget per move in ms for alpha-beta, 0: no limit
+	private transient ElapsedCpuTimer abTimer;
+	private transient boolean abCanAbort;		// alpha-beta: true, if the current iteration may be aborted
+	private transient boolean abAborted;		// alpha-beta: true, if the time budget is exceeded
+	private transient boolean abDepthLimited;	// alpha-beta: true, if a leaf was cut off by the depth limit
+
+	/**
+	 * Alpha-beta at the root: a move is searched with a window slightly below the best value so far, so
+	 * that moves with the same value are recognized as ties
+	 */
+	private static final double TIE_EPS = 1e-8;
+
+	/**
+	 * Alpha-beta without transposition table ({@code m_ttBits==0}): size of the table which holds only the best
+	 * move of each state for move ordering
+	 */
+	private static final int AB_ORDER_BITS = 16;
 	
 	/**
 	 * change the version ID for serialization only if a newer version is no longer 
@@ -81,6 +109,9 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
 		super.setAgentState(AgentState.TRAINED);
 		m_depth = mPar.getMaxNDepth();
 		m_useHashMap = mPar.getMaxNUseHashmap();
+		m_ttBits = mPar.getMaxNTransTableBits();
+		m_alphaBeta = mPar.getMaxNAlphaBeta();
+		m_timeBudget = mPar.getMaxNTimeBudget();
 //		m_oPar = new ParOther(oPar);		// AgentBase::m_oPar
 	}
 		
@@ -118,6 +149,9 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
 	@Override
 	public ACTIONS_VT getNextAction2(StateObservation so, boolean random, boolean deterministic, boolean silent) {
 
+		if (m_alphaBeta && so.getNumPlayers()==2)
+			return getBestActionAlphaBeta(so, silent, deterministic);
+
         // this starts the recursion:
 		ACTIONS_VT act_vt = getBestAction(so, so,  silent, 0, deterministic, null);
 		
@@ -171,7 +205,17 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
     			boolean rgs = m_oPar.getRewardIsGameScore();
     			currScoreTuple = NewSO.getRewardTuple(rgs);
     		} else {
-    			if (depth<this.m_depth) {
+    			if (depth<this.m_depth && m_useHashMap && m_ttBits>0) {
+    				long key = NewSO.getHashKey();
+    				sc = getTransTable(NewSO).retrieve(key, m_depth-depth);
+    				if (sc==null) {
+    					// here is the recursion: getAllScores may call getBestAction back:
+    					currScoreTuple = getAllScores(NewSO,refer,depth+1, deterministic, prevTuple);
+    					tt.store(key, m_depth-depth, currScoreTuple);
+    				} else {
+    					currScoreTuple = sc;
+    				}
+    			} else if (depth<this.m_depth) {
     				stringRep = NewSO.uniqueStringDescr();
     	        	sc = retrieveFromHashMap(m_useHashMap,stringRep);
     				if (sc==null) {
@@ -240,6 +284,166 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
         return act_vt;         
 	}
 
+	/**
+	 * Alpha-beta search with iterative deepening for 2-player zero-sum games. Iteration {@code d} searches
+	 * {@code d} plies, up to {@code m_depth+1} plies (the same horizon as Max-N). Each iteration tries first the
+	 * moves that were best in the previous one, which makes the cutoffs of alpha-beta much more effective. The best
+	 * move of each state is kept in the (bounded) transposition table.
+	 * <p>
+	 * If {@code m_timeBudget > 0}, an iteration running out of time is aborted and the result of the last
+	 * completed iteration is returned (the first iteration is always completed). If an iteration was not
+	 * cut off by the depth limit anywhere, the whole game tree is solved and deeper iterations are skipped.
+	 * <p>
+	 * The vTable of the returned action holds exact values only for the best actions. For the other actions
+	 * it holds upper bounds (which are lower than the best value).
+	 *
+	 * @param so		current game state (not changed on return)
+	 * @param silent	true: no print-out
+	 * @param deterministic
+	 * 			if true, the agent acts deterministically in case of several equivalent best actions (reproducibility)
+	 * @return		best action + score tuple
+	 */
+	private ACTIONS_VT getBestActionAlphaBeta(StateObservation so, boolean silent, boolean deterministic) {
+		assert so.isLegalState() : "Not a legal state";
+
+		ArrayList<ACTIONS> acts = so.getAvailableActions();
+		int n = acts.size();
+		int P = so.getPlayer();
+		double[] vTable = new double[n];
+		double[] vIter = new double[n];
+		Integer[] order = new Integer[n];
+		for (int i=0; i<n; i++) order[i]=i;
+
+		abTimer = new ElapsedCpuTimer();
+		abCanAbort = false;
+		for (int d=1; d<=m_depth+1; d++) {
+			abAborted = false;
+			abDepthLimited = false;
+			double alpha = -Double.MAX_VALUE;
+			for (int k=0; k<n && !abAborted; k++) {
+				int i = order[k];
+				StateObservation NewSO = so.copy();
+				NewSO.advance(acts.get(i), null);
+				vIter[i] = childValue(NewSO, P, d-1, alpha-TIE_EPS, Double.MAX_VALUE);
+				if (vIter[i] > alpha) alpha = vIter[i];
+			}
+			if (abAborted) break;		// discard the incomplete iteration
+
+			System.arraycopy(vIter, 0, vTable, 0, n);
+			// the best moves of this iteration are searched first in the next iteration (stable sort):
+			Arrays.sort(order, (a,b) -> Double.compare(vTable[b], vTable[a]));
+			abCanAbort = (m_timeBudget>0);
+			if (!abDepthLimited) break;		// the game tree was searched completely
+		}
+
+		double bestValue = -Double.MAX_VALUE;
+		for (double v : vTable) bestValue = Math.max(bestValue, v);
+		ArrayList<ACTIONS> bestActions = new ArrayList<>();
+		for (int i=0; i<n; i++)
+			if (vTable[i] >= bestValue-TIE_EPS) bestActions.add(acts.get(i));
+		ACTIONS actBest = (deterministic) ? bestActions.get(0) : bestActions.get(rand.nextInt(bestActions.size()));
+
+		if (!silent) {
+			StateObservation NewSO = so.copy();
+			NewSO.advance(actBest, null);
+			System.out.println("---Best Move: "+NewSO.stringDescr()+"   "+bestValue);
+		}
+
+		return new ACTIONS_VT(actBest.toInt(), false, vTable, bestValue, zeroSumTuple(P, bestValue));
+	}
+
+	/**
+	 * @param NewSO	the state after a move of player {@code P}
+	 * @param P		the player who moved
+	 * @param d		number of plies to search below {@code NewSO}
+	 * @return the alpha-beta value of {@code NewSO} from the perspective of {@code P}
+	 */
+	private double childValue(StateObservation NewSO, int P, int d, double alpha, double beta) {
+		if (NewSO.isGameOver())
+			return NewSO.getRewardTuple(m_oPar.getRewardIsGameScore()).scTup[P];
+		if (d==0) {
+			abDepthLimited = true;
+			return estimateGameValueTuple(NewSO, null).scTup[P];
+		}
+		// a game may let a player move twice (e.g. after a pass in Othello):
+		if (NewSO.getPlayer()==P)
+			return negamax(NewSO, d, alpha, beta);
+		return 0.0 - negamax(NewSO, d, -beta, -alpha);		// (0.0 - x avoids -0.0 for draws)
+	}
+
+	/**
+	 * Alpha-beta search (fail-soft negamax) below the non-final state {@code so}.
+	 *
+	 * @param so	the state (not changed on return)
+	 * @param d		number of plies to search, {@code d > 0}
+	 * @return the value of {@code so} from the perspective of the player to move in {@code so}. It is exact if it
+	 * 		lies within {@code (alpha,beta)}, otherwise it is a bound. If the search is aborted, the value is meaningless.
+	 */
+	private double negamax(StateObservation so, int d, double alpha, double beta) {
+		if (abCanAbort && abTimer.elapsedMillis() > m_timeBudget) {
+			abAborted = true;
+			return 0;
+		}
+		int Q = so.getPlayer();
+		long key = so.getHashKey();
+		TranspositionTable table = getTransTable(so);
+		boolean useTT = (m_useHashMap && m_ttBits>0);	// if false, the table holds only the best moves
+		if (useTT) {
+			ScoreTuple sc = table.retrieve(key, d);
+			if (sc!=null) {
+				// only values stored as solved are free of depth-limited leaves:
+				if (table.retrieve(key, TranspositionTable.MAX_DEPTH)==null) abDepthLimited = true;
+				return sc.scTup[Q];
+			}
+		}
+		boolean limited0 = abDepthLimited;
+		abDepthLimited = false;
+
+		ArrayList<ACTIONS> acts = so.getAvailableActions();
+		int prevBest = table.retrieveMove(key);
+		int first = (prevBest<0 || prevBest>=acts.size()) ? 0 : prevBest;
+		double alpha0 = alpha;
+		double best = -Double.MAX_VALUE;
+		int bestSlot = first;
+		for (int k=0; k<acts.size(); k++) {
+			// search the best move of the previous iteration first, then the others in their natural order:
+			int i = (k==0) ? first : (k<=first ? k-1 : k);
+			StateObservation NewSO = so.copy();
+			NewSO.advance(acts.get(i), null);
+			double v = childValue(NewSO, Q, d-1, alpha, beta);
+			if (abAborted) return 0;
+			if (v > best) {
+				best = v;
+				bestSlot = i;
+			}
+			if (best > alpha) alpha = best;
+			if (alpha >= beta) break;		// cutoff
+		}
+		boolean exact = (alpha0 < best && best < beta);		// only exact values may be stored
+		boolean solved = !abDepthLimited;					// no depth-limited leaf below so
+		abDepthLimited |= limited0;
+		table.store(key, solved ? TranspositionTable.MAX_DEPTH : d,
+				(useTT && exact) ? zeroSumTuple(Q, best) : null, bestSlot);
+		return best;
+	}
+
+	private static ScoreTuple zeroSumTuple(int P, double value) {
+		ScoreTuple sc = new ScoreTuple(2);
+		sc.scTup[P] = value;
+		sc.scTup[1-P] = -value;
+		return sc;
+	}
+
+	/**
+	 * @return the transposition table, (re-)allocated if it does not fit to {@code so}'s number of players. If
+	 * 		{@code m_ttBits==0}, it has {@link #AB_ORDER_BITS} and is only used for alpha-beta move ordering.
+	 */
+	private TranspositionTable getTransTable(StateObservation so) {
+		if (tt==null || tt.getNumPlayers()!=so.getNumPlayers())
+			tt = new TranspositionTable((m_ttBits>0) ? m_ttBits : AB_ORDER_BITS, so.getNumPlayers());
+		return tt;
+	}
+
 	private ScoreTuple retrieveFromHashMap(boolean m_useHashMap, String stringRep) {
 		ScoreTuple sc = null;
     	if (m_useHashMap) {
@@ -303,6 +507,7 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
 	public String stringDescr() {
 		String cs = getClass().getName();
 		cs = cs + ", depth:"+m_depth;
+		if (m_alphaBeta) cs = cs + ", alpha-beta";
 		return cs;
 	}
 
@@ -311,4 +516,9 @@ public class MaxNAgent extends AgentBase implements PlayAgent, Serializable
 	}
 	
 
-}
\ No newline at end of file
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
+}
@@ -241,6 +241,17 @@ public interface PlayAgent {
 	boolean isWrapper();
 	PlayAgent getWrappedPlayAgent();
 
+	/**
+	 * Re-seed the random number generator of the agent (if it has one). Agents constructed in quick succession would
+	 * otherwise share the same time-based seed, e.g. in {@link starters.ParallelMultiTrainer}.
+	 * <p>
+	 * The default implementation does nothing. {@link AgentBase#setRandomSeed(long)} re-seeds all generators of the
+	 * agent and - for wrappers - of the wrapped agent.
+	 *
+	 * @param seed the new seed
+	 */
+	default void setRandomSeed(long seed) { }
+
 	// --- never used ---
 //	boolean isStochastic();
 //	void setStochastic(boolean hasStochasticPolicy);
@@ -131,4 +131,9 @@ public class RandomAgent extends AgentBase implements PlayAgent {
     	return st;
 	}
 
-}
\ No newline at end of file
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
+}
@@ -3,7 +3,9 @@ package controllers.ReplayBuffer.Buffer;
 import controllers.ReplayBuffer.ConfigReplayBuffer;
 import controllers.ReplayBuffer.Pusher.BasePusher;
 import controllers.ReplayBuffer.Pusher.IPusher;
+import controllers.ReplayBuffer.Pusher.LowPriorityPusher;
 import controllers.ReplayBuffer.Selector.ISelector;
+import controllers.ReplayBuffer.Selector.PrioritizedSelector;
 import controllers.ReplayBuffer.Selector.RandomSelector;
 import controllers.ReplayBuffer.Transition.ITransition;
 import controllers.ReplayBuffer.Transition.Transition;
@@ -31,15 +33,23 @@ public class BaseBuffer{
     private ISelector selector;
     private IPusher pusher;
 
+    // prioritized experience replay (only if the selector or the pusher is prioritized, otherwise priorities==null):
+    private SumTree priorities;
+    private double maxPriority;         // the priority of a new transition
+    private boolean prioritizedSelection;
+
     public BaseBuffer(int capacity, int selector, int pusher,int batchSize){
         this.batchSize = batchSize;
         this.capacity = capacity;
-        buffer = new ITransition[capacity];
-        indexPointer = 0;
-        bufferMaxPointer = 0;
+        resetBuffer();
         lastTransition = null;
         this.selector = setSelector(selector);
         this.pusher = setPusher(pusher);
+        prioritizedSelection = (this.selector instanceof PrioritizedSelector);
+        if (prioritizedSelection || this.pusher instanceof LowPriorityPusher) {
+            priorities = new SumTree(capacity);
+            maxPriority = 1.0;
+        }
     }
 
 
@@ -77,6 +87,14 @@ public class BaseBuffer{
         return indexPointer;
     }
 
+    /**
+     * @param index a buffer index in {@code [0, getMaxBufferIndex())}
+     * @return the transition at {@code index}
+     */
+    public ITransition getTransition(int index){
+        return buffer[index];
+    }
+
     /**
      * Returns one batch using the selectors policy
      * The batch size is set via {@code batchSize}
@@ -86,13 +104,72 @@ public class BaseBuffer{
         return selector.selectBatch();
     }
 
+    /**
+     * Returns the buffer indices of one batch using the selectors policy. Use this instead of {@link #getBatch()}
+     * if the learner has to {@link #updatePriority(int, double) update the priorities}.
+     * @return the indices, see {@link #getTransition(int)}
+     */
+    public int[] getBatchIndices(){
+        return selector.selectIndices();
+    }
+
+    /**
+     * @return true, if the buffer maintains priorities. Then the learner should call
+     * {@link #updatePriority(int, double)} after each update from a sampled transition.
+     */
+    public boolean isPrioritized(){
+        return priorities != null;
+    }
+
+    /**
+     * Set the priority of the transition at {@code index} to {@code (|tdError| + PER_EPS)^PER_ALPHA}
+     * (see {@link ConfigReplayBuffer}).
+     *
+     * @param index     buffer index
+     * @param tdError   the TD error of the last update with this transition
+     */
+    public void updatePriority(int index, double tdError){
+        if (priorities == null) return;
+        double p = Math.pow(Math.abs(tdError) + ConfigReplayBuffer.PER_EPS, ConfigReplayBuffer.PER_ALPHA);
+        priorities.set(index, p);
+        if (p > maxPriority) maxPriority = p;
+    }
+
+    /**
+     * The importance-sampling weight {@code (p_min / p_index)^PER_BETA}, which corrects the bias of prioritized
+     * selection. It is 1.0 for the most rarely selected transition and smaller for the others.
+     *
+     * @param index buffer index
+     * @return the weight for the update with the transition at {@code index} (1.0, if the selection is not
+     * prioritized)
+     */
+    public double getWeight(int index){
+        if (!prioritizedSelection) return 1.0;
+        return Math.pow(priorities.min() / priorities.get(index), ConfigReplayBuffer.PER_BETA);
+    }
+
+    /**
+     * @return the priorities of all slots or null, if the buffer is not prioritized
+     */
+    public SumTree getPriorities(){
+        return priorities;
+    }
+
     /**
      * Empty the buffer and reset the pointers
      */
     public void resetBuffer(){
         buffer = new ITransition[capacity];
+        resetPointers();
+    }
+
+    protected void resetPointers(){
         indexPointer = 0;
         bufferMaxPointer = 0;
+        if (priorities != null) {
+            priorities.clear();
+            maxPriority = 1.0;
+        }
     }
 
     /**
@@ -105,6 +182,7 @@ public class BaseBuffer{
     private ISelector setSelector(int i){
         switch(i){
             case 0: return new RandomSelector(this);
+            case 1: return new PrioritizedSelector(this);
             default: throw new RuntimeException("No Selector has been selected");
         }
     }
@@ -118,6 +196,7 @@ public class BaseBuffer{
     private IPusher setPusher(int i){
         switch(i){
             case 0: return new BasePusher(this);
+            case 1: return new LowPriorityPusher(this);
             default: throw new RuntimeException("No Pusher has been selected");
         }
     }
@@ -151,11 +230,35 @@ public class BaseBuffer{
      * @param t Transition
      */
     private void savetransition(ITransition t){
-        if(!pusher.pushTransition(t)) return;
-        if(ConfigReplayBuffer.DBG) System.out.println("Adding transition at point: " + indexPointer );
-        buffer[indexPointer] = t;
-        incrementIndexPointer();
-        incrementBufferMaxPointer();
+        int index = nextIndex(t);
+        if(index == -1) return;
+        buffer[index] = t;
+    }
+
+    /**
+     * Ask the pusher whether {@code t} is added and where. If it is stored at the ring position, advance the internal
+     * pointers. A new transition gets the highest priority seen so far (if the buffer is prioritized).
+     *
+     * @param t Transition
+     * @return the index where {@code t} has to be stored or -1, if the pusher rejects {@code t}
+     */
+    protected int nextIndex(ITransition t){
+        if(!pusher.pushTransition(t)) return -1;
+        int index = pusher.selectIndex(indexPointer);
+        if(ConfigReplayBuffer.DBG) System.out.println("Adding transition at point: " + index );
+        if (index == indexPointer) {
+            incrementIndexPointer();
+            incrementBufferMaxPointer();
+        }
+        if (priorities != null) priorities.set(index, maxPriority);
+        return index;
+    }
+
+    /**
+     * @return true, if all slots of the buffer are filled
+     */
+    public boolean isFull(){
+        return bufferMaxPointer == capacity;
     }
 
 
@@ -0,0 +1,273 @@
+package controllers.ReplayBuffer.Buffer;
+
+import controllers.ReplayBuffer.Transition.ITransition;
+import controllers.ReplayBuffer.Transition.Transition;
+import controllers.TD.ntuple4.NextState4;
+import games.BoardVector;
+import games.StateObsWithBoardVector;
+import games.StateObservation;
+import games.XNTupleFuncs;
+import params.ParRB;
+import tools.ScoreTuple;
+
+/**
+ * A replay buffer which stores the transitions <b>column-wise</b> instead of as {@link Transition} objects:
+ * <ul>
+ *     <li> the board vectors of {@code sLast} and of the next after state are packed into one {@code byte[]} slab
+ *          each (or {@code int[]}, as soon as a value does not fit into a byte),
+ *     <li> player, final-transition flag, reward {@link ITransition#getRNext()} and
+ *          {@link ITransition#isNextGameOver()} are primitive arrays.
+ * </ul>
+ * A {@link Transition} keeps full {@link StateObservation} copies, a {@link NextState4} and two {@link ScoreTuple}s,
+ * so this saves most of the memory (and GC time) of large buffers.
+ * <p>
+ * {@link #getTransition(int)} returns a light-weight view on one slot. The {@link StateObsWithBoardVector} objects
+ * needed by the learner are only rebuilt when the view is asked for them, i.e. when a batch is drawn. A view is valid
+ * until its slot is overwritten by a later {@link #addTransition(int, NextState4, StateObservation, ScoreTuple,
+ * ScoreTuple, int) addTransition}.
+ * <p>
+ * If the game's {@link XNTupleFuncs#symmetryNeedsStateObs()} is true (e.g. RubiksCube), the states are kept in addition,
+ * because the symmetric board vectors cannot be built from the board vector alone. They are kept in the game's compact
+ * form {@link XNTupleFuncs#packState(StateObservation)} (for RubiksCube: two byte arrays) and rebuilt with
+ * {@link XNTupleFuncs#unpackState(Object)} when a batch is drawn. The remaining
+ * {@link ITransition} getters ({@link ITransition#getNextState4()}, {@link ITransition#getR()}, ...) are not
+ * supported by the views.
+ */
+public class CompactBuffer extends BaseBuffer {
+
+    private final XNTupleFuncs xnf;
+    private final boolean keepStates;
+
+    // the columns (allocated with the first transition, when the board vector length is known)
+    private int[] player;
+    private byte[] finalFlag;
+    private double[] rNext;
+    private boolean[] nextGameOver;
+    private BoardSlab sLastSlab;
+    private BoardSlab afterSlab;
+    private Object[] sLastSO;               // only if keepStates: the packed states
+    private Object[] afterSO;               // only if keepStates
+
+    public CompactBuffer(int capacity, int selector, int pusher, int batchSize, XNTupleFuncs xnf) {
+        super(capacity, selector, pusher, batchSize);
+        this.xnf = xnf;
+        this.keepStates = xnf.symmetryNeedsStateObs();
+    }
+
+    public CompactBuffer(ParRB params, XNTupleFuncs xnf) {
+        this(params.getCapacity(), params.getSelectorV(), params.getPusherV(), params.getBatchSize(), xnf);
+    }
+
+    @Override
+    public void addTransition(
+            int player,
+            NextState4 ns,
+            StateObservation sLast,
+            ScoreTuple rLast,
+            ScoreTuple R,
+            int isFinalTransition
+    ){
+        // no copies here: the transition is only needed by the pusher, its content is packed below
+        int index = nextIndex(new Transition(player, ns, sLast, rLast, R, isFinalTransition));
+        if (index == -1) return;
+
+        StateObservation nextSO = ns.getNextSO();
+        BoardVector bvLast = xnf.getBoardVector(sLast);
+        if (this.player == null) allocate(bvLast);
+
+        this.player[index] = player;
+        this.finalFlag[index] = (byte) isFinalTransition;
+        this.rNext[index] = (R.scTup[player] - rLast.scTup[player]) + nextSO.getStepRewardTuple().scTup[player];
+        this.nextGameOver[index] = nextSO.isGameOver();
+        sLastSlab.put(index, bvLast);
+        if (keepStates) sLastSO[index] = xnf.packState(sLast);
+        if (!nextGameOver[index]) {       // the after state is only needed for v_next of a non-final next state
+            afterSlab.put(index, xnf.getBoardVector(ns.getAfterState()));
+            if (keepStates) afterSO[index] = xnf.packState(ns.getAfterState());
+        } else if (keepStates) {
+            afterSO[index] = null;
+        }
+    }
+
+    private void allocate(BoardVector bv) {
+        int capacity = getCapacity();
+        player = new int[capacity];
+        finalFlag = new byte[capacity];
+        rNext = new double[capacity];
+        nextGameOver = new boolean[capacity];
+        int auxLength = (bv.aux == null) ? 0 : bv.aux.length;
+        sLastSlab = new BoardSlab(capacity, bv.bvec.length, auxLength);
+        afterSlab = new BoardSlab(capacity, bv.bvec.length, auxLength);
+        if (keepStates) {
+            sLastSO = new Object[capacity];
+            afterSO = new Object[capacity];
+        }
+    }
+
+    @Override
+    public ITransition getTransition(int index) {
+        return new CompactTransition(index);
+    }
+
+    /**
+     * @return null, a compact buffer has no transition array (use {@link #getTransition(int)})
+     */
+    @Override
+    public ITransition[] getBuffer() {
+        return null;
+    }
+
+    @Override
+    public void resetBuffer() {
+        player = null;          // columns are re-allocated with the next transition
+        finalFlag = null;
+        rNext = null;
+        nextGameOver = null;
+        sLastSlab = afterSlab = null;
+        sLastSO = afterSO = null;
+        resetPointers();
+    }
+
+    @Override
+    public String toString() {
+        return super.toString().replace("REPLAY-BUFFER", "COMPACT-REPLAY-BUFFER");
+    }
+
+    /**
+     * Fixed-width rows of board vectors (and their aux vectors) in one array. The values are stored as bytes until
+     * a value outside the byte range occurs; then the whole slab is widened once to {@code int[]}.
+     */
+    private static final class BoardSlab {
+        private final int width;
+        private final int auxWidth;
+        private byte[] bytes;
+        private int[] ints = null;
+        private final int[] aux;
+
+        BoardSlab(int capacity, int width, int auxWidth) {
+            this.width = width;
+            this.auxWidth = auxWidth;
+            this.bytes = new byte[capacity * width];
+            this.aux = (auxWidth == 0) ? null : new int[capacity * auxWidth];
+        }
+
+        void put(int index, BoardVector bv) {
+            int[] bvec = bv.bvec;
+            if (bvec.length != width)
+                throw new RuntimeException("[CompactBuffer] board vector length " + bvec.length + " differs from " + width);
+            int off = index * width;
+            if (ints == null) {
+                for (int v : bvec)
+                    if (v != (byte) v) { widen(); break; }
+            }
+            if (ints == null) {
+                for (int i = 0; i < width; i++) bytes[off + i] = (byte) bvec[i];
+            } else {
+                System.arraycopy(bvec, 0, ints, off, width);
+            }
+            if (aux != null) System.arraycopy(bv.aux, 0, aux, index * auxWidth, auxWidth);
+        }
+
+        private void widen() {
+            ints = new int[bytes.length];
+            for (int i = 0; i < bytes.length; i++) ints[i] = bytes[i];
+            bytes = null;
+        }
+
+        BoardVector get(int index) {
+            int[] bvec = new int[width];
+            int off = index * width;
+            if (ints == null) {
+                for (int i = 0; i < width; i++) bvec[i] = bytes[off + i];
+            } else {
+                System.arraycopy(ints, off, bvec, 0, width);
+            }
+            int[] a = null;
+            if (aux != null) {
+                a = new int[auxWidth];
+                System.arraycopy(aux, index * auxWidth, a, 0, auxWidth);
+            }
+            BoardVector bv = new BoardVector(null);     // (the constructor with arguments would clone them again)
+            bv.bvec = bvec;
+            bv.aux = a;
+            return bv;
+        }
+    }
+
+    /**
+     * A view on slot {@code index} of the columns
+     */
+    private final class CompactTransition implements ITransition {
+        private final int index;
+
+        CompactTransition(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public int getPlayer() { return player[index]; }
+
+        @Override
+        public int isFinalTransition() { return finalFlag[index]; }
+
+        @Override
+        public double getRNext() { return rNext[index]; }
+
+        @Override
+        public boolean isNextGameOver() { return nextGameOver[index]; }
+
+        /**
+         * @return null, the next state is not stored
+         */
+        @Override
+        public StateObservation getNextSO() { return null; }
+
+        @Override
+        public StateObservation getSLast() { return keepStates ? xnf.unpackState(sLastSO[index]) : null; }
+
+        @Override
+        public StateObsWithBoardVector getSLastSOWB(XNTupleFuncs xnf) {
+            return new StateObsWithBoardVector(getSLast(), sLastSlab.get(index));
+        }
+
+        @Override
+        public StateObsWithBoardVector getAfterStateSOWB(XNTupleFuncs xnf) {
+            StateObservation after = keepStates ? xnf.unpackState(afterSO[index]) : null;
+            return new StateObsWithBoardVector(after, afterSlab.get(index));
+        }
+
+        @Override
+        public double getPlayerRLast() { throw unsupported(); }
+
+        @Override
+        public NextState4 getNextState4() { throw unsupported(); }
+
+        @Override
+        public ScoreTuple getRLast() { throw unsupported(); }
+
+        @Override
+        public ScoreTuple getR() { throw unsupported(); }
+
+        @Override
+        public void setPlayer(int player) { throw unsupported(); }
+
+        @Override
+        public void setNextState(NextState4 ns) { throw unsupported(); }
+
+        @Override
+        public void setSLast(StateObservation sLast) { throw unsupported(); }
+
+        @Override
+        public void setRLast(ScoreTuple rLast) { throw unsupported(); }
+
+        @Override
+        public void setR(ScoreTuple R) { throw unsupported(); }
+
+        @Override
+        public void setIsFinalTransition(int b) { throw unsupported(); }
+
+        private UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("[CompactBuffer] not stored in a compact transition");
+        }
+    }
+}
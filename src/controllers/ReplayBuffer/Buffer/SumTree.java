@@ -0,0 +1,94 @@
+package controllers.ReplayBuffer.Buffer;
+
+import java.util.Arrays;
+
+/**
+ * Binary tree over the priorities of the buffer slots, for prioritized experience replay. Each inner node holds the
+ * sum and the minimum of the priorities below it, so that
+ * <ul>
+ *     <li> {@link #set(int, double)} (priority update) and
+ *     <li> {@link #find(double)} (sampling a slot with probability proportional to its priority)
+ * </ul>
+ * are O(log n), and {@link #total()}, {@link #min()} and {@link #argMin()} are O(1).
+ * <p>
+ * The tree is stored in arrays of length {@code 2*size} ({@code size} = capacity rounded up to a power of 2):
+ * node {@code k} has the children {@code 2k} and {@code 2k+1}, leaf {@code i} is node {@code size+i}.
+ * Slots which were never set have priority 0 and do not count for the minimum.
+ */
+public class SumTree {
+    private final int size;
+    private final double[] sum;
+    private final double[] min;
+    private final int[] argMin;     // leaf index of the minimum below each node
+
+    public SumTree(int capacity) {
+        size = Integer.highestOneBit(Math.max(2 * capacity - 1, 1));
+        sum = new double[2 * size];
+        min = new double[2 * size];
+        argMin = new int[2 * size];
+        clear();
+    }
+
+    public void clear() {
+        Arrays.fill(sum, 0.0);
+        Arrays.fill(min, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < size; i++) argMin[size + i] = i;
+        for (int k = size - 1; k >= 1; k--) argMin[k] = argMin[2 * k];
+    }
+
+    /**
+     * Set the priority of slot {@code i} to {@code p} &ge; 0.
+     */
+    public void set(int i, double p) {
+        int k = size + i;
+        sum[k] = p;
+        min[k] = p;
+        for (k >>= 1; k >= 1; k >>= 1) {
+            int l = 2 * k, r = l + 1;
+            sum[k] = sum[l] + sum[r];
+            int m = (min[r] < min[l]) ? r : l;
+            min[k] = min[m];
+            argMin[k] = argMin[m];
+        }
+    }
+
+    public double get(int i) {
+        return sum[size + i];
+    }
+
+    public double total() {
+        return sum[1];
+    }
+
+    /**
+     * @return the smallest priority of all slots set so far
+     */
+    public double min() {
+        return min[1];
+    }
+
+    /**
+     * @return the slot with the smallest priority
+     */
+    public int argMin() {
+        return argMin[1];
+    }
+
+    /**
+     * @param u a value in {@code [0, total())}
+     * @return the slot {@code i} with {@code get(0)+...+get(i-1) <= u < get(0)+...+get(i)}
+     */
+    public int find(double u) {
+        int k = 1;
+        while (k < size) {
+            int l = 2 * k;
+            if (u < sum[l] || sum[l + 1] == 0.0) {     // (2nd condition: rounding errors at the right end)
+                k = l;
+            } else {
+                u -= sum[l];
+                k = l + 1;
+            }
+        }
+        return k - size;
+    }
+}
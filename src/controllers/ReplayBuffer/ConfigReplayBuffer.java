@@ -4,4 +4,9 @@ public class ConfigReplayBuffer {
 
     public static boolean USE_REPLAYBUFFER = false;
     public static boolean DBG = false;
+
+    // prioritized experience replay (selector PrioritizedSelector, pusher LowPriorityPusher):
+    public static double PER_ALPHA = 0.6;   // priority = (|TD error| + PER_EPS)^PER_ALPHA, 0: uniform selection
+    public static double PER_BETA = 0.4;    // exponent of the importance-sampling weights, 0: no correction
+    public static double PER_EPS = 1e-6;    // keeps transitions with TD error 0 selectable
 }
@@ -5,5 +5,13 @@ import controllers.ReplayBuffer.Transition.ITransition;
 public interface IPusher {
 
     public boolean pushTransition(ITransition t);
+
+    /**
+     * @param ringIndex the next position of the ring buffer
+     * @return the buffer index where the pushed transition is stored
+     */
+    public default int selectIndex(int ringIndex){
+        return ringIndex;
+    }
     public String toString();
 }
@@ -0,0 +1,34 @@
+package controllers.ReplayBuffer.Pusher;
+
+import controllers.ReplayBuffer.Buffer.BaseBuffer;
+import controllers.ReplayBuffer.Transition.ITransition;
+
+/**
+ * Pusher, which accepts all transitions. As long as the buffer is not full, they are stored at the ring position.
+ * In a full buffer, a new transition overwrites the element with the lowest priority (instead of the oldest one),
+ * so that transitions with a large TD error stay in the buffer.
+ */
+public class LowPriorityPusher implements IPusher{
+
+    private BaseBuffer buffer;
+
+    public LowPriorityPusher(BaseBuffer buffer){
+        this.buffer = buffer;
+    }
+
+    @Override
+    public boolean pushTransition(ITransition t) {
+        return true;
+    }
+
+    @Override
+    public int selectIndex(int ringIndex) {
+        if (!buffer.isFull()) return ringIndex;
+        return buffer.getPriorities().argMin();
+    }
+
+    public String toString(){
+        return "Low Priority Pusher";
+    }
+
+}
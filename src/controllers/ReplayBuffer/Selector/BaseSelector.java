@@ -10,9 +10,9 @@ import java.util.Random;
 
 /**
  *  Base for Selectors.
- *  Each Selector must overwrite the methods
- *      ITransition[] selectBatch(int n);
- *      ITransition selectBatch();
+ *  Each Selector must overwrite the method
+ *      int[] selectIndices();
+ *  selectBatch() returns the transitions at these indices.
  */
 abstract class BaseSelector implements ISelector{
 
@@ -27,6 +27,10 @@ abstract class BaseSelector implements ISelector{
         return buffer.getBuffer();
     }
 
+    protected ITransition getTransition(int index){
+        return buffer.getTransition(index);
+    }
+
     protected int getCapacity(){return buffer.getCapacity();}
 
     protected int getBatchSize(){return buffer.getBatchSize();}
@@ -35,7 +39,20 @@ abstract class BaseSelector implements ISelector{
         return this.buffer.getMaxBufferIndex();
     }
 
-    public abstract ITransition[] selectBatch();
+    public ITransition[] selectBatch(){
+        int[] indices = selectIndices();
+        ITransition[] transitions = new ITransition[indices.length];
+        for(int i = 0; i < indices.length; i++){
+            transitions[i] = getTransition(indices[i]);
+        }
+        return transitions;
+    }
+
+    public abstract int[] selectIndices();
+
+    protected BaseBuffer getReplayBuffer(){
+        return buffer;
+    }
 
 
 }
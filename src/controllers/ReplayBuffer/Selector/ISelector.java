@@ -4,5 +4,6 @@ import controllers.ReplayBuffer.Transition.ITransition;
 
 public interface ISelector {
     public ITransition[] selectBatch();
+    public int[] selectIndices();
     public String toString();
 }
@@ -0,0 +1,35 @@
+package controllers.ReplayBuffer.Selector;
+
+import controllers.ReplayBuffer.Buffer.BaseBuffer;
+import controllers.ReplayBuffer.Buffer.SumTree;
+import controllers.ReplayBuffer.ConfigReplayBuffer;
+
+/**
+ * Selector for prioritized experience replay: samples each element with a probability proportional to its priority
+ * (see {@link BaseBuffer#updatePriority(int, double)}). The priorities are kept in a {@link SumTree}, so that
+ * sampling is O(log n) per element.
+ * <p>
+ * The batch is drawn stratified: the range {@code [0, total)} of the priority sums is split into {@code batchSize}
+ * equal segments and one element is drawn from each segment.
+ */
+public class PrioritizedSelector extends BaseSelector{
+    public PrioritizedSelector(BaseBuffer buffer) {
+        super(buffer);
+    }
+
+    @Override
+    public int[] selectIndices() {
+        SumTree priorities = getReplayBuffer().getPriorities();
+        int[] indices = new int[getBatchSize()];
+        double segment = priorities.total() / getBatchSize();
+        if(ConfigReplayBuffer.DBG) System.out.println("Total priority: " + priorities.total());
+        for(int i = 0; i < getBatchSize(); i++){
+            indices[i] = priorities.find((i + random.nextDouble()) * segment);
+        }
+        return indices;
+    }
+
+    public String toString(){
+        return "Prioritized Selector";
+    }
+}
@@ -2,7 +2,6 @@ package controllers.ReplayBuffer.Selector;
 
 import controllers.ReplayBuffer.Buffer.BaseBuffer;
 import controllers.ReplayBuffer.ConfigReplayBuffer;
-import controllers.ReplayBuffer.Transition.ITransition;
 
 /**
  * Selector, which samples random elements from the replaybuffer
@@ -13,13 +12,13 @@ public class RandomSelector extends BaseSelector{
     }
 
     @Override
-    public ITransition[] selectBatch() {
-        ITransition[] transitions = new ITransition[getBatchSize()];
+    public int[] selectIndices() {
+        int[] indices = new int[getBatchSize()];
         if(ConfigReplayBuffer.DBG) System.out.println("Maximal buffer size: " + getMaxBufferPosition());
         for(int i = 0; i < getBatchSize(); i++){
-            transitions[i] =  getBuffer()[random.nextInt(getMaxBufferPosition())];;
+            indices[i] = random.nextInt(getMaxBufferPosition());
         }
-        return transitions;
+        return indices;
     }
 
     public String toString(){
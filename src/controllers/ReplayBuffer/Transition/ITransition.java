@@ -7,6 +7,7 @@ import game.functions.ints.state.Score;
 import game.functions.ints.state.State;
 import games.StateObsWithBoardVector;
 import games.StateObservation;
+import games.XNTupleFuncs;
 import tools.ScoreTuple;
 import tools.Types;
 
@@ -31,6 +32,46 @@ public interface ITransition {
  public void setIsFinalTransition(int b);
  public int isFinalTransition();
 
+ // The following methods provide what the learner ({@code TDNTuple4Agt}) needs from a transition. The defaults
+ // derive it from the stored states; a compact transition (see {@code CompactBuffer}) overrides them, because it
+ // stores only board vectors and primitive values.
+
+ /**
+  * @return the reward for {@link #getPlayer()} in the transition from {@code sLast} to the next state
+  */
+ public default double getRNext() {
+  int p = getPlayer();
+  return (getR().scTup[p] - getRLast().scTup[p]) + getNextState4().getNextSO().getStepRewardTuple().scTup[p];
+ }
+
+ /**
+  * @return the next state (only needed for debug output), null if it is not stored
+  */
+ public default StateObservation getNextSO() {
+  return getNextState4().getNextSO();
+ }
+
+ /**
+  * @return true, if the next state is a game-over state
+  */
+ public default boolean isNextGameOver() {
+  return getNextState4().getNextSO().isGameOver();
+ }
+
+ /**
+  * @return {@code sLast} bundled with its board vector
+  */
+ public default StateObsWithBoardVector getSLastSOWB(XNTupleFuncs xnf) {
+  return new StateObsWithBoardVector(getSLast(), xnf);
+ }
+
+ /**
+  * @return the after state of the next state bundled with its board vector
+  */
+ public default StateObsWithBoardVector getAfterStateSOWB(XNTupleFuncs xnf) {
+  return new StateObsWithBoardVector(getNextState4().getAfterState(), xnf);
+ }
+
 
 }
 
@@ -854,4 +854,9 @@ public class TDAgent extends AgentBase implements PlayAgent,Serializable {
 		return m_feature.getFeatmode();
 	}
 
-}
\ No newline at end of file
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
+}
@@ -5,7 +5,6 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.Random;
 
 import controllers.TD.ntuple4.NTuple4;
@@ -13,6 +12,7 @@ import games.StateObsWithBoardVector;
 import games.StateObservation;
 import games.XNTupleFuncs;
 import params.ParNT;
+import tools.IntSet;
 
 /**
  * Realization of a single n-tuple for games.
@@ -65,10 +65,11 @@ public class NTuple2 implements Serializable {
 	// the following elements are needed in update(): if a certain index of the LUT is 
 	// invoked more than once during a weight update for state s_k (multiple calls to updateNew(), 
 	// if there are equivalent states (symmetric to s_k)), then it is updated only *once*. This 
-	// is realized by remembering the already visited indices in indexList.
+	// is realized by remembering the already visited indices in indexSet (an allocation-free IntSet,
+	// which replaces the former LinkedList indexList with its linear contains()).
 	// It ensures that an update with ALPHA=1.0 changes the LUT in such a way that a subsequent
 	// call getScoreI() returns a value identical to the target of that update.
-	private transient LinkedList indexList = new LinkedList();
+	private transient IntSet indexSet = new IntSet();
 //	private transient int trainCounter[] = null;
 //	private boolean useIndexList = true;	// true: use indexList in updateNew()
 //											// false: use trainCounter in updateNew()
@@ -146,7 +147,7 @@ public class NTuple2 implements Serializable {
 	}
 
 	public boolean instantiateAfterLoading() {
-		indexList = new LinkedList();
+		indexSet = new IntSet();
 		if (TC) {
 			tcN = new double[lut.length]; // matrix N in TC
 			tcA = new double[lut.length]; // matrix A in TC
@@ -339,7 +340,6 @@ public class NTuple2 implements Serializable {
 	 */
 	public void updateNew(int[] board, double alphaM, double delta, double e /*, double LAMBDA*/) {
 		int index = getIndex(board);
-		Integer indexI = new Integer(index);
 
 		double tcFactor = getTcFactor(index);	// returns 1 if (!TC)
 				
@@ -355,11 +355,11 @@ public class NTuple2 implements Serializable {
 		}
 
 //		if (useIndexList) {		// useIndexList==true is the recommended choice
+			boolean firstVisit = indexSet.add(index);
 			if (!TC || (TC && tcImm)) {
-				if (!indexList.contains(indexI)) 
-					lut[index] += dW;				
-			}		
-			indexList.add(indexI);
+				if (firstVisit)
+					lut[index] += dW;
+			}
 //		} 
 
 //		if (TC)
@@ -452,7 +452,7 @@ public class NTuple2 implements Serializable {
 
 	public void clearIndices() {
 //		if (useIndexList) {
-			indexList.clear();			
+			indexSet.clear();
 //		} else {
 //			// very slow!!!
 //			for (int k=0; k<trainCounter.length; k++)
@@ -211,7 +211,7 @@ public class NTuple2ValueFunc implements Serializable {
 		int[] equivAction;
 
 		// Get equivalent boards (including self)
-		equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym());
+		equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym(), true);
 		equivAction = xnf.symmetryActions(act.toInt());
 
 		for (i=0; i<equivAction.length; i++) {
@@ -246,7 +246,7 @@ public class NTuple2ValueFunc implements Serializable {
 		BoardVector[] equiv;
 
 		// Get equivalent boards (including self)
-		equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym());
+		equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym(), true);
 		//equiv = getSymBoards2(board, false);    // DON'T, at least for TTT clearly inferior
 
 		for (i = 0; i < numTuples; i++) {
@@ -272,9 +272,12 @@ public class NTuple2ValueFunc implements Serializable {
 	 * @param useSymmetry if false, return a vector of BoardVectors with only one element
 	 * 			(the board itself in BoardVector[0])
 	 * @param nSym the number of symmetry vectors to use (if = 0, use all symmetries)
+	 * @param scratch if true, the equivalent board vectors may be in the scratch buffer of
+	 * 			{@link XNTupleFuncs#symmetryVectorsScratch(StateObsWithBoardVector, int)}: they are only valid until
+	 * 			the next call
 	 * @return the equivalent board vectors
 	 */
-	private BoardVector[] getSymBoards2(StateObsWithBoardVector curSOWB, boolean useSymmetry, int nSym) {
+	private BoardVector[] getSymBoards2(StateObsWithBoardVector curSOWB, boolean useSymmetry, int nSym, boolean scratch) {
 		BoardVector[] equiv;
 		
 		assert nSym >= 0 : "Ooops, nSym="+nSym+" is negative!";
@@ -290,7 +293,7 @@ public class NTuple2ValueFunc implements Serializable {
 				// (symmetryActions is ONLY needed by SarsaAgt - and perhaps later by QLearnAgt)
 				throw new RuntimeException("[NTuple2ValueFunc] Sorry, cannot handle case SarsaAgt and 0 < nSym < s (symmetryActions not yet adapted).");
 
-			equiv = xnf.symmetryVectors(curSOWB,nSym);
+			equiv = scratch ? xnf.symmetryVectorsScratch(curSOWB,nSym) : xnf.symmetryVectors(curSOWB,nSym);
 		} else {
 			equiv = new BoardVector[1];
 			equiv[0] = curSOWB.getBoardVector();			
@@ -549,7 +552,8 @@ public class NTuple2ValueFunc implements Serializable {
 		double alphaM, lamFactor;
 
 		// Get equivalent boards (including self) and corresponding actions
-		BoardVector[] equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym());
+		BoardVector[] equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym(), horizon==1);
+		// (with horizon 1 the scratch buffer is safe: the EligStates element below is dropped before the next update)
 		int[] equivAction = (QMODE ? getSymActions(output, getUSESYMMETRY()) : null); 
 		// equivAction only needed for QMODE==true
 
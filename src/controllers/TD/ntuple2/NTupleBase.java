@@ -104,6 +104,11 @@ abstract public class NTupleBase extends AgentBase implements NTupleAgt, Seriali
 		super(name);
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 	/**
 	 * After loading an agent from disk fill the param tabs of {@link Arena} according to the
 	 * settings of this agent
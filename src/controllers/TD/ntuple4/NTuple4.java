@@ -2,18 +2,25 @@ package controllers.TD.ntuple4;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.PrintWriter;
+import java.io.Serial;
 import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.Random;
 
+import agentIO.AgentBinaryIO;
 import controllers.TD.ntuple2.NTuple2;
 import games.BoardVector;
 import games.StateObsWithBoardVector;
 import games.StateObservation;
 import games.XNTupleFuncs;
 import params.ParNT;
+import tools.IntSet;
 
 /**
  * Realization of a single n-tuple for games.
@@ -43,6 +50,14 @@ import params.ParNT;
  *       [6 * 6 * * * *
  *        * 2 * 2 * * *] </pre>
  *     in positions 0, 8, 2 and 10 activates the highest LUT entry.
+ * <p>
+ * The LUT weights are stored with the precision {@link ParNT#getWeightPrecision()}: as {@code double} (64 bit,
+ * the default), as {@code float} (32 bit) or as {@code short} (16 bit fixed-point: weight = {@code lutS[i]*lutScale}).
+ * In the last case the scale of each n-tuple is doubled whenever a weight would overflow, and weight updates are
+ * stochastically rounded, so that updates smaller than the resolution {@code lutScale} are not lost on average.
+ * If TC is active and the precision is not {@code double}, the TC accumulators are stored as {@code float}.
+ * Only the LUT array of the selected precision is allocated, so an agent needs correspondingly less memory, and
+ * its {@code .agt.zip} file (see {@link agentIO.LoadSaveGBG}) is smaller as well.
  *
  * @author Wolfgang Konen, TH Koeln, 2020
  *
@@ -71,18 +86,37 @@ public class NTuple4 implements Serializable {
 
 	private final int[] nTuple;
 	private final int[] posVals; // posVals[i] = # of possible values for cell i of BoardVector
-	private final double[] lut;
+	private final int precision;	// ParNT.PREC_DOUBLE, PREC_FLOAT or PREC_INT16. Older agents: 0 = PREC_DOUBLE
+	private double[] lut;			// the LUT, if precision==PREC_DOUBLE, else null
+	private float[] lutF;			// the LUT, if precision==PREC_FLOAT, else null
+	private short[] lutS;			// the LUT, if precision==PREC_INT16, else null
+	private double lutScale;		// if precision==PREC_INT16: weight = lutS[i]*lutScale
+	// if the agent was loaded with AgentBinaryIO.load(..,mapped=true): the read-only, memory-mapped LUT (one of the
+	// three, depending on precision). Then lut, lutF and lutS are null.
+	private transient boolean mapped = false;
+	private transient DoubleBuffer lutMap = null;
+	private transient FloatBuffer lutMapF = null;
+	private transient ShortBuffer lutMapS = null;
 	private transient double[] tcN = null;
 	private transient double[] tcA = null;
 	private transient double[] tcFactorArray = null;
+	private transient float[] tcNF = null;				// tcN, tcA, tcFactorArray for precision != PREC_DOUBLE
+	private transient float[] tcAF = null;
+	private transient float[] tcFactorArrayF = null;
+
+	/**
+	 * if precision==PREC_INT16: the initial scale lutScale, so that weights in [-1,1] are representable
+	 */
+	private static final double INT16_INIT_SCALE = 1.0/Short.MAX_VALUE;
 
-	// indexList is needed in update(): if a certain index of the LUT is
+	// indexSet is needed in update(): if a certain index of the LUT is
 	// invoked more than once during a weight update for state s_k (multiple calls to updateNew(), 
 	// if there are equivalent states (symmetric to s_k)), then it is updated only *once*. This 
-	// is realized by remembering the already visited indices in indexList.
+	// is realized by remembering the already visited indices in indexSet (an allocation-free IntSet,
+	// which replaces the former LinkedList<Integer> indexList with its linear contains()).
 	// It ensures that an update with ALPHA=1.0 changes the LUT in such a way that a subsequent
 	// call getScoreI() returns a value identical to the target of that update.
-	private transient LinkedList<Integer> indexList = new LinkedList<>();
+	private transient IntSet indexSet = new IntSet();
 
 	// /WK/
 	private transient double[] dWArray=null;		// recommended weight changes
@@ -125,24 +159,18 @@ public class NTuple4 implements Serializable {
 		rand = new Random();
 		this.nTuple = nTuple.clone();
 		this.posVals = posVals.clone();
+		this.precision = ntPar.getWeightPrecision();
 		int L=1;
 		for (int j : nTuple) L *= posVals[j];
-		lut = new double[L];
-		if (TC) {
-			tcN = new double[lut.length]; // matrix N in TC
-			tcA = new double[lut.length]; // matrix A in TC
-			tcFactorArray = new double[lut.length]; // tcFactor=|N|/A
-			//tcDampArray = new double[lut.length]; // /WK/ for NEW_WK
-			//dWArray = new double[lut.length];	// for accumulating TC (tcImm==false)
-			
-			// initializing N and A matrices and tcFactor=|N|/A
-			for (int i = 0; i < lut.length; i++) {
-				tcN[i] = INIT;
-				tcA[i] = INIT;
-				tcFactorArray[i] = 1.0;
-				//tcDampArray[i] = 1.0;			
+		switch (precision) {
+			case ParNT.PREC_FLOAT -> lutF = new float[L];
+			case ParNT.PREC_INT16 -> {
+				lutS = new short[L];
+				lutScale = INT16_INIT_SCALE;
 			}
+			default -> lut = new double[L];
 		}
+		if (TC) initTcArrays();
 		
 //		if (DW_DBG) {
 //			dWOld = new double[lut.length];
@@ -155,23 +183,155 @@ public class NTuple4 implements Serializable {
 	}
 
 	public boolean instantiateAfterLoading() {
-		indexList = new LinkedList<>();
-		if (TC) {
-			tcN = new double[lut.length]; // matrix N in TC
-			tcA = new double[lut.length]; // matrix A in TC
-			tcFactorArray = new double[lut.length]; // tcFactor=|N|/A
-			//tcDampArray = new double[lut.length]; // /WK/ for NEW_WK
-			//dWArray = new double[lut.length];	// for accumulating TC (tcImm==false)
-			
+		indexSet = new IntSet();
+		if (TC) initTcArrays();
+		return true;
+	}
+
+	/**
+	 * @return true, if the LUT is a read-only, memory-mapped buffer (see {@link AgentBinaryIO})
+	 */
+	public boolean isMapped() {
+		return mapped;
+	}
+
+	/**
+	 * @return the LUT as array (for precision double, float or int16). If the LUT is memory-mapped, this is a
+	 * 		<b>copy</b> of it.
+	 */
+	private Object lutArray() {
+		if (!mapped) return switch (precision) {
+			case ParNT.PREC_FLOAT -> lutF;
+			case ParNT.PREC_INT16 -> lutS;
+			default -> lut;
+		};
+		return switch (precision) {
+			case ParNT.PREC_FLOAT -> { float[] a = new float[lutMapF.capacity()]; lutMapF.get(0, a); yield a; }
+			case ParNT.PREC_INT16 -> { short[] a = new short[lutMapS.capacity()]; lutMapS.get(0, a); yield a; }
+			default -> { double[] a = new double[lutMap.capacity()]; lutMap.get(0, a); yield a; }
+		};
+	}
+
+	/**
+	 * Serialization: For {@link AgentBinaryIO.LutOutputStream} the LUT is not written to the stream but is
+	 * registered as a raw block. For other streams (e.g. {@code *.agt.zip}) the LUT is written as usual (a memory-mapped
+	 * LUT as array).
+	 * <p>
+	 * The fields are written via {@link ObjectOutputStream.PutField} in the default format (so that
+	 * {@link #readObject(ObjectInputStream)} can use {@code defaultReadObject}), with the LUT fields taken from local
+	 * variables: the fields of the agent are never modified, the agent may be used by other threads meanwhile.
+	 */
+	@Serial
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		Object array = lutArray();
+		boolean binary = (out instanceof AgentBinaryIO.LutOutputStream);
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("INIT", INIT);
+		fields.put("TC", TC);
+		fields.put("tcImm", tcImm);
+		fields.put("tcAccRW", tcAccRW);
+		fields.put("tcEXP", tcEXP);
+		fields.put("tcBeta", tcBeta);
+		fields.put("EPS", EPS);
+		fields.put("rand", rand);
+		fields.put("nTuple", nTuple);
+		fields.put("posVals", posVals);
+		fields.put("precision", precision);
+		fields.put("lutScale", lutScale);
+		fields.put("lut", (!binary && array instanceof double[]) ? array : null);
+		fields.put("lutF", (!binary && array instanceof float[]) ? array : null);
+		fields.put("lutS", (!binary && array instanceof short[]) ? array : null);
+		out.writeFields();
+		if (binary) out.writeInt(((AgentBinaryIO.LutOutputStream) out).addBlock(array));
+	}
+
+	@Serial
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (in instanceof AgentBinaryIO.LutInputStream) {
+			Object block = ((AgentBinaryIO.LutInputStream) in).getBlock(in.readInt());
+			if (block instanceof double[]) lut = (double[]) block;
+			else if (block instanceof float[]) lutF = (float[]) block;
+			else if (block instanceof short[]) lutS = (short[]) block;
+			else {
+				mapped = true;
+				if (block instanceof FloatBuffer) lutMapF = (FloatBuffer) block;
+				else if (block instanceof ShortBuffer) lutMapS = (ShortBuffer) block;
+				else lutMap = (DoubleBuffer) block;
+			}
+		}
+	}
+
+	private void initTcArrays() {
+		int L = getLutLength();
+		if (precision==ParNT.PREC_DOUBLE) {
+			tcN = new double[L]; // matrix N in TC
+			tcA = new double[L]; // matrix A in TC
+			tcFactorArray = new double[L]; // tcFactor=|N|/A
+			//tcDampArray = new double[L]; // /WK/ for NEW_WK
+			//dWArray = new double[L];	// for accumulating TC (tcImm==false)
+
 			// initializing N and A matrices and tcFactor=|N|/A
-			for (int i = 0; i < lut.length; i++) {
-				tcN[i] = INIT;
-				tcA[i] = INIT;
-				tcFactorArray[i] = 1.0;
-				//tcDampArray[i] = 1.0;			
+			Arrays.fill(tcN, INIT);
+			Arrays.fill(tcA, INIT);
+			Arrays.fill(tcFactorArray, 1.0);
+		} else {
+			tcNF = new float[L];
+			tcAF = new float[L];
+			tcFactorArrayF = new float[L];
+			Arrays.fill(tcNF, (float) INIT);
+			Arrays.fill(tcAF, (float) INIT);
+			Arrays.fill(tcFactorArrayF, 1.0f);
+		}
+	}
+
+	/**
+	 * @param i index into LUT
+	 * @return the weight {@code i}, independent of the precision
+	 */
+	private double lutGet(int i) {
+		if (mapped) return switch (precision) {
+			case ParNT.PREC_FLOAT -> lutMapF.get(i);
+			case ParNT.PREC_INT16 -> lutMapS.get(i)*lutScale;
+			default -> lutMap.get(i);
+		};
+		return switch (precision) {
+			case ParNT.PREC_FLOAT -> lutF[i];
+			case ParNT.PREC_INT16 -> lutS[i]*lutScale;
+			default -> lut[i];
+		};
+	}
+
+	/**
+	 * Set weight {@code i} to {@code w}.
+	 *
+	 * @param i 		index into LUT
+	 * @param w			the new weight
+	 * @param stochastic	only PREC_INT16: if true, round stochastically (unbiased for small weight updates),
+	 * 						else round to the nearest representable value
+	 */
+	private void lutSet(int i, double w, boolean stochastic) {
+		if (mapped)
+			throw new RuntimeException("NTuple4: the LUT is memory-mapped read-only (see AgentBinaryIO), it can not be changed");
+		switch (precision) {
+			case ParNT.PREC_FLOAT -> lutF[i] = (float) w;
+			case ParNT.PREC_INT16 -> {
+				while (Math.abs(w) > Short.MAX_VALUE*lutScale)
+					doubleInt16Scale();
+				double q = w/lutScale;
+				lutS[i] = (short) (stochastic ? Math.floor(q + rand.nextDouble()) : Math.rint(q));
 			}
+			default -> lut[i] = w;
 		}
-		return true;
+	}
+
+	/**
+	 * PREC_INT16: double the scale of this n-tuple to make room for a larger weight
+	 */
+	private void doubleInt16Scale() {
+		for (int k=0; k<lutS.length; k++)
+			lutS[k] = (short) Math.rint(lutS[k]/2.0);
+		lutScale *= 2;
 	}
 	
 	/**
@@ -202,8 +362,8 @@ public class NTuple4 implements Serializable {
 	 *            If {@code false}, all weights are set to 0.0.
 	 */
 	public void initWeights(boolean random) {
-		for (int i = 0; i < lut.length; i++)
-			lut[i] = (random ? EPS * (rand.nextDouble() * 2 - 1) : 0.0);
+		for (int i = 0, L = getLutLength(); i < L; i++)
+			lutSet(i, (random ? EPS * (rand.nextDouble() * 2 - 1) : 0.0), false);
 	}
 
     /**
@@ -219,7 +379,7 @@ public class NTuple4 implements Serializable {
 	 */
 	public double getScore(int[] board) {
 		int Index = getIndex(board);
-		double score = lut[Index];
+		double score = lutGet(Index);
 		
 //		final double MAXSCORE = 3932156; 
 //		System.out.println(Index + " ["+score*MAXSCORE+"]");  //debug
@@ -261,11 +421,11 @@ public class NTuple4 implements Serializable {
 		}
 
 //		if (useIndexList) {		// useIndexList==true is the recommended choice
+			boolean firstVisit = indexSet.add(index);
 			if (!TC || (TC && tcImm)) {
-				if (!indexList.contains(index))
-					lut[index] += dW;				
-			}		
-			indexList.add(index);
+				if (firstVisit)
+					lutSet(index, lutGet(index) + dW, true);
+			}
 //		} 
 
 //		if (TC)
@@ -280,7 +440,18 @@ public class NTuple4 implements Serializable {
 	 * @param accum
 	 */
 	private void setTcFactor(int index, double accum) {
-		if (TC) {
+		if (TC && precision!=ParNT.PREC_DOUBLE) {
+			tcNF[index] += (float) accum;
+			tcAF[index] += (float) Math.abs(accum);
+
+			if (tcImm) {
+				double arg = Math.abs(tcNF[index]) / tcAF[index];
+				if (tcEXP) {
+					arg = Math.exp(tcBeta*(arg-1));
+				}
+				tcFactorArrayF[index] = (float) arg;
+			}
+		} else if (TC) {
 			tcN[index] += accum;
 			tcA[index] += Math.abs(accum);
 
@@ -297,8 +468,8 @@ public class NTuple4 implements Serializable {
 	// currently not used
 	@Deprecated
 	public void weightDecay(double factor) {
-		for (int k=0; k<lut.length; k++)
-			lut[k] *= factor;
+		for (int k=0, L=getLutLength(); k<L; k++)
+			lutSet(k, lutGet(k)*factor, false);
 	}
 	
 	/**
@@ -307,20 +478,41 @@ public class NTuple4 implements Serializable {
 	 * @return the kth weight for this NTuple
 	 */
 	public double getWeight(int k) {
-		assert (k >= 0 && k < lut.length) : " k is not a valid LUT index";
-		return lut[k];
+		assert (k >= 0 && k < getLutLength()) : " k is not a valid LUT index";
+		return lutGet(k);
 	}
 
+	/**
+	 * @return the LUT weights. If the precision is not {@code double}, this is a converted <b>copy</b> of the LUT.
+	 */
 	public double[] getWeights() {
-		return lut;
+		if (precision==ParNT.PREC_DOUBLE && !mapped) return lut;
+		double[] w = new double[getLutLength()];
+		for (int k=0; k<w.length; k++) w[k] = lutGet(k);
+		return w;
 	}
 	
+	/**
+	 * @return the TC factors (or null, if TC is not active). If the precision is not {@code double}, this is a
+	 * 		converted <b>copy</b>.
+	 */
 	public double[] getTcFactorArray() {
-		return tcFactorArray;
+		if (tcFactorArrayF==null) return tcFactorArray;
+		double[] f = new double[tcFactorArrayF.length];
+		for (int k=0; k<f.length; k++) f[k] = tcFactorArrayF[k];
+		return f;
 	}
 	
 	public double getTcFactor(int Index) {
-		return (TC) ? tcFactorArray[Index] : 1.0;
+		if (!TC) return 1.0;
+		return (precision==ParNT.PREC_DOUBLE) ? tcFactorArray[Index] : tcFactorArrayF[Index];
+	}
+
+	/**
+	 * @return the weight precision {@link ParNT#PREC_DOUBLE}, {@link ParNT#PREC_FLOAT} or {@link ParNT#PREC_INT16}
+	 */
+	public int getWeightPrecision() {
+		return precision;
 	}
 	
 	public boolean getTc() {
@@ -332,7 +524,7 @@ public class NTuple4 implements Serializable {
 	}
 
 	public void clearIndices() {
-		indexList.clear();
+		indexSet.clear();
 	}
 
 //	public int getCountP(int k) {
@@ -363,7 +555,16 @@ public class NTuple4 implements Serializable {
 	 * @return the length of the LUT for this NTuple
 	 */
 	public int getLutLength() {
-		return lut.length;
+		if (mapped) return switch (precision) {
+			case ParNT.PREC_FLOAT -> lutMapF.capacity();
+			case ParNT.PREC_INT16 -> lutMapS.capacity();
+			default -> lutMap.capacity();
+		};
+		return switch (precision) {
+			case ParNT.PREC_FLOAT -> lutF.length;
+			case ParNT.PREC_INT16 -> lutS.length;
+			default -> lut.length;
+		};
 	}
 
 	public int getPosVals(int i) {
@@ -377,7 +578,7 @@ public class NTuple4 implements Serializable {
 	 */
 	@Deprecated
 	public void updateTC() {
-		if (TC == true) {
+		if (TC == true && precision==ParNT.PREC_DOUBLE) {
 
 			//System.out.println("updateTCfactor");
 			//for (int i = 0; i < lut.length; i++)
@@ -410,12 +611,12 @@ public class NTuple4 implements Serializable {
 			e.printStackTrace();
 		}
 		if (tableN!=null) {
-			tableN.println("" +Arrays.toString(tcN));
+			tableN.println("" +((tcNF!=null) ? Arrays.toString(tcNF) : Arrays.toString(tcN)));
 			tableN.close();
 		}
 
 		if (tableA!=null) {
-			tableA.println("" +Arrays.toString(tcA));
+			tableA.println("" +((tcAF!=null) ? Arrays.toString(tcAF) : Arrays.toString(tcA)));
 			tableA.close();
 		}
 
@@ -441,17 +642,17 @@ public class NTuple4 implements Serializable {
 
 	public int lutHashSum() {
 		int hs=0; 
-		for (int i=0; i<lut.length; i++) if (lut[i]>0) hs += i;
+		for (int i=0, L=getLutLength(); i<L; i++) if (lutGet(i)>0) hs += i;
 		return (hs%100);
 	}
 	public double lutSum() {
 		double ls=0;
-		for (double lut_i : lut) ls += lut_i;
+		for (int i=0, L=getLutLength(); i<L; i++) ls += lutGet(i);
 		return ls;
 	}
 	public double lutSumAbs() {
 		double ls=0;
-		for (double lut_i : lut) ls += Math.abs(lut_i);
+		for (int i=0, L=getLutLength(); i<L; i++) ls += Math.abs(lutGet(i));
 		return ls;
 	}
 }
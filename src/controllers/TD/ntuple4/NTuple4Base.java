@@ -107,6 +107,17 @@ abstract public class NTuple4Base extends AgentBase implements NTuple4Agt, Seria
 		super(name,oPar,rbPar,wrPar);
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		if (m_Net == null) return new Random[]{rand};
+		// the n-tuples draw random numbers for the stochastic rounding of int16 weights:
+		NTuple4[] nTuples = m_Net.getNTuples();
+		Random[] rands = new Random[nTuples.length + 1];
+		rands[0] = rand;
+		for (int i=0; i<nTuples.length; i++) rands[i+1] = nTuples[i].rand;
+		return rands;
+	}
+
 	public boolean instantiateAfterLoading() {
 		super.instantiateAfterLoading();
 		this.instantiateParTD();
@@ -26,7 +26,16 @@ public class NTuple4Factory {
 	private boolean PRINTNTUPLES = false;	// /WK/ control the file printout of n-tuples
 
 	// needed for generating random n-Tuples
-	private Random rand = new Random(System.currentTimeMillis());	
+	private Random rand = new Random();	// not time-based: factories constructed in the same ms would create the same n-tuples	
+
+	public NTuple4Factory() { }
+
+	/**
+	 * @param seed	seed for the random n-tuples (reproducible n-tuple sets)
+	 */
+	public NTuple4Factory(long seed) {
+		rand = new Random(seed);
+	}
 
 	/**
 	 * 
@@ -77,6 +77,12 @@ public class NTuple4ValueFunc implements Serializable {
 	 * a {@link HashMap} that maps all available actions to consecutive {@link Integer}s.
 	 */
 	private HashMap<ACTIONS,Integer> actionMap;
+	/**
+	 * The same mapping as {@link #actionMap}, but as a primitive table for the hot paths {@link #getQFunc} and
+	 * {@link #update}: {@code actionIndex[key]} is the output index for the action with {@code key=toInt()}, or -1.
+	 * It is rebuilt from {@link #actionMap} in the constructor and in {@link #instantiateAfterLoading()}.
+	 */
+	private transient int[] actionIndex;
 	
 	// elements needed for TD(lambda)-update with finite horizon, 
 	// see update(int[],int,double,double):
@@ -115,7 +121,8 @@ public class NTuple4ValueFunc implements Serializable {
 	 * @param randInitWeights
 	 *            true, if all weights of all n-Tuples shall be initialized
 	 *            randomly. Otherwise, they are initialized with 0 (which allows to count the active weigths)
-	 * @param tcPar    temporal coherence and n-tuple parameters
+	 * @param tcPar    temporal coherence and n-tuple parameters, including the precision of the LUT weights
+	 * 				  ({@link ParNT#getWeightPrecision()}), which is used in training and inference
 	 * @param numCells
 	 * 			  the number of cells on the board (used to check validity of {@code nTuplesI})
 	 * @param numOutputs
@@ -181,10 +188,39 @@ public class NTuple4ValueFunc implements Serializable {
 		for (int i=0; i<allAvailActions.size(); i++) {
 			actionMap.put(allAvailActions.get(i), i);
 		}
+		buildActionIndex();
+	}
 
+	/**
+	 * Build the table {@link #actionIndex} from {@link #actionMap}. Action keys have to be non-negative.
+	 */
+	private void buildActionIndex() {
+		int maxKey = -1;
+		for (ACTIONS a : actionMap.keySet()) {
+			if (a.toInt()<0) throw new RuntimeException("[buildActionIndex] negative action key "+a.toInt());
+			maxKey = Math.max(maxKey, a.toInt());
+		}
+		actionIndex = new int[maxKey+1];
+		Arrays.fill(actionIndex, -1);
+		for (Map.Entry<ACTIONS,Integer> entry : actionMap.entrySet())
+			actionIndex[entry.getKey().toInt()] = entry.getValue();
+	}
+
+	/**
+	 * @param key		an action key
+	 * @param caller	for the error message
+	 * @return the output index (1st dimension of {@link #nTuples}) for action {@code key}
+	 * @throws RuntimeException if {@code key} is not in {@link #actionMap}
+	 */
+	private int outputIndex(int key, String caller) {
+		int o = (key>=0 && key<actionIndex.length) ? actionIndex[key] : -1;
+		if (o==-1) throw new RuntimeException(
+				"["+caller+"] action with key "+key+" is not in actionMap !!!");
+		return o;
 	}
 
 	public boolean instantiateAfterLoading() {
+		if (bUseActionMap) buildActionIndex();
 		this.eList = new LinkedList[this.numPlayers];
 		for (int ie=0; ie<eList.length; ie++) eList[ie] = new LinkedList<>();
 		for (int i = 0; i < numTuples; i++) {
@@ -233,21 +269,17 @@ public class NTuple4ValueFunc implements Serializable {
 		int[] equivAction;
 
 		// Get equivalent boards (including self)
-		equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym());
+		equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym(), true);
 		equivAction = xnf.symmetryActions(act.toInt());
 
 		if (equivAction.length==0) throw new RuntimeException( "[getQFunc] Error: equivAction has length 0");
 		if (bUseActionMap) {
-			for (i=0; i<equivAction.length; i++) {
-				if (actionMap.get(new ACTIONS(equivAction[i]))==null) throw new RuntimeException(
-						"[getQFunc] equivAction["+i+"]="+equivAction[i]+" is not in actionMap !!!");
-				// this should normally not happen. If it happens, we are out for an OutOfBoundException in the
-				// following lines ...
-			}
+			for (i=0; i<equivAction.length; i++)
+				outputIndex(equivAction[i], "getQFunc");	// throws an exception if equivAction[i] is not in actionMap
 
 			for (i = 0; i < numTuples; i++) {
 				for (j = 0; j < equiv.length; j++) {
-					score += nTuples[actionMap.get(new ACTIONS(equivAction[j])) ][player][i].getScore(equiv[j].bvec);
+					score += nTuples[actionIndex[equivAction[j]]][player][i].getScore(equiv[j].bvec);
 				}
 			}
 		} else {  // i.e. if !bUseActionMap:
@@ -287,7 +319,7 @@ public class NTuple4ValueFunc implements Serializable {
 		boolean usesym = USE_SYM_IN_SCORE && getUSESYMMETRY();
 
 		// Get equivalent boards (including self)
-		equiv = getSymBoards2(curSOWB, usesym, getNSym());
+		equiv = getSymBoards2(curSOWB, usesym, getNSym(), true);
 
 		for (i = 0; i < numTuples; i++) {
 			for (j = 0; j < equiv.length; j++) {
@@ -301,6 +333,39 @@ public class NTuple4ValueFunc implements Serializable {
 		return (hasSigmoid() ? Math.tanh(score) : score);
 	}
 
+	/**
+	 * Batched variant of {@link #getScoreI(StateObsWithBoardVector, int)}: get the values of several states in one
+	 * call. The loop runs over the n-tuples outside and over the states inside, so that the LUT of each n-tuple is
+	 * visited once per batch and not once per state. Each value is summed in the same order as in
+	 * {@link #getScoreI(StateObsWithBoardVector, int)}, so the results are the same.
+	 *
+	 * @param curSOWB	the states
+	 * @param player	{@code player[k]} is the player who has to move on {@code curSOWB[k]}
+	 * @return	the values V, one for each element of {@code curSOWB}
+	 */
+	public double[] getScoreIBatch(StateObsWithBoardVector[] curSOWB, int[] player) {
+		int i, j, k;
+		double[] score = new double[curSOWB.length];
+		BoardVector[][] equiv = new BoardVector[curSOWB.length][];
+
+		// Get equivalent boards (including self). They have to be valid for the whole batch, so no scratch buffer
+		for (k = 0; k < curSOWB.length; k++)
+			equiv[k] = getSymBoards2(curSOWB[k], getUSESYMMETRY(), getNSym(), false);
+
+		for (i = 0; i < numTuples; i++) {
+			for (k = 0; k < curSOWB.length; k++) {
+				NTuple4 nt = nTuples[0][player[k]][i];
+				for (j = 0; j < equiv[k].length; j++) {
+					score[k] += nt.getScore(equiv[k][j].bvec);
+				}
+			}
+		}
+
+		if (hasSigmoid())
+			for (k = 0; k < score.length; k++) score[k] = Math.tanh(score[k]);
+		return score;
+	}
+
 	/**
 	 * Get the equivalent positions to one board. The first one 
 	 * is the board itself. The other can be generated
@@ -312,9 +377,12 @@ public class NTuple4ValueFunc implements Serializable {
 	 * @param useSymmetry if false, return a vector of BoardVectors with only one element
 	 * 			(the board itself in BoardVector[0])
 	 * @param nSym the number of symmetry vectors to use (if = 0, use all symmetries)
+	 * @param scratch if true, the equivalent board vectors may be in the scratch buffer of
+	 * 			{@link XNTupleFuncs#symmetryVectorsScratch(StateObsWithBoardVector, int)}: they are only valid until
+	 * 			the next call
 	 * @return the equivalent board vectors
 	 */
-	private BoardVector[] getSymBoards2(StateObsWithBoardVector curSOWB, boolean useSymmetry, int nSym) {
+	private BoardVector[] getSymBoards2(StateObsWithBoardVector curSOWB, boolean useSymmetry, int nSym, boolean scratch) {
 		BoardVector[] equiv;
 		
 		assert nSym >= 0 : "Ooops, nSym="+nSym+" is negative!";
@@ -330,7 +398,7 @@ public class NTuple4ValueFunc implements Serializable {
 				// (symmetryActions is ONLY needed by SarsaAgt - and perhaps later by QLearnAgt)
 				throw new RuntimeException("[NTuple4ValueFunc] Sorry, cannot handle case SarsaAgt and 0 < nSym < s (symmetryActions not yet adapted).");
 
-			equiv = xnf.symmetryVectors(curSOWB,nSym);
+			equiv = scratch ? xnf.symmetryVectorsScratch(curSOWB,nSym) : xnf.symmetryVectors(curSOWB,nSym);
 		} else {
 			equiv = new BoardVector[1];
 			equiv[0] = curSOWB.getBoardVector();			
@@ -464,8 +532,9 @@ public class NTuple4ValueFunc implements Serializable {
 	 *            only for debug info: the delta reward given for the transition into next board
 	 * @param thisSO
 	 * 			  only for debug info: access to the current state's stringDescr()
+	 * @return the TD error {@code target - vLast} (e.g. for the priority in a prioritized replay buffer)
 	 */
-	public void updateWeightsTD(StateObsWithBoardVector curSOWB, int curPlayer, 
+	public double updateWeightsTD(StateObsWithBoardVector curSOWB, int curPlayer, 
 			double vLast, double target, double reward, StateObservation thisSO) {
 		// delta is the error signal:
 		double delta = (target - vLast);
@@ -481,6 +550,7 @@ public class NTuple4ValueFunc implements Serializable {
 			+"] qLast,v_new:"+vLast*MAXSCORE+", "+v_new*MAXSCORE+", T="+target*MAXSCORE+", R="+reward);
 			dbg3PArr[curPlayer]=v_new*MAXSCORE;
 		}
+		return delta;
 	}
 
 	/**
@@ -501,9 +571,11 @@ public class NTuple4ValueFunc implements Serializable {
 	 * @param reward
 	 *            only for debug info: the delta reward given for the transition into next board
 	 * @param thisSO
-	 * 			  only for debug info: access to the current state's stringDescr()
+	 * 			  only for debug info: access to the next state's stringDescr(), may be null (not stored in a
+	 * 			  {@link controllers.ReplayBuffer.Buffer.CompactBuffer})
+	 * @return the (unweighted) TD error {@code target - vLast}
 	 */
-	public void w_updateWeightsTD(StateObsWithBoardVector curSOWB, int curPlayer, double weight,
+	public double w_updateWeightsTD(StateObsWithBoardVector curSOWB, int curPlayer, double weight,
 								double vLast, double target, double reward, StateObservation thisSO) {
 		// delta is the error signal:
 		double delta = weight*(target - vLast);
@@ -511,6 +583,16 @@ public class NTuple4ValueFunc implements Serializable {
 		double e = (hasSigmoid() ? (1.0 - vLast * vLast) : 1.0);
 
 		update(curSOWB, curPlayer, 0, delta, e, false, true);
+
+		if (NTuple4Base.DBG_REWARD || NTuple4Base.DBG_OLD_3P) {
+			final double MAXSCORE = 1; // 1; 3932156;
+			double v_new = getScoreI(curSOWB,curPlayer);
+			String descr = (thisSO==null) ? "(next state not stored)" : thisSO.stringDescr();
+			System.out.println("w_updateWeightsTD[p="+curPlayer+", "+descr
+			+"] qLast,v_new:"+vLast*MAXSCORE+", "+v_new*MAXSCORE+", T="+target*MAXSCORE+", R="+reward+", w="+weight);
+			dbg3PArr[curPlayer]=v_new*MAXSCORE;
+		}
+		return target - vLast;
 	}
 
 	/**
@@ -619,7 +701,8 @@ public class NTuple4ValueFunc implements Serializable {
 		double alphaM, lamFactor;
 
 		// Get equivalent boards (including self) and corresponding actions
-		BoardVector[] equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym());
+		BoardVector[] equiv = getSymBoards2(curSOWB, getUSESYMMETRY(), getNSym(), horizon==1);
+		// (with horizon 1 the scratch buffer is safe: the EligStates element below is dropped before the next update)
 		int[] equivAction = (QMODE ? getSymActions(output, getUSESYMMETRY()) : null); 
 		// equivAction only needed for QMODE==true
 
@@ -649,7 +732,7 @@ public class NTuple4ValueFunc implements Serializable {
 			e = lamFactor*elem.sigDeriv;
 			for (i = 0; i < numTuples; i++) {
 				if (bUseActionMap) {
-					nTuples[ actionMap.get(new ACTIONS(output)) ][player][i].clearIndices();
+					nTuples[ outputIndex(output, "update") ][player][i].clearIndices();
 				} else {
 					nTuples[output][player][i].clearIndices();
 				}
@@ -660,9 +743,7 @@ public class NTuple4ValueFunc implements Serializable {
 					
 					out = (QMODE ? equivAction[j] : output);
 					if (bUseActionMap) {
-						if (actionMap.get(new ACTIONS(out))==null) throw new RuntimeException(
-								"[update] action with index "+out+" is not in actionMap !!!");
-						out = actionMap.get(new ACTIONS(out));
+						out = outputIndex(out, "update");
 					}
 //					System.out.print("(i,j)=("+i+","+j+"):  ");		//debug
 					nTuples[out][player][i].updateNew(equiv[j].bvec, alphaM, delta, e);
@@ -1011,8 +1092,9 @@ public class NTuple4ValueFunc implements Serializable {
 		DecimalFormat df;
 		df = (DecimalFormat) NumberFormat.getNumberInstance(Locale.UK);		
 		df.applyPattern("+0.0000000;-0.0000000");  
+		String[] precStr = {"double","float32","int16"};
 		System.out.println("[NTuple4ValueFunc.weightAnalysis] " + tdAgt.getClass().getSimpleName() + " ("
-				+count+" weights, "+nActive+" active ("+pActive+"%)): ");
+				+count+" "+precStr[ntuples[0].getWeightPrecision()]+" weights, "+nActive+" active ("+pActive+"%)): ");
 		//if (tcf==null) System.out.println("WARNING: tcFactorArray is null");
 		System.out.print("             per       LUT    ");
 		System.out.println((tcf==null) ? "" : " / tcFactor");
@@ -10,6 +10,7 @@ import java.util.Random;
 import agentIO.LoadSaveGBG;
 import controllers.MCTSWrapper.MCTSWrapperAgent;
 import controllers.ReplayBuffer.Buffer.BaseBuffer;
+import controllers.ReplayBuffer.Buffer.CompactBuffer;
 import controllers.ReplayBuffer.ConfigReplayBuffer;
 import controllers.ReplayBuffer.Transition.ITransition;
 import controllers.TD.ntuple2.NTuple2;
@@ -123,7 +124,7 @@ public class TDNTuple4Agt extends NTuple4Base implements PlayAgent, NTuple4Agt,S
 		this.randLast = new boolean[numPlayers];
 		initNet(ntPar,tdPar,oPar, nTuples, xnf, maxGameNum);
 		if (rbPar.getUseRB()){
-			replayBuffer = new BaseBuffer(rbPar);
+			replayBuffer = rbPar.getCompact() ? new CompactBuffer(rbPar, xnf) : new BaseBuffer(rbPar);
 			ConfigReplayBuffer.USE_REPLAYBUFFER = true;
 		} else {
 			replayBuffer = null;
@@ -348,6 +349,98 @@ public class TDNTuple4Agt extends NTuple4Base implements PlayAgent, NTuple4Agt,S
 		return actBestVT;
 	}
 
+	/**
+	 * Batched variant of {@link #getNextAction2(StateObservation, boolean, boolean, boolean)
+	 * getNextAction2(so, false, true, true)} for all states in {@code sos}: the afterstates of all states are
+	 * evaluated together with one call of {@link NTuple4ValueFunc#getScoreIBatch(StateObsWithBoardVector[], int[])}.
+	 * The results (best action, vTable, vBest) are the same as with single calls.
+	 * <p>
+	 * This is used by {@link controllers.MCTSWrapper.stateApproximation.PlayAgentApproximator#predictBatch(List)}.
+	 *
+	 * @param sos	the states (returned unchanged)
+	 * @return	one {@link ACTIONS_VT} for each element of {@code sos} (same order)
+	 */
+	public Types.ACTIONS_VT[] getNextAction2Batch(List<StateObservation> sos) {
+		boolean rgs = this.getParOther().getRewardIsGameScore();
+		StateObservation[][] newSOs = new StateObservation[sos.size()][];
+		int[][] batchIndex = new int[sos.size()][];		// index into the batch or -1 (game over: value 0)
+		ArrayList<StateObsWithBoardVector> batch = new ArrayList<>();
+		ArrayList<Integer> batchPlayer = new ArrayList<>();
+
+		// 1st pass: generate the afterstates
+		for (int k = 0; k < sos.size(); k++) {
+			StateObservation so = sos.get(k);
+			if (!so.isFinalRewardGame()) this.TERNARY=false;		// we use TD target r + gamma*V
+			ArrayList<Types.ACTIONS> acts = so.getAvailableActions();
+			assert acts.size()>0 : "Oops, no available action";
+			newSOs[k] = new StateObservation[acts.size()];
+			batchIndex[k] = new int[acts.size()];
+			for (int i = 0; i < acts.size(); ++i) {
+				Types.ACTIONS thisAct = acts.get(i);
+				if (thisAct.isEqualToInverseOfLastAction(so))
+					continue;	// skipped as in getNextAction2, newSOs[k][i] stays null
+
+				StateObservation NewSO = so.copy();
+				StateObservation scoreSO;
+				if (this.getAFTERSTATE()) {
+					NewSO.advanceDeterministic(thisAct); 	// generate the afterstate
+					scoreSO = NewSO.project();
+					if (scoreSO == NewSO && !NewSO.isNextActionDeterministic() && !NewSO.isRoundOver())
+						scoreSO = NewSO.copy();			// NewSO is changed below, but scoreSO is evaluated later
+					while (!NewSO.isNextActionDeterministic() && !NewSO.isRoundOver()) {
+						NewSO.advanceNondeterministic(null);
+					}
+				} else {
+					NewSO.advance(thisAct, null);
+					scoreSO = NewSO.project();
+				}
+				newSOs[k][i] = NewSO;
+				batchIndex[k][i] = -1;
+				if (!scoreSO.isGameOver()) {			// see getScore(so,refer)
+					batchIndex[k][i] = batch.size();
+					batch.add(new StateObsWithBoardVector(scoreSO,m_Net.xnf));
+					batchPlayer.add(so.getPlayer());
+				}
+			}
+		}
+
+		// evaluate all afterstates in one call:
+		double[] scores = m_Net.getScoreIBatch(batch.toArray(new StateObsWithBoardVector[0]),
+				batchPlayer.stream().mapToInt(Integer::intValue).toArray());
+
+		// 2nd pass: values as in getNextAction2
+		Types.ACTIONS_VT[] result = new Types.ACTIONS_VT[sos.size()];
+		for (int k = 0; k < sos.size(); k++) {
+			StateObservation so = sos.get(k);
+			double otilde = so.getRewardTuple(rgs).scTup[so.getPlayer()];	// cumulated reward before
+			double[] VTable = new double[newSOs[k].length];
+			double bestValue = -Double.MAX_VALUE;
+			int iBest = -1;
+			for (int i = 0; i < newSOs[k].length; ++i) {
+				StateObservation NewSO = newSOs[k][i];
+				if (NewSO == null) continue;
+				double value = (batchIndex[k][i] == -1) ? 0.0 : scores[batchIndex[k][i]];
+				double rtilde  = (NewSO.getRewardTuple(rgs).scTup[so.getPlayer()]-otilde)
+						+ so.getStepRewardTuple().scTup[so.getPlayer()];
+				if (TERNARY) {
+					value = NewSO.isGameOver() ? rtilde : getGamma()*value;
+				} else {
+					value = rtilde + getGamma()*value;
+				}
+				value = normalize2(value,so);
+				VTable[i] = value;
+				if (bestValue < value) {		// on ties the first one, as with deterministic==true
+					bestValue = value;
+					iBest = i;
+				}
+			}
+			assert iBest != -1 : "Oops, no best action";
+			result[k] = new Types.ACTIONS_VT(so.getAvailableActions().get(iBest).toInt(), false, VTable,
+					bestValue, new ScoreTuple(so,bestValue));
+		}
+		return result;
+	}
+
 	// helper for getNextAction2
 	private void printDebugInfo(StateObservation so, StateObservation NewSO, Types.ACTIONS actBest,
 								double bestValue, double[] VTable){
@@ -896,22 +989,20 @@ public class TDNTuple4Agt extends NTuple4Base implements PlayAgent, NTuple4Agt,S
 		//if(replayBuffer.getMaxBufferIndex() != replayBuffer.getCapacity()) return;
 		// Awaiting the replay buffer to contain at least #batchSize transitions
 		if(replayBuffer.getMaxBufferIndex() < replayBuffer.getBatchSize()) return;
-		ITransition[] transitions = replayBuffer.getBatch();
-		for(ITransition t : transitions){
+		int[] indices = replayBuffer.getBatchIndices();
+		for(int index : indices){
+			ITransition t = replayBuffer.getTransition(index);
 			int player = t.getPlayer();
-			StateObsWithBoardVector sowb = new StateObsWithBoardVector(t.getSLast(), m_Net.xnf);
+			StateObsWithBoardVector sowb = t.getSLastSOWB(m_Net.xnf);
 			double vLast = m_Net.getScoreI(sowb,player);
 			double target;
-			double r_next;
-			StateObservation s_next = t.getNextState4().getNextSO();
-			StateObservation s_after = t.getNextState4().getAfterState();
-			double v_next = calculate_v_next(s_next,s_after,player);
-			r_next  = (t.getR().scTup[player] - t.getRLast().scTup[player])
-					+ s_next.getStepRewardTuple().scTup[player];
+			boolean nextGameOver = t.isNextGameOver();
+			double v_next = calculate_v_next(t,nextGameOver,player);
+			double r_next = t.getRNext();
 			switch(t.isFinalTransition()){
 				case 0:{
 					if (TERNARY) {
-						target = s_next.isGameOver() ? r_next : getGamma()*v_next;
+						target = nextGameOver ? r_next : getGamma()*v_next;
 					} else {
 						target = r_next + getGamma()*v_next;
 					}
@@ -929,29 +1020,31 @@ public class TDNTuple4Agt extends NTuple4Base implements PlayAgent, NTuple4Agt,S
 			}
 			if(ConfigReplayBuffer.DBG){
 				String s = "";
-				s += "FinalState:" +sowb.getStateObservation().isGameOver()+"\n";
+				s += "NextGameOver:" +nextGameOver+"\n";
 				s+= "Player:"+player+"\nvLast:"+ vLast +"\nTarget:" +target+"\nReward:"+r_next;
 				System.out.println(s);
 
 			}
-			// Update the weights
-			m_Net.updateWeightsTD(sowb,player,vLast,target,r_next,t.getNextState4().getNextSO());
+			// Update the weights (with importance-sampling weight, if the selection is prioritized) and the priority
+			double tdError = m_Net.w_updateWeightsTD(sowb,player,replayBuffer.getWeight(index),vLast,target,r_next,
+					t.getNextSO());
+			replayBuffer.updatePriority(index, tdError);
 		}
 	}
 
 	/**
 	 *
-	 * @param s_next
-	 * @param s_after
+	 * @param t the transition
+	 * @param nextGameOver whether the next state of {@code t} is a game-over state
 	 * @param player
 	 * @return
 	 */
-	private double calculate_v_next(StateObservation s_next, StateObservation s_after,int player){
+	private double calculate_v_next(ITransition t, boolean nextGameOver, int player){
 		double v_next = 0.0;
-		if (s_next.isGameOver()) {
+		if (nextGameOver) {
 			v_next = 0.0;
 		} else {
-			StateObsWithBoardVector nextSOWB = new StateObsWithBoardVector(s_after,m_Net.xnf);
+			StateObsWithBoardVector nextSOWB = t.getAfterStateSOWB(m_Net.xnf);
 			v_next = m_Net.getScoreI(nextSOWB,player);
 		}
 		return v_next;
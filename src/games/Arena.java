@@ -1381,6 +1381,21 @@ abstract public class Arena implements Runnable {
 	 */
 	abstract public GameBoard makeGameBoard();
 
+	/**
+	 * Make a new GameBoard which is independent of this Arena's board {@link #gb}, e.g. for training runs executing in
+	 * parallel (see {@link starters.ParallelMultiTrainer}) which must not share the mutable state of one board.
+	 * <p>
+	 * {@link #makeGameBoard()} in the derived classes assigns {@link #gb} as a side effect, so we restore it here.
+	 *
+	 * @return the new game board
+	 */
+	public GameBoard makeIndependentGameBoard() {
+		GameBoard current = gb;
+		GameBoard board = makeGameBoard();
+		gb = current;
+		return board;
+	}
+
 	/**
 	 * Factory pattern method: make a new Evaluator
 	 *
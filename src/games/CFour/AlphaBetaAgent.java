@@ -1,8 +1,13 @@
 package games.CFour;
 
 import java.io.Serializable;
+import java.lang.ref.Cleaner;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 
 import agentIO.LoadSaveGBG;
@@ -29,7 +34,9 @@ import tools.Types.ACTIONS_VT;
  * 2019-07-13: /WK/ Because {@link C4Base} now extends {@link AgentBase}, this class has 
  * now all methods and members that {@link AgentBase} has.<br>
  * 2020-02-01: /WK/ In order to get an AlphaBetaAgent searching for distant losses, construct it with 
- * {@link #AlphaBetaAgent(BookSum, int) <b>AlphaBetaAgent(books,1000)</b>}.
+ * {@link #AlphaBetaAgent(BookSum, int) <b>AlphaBetaAgent(books,1000)</b>}. <br>
+ * 2026-10-18: The transposition table is a {@link TranspositionTable}, which several threads and agents can share
+ * without locks. With {@link #setThreads(int)} the root node is searched in parallel (Lazy SMP).
  * 
  * @author Markus Thill
  * 
@@ -80,15 +87,15 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	// Transposition Table Constants
 	private static final int[] TRANSPOSSIZE = { 262144, 524288, 1048576,
 			2097152, 4194304, 8388608, 16777216, 33554432 };
-	public static final int[] TRANSPOSBYTES = { 262144 * 99 / 8,
-			524288 * 99 / 8, 1048576 * 99 / 8, 2097152 * 99 / 8,
-			4194304 * 99 / 8, 8388608 * 99 / 8, 16777216 * 99 / 8,
-			33554432 / 8 * 99 };
+	// 8 bytes per entry, plus 1/8 for the table of the lower search depths
+	public static final int[] TRANSPOSBYTES = { 262144 * 9,
+			524288 * 9, 1048576 * 9, 2097152 * 9,
+			4194304 * 9, 8388608 * 9, 16777216 * 9,
+			33554432 * 9 };
 	private int transPosSize = 4194304 / 2;
-	private int lTransPosSize = transPosSize / 8;
-	private static final byte TRANSPOSEXACT = 1;
-	private static final byte TRANSPOSUPPER = 2;
-	private static final byte TRANSPOSLOWER = 3;
+	private static final byte TRANSPOSEXACT = TranspositionTable.EXACT;
+	private static final byte TRANSPOSUPPER = TranspositionTable.UPPER;
+	private static final byte TRANSPOSLOWER = TranspositionTable.LOWER;
 
 	// Random-Numbers for Zobrist Keys
 	private static final long rnd20[] = { 0L, 2704506115994628L,
@@ -152,15 +159,22 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	private boolean useDeepBook = false;
 	private boolean useDeepBookDist = true;
 
-	// Transposition Table for higher Search-Depths
-	private long key[] = new long[transPosSize];
-	private short value[] = new short[transPosSize];
-	private byte flag[] = new byte[transPosSize];
-
-	// Transposition Table for lower Search-Depths
-	private long lKey[] = new long[lTransPosSize];
-	private short lValue[] = new short[lTransPosSize];
-	private byte lFlag[] = new byte[lTransPosSize];
+	// Transposition Table for higher and lower Search-Depths. It is created on first
+	// search with size transPosSize, if none is set with setTranspositionTable
+	private transient TranspositionTable table = null;
+
+	// Lazy SMP: number of threads searching the root node, the helper agents and their tasks
+	private int nThreads = 1;
+	private transient AlphaBetaAgent[] helpers = null;
+	private transient Future<?>[] helperTasks = null;
+	private transient ExecutorService executorService = null;
+	// shuts the executorService down, when it is replaced or when the agent is no longer reachable
+	private transient Cleaner.Cleanable executorCleanup = null;
+	private static final Cleaner CLEANER = Cleaner.create();
+	// own table for the search of the most distant loss, if the agent uses a shared table
+	private transient TranspositionTable farLossTable = null;
+	// set by the main agent to end the search of a helper agent
+	private transient volatile boolean stopped = false;
 
 	// If is already searching for a far loose: Don't Change!!!
 	private boolean seekFarLoose = true; //false;
@@ -236,25 +250,83 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 		this.setDifficulty(42);			// search depth
 		this.randomizeEqualMoves(true);
 		this.randomizeLosses(true);
+		// all agents with these settings (perfect play) can share one transposition table:
+		this.setTranspositionTable(TranspositionTable.shared(transPosSize));
 		return true; 
 	}
 
 	/**
-	 * Init the Transposition-Table. All Values are set to ZERO
+	 * Init the Transposition-Table. All Values are set to ZERO. A shared table is not cleared, since this would wipe
+	 * the entries of the other agents: the agent is detached from it and creates its own table on the next search.
 	 */
 	public void initTranspositionTable() {
-		for (int i = 0; i < transPosSize; i++) {
-			key[i] = 0L;
-			value[i] = 0;
-			flag[i] = 0;
+		if (table != null) {
+			if (table.isShared())
+				table = null;
+			else
+				table.clear();
 		}
+	}
 
-		// Transposition Table for lower Search-Depths
-		for (int i = 0; i < lTransPosSize; i++) {
-			lKey[i] = 0L;
-			lValue[i] = 0;
-			lFlag[i] = 0;
-		}
+	/**
+	 * Use {@code table} as transposition table. A table may be shared by several agents, but only if they 
+	 * have the same search depth and use the same books (otherwise the values in the table are different). 
+	 * If {@link #setDifficulty(int)} or {@link #setBooks(boolean, boolean, boolean)} change the settings 
+	 * afterwards, the agent gets its own table again.
+	 * 
+	 * @param table
+	 *            the table, e.g. {@link TranspositionTable#shared(int)}. If null, the agent creates its 
+	 *            own table on the next search.
+	 */
+	public void setTranspositionTable(TranspositionTable table) {
+		this.table = table;
+		if (table != null)
+			this.transPosSize = table.getSize();
+	}
+
+	public TranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * A shared table is no longer valid for this agent, if its search settings change
+	 */
+	private void unshareTable() {
+		if (table != null && table.isShared())
+			table = null;
+	}
+
+	/**
+	 * Lazy SMP: If {@code nThreads > 1}, the root node is searched by the calling thread and at the 
+	 * same time by {@code nThreads-1} helper threads. Each helper tries the root moves in another order. 
+	 * The threads do not communicate, except via the shared transposition table: the entries of the 
+	 * helpers cut off the search of the calling thread, whose result is returned. As soon as it is 
+	 * finished, the helpers are stopped.
+	 * 
+	 * @param nThreads
+	 *            number of threads (default: 1)
+	 */
+	public void setThreads(int nThreads) {
+		if (nThreads != this.nThreads)
+			shutdownHelpers();
+		this.nThreads = nThreads;
+	}
+
+	/**
+	 * Shut down the helper threads of {@link #setThreads(int)}. They are started again with the next search, if
+	 * {@code nThreads > 1}. (If the agent is discarded without calling this method, the threads are shut down when
+	 * the agent is garbage collected.)
+	 */
+	public void shutdownHelpers() {
+		if (executorCleanup != null)
+			executorCleanup.clean();		// shuts executorService down (only once)
+		executorCleanup = null;
+		executorService = null;
+		helpers = null;
+	}
+
+	public int getThreads() {
+		return nThreads;
 	}
 	
 
@@ -264,7 +336,10 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	 * @param searchDepth
 	 */
 	public void setDifficulty(int searchDepth) {
-		this.searchDepth = (searchDepth + (searchDepth % 2 == 0 ? 1 : 0));
+		int depth = (searchDepth + (searchDepth % 2 == 0 ? 1 : 0));
+		if (depth != this.searchDepth)
+			unshareTable();
+		this.searchDepth = depth;
 	}
 
 	/**
@@ -2709,37 +2784,47 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			moves[x] = -1;
 		}
 
-		// Try all moves for the current player
-		for (x = 0; moves[x] > -1; x++) {
-			putPiece(player, moves[x]);
-			if (player == PLAYER1)
-				value = alphaBetaStartP2(1, alpha, beta,
-						toZobrist(fieldP1, fieldP2), symPossible());
-			else
-				value = alphaBetaStartP1(1, alpha, beta,
-						toZobrist(fieldP1, fieldP2), symPossible());
-			removePiece(player, moves[x]);
-			if (player == PLAYER1) {
-				if (value > alpha) {
-					alpha = value;
-					bestMove = moves[x];
-				}
-				if (value == 1000) {
-					if (!retValue)
-						return bestMove;
-					return alpha;
-				}
-			} else if (player == PLAYER2) {
-				if (value < beta) {
-					beta = value;
-					bestMove = moves[x];
-				}
-				if (value == -1000) {
-					if (!retValue)
-						return bestMove;
-					return beta;
+		if (table == null)
+			table = new TranspositionTable(transPosSize);
+
+		// Lazy SMP: the helper threads search the same root node (with other move orders) and
+		// fill the shared transposition table, from which this search then profits
+		startHelpers(player, moves);
+		try {
+			// Try all moves for the current player
+			for (x = 0; moves[x] > -1; x++) {
+				putPiece(player, moves[x]);
+				if (player == PLAYER1)
+					value = alphaBetaStartP2(1, alpha, beta,
+							toZobrist(fieldP1, fieldP2), symPossible());
+				else
+					value = alphaBetaStartP1(1, alpha, beta,
+							toZobrist(fieldP1, fieldP2), symPossible());
+				removePiece(player, moves[x]);
+				if (player == PLAYER1) {
+					if (value > alpha) {
+						alpha = value;
+						bestMove = moves[x];
+					}
+					if (value == 1000) {
+						if (!retValue)
+							return bestMove;
+						return alpha;
+					}
+				} else if (player == PLAYER2) {
+					if (value < beta) {
+						beta = value;
+						bestMove = moves[x];
+					}
+					if (value == -1000) {
+						if (!retValue)
+							return bestMove;
+						return beta;
+					}
 				}
 			}
+		} finally {
+			stopHelpers();
 		}
 
 		// if the board is a loose for the player, look for the most distant one
@@ -2748,6 +2833,14 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				&& ((player == PLAYER1 && alpha < -500) || (player == PLAYER2 && beta > 500))
 				&& (countPieces() > 12 || useDeepBookDist)) {
 
+			// the search for the most distant loss uses other book settings, so it must not write into a
+			// shared table: it gets an own table, the shared one is used again afterwards
+			TranspositionTable mainTable = table;
+			if (table.isShared()) {
+				if (farLossTable == null || farLossTable.getSize() != table.getSize())
+					farLossTable = new TranspositionTable(table.getSize());
+				table = farLossTable;
+			}
 			initTranspositionTable();
 
 			boolean oldUsebook = useBook;
@@ -2765,6 +2858,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			useBook = oldUsebook;
 			useDeepBook = oldUseDeepBook;
 			useDeepBookDist = oldUseDeepBookDist;
+			table = mainTable;
 			System.gc();
 			return newBestMove;
 		}
@@ -2773,6 +2867,118 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 		return (player == 1 ? alpha : beta);
 	}
 
+	/**
+	 * Start the helper threads (if {@link #setThreads(int) nThreads} &gt; 1). Helper h tries the root 
+	 * moves in the order of {@code moves}, rotated by h+1.
+	 */
+	private void startHelpers(int player, int[] moves) {
+		if (nThreads <= 1)
+			return;
+		if (helpers == null) {
+			executorService = Executors.newWorkStealingPool(nThreads - 1);
+			// (the cleanup action must not reference this agent, otherwise it would never become unreachable)
+			executorCleanup = CLEANER.register(this, executorService::shutdown);
+			helpers = new AlphaBetaAgent[nThreads - 1];
+			for (int h = 0; h < helpers.length; h++)
+				helpers[h] = new AlphaBetaAgent(books, sigfac);
+		}
+		int n = 0;
+		while (moves[n] != -1)
+			n++;
+		helperTasks = new Future<?>[helpers.length];
+		for (int h = 0; h < helpers.length; h++) {
+			AlphaBetaAgent helper = helpers[h];
+			helper.copySearchState(this);
+			int[] order = new int[n + 1];
+			for (int x = 0; x < n; x++)
+				order[x] = moves[(x + h + 1) % n];
+			order[n] = -1;
+			helperTasks[h] = executorService.submit(() -> helper.helperSearch(player, order));
+		}
+	}
+
+	/**
+	 * Stop the helper threads and wait until they are finished
+	 */
+	private void stopHelpers() {
+		if (helperTasks == null)
+			return;
+		for (AlphaBetaAgent helper : helpers)
+			helper.stopped = true;
+		for (Future<?> task : helperTasks) {
+			try {
+				task.get();
+			} catch (InterruptedException | ExecutionException e) {
+				e.printStackTrace();
+			}
+		}
+		helperTasks = null;
+	}
+
+	/**
+	 * Copy the board, the search settings and the transposition table of {@code main} to this helper
+	 */
+	private void copySearchState(AlphaBetaAgent main) {
+		setBoard(main.fieldP1, main.fieldP2);
+		this.books = main.books;
+		this.table = main.table;
+		this.movesTillFull = main.movesTillFull;
+		this.searchDepth = main.searchDepth;
+		this.useBook = main.useBook;
+		this.useDeepBook = main.useDeepBook;
+		this.useDeepBookDist = main.useDeepBookDist;
+		this.seekFarLoose = main.seekFarLoose;
+		this.looseIntervall = main.looseIntervall;
+		this.stopped = false;
+	}
+
+	/**
+	 * The search of a helper thread: the same as in {@link #rootNode(boolean)}, but the values are 
+	 * only stored in the transposition table. It ends, if all moves are searched or if the helper 
+	 * is stopped.
+	 * 
+	 * @param moves
+	 *            the root moves in the order to try them, terminated by -1
+	 */
+	private void helperSearch(int player, int[] moves) {
+		int value, alpha = -9999, beta = 9999;
+		try {
+			for (int x = 0; moves[x] > -1; x++) {
+				putPiece(player, moves[x]);
+				if (player == PLAYER1)
+					value = alphaBetaStartP2(1, alpha, beta,
+							toZobrist(fieldP1, fieldP2), symPossible());
+				else
+					value = alphaBetaStartP1(1, alpha, beta,
+							toZobrist(fieldP1, fieldP2), symPossible());
+				removePiece(player, moves[x]);
+				if (player == PLAYER1 && value > alpha)
+					alpha = value;
+				if (player == PLAYER2 && value < beta)
+					beta = value;
+				if (value == 1000 || value == -1000)
+					return;
+			}
+		} catch (SearchStopped e) {
+			// the board of this helper is left in an intermediate state, it is set 
+			// again by copySearchState before the next search
+		}
+	}
+
+	/**
+	 * Thrown in a helper search, after it is stopped. This leaves the search at once, 
+	 * without storing the values of the unfinished nodes in the transposition table.
+	 */
+	private static final class SearchStopped extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		private SearchStopped() {
+			super(null, null, false, false);
+		}
+	}
+
+	private static final SearchStopped SEARCH_STOPPED = new SearchStopped();
+
 	/**
 	 * @param depth
 	 *            current search depth
@@ -2786,6 +2992,9 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	 */
 	private int alphaBetaStartP1(int depth, int alpha, int beta, long zobr,
 			boolean symPos) {
+		if (stopped)
+			throw SEARCH_STOPPED;
+
 		// distance to win / loss
 		int distance = depth;// (seekFarLoose ? countPieces() / looseIntervall :
 								// 0);
@@ -2856,17 +3065,11 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			}
 		}
 
-		// Get index in Transposition-Table
-		// 32-Bit-Operation
-		int index = ((int) zobr & (lTransPosSize - 1));
-
-		// int transPosition = (unsigned long)zobr % lTransPosSize;
-		// should be equal to above operation (time)
-
 		// Check for Entry in Transposition-Table
-		if (lKey[index] == zobr) {
-			short v = lValue[index];
-			switch (lFlag[index]) {
+		long entry = table.getLow(zobr);
+		if (entry != 0L) {
+			short v = TranspositionTable.value(entry);
+			switch (TranspositionTable.flag(entry)) {
 			case TRANSPOSEXACT:
 				return v;
 			case TRANSPOSLOWER:
@@ -2922,10 +3125,10 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 		if (depth < 16 /* && symPos */) { // scheint ohne das
 											// Auskommentiere schneller zu sein
 			long nZobr = toZobrist(f1, f2);
-			int transPositionN = ((int) nZobr & (lTransPosSize - 1));
-			if (lKey[transPositionN] == nZobr) {
-				short v = lValue[transPositionN];
-				switch (lFlag[transPositionN]) {
+			long entryN = table.getLow(nZobr);
+			if (entryN != 0L) {
+				short v = TranspositionTable.value(entryN);
+				switch (TranspositionTable.flag(entryN)) {
 				case TRANSPOSEXACT:
 					return v;
 				case TRANSPOSLOWER:
@@ -2963,9 +3166,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 					fieldP1 = t;
 					colHeight[moves[x]]--;
 
-					lKey[index] = zobr;
-					lFlag[index] = TRANSPOSEXACT;
-					lValue[index] = (short) (1020 - distance);
+					table.putLow(zobr, 1020 - distance, TRANSPOSEXACT);
 					return 1020 - distance;
 				} else if (anz != 0) {
 					// Check if current player has two threats on top of
@@ -2975,9 +3176,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 						fieldP1 = t;
 						colHeight[moves[x]]--;
 
-						lKey[index] = zobr;
-						lFlag[index] = TRANSPOSEXACT;
-						lValue[index] = (short) (1020 - distance);
+						table.putLow(zobr, 1020 - distance, TRANSPOSEXACT);
 						return 1020 - distance;
 					}
 					colHeight[drlt[0]]++;
@@ -3024,18 +3223,14 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			fieldP1 = t;
 			colHeight[y]--;
 			if (value >= beta) {
-				lKey[index] = zobr;
-				lFlag[index] = TRANSPOSLOWER;
-				lValue[index] = value;
+				table.putLow(zobr, value, TRANSPOSLOWER);
 				return value;
 			} else if (value > alpha) {
 				alpha = value;
 				isExactValue = true;
 			}
 			if (value >= 1000) {
-				lKey[index] = zobr;
-				lFlag[index] = (isExactValue ? TRANSPOSEXACT : TRANSPOSUPPER);
-				lValue[index] = value;
+				table.putLow(zobr, value, (isExactValue ? TRANSPOSEXACT : TRANSPOSUPPER));
 				return value;
 			}
 
@@ -3048,19 +3243,14 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[z]--;
 				if (value >= beta) {
-					lKey[index] = zobr;
-					lFlag[index] = TRANSPOSLOWER;
-					lValue[index] = value;
+					table.putLow(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
 					isExactValue = true;
 				}
 				if (value >= 1000) {
-					lKey[index] = zobr;
-					lFlag[index] = (isExactValue ? TRANSPOSEXACT
-							: TRANSPOSUPPER);
-					lValue[index] = value;
+					table.putLow(zobr, value, (isExactValue ? TRANSPOSEXACT : TRANSPOSUPPER));
 					return value;
 				}
 			}
@@ -3080,19 +3270,14 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[q]--;
 				if (value >= beta) {
-					lKey[index] = zobr;
-					lFlag[index] = TRANSPOSLOWER;
-					lValue[index] = value;
+					table.putLow(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
 					isExactValue = true;
 				}
 				if (value >= 1000) {
-					lKey[index] = zobr;
-					lFlag[index] = (isExactValue ? TRANSPOSEXACT
-							: TRANSPOSUPPER);
-					lValue[index] = value;
+					table.putLow(zobr, value, (isExactValue ? TRANSPOSEXACT : TRANSPOSUPPER));
 					return value;
 				}
 			}
@@ -3119,19 +3304,14 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[moves[x]]--;
 				if (value >= beta) {
-					lKey[index] = zobr;
-					lFlag[index] = TRANSPOSLOWER;
-					lValue[index] = value;
+					table.putLow(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
 					isExactValue = true;
 				}
 				if (value >= 1000) {
-					lKey[index] = zobr;
-					lFlag[index] = (isExactValue ? TRANSPOSEXACT
-							: TRANSPOSUPPER);
-					lValue[index] = value;
+					table.putLow(zobr, value, (isExactValue ? TRANSPOSEXACT : TRANSPOSUPPER));
 					return value;
 				}
 			}
@@ -3147,22 +3327,15 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			fieldP1 = t;
 			colHeight[later]--;
 			if (value >= beta) {
-				lKey[index] = zobr;
-				lFlag[index] = TRANSPOSLOWER;
-				lValue[index] = value;
+				table.putLow(zobr, value, TRANSPOSLOWER);
 				return value;
 			} else if (value > alpha) {
 				alpha = value;
 				isExactValue = true;
 			}
 		}
-		if (isExactValue)
-			lFlag[index] = TRANSPOSEXACT;
-		else
-			// No move could be found, that was better than alpha
-			lFlag[index] = TRANSPOSUPPER;
-		lKey[index] = zobr;
-		lValue[index] = (short) alpha;
+		// if not exact: no move could be found, that was better than alpha
+		table.putLow(zobr, alpha, (isExactValue ? TRANSPOSEXACT : TRANSPOSUPPER));
 		return alpha;
 	}
 
@@ -3181,6 +3354,8 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	 */
 	private int alphaBetaStartP2(int depth, int alpha, int beta, long zobr,
 			boolean symPos) {
+		if (stopped)
+			throw SEARCH_STOPPED;
 		int distance = depth;// (seekFarLoose ? countPieces() / looseIntervall :
 								// 0);
 		if (hasWin(PLAYER2))
@@ -3189,7 +3364,6 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 
 		int x;
 		long t;
-		int transPosition;
 
 		//if (tds != null && countPieces() <= 10)
 		//	moves = tds.getBestMoveList(fieldP1, fieldP2);
@@ -3200,25 +3374,12 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 		// Enhanced Transposition Cutoff
 		for (x = 0; moves[x] != (-1); x++) {
 			t = zobr ^ rnd[1][moves[x] * 6 + colHeight[moves[x]]];
-			long k;
-			short v;
-			byte f;
-
 			// Hash-Table ist in zwei Stufen unterteilt, daher die
 			// Unterscheidung
-			if (depth > 13) {
-				transPosition = ((int) t & (transPosSize - 1));
-				k = key[transPosition];
-				v = value[transPosition];
-				f = flag[transPosition];
-			} else {
-				transPosition = ((int) t & (lTransPosSize - 1));
-				k = lKey[transPosition];
-				v = lValue[transPosition];
-				f = lFlag[transPosition];
-			}
-			if (k == t && f != TRANSPOSLOWER && v <= alpha)
-				return v;
+			long e = (depth > 13 ? table.get(t) : table.getLow(t));
+			if (e != 0L && TranspositionTable.flag(e) != TRANSPOSLOWER
+					&& TranspositionTable.value(e) <= alpha)
+				return TranspositionTable.value(e);
 		}
 
 		int y = 0, later = -1, z = -1, q = -1, anz;
@@ -3412,6 +3573,8 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	 * @return Value
 	 */
 	private int alphaBetaP1(int depth, int alpha, int beta, long zobr) {
+		if (stopped)
+			throw SEARCH_STOPPED;
 
 		// Check for direct Win
 		if (hasWin(PLAYER1)) {
@@ -3484,13 +3647,11 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			// search a little deeper
 		}
 
-		// Index of Transposition-Table
-		int index = ((int) zobr & (transPosSize - 1));
-
 		// Check, if current board is in Transposition-Table
-		if (key[index] == zobr) {
-			short v = value[index];
-			switch (flag[index]) {
+		long entry = table.get(zobr);
+		if (entry != 0L) {
+			short v = TranspositionTable.value(entry);
+			switch (TranspositionTable.flag(entry)) {
 			case TRANSPOSEXACT:
 				return v;
 			case TRANSPOSLOWER:
@@ -3524,9 +3685,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[x]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3550,9 +3709,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[3]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3573,9 +3730,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[4]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3596,9 +3751,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[2]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3619,9 +3772,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[5]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3642,9 +3793,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[1]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3665,9 +3814,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 				fieldP1 = t;
 				colHeight[6]--;
 				if (value >= beta) {
-					key[index] = zobr;
-					this.value[index] = (short) value;
-					flag[index] = TRANSPOSLOWER;
+					table.put(zobr, value, TRANSPOSLOWER);
 					return value;
 				} else if (value > alpha) {
 					alpha = value;
@@ -3684,9 +3831,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			fieldP1 = t;
 			colHeight[0]--;
 			if (value >= beta) {
-				key[index] = zobr;
-				this.value[index] = (short) value;
-				flag[index] = TRANSPOSLOWER;
+				table.put(zobr, value, TRANSPOSLOWER);
 				return value;
 			} else if (value > alpha) {
 				alpha = value;
@@ -3704,9 +3849,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			fieldP1 = t;
 			colHeight[later]--;
 			if (value >= beta) {
-				key[index] = zobr;
-				this.value[index] = (short) value;
-				flag[index] = TRANSPOSLOWER;
+				table.put(zobr, value, TRANSPOSLOWER);
 				return value;
 			} else if (value > alpha) {
 				alpha = value;
@@ -3714,9 +3857,7 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			}
 		}
 
-		key[index] = zobr;
-		this.value[index] = (short) alpha;
-		flag[index] = (isValueExact ? TRANSPOSEXACT : TRANSPOSUPPER);
+		table.put(zobr, alpha, (isValueExact ? TRANSPOSEXACT : TRANSPOSUPPER));
 		return alpha;
 	}
 
@@ -3744,13 +3885,10 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 			for (x = 0; x < 7; x++) {
 				if (colHeight[x] != 6) {
 					t = zobr ^ rnd[1][x * 6 + colHeight[x]];
-					int transPosition = ((int) t & (transPosSize - 1));
-					long k = key[transPosition];
-					short v = this.value[transPosition];
-					byte f = flag[transPosition];
-
-					if (k == t && f != TRANSPOSLOWER && v <= alpha)
-						return v;
+					long e = table.get(t);
+					if (e != 0L && TranspositionTable.flag(e) != TRANSPOSLOWER
+							&& TranspositionTable.value(e) <= alpha)
+						return TranspositionTable.value(e);
 				}
 			}
 
@@ -4105,19 +4243,11 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	public void setTransPosSize(int index) {
 		// index in the array of possible values
 		transPosSize = TRANSPOSSIZE[index];
-		lTransPosSize = transPosSize / 8;
-
-		// Transposition Table for higher Search-Depths
-		key = new long[transPosSize];
-		value = new short[transPosSize];
-		flag = new byte[transPosSize];
-
-		// Transposition Table for lower Search-Depths
-		lKey = new long[lTransPosSize];
-		lValue = new short[lTransPosSize];
-		lFlag = new byte[lTransPosSize];
 
-		System.gc();
+		// a shared table is replaced by the shared table of the new size, an own table
+		// is created again on the next search
+		if (table != null && table.getSize() != transPosSize)
+			table = (table.isShared() ? TranspositionTable.shared(transPosSize) : null);
 	}
 
 	/**
@@ -4134,6 +4264,9 @@ public class AlphaBetaAgent extends C4Base implements Serializable, PlayAgent {
 	 */
 	public void setBooks(boolean useNormalBook, boolean useDeepBook,
 			boolean useDeepBookDist) {
+		if (useNormalBook != this.useBook || useDeepBook != this.useDeepBook
+				|| useDeepBookDist != this.useDeepBookDist)
+			unshareTable();
 		this.useBook = useNormalBook;
 		this.useDeepBook = useDeepBook;
 		this.useDeepBookDist = useDeepBookDist;
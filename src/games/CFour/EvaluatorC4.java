@@ -67,6 +67,14 @@ public class EvaluatorC4 extends Evaluator {
     private PrintWriter logFile;
     private StringBuilder logSB;
 
+    /**
+     * Number of threads of each alpha-beta agent (Lazy SMP, see {@link AlphaBetaAgent#setThreads(int)}), default: all
+     * cores. It applies to evaluators constructed afterwards. Evaluators constructed in a thread which already runs in
+     * parallel (a run of {@link starters.ParallelMultiTrainer} or a parallel competition, see
+     * {@link XArenaFuncs#inParallelWorker()}) take 1 thread.
+     */
+    public static int alphaBetaThreads = Runtime.getRuntime().availableProcessors();
+
     public EvaluatorC4(PlayAgent e_PlayAgent, GameBoard gb, int mode, int verbose) {
         super(e_PlayAgent, gb, mode, verbose);
         if (verbose == 1) {
@@ -92,11 +100,16 @@ public class EvaluatorC4 extends Evaluator {
         maxnAgent = new MaxNAgent("Max-N", params, new ParOther());
         
 		// Initialize the Alpha-Beta-Agents
-		// (same as winOptionsGTB in MT's C4)
+		// (same as winOptionsGTB in MT's C4). Both share one transposition table
+		// (see instantiateAfterLoading) and search with alphaBetaThreads threads (Lazy SMP), with 1 thread in a
+		// parallel worker, so that the thread pools do not multiply
+		int nThreads = XArenaFuncs.inParallelWorker() ? 1 : Math.max(1, alphaBetaThreads);
 		alphaBetaStd = new AlphaBetaAgent(new BookSum());		// no search for distant losses
 		alphaBetaStd.instantiateAfterLoading();				
+		alphaBetaStd.setThreads(nThreads);
 		alphaBeta_DL = new AlphaBetaAgent(new BookSum(),1000);	// search for distant losses
 		alphaBeta_DL.instantiateAfterLoading();				
+		alphaBeta_DL.setThreads(nThreads);
     }
 
     @Override
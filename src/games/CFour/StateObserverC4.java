@@ -9,6 +9,7 @@ import games.ObserverBase;
 import games.StateObservation;
 import tools.Types;
 import tools.Types.ACTIONS;
+import tools.ZobristKeys;
 
 /**
  * Class StateObserverC4 observes the current state of the game, it has utility functions for
@@ -163,6 +164,15 @@ public class StateObserverC4 extends ObserverBase implements StateObservation {
 		
  		return sout.toString();
 	}
+
+	/**
+	 * @return a key mixed from the two bitboards of {@link C4Base}. It is calculated in O(1) directly from the board,
+	 * 		so there is nothing to maintain in {@link #advance(ACTIONS, Random)}.
+	 */
+	@Override
+	public long getHashKey() {
+		return ZobristKeys.combine(ZobristKeys.mix(m_C4.getField(C4Base.PLAYER1)), m_C4.getField(C4Base.PLAYER2));
+	}
 	
 	/**
 	 * 
@@ -236,6 +246,43 @@ public class StateObserverC4 extends ObserverBase implements StateObservation {
 //			System.out.println("player="+this.getPlayer()+", moveCounter="+this.getMoveCounter());
 	}
 
+	@Override
+	public boolean canUndo() {
+		return true;
+	}
+
+	/**
+	 * Take back the last {@code n} actions (see {@link StateObservation#undo(int)}): remove the top piece of their
+	 * columns. The state reached cannot be game over, its {@link #getLastCell()} and {@link #getPrevCell()} are 
+	 * inferred from {@link #lastMoves}.
+	 */
+	@Override
+	public void undo(int n) {
+		if (n == 0) return;		// a game-over state stays game over
+		for (int k=0; k<n; k++) {
+			int iAction = super.undoBase();
+			int player = (m_C4.countPieces() % 2 == 0) ? C4Base.PLAYER2 : C4Base.PLAYER1; // player of the last piece
+			m_C4.removePiece(player, iAction);
+		}
+		gameOver = isWin = false;
+		setAvailableActions();
+		m_Player = (m_C4.countPieces() % 2 == 0) ? 0 : 1;
+
+		int size = lastMoves.size();
+		creatingPlayer = (size == 0) ? -1 : 1-m_Player;
+		this.lastCell = new LastCell();
+		this.prevCell = new LastCell();
+		if (size >= 1) {
+			int col = lastMoves.get(size-1);
+			this.lastCell = new LastCell(col, m_C4.getColHeight(col)-1, 1-m_Player);
+			if (size >= 2) {
+				int pcol = lastMoves.get(size-2);
+				int row = m_C4.getColHeight(pcol) - ((pcol == col) ? 2 : 1);
+				this.prevCell = new LastCell(pcol, row, m_Player);
+			}
+		}
+	}
+
 	public ArrayList<ACTIONS> getAvailableActions() {
 		return availableActions;
 	}
@@ -0,0 +1,143 @@
+package games.CFour;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The transposition table of {@link AlphaBetaAgent}. It has two levels, as before: the <b>high</b> table for the
+ * deeper search depths ({@link #get(long)}, {@link #put(long, int, byte)}) and the <b>low</b> table (1/8 of the size)
+ * for the first search depths ({@link #getLow(long)}, {@link #putLow(long, int, byte)}).
+ * <p>
+ * Each entry is a single {@code long}, so that several threads can read and write the table concurrently
+ * <b>without locks</b> (the entries are accessed with opaque mode, which makes each access atomic):
+ * <pre>
+ *      bits  0..15:  value (short)
+ *      bits 16..17:  flag ({@link #EXACT}, {@link #UPPER}, {@link #LOWER}, 0 = empty)
+ *      bits 18..63:  bits 18..63 of the Zobrist key   </pre>
+ * The low bits of the Zobrist key are the index into the table. So the key is completely checked if the table has at
+ * least 2<sup>18</sup> entries, for smaller tables some bits are not checked (3 bits for the smallest low table).
+ * A thread may overwrite an entry which another thread has just read, but it can never see a half-written entry.
+ * <p>
+ * A table may be shared by all threads of one agent (see {@link AlphaBetaAgent#setThreads(int)}) and by several agents
+ * with the same search settings (see {@link #shared(int)}), which saves the memory of one table per agent.
+ *
+ * @see AlphaBetaAgent#setTranspositionTable(TranspositionTable)
+ */
+public class TranspositionTable {
+	public static final byte EXACT = 1;
+	public static final byte UPPER = 2;
+	public static final byte LOWER = 3;
+
+	private static final long KEYMASK = ~0x3FFFFL;
+
+	private static final HashMap<Integer, TranspositionTable> SHARED = new HashMap<>();
+
+	private final AtomicLongArray high;
+	private final AtomicLongArray low;
+	private final int mask;
+	private final int lMask;
+	private final boolean shared;
+
+	/**
+	 * @param size	number of entries of the high table, a power of 2 (the low table has {@code size/8} entries)
+	 */
+	public TranspositionTable(int size) {
+		this(size, false);
+	}
+
+	private TranspositionTable(int size, boolean shared) {
+		if (size < 8 || Integer.bitCount(size) != 1)
+			throw new IllegalArgumentException("[TranspositionTable] size must be a power of 2: " + size);
+		this.high = new AtomicLongArray(size);
+		this.low = new AtomicLongArray(size / 8);
+		this.mask = size - 1;
+		this.lMask = size / 8 - 1;
+		this.shared = shared;
+	}
+
+	/**
+	 * @param size	number of entries of the high table, a power of 2
+	 * @return the table of this size which is shared by all agents of this JVM asking for it (it is created on the
+	 * 		first call)
+	 */
+	public static synchronized TranspositionTable shared(int size) {
+		return SHARED.computeIfAbsent(size, s -> new TranspositionTable(s, true));
+	}
+
+	/**
+	 * @return the entry for {@code zobr} in the high table, or 0 if there is none
+	 */
+	public long get(long zobr) {
+		return check(high.getOpaque((int) zobr & mask), zobr);
+	}
+
+	/**
+	 * @return the entry for {@code zobr} in the low table, or 0 if there is none
+	 */
+	public long getLow(long zobr) {
+		return check(low.getOpaque((int) zobr & lMask), zobr);
+	}
+
+	public void put(long zobr, int value, byte flag) {
+		high.setOpaque((int) zobr & mask, entry(zobr, value, flag));
+	}
+
+	public void putLow(long zobr, int value, byte flag) {
+		low.setOpaque((int) zobr & lMask, entry(zobr, value, flag));
+	}
+
+	private static long check(long e, long zobr) {
+		return (((e ^ zobr) & KEYMASK) == 0 && flag(e) != 0) ? e : 0L;
+	}
+
+	private static long entry(long zobr, int value, byte flag) {
+		return (zobr & KEYMASK) | ((long) flag << 16) | (value & 0xFFFFL);
+	}
+
+	/**
+	 * @param e	an entry returned by {@link #get(long)} or {@link #getLow(long)}
+	 * @return its value
+	 */
+	public static short value(long e) {
+		return (short) e;
+	}
+
+	/**
+	 * @param e	an entry returned by {@link #get(long)} or {@link #getLow(long)}
+	 * @return its flag ({@link #EXACT}, {@link #UPPER} or {@link #LOWER}), 0 if {@code e} is no entry
+	 */
+	public static byte flag(long e) {
+		return (byte) ((e >>> 16) & 3);
+	}
+
+	/**
+	 * Remove all entries
+	 */
+	public void clear() {
+		for (int i = 0; i < high.length(); i++)
+			high.setOpaque(i, 0L);
+		for (int i = 0; i < low.length(); i++)
+			low.setOpaque(i, 0L);
+	}
+
+	/**
+	 * @return number of entries of the high table
+	 */
+	public int getSize() {
+		return high.length();
+	}
+
+	/**
+	 * @return true, if this is a table returned by {@link #shared(int)}
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * @return the memory of the table in bytes
+	 */
+	public long getBytes() {
+		return 8L * (high.length() + low.length());
+	}
+}
@@ -122,11 +122,16 @@ public class XNTupleFuncsC4 extends XNTupleBase implements XNTupleFuncs, Seriali
 	 */
 	@Override
 	public BoardVector[] symmetryVectors(BoardVector boardVector, int n) {
-		BoardVector[] equiv = new BoardVector[2];
-		equiv[0] = new BoardVector(boardVector.bvec);
-		equiv[1] = flip(boardVector);
+		return permutedVectors(boardVector, n);
+	}
 
-		return equiv;
+	/**
+	 * @return the permutation tables for the 2 symmetries: identity and flip around the center column
+	 */
+	@Override
+	protected int[][] makeSymmetryPermutations() {
+		BoardVector cells = makeBoardVectorEachCellDifferent();
+		return permutationTables(new BoardVector[] {cells, flip(cells)});
 	}
 	
 	/**
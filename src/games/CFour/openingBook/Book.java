@@ -1,6 +1,11 @@
 package games.CFour.openingBook;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 /**
  * There are 3 different opning-books available: <br>
@@ -10,6 +15,11 @@ import java.io.*;
  *         exact distance) <br>
  * 
  *         One of these books can be selected by setting the bookNr to 0,1 or 2.
+ * <p>
+ * The rows of a book file are sorted, each row has {@code ROWBYTES[bookNr]} bytes (big-endian). The book is either
+ * read into the heap ({@link #openBook()}, {@link #readBook()}) or - the preferred way - memory-mapped read-only
+ * once per JVM and shared by all users ({@link #shared(int)}). In both cases {@link #getValue(int, int)} searches
+ * directly in the file's bytes, there is no decoding step.
  *         
  * @author Markus Thill 
  */
@@ -19,6 +29,7 @@ public class Book {
 	private static final String BOOKPATH[] = { "book.dat", "bookDeep.dat",
 			"bookDeepDist.dat" };
 	private static final int BOOKSIZE[] = { 34286, 1735945, 4200899 };
+	private static final int ROWBYTES[] = { 3, 4, 5 };		// 24-bit row, 32-bit row, 32-bit row + 1 byte value
 	private static final int STONENUM[] = { 8, 12, 12 };
 	private static final int MASKPOSITION = 0xFFFFFFFC;
 	private static final int MASKVALUE = 0x3;
@@ -34,12 +45,16 @@ public class Book {
 	// Input-stream for reading the book
 	private InputStream file = null;
 
-	// All rows of the opening-book. Each row is coded in a special format
-	// (exact 24- or 32-Bit)
-	private int book[];
+	// All rows of the opening-book, as in the book file. Each row is coded in a special format
+	// (exact 24- or 32-Bit, for the Deep-book with Exact Distance followed by the value byte).
+	// Only absolute get methods are used, so the buffer can be shared by several threads.
+	private ByteBuffer rows;
 
-	// Only for Deep-book with Exact Distance
-	byte vals[];
+	// The rows as int view (only for the Deep-book)
+	private IntBuffer rowInts;
+
+	// The shared memory-mapped books, see shared(int)
+	private static final Book[] SHARED = new Book[BOOKPATH.length];
 
 	/**
 	 * @param bookNr
@@ -50,16 +65,51 @@ public class Book {
 	}
 
 	/**
-	 * Open the selected book from the selected path
-	 * 
-	 * @throws IOException
+	 * Get the book {@code bookNr}, memory-mapped read-only. The book file is mapped only once per JVM, all callers
+	 * share the same {@link Book} object (the OS pages the file in on demand). If the file can not be mapped, the
+	 * stack trace is printed and an unloaded book is returned (as {@link BookSum} did before).
+	 *
+	 * @param bookNr	Selected book
+	 * @return the shared book
 	 */
-	public void openBook() throws IOException {
+	public static synchronized Book shared(int bookNr) {
+		if (SHARED[bookNr] == null) {
+			Book b = new Book(bookNr);
+			String path = bookPath(bookNr);
+			try (FileChannel ch = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+				long length = (long) BOOKSIZE[bookNr] * ROWBYTES[bookNr];
+				if (ch.size() < length)
+					throw new IOException("File "+path+" is too short ("+ch.size()+" < "+length+" bytes)");
+				b.setRows(ch.map(FileChannel.MapMode.READ_ONLY, 0, length));
+			} catch (IOException e) {
+				e.printStackTrace();
+				return b;
+			}
+			SHARED[bookNr] = b;
+		}
+		return SHARED[bookNr];
+	}
+
+	private static String bookPath(int bookNr) {
 		// old form where book*.dat was in src/games/CFour/openingBook and made the JAR files big:
 		//file = getClass().getResourceAsStream(BOOKPATH[bookNr]);
 
 		// new form where book*.dat is in agents/ConnectFour/AlphaBetaAgent/openingBook:
-		String path = "agents/ConnectFour/AlphaBetaAgent/openingBook/"+BOOKPATH[bookNr];
+		return "agents/ConnectFour/AlphaBetaAgent/openingBook/"+BOOKPATH[bookNr];
+	}
+
+	private void setRows(ByteBuffer rows) {
+		this.rows = rows;
+		this.rowInts = (bookNr == DEEPBOOK) ? rows.asIntBuffer() : null;
+	}
+
+	/**
+	 * Open the selected book from the selected path
+	 * 
+	 * @throws IOException
+	 */
+	public void openBook() throws IOException {
+		String path = bookPath(bookNr);
 		try {
 			file = new BufferedInputStream(new FileInputStream(path));
 		} catch (IOException e) {
@@ -84,28 +134,39 @@ public class Book {
 	 * @throws IOException
 	 */
 	public void readBook() throws IOException {
-		book = new int[BOOKSIZE[bookNr]];
-
-		if (bookNr == DISTDEEPBOOK)
-			vals = new byte[BOOKSIZE[bookNr]];
-
-		int shiftNum, temp;
-		for (int i = 0; i < BOOKSIZE[bookNr]; i++) {
-			shiftNum = (bookNr == NORMALBOOK ? 16 : 24);
-			temp = 0;
-			for (; shiftNum >= 0; shiftNum -= 8) {
-				int b = file.read();
-				temp |= (b << shiftNum);
-			}
-			book[i] = temp;
+		int length = BOOKSIZE[bookNr] * ROWBYTES[bookNr];
+		byte[] bytes = file.readNBytes(length);
+		if (bytes.length < length)
+			throw new IOException("Book "+BOOKPATH[bookNr]+" is too short ("+bytes.length+" < "+length+" bytes)");
+		setRows(ByteBuffer.wrap(bytes));
+	}
 
-			if (bookNr == DISTDEEPBOOK) {
-				byte b = (byte) file.read();
-				vals[i] = b;
-			}
+	/**
+	 * @return row {@code index} of the book (the coded position in the upper bits, for the books without distance
+	 * 			the value in the lower 2 bits)
+	 */
+	private int row(int index) {
+		switch (bookNr) {
+		case NORMALBOOK:
+			int offset = 3 * index;
+			return ((rows.get(offset) & 0xFF) << 16) | ((rows.get(offset + 1) & 0xFF) << 8)
+					| (rows.get(offset + 2) & 0xFF);
+		case DEEPBOOK:
+			return rowInts.get(index);
+		default:
+			return rows.getInt(5 * index);
 		}
 	}
 
+	/**
+	 * @return the value of row {@code index}
+	 */
+	private int value(int index) {
+		if (bookNr != DISTDEEPBOOK)
+			return row(index) & MASKVALUE;
+		return rows.get(5 * index + 4);
+	}
+
 	/**
 	 * Search in the opening book for the coded board and return the value for
 	 * this board. A fast binary-search is used.
@@ -126,29 +187,23 @@ public class Book {
 		while (step > 0) {
 			step = (step != 1 ? (step + (step & 1)) >> 1 : 0);
 			if (pos < BOOKSIZE[bookNr] && pos >= 0)
-				code = book[pos] & MASKPOSITION;
+				code = row(pos) & MASKPOSITION;
 			if (pos2 < BOOKSIZE[bookNr] && pos2 >= 0)
-				code2 = book[pos2] & MASKPOSITION;
+				code2 = row(pos2) & MASKPOSITION;
 
 			if (codedPos < code)
 				pos -= step;
 			else if (codedPos > code)
 				pos += step;
 			else if (codedPos == code)
-				if (bookNr != DISTDEEPBOOK)
-					return (book[pos] & MASKVALUE);
-				else
-					return vals[pos];
+				return value(pos);
 
 			if (codedPosMirrored < code2)
 				pos2 -= step;
 			else if (codedPosMirrored > code2)
 				pos2 += step;
 			else if (codedPosMirrored == code2)
-				if (bookNr != DISTDEEPBOOK)
-					return (book[pos2] & MASKVALUE);
-				else
-					return vals[pos2];
+				return value(pos2);
 		}
 		return 2; //Value was not found in database, must be a win for X
 	}
@@ -163,7 +218,7 @@ public class Book {
 	 * @return Value for the board
 	 */
 	public int getBoard(int index, int board[][]) {
-		int hCode = book[index];
+		int hCode = row(index);
 		int col = 0, row = 0;
 
 		long b1 = 0, b2 = 0;
@@ -189,9 +244,7 @@ public class Book {
 			else
 				board[col][row++] = 1;
 		}
-		if (bookNr != DISTDEEPBOOK)
-			return book[index] & MASKVALUE;
-		return vals[index];
+		return value(index);
 	}
 
 	/**
@@ -1,11 +1,12 @@
 package games.CFour.openingBook;
 
-import java.io.IOException;
-
 /**
  * @author Markus Thill
  * 
  *         Load all opening Books in this class.
+ *         <p>
+ *         The books are memory-mapped once per JVM and shared by all {@code BookSum} objects (see
+ *         {@link Book#shared(int)}), so that constructing a {@code BookSum} (e.g. for each AlphaBetaAgent) is cheap.
  */
 public class BookSum {
 
@@ -17,46 +18,20 @@ public class BookSum {
 	}
 
 	public Book getOpeningBook() {
-
-		if (openingBook == null) {
-			openingBook = new Book(Book.NORMALBOOK);
-			try {
-				openingBook.openBook();
-				openingBook.readBook();
-				openingBook.closeBook();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
+		if (openingBook == null)
+			openingBook = Book.shared(Book.NORMALBOOK);
 		return openingBook;
 	}
 
 	public Book getOpeningBookDeep() {
-		if (openingBookDeep == null) {
-			openingBookDeep = new Book(Book.DEEPBOOK);
-			try {
-				openingBookDeep.openBook();
-				openingBookDeep.readBook();
-				openingBookDeep.closeBook();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
+		if (openingBookDeep == null)
+			openingBookDeep = Book.shared(Book.DEEPBOOK);
 		return openingBookDeep;
 	}
 
 	public Book getOpeningBookDeepDist() {
-		if (openingBookDeepDist == null) {
-			openingBookDeepDist = new Book(Book.DISTDEEPBOOK);
-			try {
-
-				openingBookDeepDist.openBook();
-				openingBookDeepDist.readBook();
-				openingBookDeepDist.closeBook();
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
-		}
+		if (openingBookDeepDist == null)
+			openingBookDeepDist = Book.shared(Book.DISTDEEPBOOK);
 		return openingBookDeepDist;
 	}
 }
@@ -4,8 +4,14 @@ import games.ObserverBase;
 import games.StateObservation;
 import tools.Types;
 import tools.Types.ACTIONS;
+import tools.ZobristKeys;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 import static games.Hex.HexConfig.*;
@@ -37,7 +43,13 @@ import static games.Hex.HexConfig.*;
  * </pre>
  * Player 0 (Black) has the first move. The white borders are below the first and above the 
  * last row (rows = cells with the same 1st index). The black borders are from lowest to highest row.
- * 
+ * <p>
+ * The board is a flat {@code byte[]} ({@link #getCell(int)}, index = action number). A union-find structure over
+ * the cells plus four virtual edge nodes (two per player) joins each new stone with its neighbors of the same color
+ * and with the edges it touches (union by size, no path compression, so that {@link #undo(int)} can restore it). So
+ * the win check after a move is O(log n) instead of a search over the chain, and {@link #copy()} only has to clone
+ * arrays. The {@link HexTile}[][] of {@link #getBoard()} (needed by the GUI,
+ * the features and {@link HexUtils}) is built on demand.
  */
 public class StateObserverHex extends ObserverBase implements StateObservation {
     /**
@@ -47,12 +59,38 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
      */
     private static final long serialVersionUID = 12L;
     protected int currentPlayer;
-    protected final HexTile[][] board;
+    private byte[] cells;           // PLAYER_NONE, PLAYER_ONE or PLAYER_TWO for each tile
+    /**
+     * The union-find forest over the {@code n = cells.length} tiles and the virtual edge nodes {@code n + 2*p} and
+     * {@code n + 2*p + 1} of player {@code p} (see {@link #edgeNode(int, int, int, int)}). {@code uf[k] >= 0} is the
+     * parent of node {@code k}, a root {@code k} has {@code uf[k] = -(size of its set)}.
+     */
+    private int[] uf;
+    /**
+     * The changes of {@link #uf} by each action done on this object, needed for {@link #undo(int)}: pairs
+     * (node, old value), the pair (-1, 0) marks the start of an action. Not copied and not serialized, allocated by
+     * the first {@link #advance(ACTIONS, Random)}.
+     */
+    private transient int[] trail;
+    private transient int nTrail;
+    private int lastAction = -1;
+    private boolean lastMoveWins = false;
+    private double[] values;        // tile values for the GUI (null: all NaN). Replaced, never changed in place
+    /**
+     * HexTile[][] view of {@link #cells}, built on demand by {@link #getBoard()} (null, if not yet built for the
+     * current position). It is serialized together with {@link #lastUpdatedTile}, so that older GBG versions can read
+     * logs and agents with this state and this version can read older ones.
+     */
+    private HexTile[][] board;
     private HexTile lastUpdatedTile;
     private ArrayList<Types.ACTIONS> availableActions;
 
     public StateObserverHex() {
-        board = defaultGameBoard();
+        int n = HexConfig.BOARD_SIZE * HexConfig.BOARD_SIZE;
+        cells = new byte[n];
+        Arrays.fill(cells, (byte) PLAYER_NONE);
+        uf = new int[n + 4];
+        Arrays.fill(uf, -1);
         currentPlayer = HexConfig.PLAYER_ONE;
         setAvailableActions();
     }
@@ -81,10 +119,12 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
     
     public StateObserverHex(StateObserverHex other) {	
     	super(other);
-        board = new HexTile[HexConfig.BOARD_SIZE][HexConfig.BOARD_SIZE];
-        copyTable(other.board);
+        this.cells = other.cells.clone();
+        this.uf = other.uf.clone();
+        this.lastAction = other.lastAction;
+        this.lastMoveWins = other.lastMoveWins;
+        this.values = other.values;     // (no clone needed, see values)
         this.currentPlayer =other.currentPlayer;
-        this.lastUpdatedTile = other.lastUpdatedTile;
 		if (other.availableActions!=null)	// this check is needed when loading older logs
 			this.availableActions = (ArrayList<ACTIONS>) other.availableActions.clone();
 					// note that clone does only clone the ArrayList, but not the contained ACTIONS, they are 
@@ -102,34 +142,27 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
     }
 
     /**
-     * Replaces the current game board array by a copy of the array that is passed as the parameter.
-     *
-     * @param table The game board array that is to be copied
-     */
-    private void copyTable(HexTile[][] table) {
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                board[i][j] = table[i][j].copy();
-            }
-        }
-    }
-
-    /**
-     * @return An empty board array
+     * Builds the board array (with polygons for drawing and the tile values) from {@link #cells}.
      */
-    private HexTile[][] defaultGameBoard() {
-        HexTile[][] newBoard = new HexTile[HexConfig.BOARD_SIZE][HexConfig.BOARD_SIZE];
-
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                newBoard[i][j] = new HexTile(i, j);
-                newBoard[i][j].setPoly(HexUtils.createHexPoly(i, j, HexConfig.OFFSET, HexConfig.BOARD_SIZE, HexConfig.HEX_SIZE));
+    private HexTile[][] buildBoard() {
+        int size = boardSize();
+        HexTile[][] newBoard = new HexTile[size][size];
+
+        for (int i = 0, k = 0; i < size; i++) {
+            for (int j = 0; j < size; j++, k++) {
+                newBoard[i][j] = new HexTile(i, j, cells[k],
+                        HexUtils.createHexPoly(i, j, HexConfig.OFFSET, size, HexConfig.HEX_SIZE),
+                        (values == null) ? Double.NaN : values[k]);
             }
         }
 
         return newBoard;
     }
 
+    private int boardSize() {
+        return (int) Math.round(Math.sqrt(cells.length));
+    }
+
     @Override
     public boolean isGameOver() {
         return determineWinner() != PLAYER_NONE || getNumAvailableActions() == 0;
@@ -141,14 +174,13 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
 //    }
 
     /**
-     * Uses information about the tile on which the last stone has been placed to determine if the chain containing
-     * that stone touches both game board edges that have to be connected. Actual calculation is done in HexUtils.
+     * Whether the chain containing the last placed stone touches both game board edges that have to be connected
+     * is decided by the union-find structure in {@link #placeStone(int, int)}.
      *
      * @return ID of the player who won the game. ID of HexConfig.PLAYER_NONE if game is not over.
      */
     private int determineWinner() {
-        Types.WINNER winner = HexUtils.getWinner(getBoard(), getLastUpdatedTile());
-        if (winner == Types.WINNER.PLAYER_WINS) {
+        if (lastMoveWins) {
             //Reverse winners, since current player changes after the winning tile was placed
             return (this.getPlayer() == PLAYER_ONE ? PLAYER_ONE : PLAYER_TWO);
         }
@@ -170,13 +202,11 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
         int playerOneTiles = 0;
         int playerTwoTiles = 0;
 
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                if (board[i][j].getPlayer() == PLAYER_ONE) {
-                    playerOneTiles++;
-                } else if (board[i][j].getPlayer() == PLAYER_TWO) {
-                    playerTwoTiles++;
-                }
+        for (byte cell : cells) {
+            if (cell == PLAYER_ONE) {
+                playerOneTiles++;
+            } else if (cell == PLAYER_TWO) {
+                playerTwoTiles++;
             }
         }
 
@@ -190,12 +220,13 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
     @Override
     public String stringDescr() {
         StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
+        int size = boardSize();
+        for (int i = 0, k = 0; i < size; i++) {
 //            for (int k = 0; k < i; k++) {
 //                sb.append(' ');
 //            }
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                switch (board[i][j].getPlayer()) {
+            for (int j = 0; j < size; j++, k++) {
+                switch (cells[k]) {
                     case HexConfig.PLAYER_ONE: sb.append('B'); break;
                     case PLAYER_TWO: sb.append('W'); break;
                     default: sb.append('-');
@@ -245,17 +276,19 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
             return;
         }
         int actionInt = action.toInt();
-        assert (0 <= actionInt && actionInt <= (HexConfig.TILE_COUNT)) : "Invalid action: " + actionInt;
-        int j = actionInt % HexConfig.BOARD_SIZE;
-        int i = (actionInt - j) / HexConfig.BOARD_SIZE;
+        assert (0 <= actionInt && actionInt < cells.length) : "Invalid action: " + actionInt;
 
-        if (board[i][j].getPlayer() != HexConfig.PLAYER_NONE) {
+        if (cells[actionInt] != HexConfig.PLAYER_NONE) {
+            int j = actionInt % boardSize();
+            int i = (actionInt - j) / boardSize();
             System.out.println("Tile (" + i + ", " + j + ") has already been claimed by a player.");
             return;
         }
-        board[i][j].setPlayer(currentPlayer);
-
-        lastUpdatedTile = board[i][j];
+        if (trail == null) {
+            trail = new int[64];
+        }
+        record(-1, 0);
+        placeStone(actionInt, currentPlayer);
         setAvailableActions();            // IMPORTANT: adjust the available actions (have reduced by one)
 		super.incrementMoveCounter();
 
@@ -263,6 +296,55 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
         currentPlayer = (currentPlayer == HexConfig.PLAYER_ONE ? PLAYER_TWO : HexConfig.PLAYER_ONE);
     }
 
+    /**
+     * The key packs the tiles (2 bits each) into {@code long}s and mixes them (see {@link ZobristKeys#combine(long, long)}),
+     * which is much cheaper than hashing {@link #stringDescr()}. The player to move is not needed, it follows from the
+     * number of stones.
+     */
+    @Override
+    public long getHashKey() {
+        long key = cells.length;
+        long word = 0;
+        for (int k = 0; k < cells.length; k++) {
+            word = (word << 2) | (cells[k] - PLAYER_NONE);      // 0, 1 or 2
+            if ((k & 31) == 31) {
+                key = ZobristKeys.combine(key, word);
+                word = 0;
+            }
+        }
+        return ZobristKeys.combine(key, word);
+    }
+
+    @Override
+    public boolean canUndo() {
+        return true;
+    }
+
+    /**
+     * Take back the last {@code n} actions (see {@link StateObservation#undo(int)}): clear their tiles and restore
+     * the union-find forest from {@link #trail}.
+     */
+    @Override
+    public void undo(int n) {
+        if (n == 0) return;
+        for (int i = 0; i < n; i++) {
+            assert nTrail > 0 : "There are not " + n + " actions on this object to take back!";
+            int k = super.undoBase();
+            assert cells[k] != PLAYER_NONE : "The tile to clear was not set by the last move!";
+            cells[k] = (byte) PLAYER_NONE;
+            int node;
+            while ((node = trail[nTrail -= 2]) >= 0) {
+                uf[node] = trail[nTrail + 1];
+            }
+            currentPlayer = (currentPlayer == HexConfig.PLAYER_ONE ? PLAYER_TWO : HexConfig.PLAYER_ONE);
+        }
+        lastAction = (lastMoves.size() == 0) ? -1 : lastMoves.get(lastMoves.size() - 1);
+        lastMoveWins = false;
+        board = null;
+        setAvailableActions();
+        creatingPlayer = (lastMoves.size() == 0) ? -1 : (currentPlayer == HexConfig.PLAYER_ONE ? PLAYER_TWO : HexConfig.PLAYER_ONE);
+    }
+
     @Override
     public ArrayList<Types.ACTIONS> getAllAvailableActions() {
         ArrayList<Types.ACTIONS> allActions = new ArrayList<>();
@@ -287,13 +369,13 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
 
     @Override
     public void setAvailableActions() {
-        availableActions = new ArrayList<>();
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                if (board[i][j].getPlayer() == HexConfig.PLAYER_NONE) {
-                    int actionInt = i * HexConfig.BOARD_SIZE + j;
-                    availableActions.add(Types.ACTIONS.fromInt(actionInt));
-                }
+        if (availableActions == null) {
+            availableActions = new ArrayList<>(cells.length);
+        }
+        availableActions.clear();       // (copies have their own list, see the copy constructor)
+        for (int actionInt = 0; actionInt < cells.length; actionInt++) {
+            if (cells[actionInt] == HexConfig.PLAYER_NONE) {
+                availableActions.add(Types.ACTIONS.fromInt(actionInt));
             }
         }
     }
@@ -306,30 +388,22 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
     @Override
     public void storeBestActionInfo(Types.ACTIONS_VT bestAction) {  //, double[] valueTable) {
         double[] valueTable = bestAction.getVTable();
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                board[i][j].setValue(Double.NaN);
-            }
-        }
+        double[] newValues = new double[cells.length];
+        Arrays.fill(newValues, Double.NaN);
 
         for (int k = 0; k < getNumAvailableActions(); ++k) {
-            double val = valueTable[k];
-            int actionInt = getAction(k).toInt();
-            int j = actionInt % HexConfig.BOARD_SIZE;
-            int i = (actionInt - j) / HexConfig.BOARD_SIZE;
-            board[i][j].setValue(val);
+            newValues[getAction(k).toInt()] = valueTable[k];
         }
+        values = newValues;
+        board = null;
     }
 
     /**
      * Set all tile values to the default (Double.NaN)
      */
     protected void clearTileValues() {
-        for (int i = 0; i < HexConfig.BOARD_SIZE; i++) {
-            for (int j = 0; j < HexConfig.BOARD_SIZE; j++) {
-                board[i][j].setValue(Double.NaN);
-            }
-        }
+        values = null;
+        board = null;
     }
 
     @Override
@@ -342,16 +416,160 @@ public class StateObserverHex extends ObserverBase implements StateObservation {
         return currentPlayer;
     }
 
+    /**
+     * @return the board as HexTile[][] (built on demand). Changes to its tiles are not reflected in the state.
+     */
     public HexTile[][] getBoard() {
+        if (board == null) {
+            board = buildBoard();
+        }
         return board;
     }
 
+    /**
+     * @param k cell number (= action number)
+     * @return PLAYER_NONE, PLAYER_ONE or PLAYER_TWO
+     */
+    public int getCell(int k) {
+        return cells[k];
+    }
 
     /**
      * @return The tile on which the last stone was placed
      */
     HexTile getLastUpdatedTile() {
-        return lastUpdatedTile;
+        if (lastAction < 0) {
+            return null;
+        }
+        int j = lastAction % boardSize();
+        return getBoard()[(lastAction - j) / boardSize()][j];
+    }
+
+    /**
+     * Place a stone of {@code player} on cell {@code k} and join it with its neighbors of the same color and with the
+     * edges it touches. The player to move and the available actions are not changed.
+     */
+    protected void placeStone(int k, int player) {
+        int size = boardSize();
+        int n = cells.length;
+        int j = k % size;
+        int i = (k - j) / size;
+        cells[k] = (byte) player;
+        lastAction = k;
+        board = null;
+
+        //the six neighbors of tile [i,j] are [i+di,j+dj] with di,dj in {-1,0,1} and di != dj (see HexUtils)
+        for (int di = -1; di <= 1; di++) {
+            for (int dj = -1; dj <= 1; dj++) {
+                int ni = i + di;
+                int nj = j + dj;
+                if (di != dj && ni >= 0 && ni < size && nj >= 0 && nj < size && cells[ni * size + nj] == player) {
+                    union(k, ni * size + nj);
+                }
+            }
+        }
+        int edge = edgeNode(i, j, player, size);
+        if (edge >= 0) {
+            union(k, n + 2 * player + edge);
+        }
+        lastMoveWins = find(n + 2 * player) == find(n + 2 * player + 1);
+    }
+
+    /**
+     * The edges are the same as in {@link HexUtils#getWinner(HexTile[][], HexTile)}: PLAYER_ONE connects the tiles
+     * with {@code j == 0} to those with {@code j == size-1}, PLAYER_TWO those with {@code i == 0} to
+     * {@code i == size-1}.
+     *
+     * @return 0 for the first, 1 for the second edge of {@code player} and -1, if tile [i,j] is not next to an edge
+     * of {@code player}
+     */
+    private static int edgeNode(int i, int j, int player, int size) {
+        int x = (player == PLAYER_ONE) ? j : i;
+        if (x == 0) {
+            return 0;
+        } else if (x == size - 1) {
+            return 1;
+        }
+        return -1;
+    }
+
+    /**
+     * No path compression, so that {@link #union(int, int)} is the only place where {@link #uf} changes (see
+     * {@link #trail}). With union by size the trees have a depth of at most log2 of the number of nodes.
+     */
+    private int find(int k) {
+        while (uf[k] >= 0) {
+            k = uf[k];
+        }
+        return k;
+    }
+
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return;
+        }
+        if (uf[ra] > uf[rb]) {          // union by size: the larger set (more negative) becomes the root
+            int t = ra;
+            ra = rb;
+            rb = t;
+        }
+        if (trail != null) {
+            record(ra, uf[ra]);
+            record(rb, uf[rb]);
+        }
+        uf[ra] += uf[rb];
+        uf[rb] = ra;
+    }
+
+    private void record(int node, int old) {
+        if (nTrail + 2 > trail.length) {
+            trail = Arrays.copyOf(trail, 2 * trail.length);
+        }
+        trail[nTrail++] = node;
+        trail[nTrail++] = old;
+    }
+
+    @Serial
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        lastUpdatedTile = getLastUpdatedTile();     // serialize the HexTile[][] view as well (see board)
+        out.defaultWriteObject();
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (cells == null) {            // stream of an older GBG version: only board and lastUpdatedTile are there
+            int size = board.length;
+            int n = size * size;
+            cells = new byte[n];
+            Arrays.fill(cells, (byte) PLAYER_NONE);
+            uf = new int[n + 4];
+            Arrays.fill(uf, -1);
+            lastAction = -1;
+            for (int i = 0, k = 0; i < size; i++) {
+                for (int j = 0; j < size; j++, k++) {
+                    if (board[i][j].getPlayer() != PLAYER_NONE) {
+                        placeStone(k, board[i][j].getPlayer());
+                    }
+                }
+            }
+            if (lastUpdatedTile != null) {
+                int k = lastUpdatedTile.getCoords().x * size + lastUpdatedTile.getCoords().y;
+                int player = cells[k];
+                lastAction = k;
+                lastMoveWins = find(n + 2 * player) == find(n + 2 * player + 1);
+            } else {
+                lastAction = -1;
+                lastMoveWins = false;
+            }
+            if (availableActions == null) {
+                setAvailableActions();
+            }
+        }
+        board = null;
+        lastUpdatedTile = null;
     }
 
 }
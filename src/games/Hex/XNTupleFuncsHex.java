@@ -74,11 +74,12 @@ public class XNTupleFuncsHex extends XNTupleBase implements XNTupleFuncs, Serial
         // and any other permutation should lead after re-training to
         // identical results as well.
         StateObserverHex stateObs = (StateObserverHex) so;
-        HexTile[] boardVectorTiles = HexUtils.boardToVector(stateObs.getBoard());
-        int[] boardVectorInt = new int[boardVectorTiles.length];
+        // cell k of the state is element k of HexUtils.boardToVector(stateObs.getBoard()), but without building
+        // the HexTile[][] board:
+        int[] boardVectorInt = new int[HexConfig.BOARD_SIZE * HexConfig.BOARD_SIZE];
 
         for (int i = 0; i < boardVectorInt.length; i++) {
-            boardVectorInt[i] = bmap[boardVectorTiles[i].getPlayer() + 1];
+            boardVectorInt[i] = bmap[stateObs.getCell(i) + 1];
         }
 
         return new BoardVector(boardVectorInt);
@@ -86,13 +87,16 @@ public class XNTupleFuncsHex extends XNTupleBase implements XNTupleFuncs, Serial
 
     @Override
     public BoardVector[] symmetryVectors(BoardVector boardVector, int n) {
-        BoardVector[] symmetries = new BoardVector[2];
-        symmetries[0] = boardVector;
-        symmetries[1] = rotateBoard2(boardVector); // a bit faster than rotateBoard()
-//        int[] check = rotateBoard(boardVector);
-//        for (int i=0; i<boardVector.length; i++)
-//        	assert symmetries[1][i]==check[i] : "Oops, rotateBoard() and rotateBoard2() differ!";
-        return symmetries;
+        return permutedVectors(boardVector, n);
+    }
+
+    /**
+     * @return the permutation tables for the 2 symmetries: identity and rotation by 180 degrees
+     */
+    @Override
+    protected int[][] makeSymmetryPermutations() {
+        BoardVector cells = makeBoardVectorEachCellDifferent();
+        return permutationTables(new BoardVector[] {cells, rotateBoard2(cells)});
     }
 
 	/**
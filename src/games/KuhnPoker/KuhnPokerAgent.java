@@ -200,4 +200,9 @@ public class KuhnPokerAgent extends AgentBase implements PlayAgent {
 //        return rand.nextDouble();
 //    }
 
-}
\ No newline at end of file
+    @Override
+    protected Random[] getRandomGenerators() {
+        return new Random[]{rand};
+    }
+
+}
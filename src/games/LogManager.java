@@ -8,9 +8,19 @@ import javax.swing.*;
 import java.io.*;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is responsible for logging games
+ * <p>
+ * With advanced logging, the log entries are written by a background thread (see {@link #runLogWriter()}): the game
+ * thread only copies the state and puts it into a bounded queue. The writer appends compact move records (action key +
+ * serialized state, class descriptors written only once per flush) to one sequential file {@code session.log} per
+ * session and flushes it periodically. Actions of a subclass of {@link Types.ACTIONS} (e.g. {@link Types.ACTIONS_VT}
+ * with its vTable) are written completely.
  * 
  * @author Johannes Kutsch, TH Koeln, 2016
  * 
@@ -18,9 +28,9 @@ import java.util.*;
  */
 public class LogManager {
     public boolean loggingEnabled = false;  //enables or disables logging
-    public boolean advancedLogging = true; //if advancedLogging is enabled, every new logEntry is saved to a temporary file
-                                           //the log is not lost when a crash occurs
-                                           //call generateLogSessionContainerFromFile(path of temp folder) to combine all temporary files and generate the log
+    public boolean advancedLogging = true; //if advancedLogging is enabled, every new logEntry is written (in the background) to a temporary file
+                                           //the log is not lost when a crash occurs (except for the last unflushed entries)
+                                           //call generateLogSessionContainerFromFile(path of temp folder) to read the temporary file and generate the log
     public boolean verbose = true;
     public boolean inspectV = true;
 
@@ -31,6 +41,13 @@ public class LogManager {
     private final HashMap<Integer, Integer> counter = new HashMap<>(); //saves a counter for each sessionid
     private final HashMap<Integer, List<LogContainer>> simpleLoggingContainers = new HashMap<>();
 
+    static final String SESSION_FILE = "session.log";   // the sequential log file in each temp folder
+    private static final int QUEUE_CAPACITY = 4096;     // max. number of log entries waiting for the writer
+    private static final int FLUSH_EVERY = 256;         // flush the session files after this number of log entries ...
+    private static final long FLUSH_INTERVAL_MS = 500;  // ... or after this time
+    private final BlockingQueue<LogRecord> logQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private Thread logWriter = null;
+
     /**
      * use this constructor when you only run one instance of LogManager
      * it uses "src\games\Logs" as default filePath
@@ -68,8 +85,6 @@ public class LogManager {
     public void addLogEntry(Types.ACTIONS action, StateObservation stateObservation, int sessionid) {
         //sessionid = -1 => session is invalid, started while logging was disabled
         if(loggingEnabled && sessionid != -1) {
-            LogContainer logContainer = new LogContainer(action, stateObservation);
-
             if(advancedLogging) {
                 if(!counter.containsKey(sessionid)) {
                 	// this should normally not happen. It happens only if addLogEntry is
@@ -80,16 +95,9 @@ public class LogManager {
                     //throw new RuntimeException("Invalid sessionid, start a new  logging session to get a valid sessionid");
                 }
 
-                try {
-                    FileOutputStream fos = new FileOutputStream(tempPath + "\\temp_" + sessionid + "\\" + counter.get(sessionid) + ".temp");
-                    ObjectOutputStream oos = new ObjectOutputStream(fos);
-                    oos.writeObject(logContainer);
-                    fos.close();
-                    oos.close();
-                    counter.put(sessionid, counter.get(sessionid) + 1);
-                } catch (IOException io_ignore) {
-                    io_ignore.printStackTrace();
-                }
+                // copy the state: the caller usually passes its live state, but the writer serializes it later
+                enqueue(new LogRecord(sessionid, action, stateObservation.copy(), null));
+                counter.put(sessionid, counter.get(sessionid) + 1);
             } else {
                 if(!simpleLoggingContainers.containsKey(sessionid)) {
                 	// this should normally not happen. It happens only if addLogEntry is
@@ -100,7 +108,7 @@ public class LogManager {
                     //throw new RuntimeException("Invalid Session ID");
                 }
 
-                simpleLoggingContainers.get(sessionid).add(logContainer);
+                simpleLoggingContainers.get(sessionid).add(new LogContainer(action, stateObservation));
             }
         }
     }
@@ -127,8 +135,6 @@ public class LogManager {
                 }
             }
 
-            LogContainer logContainer = new LogContainer(null, stateObservation.copy());
-
             if(advancedLogging) {
                 while(tools.Utils.checkAndCreateFolder(tempPath + "\\temp_" + sessionid)) {
                     sessionid++;
@@ -136,19 +142,11 @@ public class LogManager {
 
                 counter.put(sessionid, 0);
 
-                try {
-                    FileOutputStream fos = new FileOutputStream(tempPath + "\\temp_" + sessionid + "\\" + counter.get(sessionid) + ".temp");
-                    ObjectOutputStream oos = new ObjectOutputStream(fos);
-                    oos.writeObject(logContainer);
-                    fos.close();
-                    oos.close();
-                    counter.put(sessionid, counter.get(sessionid) + 1);
-                } catch (IOException io_ignore) {
-                    io_ignore.printStackTrace();
-                }
+                enqueue(new LogRecord(sessionid, null, stateObservation.copy(), null));
+                counter.put(sessionid, counter.get(sessionid) + 1);
             } else {
                 simpleLoggingContainers.put(sessionid, new ArrayList<>());
-                simpleLoggingContainers.get(sessionid).add(logContainer);
+                simpleLoggingContainers.get(sessionid).add(new LogContainer(null, stateObservation.copy()));
             }
 
             if(verbose) {
@@ -176,6 +174,15 @@ public class LogManager {
                     throw new RuntimeException("Invalid Session ID");
                 }
 
+                // wait until the writer has written and closed the session file
+                CountDownLatch closed = new CountDownLatch(1);
+                enqueue(new LogRecord(sessionid, null, null, closed));
+                try {
+                    closed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
                 logSessionContainer = generateLogSessionContainerFromFile(tempPath + "\\temp_" + sessionid);
                 counter.remove(sessionid);
             } else {
@@ -195,7 +202,10 @@ public class LogManager {
     }
 
     /**
-     * generates a LogSessionContainer from a directory that contains multiple files with one LogContainer each
+     * generates a LogSessionContainer from a directory that contains the sequential file {@code session.log} written
+     * by {@link #runLogWriter()}. The file is read as a stream; if it is truncated (crash), all complete log entries
+     * are taken. <br>
+     * (Directories of older GBG versions, which contain multiple files with one LogContainer each, are read as well.)
      *
      * @param path the path of the directory
      * @return the LogSessionContainer
@@ -204,7 +214,25 @@ public class LogManager {
         LogSessionContainer logSessionContainer = new LogSessionContainer();
 
         File sessionFolder = new File(path);
-        if (sessionFolder.exists()) {
+        File sessionFile = new File(path + "\\" + SESSION_FILE);
+        if (sessionFile.exists()) {
+            try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(sessionFile)))) {
+                while (true) {
+                    int key = ois.readInt();
+                    boolean random = ois.readBoolean();
+                    Types.ACTIONS action = (Types.ACTIONS) ois.readObject();    // null for a plain ACTIONS
+                    StateObservation so = (StateObservation) ois.readObject();
+                    if (action == null && key != -1) action = new Types.ACTIONS(key, random);
+                    logSessionContainer.addLogEntry(action, so);
+                }
+            } catch (EOFException eof) {
+                // end of file (or of the complete entries, if the file is truncated)
+            } catch (IOException | ClassNotFoundException io_ignore) {
+                io_ignore.printStackTrace();
+            }
+            sessionFile.delete();
+            sessionFolder.delete();
+        } else if (sessionFolder.exists()) {
             int length = sessionFolder.listFiles().length;
             for (int i = 0; i < length; i++) {
                 try {
@@ -288,6 +316,84 @@ public class LogManager {
 //        return new File(filePath).exists();
 //    }
 
+    private void enqueue(LogRecord record) {
+        ensureLogWriter();
+        try {
+            logQueue.put(record);       // blocks if the writer is QUEUE_CAPACITY entries behind
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void ensureLogWriter() {
+        if (logWriter == null) {
+            logWriter = new Thread(this::runLogWriter, "LogManager-writer");
+            logWriter.setDaemon(true);
+            logWriter.start();
+        }
+    }
+
+    /**
+     * The background writer: takes the log entries from {@link #logQueue} and appends them to the file
+     * {@code session.log} of their session. Each entry is {@code int actionKey (-1: none), boolean randomAction,
+     * ACTIONS action, StateObservation state}, where {@code action} is {@code null} unless it is of a subclass of
+     * {@link Types.ACTIONS} which carries more data (e.g. the vTable of {@link Types.ACTIONS_VT}). All session files are flushed after {@link #FLUSH_EVERY} entries, after
+     * {@link #FLUSH_INTERVAL_MS} or when the queue is empty. At a flush the stream is reset, so that it does not keep
+     * references to all states written.
+     */
+    private void runLogWriter() {
+        HashMap<Integer, ObjectOutputStream> streams = new HashMap<>();
+        int unflushed = 0;
+        long lastFlush = System.currentTimeMillis();
+        while (true) {
+            LogRecord r;
+            try {
+                r = (unflushed > 0) ? logQueue.poll() : logQueue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (r == null) {        // queue is empty
+                    if (unflushed > 0) flushAll(streams);
+                    unflushed = 0;
+                    lastFlush = System.currentTimeMillis();
+                    continue;
+                }
+                if (r.closed != null) { // end of session
+                    ObjectOutputStream oos = streams.remove(r.sessionid);
+                    if (oos != null) oos.close();
+                    continue;
+                }
+                ObjectOutputStream oos = streams.get(r.sessionid);
+                if (oos == null) {
+                    oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(
+                            tempPath + "\\temp_" + r.sessionid + "\\" + SESSION_FILE)));
+                    streams.put(r.sessionid, oos);
+                }
+                oos.writeInt((r.action == null) ? -1 : r.action.toInt());
+                oos.writeBoolean(r.action != null && r.action.isRandomAction());
+                oos.writeObject((r.action == null || r.action.getClass() == Types.ACTIONS.class) ? null : r.action);
+                oos.writeObject(r.stateObservation);
+                if (++unflushed >= FLUSH_EVERY || System.currentTimeMillis() - lastFlush > FLUSH_INTERVAL_MS) {
+                    flushAll(streams);
+                    unflushed = 0;
+                    lastFlush = System.currentTimeMillis();
+                }
+            } catch (IOException io_ignore) {
+                io_ignore.printStackTrace();
+            } finally {
+                if (r != null && r.closed != null) r.closed.countDown();
+            }
+        }
+    }
+
+    private static void flushAll(HashMap<Integer, ObjectOutputStream> streams) throws IOException {
+        for (ObjectOutputStream oos : streams.values()) {
+            oos.reset();
+            oos.flush();
+        }
+    }
+
     public boolean running() {
         if(counter.size() > 0 || simpleLoggingContainers.size() > 0) {
             return true;
@@ -332,6 +438,24 @@ class LogContainer implements Serializable {
     }
 }
 
+/**
+ * A log entry (or, if {@code closed != null}, the end of a session) on its way to the background writer of
+ * {@link LogManager}
+ */
+class LogRecord {
+    final int sessionid;
+    final Types.ACTIONS action;
+    final StateObservation stateObservation;
+    final CountDownLatch closed;
+
+    LogRecord(int sessionid, Types.ACTIONS action, StateObservation stateObservation, CountDownLatch closed) {
+        this.sessionid = sessionid;
+        this.action = action;
+        this.stateObservation = stateObservation;
+        this.closed = closed;
+    }
+}
+
 /**
  * The LogSessionContainer is used to save a logsession, a log session consists of multiple Actions and StateObservations
  *
@@ -119,4 +119,9 @@ public class BoutonAgent extends AgentBase implements PlayAgent {
 		return false;
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 }
@@ -227,4 +227,9 @@ public class DaviNimAgent extends AgentBase implements PlayAgent {
 		return getClass().getName() + ", vm.size="+vm.size();
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 }
@@ -9,6 +9,7 @@ import games.ObserverBase;
 import games.StateObservation;
 import tools.Types;
 import tools.Types.ACTIONS;
+import tools.ZobristKeys;
 
 /**
  * Class StateObserverNim observes the current state of the game Nim <b>for 2 players</b> and it is the 
@@ -159,6 +160,16 @@ public class StateObserverNim extends ObserverBase implements StateObservation {
 		
  		return sout.toString();
 	}
+
+	/**
+	 * @return a key combined from the player to move and the heap sizes (no string building)
+	 */
+	@Override
+	public long getHashKey() {
+		long key = ZobristKeys.mix(m_player);
+		for (int h : m_heap) key = ZobristKeys.combine(key, h);
+		return key;
+	}
 	
 	/**
 	 * 
@@ -227,6 +238,34 @@ public class StateObserverNim extends ObserverBase implements StateObservation {
 		super.incrementMoveCounter();
 	}
 
+	/**
+	 * @return true, if {@link #undo(int)} is possible (not for the experimental sorted heaps, see {@link #SORT_IT})
+	 */
+	@Override
+	public boolean canUndo() {
+		return !SORT_IT;
+	}
+
+	/**
+	 * Take back the last {@code n} actions (see {@link StateObservation#undo(int)}): put the items back on their
+	 * heaps.
+	 */
+	@Override
+	public void undo(int n) {
+		assert !SORT_IT : "undo() is not possible with sorted heaps!";
+		if (n == 0) return;
+		int N=this.getNumPlayers();
+		for (int k=0; k<n; k++) {
+			int iAction = super.undoBase();
+			int j=iAction%NimConfig.MAX_MINUS;
+			int heap=(iAction-j)/NimConfig.MAX_MINUS;
+			m_heap[heap] += j+1;
+			m_player = (m_player+N-1) % N;
+		}
+		setAvailableActions();
+		creatingPlayer = (lastMoves.size() == 0) ? -1 : (m_player+N-1) % N;
+	}
+
     @Override
     public ArrayList<Types.ACTIONS> getAllAvailableActions() {
         ArrayList<Types.ACTIONS> allActions = new ArrayList<>();
@@ -9,6 +9,7 @@ import controllers.PlayAgtVector;
 import tools.ScoreTuple;
 import tools.Types;
 import tools.Types.ACTIONS;
+import tools.ZobristKeys;
 
 /**
  * Class {@link ObserverBase} implements as an <b>abstract</b> class all elements of the interface  
@@ -127,6 +128,29 @@ abstract public class ObserverBase extends PartialPerfect implements StateObserv
 	 * advance(ACTIONS), as required by the interface {@link StateObservation}.
 	 */
 	abstract public void advance(ACTIONS action, Random cmpRand);
+
+	/**
+	 * Default implementation: no undo. Games which override it have to override {@link #undo(int)} as well.
+	 */
+	public boolean canUndo() {
+		return false;
+	}
+
+	public void undo(int n) {
+		throw new UnsupportedOperationException("undo() is not implemented for "+this.getClass().getSimpleName());
+	}
+
+	/**
+	 * Helper for {@link #undo(int)} in derived classes: remove the last move from {@link #lastMoves} and decrement
+	 * the move counter.
+	 *
+	 * @return the last move as {@code iAction}
+	 */
+	protected int undoBase() {
+		assert lastMoves.size() > 0 : "There is no move to take back!";
+		m_counter--;
+		return lastMoves.remove(lastMoves.size()-1);
+	}
 	
 	/**
      * Advance the current state to a new afterstate (do the deterministic part of advance)
@@ -402,6 +426,14 @@ abstract public class ObserverBase extends PartialPerfect implements StateObserv
 		return stringDescr();
 	}
 
+	/**
+	 * The default implementation hashes {@link #uniqueStringDescr()}. Derived classes may override it with a
+	 * cheaper key.
+	 */
+	public long getHashKey() {
+		return ZobristKeys.hashString(uniqueStringDescr());
+	}
+
 	/**
 	 * 
 	 * @return a string representation of action {@code act}
@@ -228,6 +228,72 @@ public class BaseOthello implements Serializable
 	{
 		return player == ConfigOthello.WHITE ? ConfigOthello.BLACK : ConfigOthello.WHITE;
 	}
+
+	// ---------------------------------------------------------------------------------------------------------
+	// Bitboard helpers (see StateObserverOthello): a board is a pair of longs, one per player, where bit n is set
+	// if the player has a disc on cell n = 8*row+col (the action number of this cell).
+	// ---------------------------------------------------------------------------------------------------------
+
+	private static final long NOT_COL_0 = 0xFEFEFEFEFEFEFEFEL;	// all cells except column 0
+	private static final long NOT_COL_7 = 0x7F7F7F7F7F7F7F7FL;	// all cells except column 7
+
+	/**
+	 * Shift all cells of {@code b} one step in direction {@code dir}, dropping cells that leave the board.
+	 * @param b		bitboard
+	 * @param dir	0..7, one of the 8 directions (same order as {@link #modifier})
+	 * @return the shifted bitboard
+	 */
+	private static long shift(long b, int dir) {
+		return switch (dir) {
+			case 0 -> (b >>> 9) & NOT_COL_7;	// row-1, col-1
+			case 1 -> (b >>> 1) & NOT_COL_7;	// row,   col-1
+			case 2 -> (b << 7) & NOT_COL_7;		// row+1, col-1
+			case 3 -> b >>> 8;					// row-1, col
+			case 4 -> b << 8;					// row+1, col
+			case 5 -> (b >>> 7) & NOT_COL_0;	// row-1, col+1
+			case 6 -> (b << 1) & NOT_COL_0;		// row,   col+1
+			default -> (b << 9) & NOT_COL_0;	// row+1, col+1
+		};
+	}
+
+	/**
+	 * Bit-parallel move generation: all 8 directions are scanned for all cells at once.
+	 * @param own	bitboard of the player to move
+	 * @param opp	bitboard of the opponent
+	 * @return the bitboard of all empty cells where {@code own} may place a disc
+	 */
+	public static long legalMoves(long own, long opp) {
+		long empty = ~(own | opp);
+		long moves = 0L;
+		for (int dir = 0; dir < 8; dir++) {
+			long t = shift(own, dir) & opp;		// opponent discs adjacent to own discs ...
+			for (int k = 0; k < 5; k++)			// ... extended to runs of up to 6 opponent discs
+				t |= shift(t, dir) & opp;
+			moves |= shift(t, dir) & empty;		// an empty cell behind a run is a legal move
+		}
+		return moves;
+	}
+
+	/**
+	 * @param own	bitboard of the player placing a disc on cell {@code n}
+	 * @param opp	bitboard of the opponent
+	 * @param n		the cell (action number)
+	 * @return the bitboard of all opponent discs flipped by this move
+	 */
+	public static long flips(long own, long opp, int n) {
+		long flipped = 0L;
+		long m = 1L << n;
+		for (int dir = 0; dir < 8; dir++) {
+			long f = 0L;
+			long x = shift(m, dir);
+			while ((x & opp) != 0) {
+				f |= x;
+				x = shift(x, dir);
+			}
+			if ((x & own) != 0) flipped |= f;
+		}
+		return flipped;
+	}
 	
 
 }
\ No newline at end of file
@@ -206,5 +206,9 @@ public class BenchMarkPlayer extends AgentBase implements PlayAgent, Serializabl
 		return false;
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{random};
+	}
 
-}
\ No newline at end of file
+}
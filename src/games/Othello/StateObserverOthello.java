@@ -1,16 +1,28 @@
 package games.Othello;
 
 import games.ObserverBase;
+import games.StateObservation;
 import tools.Types;
 import tools.Types.ACTIONS;
 import tools.Types.WINNER;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
- * This class holds valid Othello game state objects. It is coded
- * as a two-dimensional int[8][8] array, where each index represents either
+ * This class holds valid Othello game state objects. Internally the board is stored as two <b>bitboards</b>
+ * (one {@code long} for the black and one for the white discs, bit n set if the player has a disc on cell n, see
+ * the action numbers below). Moves are generated and flipped bit-parallel (see {@link BaseOthello#legalMoves(long, long)}
+ * and {@link BaseOthello#flips(long, long, int)}), {@link #copy()} copies just a few longs, and a 64-bit Zobrist hash
+ * of the position (discs + player to move) is maintained incrementally, see {@link #getHash()}.
+ * <p>
+ * To the outside, the board is still offered as a two-dimensional int[8][8] array
+ * (see {@link #getCurrentGameState()}, built on demand), where each index represents either
  * <ul>
  * <li>a  Black cell ("O") = 0,
  * <li>a  White cell ("X") = 1,
@@ -57,48 +69,70 @@ public class StateObserverOthello extends ObserverBase{
 	
 	public static final long serialVersionUID = 12L;
 	private static final double REWARD_NEGATIVE = -1, REWARD_POSITIVE = 1;
-	
-	protected int[][] currentGameState;
+
+	private long[] discs = new long[2];		// the bitboards for BLACK (discs[0]) and WHITE (discs[1])
+	private long hash;						// Zobrist hash of discs and playerNextMove
+	private long legalMoves;				// bitboard of availableActions
+	/**
+	 * int[8][8] view of the bitboards, built on demand by {@link #getCurrentGameState()} (null, if not yet built
+	 * for the current position). It is serialized, so that older GBG versions can read logs and agents with this
+	 * state and this version can read older ones.
+	 */
+	private int[][] currentGameState;
 	protected int playerNextMove; 	// the player to move in the current state
 	private int countBlack, countWhite;	// probably never really needed
 	private ArrayList<ACTIONS> availableActions = new ArrayList<>();
+	/**
+	 * For each action done on this object the discs it has flipped and the legal moves before it (two entries),
+	 * needed for {@link #undo(int)}. Not copied and not serialized, allocated by the first
+	 * {@link #advance(ACTIONS, Random)}.
+	 */
+	private transient long[] history;
+	private transient int nHistory;
+
+	/**
+	 * Zobrist keys: a random number for each (player, cell) and one for 'WHITE to move'
+	 */
+	private static final long[][] ZOBRIST = new long[2][64];
+	private static final long ZOBRIST_WHITE_TO_MOVE;
+	static {
+		long z = 0x4F7468656C6C6FL;		// fixed seed (SplitMix64), so that hashes are the same in every run
+		for (int p = 0; p < 2; p++)
+			for (int n = 0; n < 64; n++)
+				ZOBRIST[p][n] = splitMix64(z += 0x9E3779B97F4A7C15L);
+		ZOBRIST_WHITE_TO_MOVE = splitMix64(z + 0x9E3779B97F4A7C15L);
+	}
+
+	private static long splitMix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
 //	public ArrayList<Integer> lastMoves;		// this is now in ObserverBase
 //	private int turn;			// use super.getMoveCounter() instead
 	
 	public StateObserverOthello()
 	{
 		super();
-		currentGameState= new int[ConfigOthello.BOARD_SIZE][ConfigOthello.BOARD_SIZE];
-		for(int i = 0; i < 8; i++) {
-			for(int j = 0; j < 8; j++)
-			{
-				currentGameState[i][j] = ConfigOthello.EMPTY;
-			}
-		}
-		currentGameState[3][3] = 1;
-		currentGameState[3][4] = BaseOthello.getOpponent(1);
-		currentGameState[4][3] = BaseOthello.getOpponent(1);
-		currentGameState[4][4] = 1;
-//		BaseOthello.deepCopyGameState(ConfigOthello.DEBUG[2], currentGameState);
+		discs[1] = (1L << 27) | (1L << 36);		// cells (3,3) and (4,4)
+		discs[BaseOthello.getOpponent(1)] = (1L << 28) | (1L << 35);
+//		setGameState(ConfigOthello.DEBUG[2]);
 		playerNextMove = getOpponent(1);	// /WK/ the correct choice
 		countBlack = 2;
 		countWhite = 2;
 //		turn = 0;
-		
+		computeHash();
 		setAvailableActions();
 	}
 	
 	public StateObserverOthello(StateObserverOthello other)
 	{
 		super(other);		// copy members m_counter, lastMoves and stored*
-		this.currentGameState= new int[ConfigOthello.BOARD_SIZE][ConfigOthello.BOARD_SIZE];
-		BaseOthello.deepCopyGameState(other.currentGameState, currentGameState);
-		// /WK/ wouldn't "this.currentGameState = other.currentGameState.clone();" do the same as the preceding two lines? 
-		//      No, that would not work, because it would not do a deep copy on int[][], it would only make a new int[8]
-		//      and hang the lines [0],...,[7] from other.currentGameState into this. What would work really 'deep':
-		// for (int i=0; i<ConfigOthello.BOARD_SIZE; i++) this.currentGameState[i] = other.currentGameState[i].clone(); 
-		//      but this is not faster, even slightly slower than the above deepCopyGameState. 
-		//		Anyhow, the real time-burner was 'this.setAvailableActions()' below, and we made the code 16x faster (!!)
+		this.discs = other.discs.clone();
+		this.hash = other.hash;
+		this.legalMoves = other.legalMoves;
+		// (currentGameState is not copied, it is rebuilt on demand)
+		//		The real time-burner was 'this.setAvailableActions()' below, and we made the code 16x faster (!!)
 		// 	 	by simply cloning other.availableActions instead 
 		this.playerNextMove = other.playerNextMove;
 		this.countBlack = other.countBlack;
@@ -128,8 +162,8 @@ public class StateObserverOthello extends ObserverBase{
      */
 	public ArrayList<ACTIONS> getAllAvailableActions(){
 		ArrayList<ACTIONS> retVal = new ArrayList<>();
-		for(int i = 0, n = 0; i < currentGameState.length; i++) {
-			for(int j = 0; j < currentGameState[i].length; j++,n++)
+		for(int i = 0, n = 0; i < ConfigOthello.BOARD_SIZE; i++) {
+			for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++,n++)
 			{
 				if(n != 27 && n != 28 && n != 35 && n != 36) 	
 				// WK 2019-06-15: 1st fix: comment the preceding line out as bug fix for Sarsa: 
@@ -164,7 +198,7 @@ public class StateObserverOthello extends ObserverBase{
 //				(BaseOthello.possibleActions(currentGameState, getOpponent(playerNextMove)).size() == 0);
 		// /WK/ this does the same as above, but should be faster (possibleActions is a costly method):
 		if  (availableActions.size() == 0 ) 
-			return (BaseOthello.possibleActions(currentGameState, getOpponent(playerNextMove)).size() == 0);
+			return BaseOthello.legalMoves(discs[getOpponent(playerNextMove)], discs[playerNextMove]) == 0;
 		return false;
 	}
 
@@ -189,31 +223,16 @@ public class StateObserverOthello extends ObserverBase{
 	public WINNER winStatus() {
 		assert isGameOver() :"Game isn't over";
 		//assert this.getPlayer()==this.playerNextMove : "Oops, this.getPlayer() differs from playerNextMove!";
-		int countPlayer = 0, countOpponent = 0;
-		for(int i = 0; i < ConfigOthello.BOARD_SIZE; i++)
-		{
-			for( int j = 0; j < ConfigOthello.BOARD_SIZE; j++)
-			{
-				if(currentGameState[i][j] == this.getPlayer()) countPlayer++;
-				if(currentGameState[i][j] == (this.getOpponent(this.getPlayer()))) countOpponent++;
-			}
-		}
+		int countPlayer = Long.bitCount(discs[this.getPlayer()]);
+		int countOpponent = Long.bitCount(discs[this.getOpponent(this.getPlayer())]);
 		if(countPlayer > countOpponent) return WINNER.PLAYER_WINS;
 		else if(countPlayer == countOpponent) return WINNER.TIE;
 		return WINNER.PLAYER_LOSES;
 	}
 
 	public void setPieceCounters() {
-		this.countBlack=0;
-		this.countWhite=0;
-		for(int i = 0; i < ConfigOthello.BOARD_SIZE; i++)
-		{
-			for( int j = 0; j < ConfigOthello.BOARD_SIZE; j++)
-			{
-				if(currentGameState[i][j] == 0) this.countBlack++;
-				if(currentGameState[i][j] == 1) this.countWhite++;
-			}
-		}
+		this.countBlack = Long.bitCount(discs[ConfigOthello.BLACK]);
+		this.countWhite = Long.bitCount(discs[ConfigOthello.WHITE]);
 	}
 	
 	@Override
@@ -240,8 +259,16 @@ public class StateObserverOthello extends ObserverBase{
 	 */
 	@Override
 	public void setAvailableActions() {
-		availableActions.clear();
-		availableActions = BaseOthello.possibleActions(currentGameState, playerNextMove);
+		setAvailableActions(BaseOthello.legalMoves(discs[playerNextMove], discs[getOpponent(playerNextMove)]));
+	}
+
+	private void setAvailableActions(long moves) {
+		legalMoves = moves;
+		if (availableActions == null)
+			availableActions = new ArrayList<>(Long.bitCount(moves));
+		availableActions.clear();		// (copies have their own list, see the copy constructor)
+		for (long m = moves; m != 0; m &= m - 1)		// cells in ascending order, as in BaseOthello.possibleActions
+			availableActions.add(new ACTIONS(Long.numberOfTrailingZeros(m)));
 	}
 	/**
 	 * 
@@ -266,7 +293,8 @@ public class StateObserverOthello extends ObserverBase{
 	 */
 	public boolean isLegalAction(ACTIONS act)
 	{
-		return availableActions.contains(act);
+		int n = act.toInt();
+		return 0 <= n && n < 64 && (legalMoves & (1L << n)) != 0;
 	}
 	
 	/**
@@ -276,11 +304,12 @@ public class StateObserverOthello extends ObserverBase{
 	 */
 	@Override
 	public void advance(ACTIONS action, Random cmpRand) {
-		int iAction = action.toInt();
-		int j = iAction % ConfigOthello.BOARD_SIZE;
-		int i = (iAction-j) / ConfigOthello.BOARD_SIZE;
-		BaseOthello.flip(currentGameState, i, j, playerNextMove);
-		currentGameState[i][j] = playerNextMove;
+		if (history == null)
+			history = new long[16];
+		else if (nHistory == history.length)
+			history = Arrays.copyOf(history, 2*nHistory);
+		history[nHistory++] = legalMoves;
+		history[nHistory++] = placeDisc(action.toInt(), playerNextMove);
 		int prevPlayer = playerNextMove;
 		
 		// Set playerNextMove.
@@ -288,13 +317,14 @@ public class StateObserverOthello extends ObserverBase{
 		// possible actions, then playerNextMove will become this opponent. If however the opponent has no possible
 		// moves, he has to pass, and playerNextMove will stay at the value it has (and the next advance
 		// will be done by the same playerNextMove):
-		availableActions = BaseOthello.possibleActions(currentGameState, this.getOpponent(playerNextMove));
+		int opponent = this.getOpponent(playerNextMove);
+		setAvailableActions(BaseOthello.legalMoves(discs[opponent], discs[playerNextMove]));
 		if(availableActions.size() > 0 ) {
-			playerNextMove = getOpponent(playerNextMove);  // the normal case
+			setPlayer(opponent);  // the normal case
 		}
 
 		if (playerNextMove==prevPlayer)
-			setAvailableActions();	// yes, we have to call possibleActions (inside setAvailableActions) a 2nd time
+			setAvailableActions();	// yes, we have to call legalMoves (inside setAvailableActions) a 2nd time
 									// in the rare cases where playerNextMove is identical prevPlayer (there was no 
 									// possible next move for opponent AND the possible actions for prevPlayer have
 									// changed).
@@ -308,6 +338,41 @@ public class StateObserverOthello extends ObserverBase{
 		//assert (turn==this.getMoveCounter()) : "Oops, turn="+turn+" and moveCounter="+this.getMoveCounter()+" differ!";
 	}
 
+	@Override
+	public boolean canUndo() {
+		return true;
+	}
+
+	/**
+	 * Take back the last {@code m} actions (see {@link StateObservation#undo(int)}): remove their discs and flip the
+	 * discs back which they have flipped. The player to move is the owner of the last removed disc (a pass is no
+	 * action of its own, it is part of the action before). The legal moves are taken from the history, not
+	 * computed again.
+	 */
+	@Override
+	public void undo(int m) {
+		assert nHistory >= 2*m : "There are not "+m+" actions on this object to take back!";
+		if (m == 0) return;
+		for (int i = 0; i < m; i++) {
+			int n = super.undoBase();
+			long flipped = history[--nHistory];
+			int player = getCell(n);
+			int opponent = getOpponent(player);
+			discs[player] &= ~(flipped | (1L << n));
+			discs[opponent] |= flipped;
+			hash ^= ZOBRIST[player][n];
+			for (long f = flipped; f != 0; f &= f - 1) {
+				int k = Long.numberOfTrailingZeros(f);
+				hash ^= ZOBRIST[player][k] ^ ZOBRIST[opponent][k];
+			}
+			setPlayer(player);
+			--nHistory;
+		}
+		currentGameState = null;
+		setAvailableActions(history[nHistory]);
+		this.setPieceCounters();
+	}
+
 	@Override
 	public int getPlayer() {
 		return playerNextMove;
@@ -344,11 +409,9 @@ public class StateObserverOthello extends ObserverBase{
 	@Override
 	public String stringDescr() {
 		StringBuilder sb = new StringBuilder();
-		for(int i = 0; i < ConfigOthello.BOARD_SIZE; i++) {
-			for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++) {
-				sb.append( (currentGameState[i][j] == BaseOthello.getOpponent(1))
-						? "O" : (currentGameState[i][j] == 1) ? "X": "-");
-			}
+		for(int n = 0; n < 64; n++) {
+			int c = getCell(n);
+			sb.append( (c == BaseOthello.getOpponent(1)) ? "O" : (c == 1) ? "X": "-");
 		}
 		return sb.toString();
 	}
@@ -358,25 +421,119 @@ public class StateObserverOthello extends ObserverBase{
 		for(int i = 0; i < ConfigOthello.BOARD_SIZE; i++) {
 			System.out.println();
 			for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++) {
-				System.out.printf( currentGameState[i][j] +" ");
+				System.out.printf( getCell(i*ConfigOthello.BOARD_SIZE+j) +" ");
 			}
 		}
 	}
 	
 	public String toEdaxString() {
 		String sout = "";	
-		for(int i = 0; i < ConfigOthello.BOARD_SIZE; i++) {
-			for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++) {
-				sout += ConfigOthello.EDAX_STRING[currentGameState[i][j]]; 
-			}
+		for(int n = 0; n < 64; n++) {
+			sout += ConfigOthello.EDAX_STRING[getCell(n)];
 		}
 		sout += ConfigOthello.EDAX_STRING[this.getPlayer()];		// last char: player to move next
 //		System.out.println(sout);
 		return sout;
 	}
 	
-	public int[][] getCurrentGameState(){return currentGameState;}
-	
+	/**
+	 * @return the board as int[8][8] array with BLACK, WHITE or EMPTY in each cell. It is built from the bitboards
+	 * once per position and must not be modified (use {@link #setGameState(int[][])} to change the board).
+	 */
+	public int[][] getCurrentGameState(){
+		if (currentGameState == null) {
+			int[][] cgs = new int[ConfigOthello.BOARD_SIZE][ConfigOthello.BOARD_SIZE];
+			for(int i = 0, n = 0; i < ConfigOthello.BOARD_SIZE; i++)
+				for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++, n++)
+					cgs[i][j] = getCell(n);
+			currentGameState = cgs;
+		}
+		return currentGameState;
+	}
+
+	/**
+	 * Set the discs from a board {@code cgs} coded as in {@link #getCurrentGameState()}. The player to move, the
+	 * available actions and the piece counters are not changed.
+	 */
+	public void setGameState(int[][] cgs) {
+		discs[0] = discs[1] = 0L;
+		for(int i = 0, n = 0; i < ConfigOthello.BOARD_SIZE; i++)
+			for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++, n++)
+				if (cgs[i][j] == ConfigOthello.BLACK || cgs[i][j] == ConfigOthello.WHITE)
+					discs[cgs[i][j]] |= 1L << n;
+		currentGameState = null;
+		computeHash();
+	}
+
+	/**
+	 * @param n cell number {@code 8*i+j}
+	 * @return BLACK, WHITE or EMPTY
+	 */
+	public int getCell(int n) {
+		long m = 1L << n;
+		if ((discs[ConfigOthello.BLACK] & m) != 0) return ConfigOthello.BLACK;
+		if ((discs[ConfigOthello.WHITE] & m) != 0) return ConfigOthello.WHITE;
+		return ConfigOthello.EMPTY;
+	}
+
+	/**
+	 * @param player BLACK or WHITE
+	 * @return the bitboard of {@code player}'s discs (bit n set for a disc on cell n)
+	 */
+	public long getDiscs(int player) {
+		return discs[player];
+	}
+
+	/**
+	 * @return the bitboard of the available actions
+	 */
+	public long getLegalMoves() {
+		return legalMoves;
+	}
+
+	/**
+	 * @return the Zobrist hash of the position (discs and player to move)
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * @return the incrementally maintained Zobrist hash {@link #getHash()}, so that the transposition tables of
+	 * 		{@link controllers.MaxNAgent} and {@link controllers.ExpectimaxNAgent} do not hash the string description
+	 */
+	@Override
+	public long getHashKey() {
+		return getHash();
+	}
+
+	/**
+	 * Place a disc of {@code player} on cell {@code n} and flip the enclosed opponent discs. The player to move and
+	 * the available actions are not changed.
+	 *
+	 * @return the bitboard of the flipped discs
+	 */
+	protected long placeDisc(int n, int player) {
+		int opponent = getOpponent(player);
+		long flipped = BaseOthello.flips(discs[player], discs[opponent], n);
+		discs[player] |= flipped | (1L << n);
+		discs[opponent] &= ~flipped;
+		hash ^= ZOBRIST[player][n];
+		for (long f = flipped; f != 0; f &= f - 1) {
+			int k = Long.numberOfTrailingZeros(f);
+			hash ^= ZOBRIST[player][k] ^ ZOBRIST[opponent][k];
+		}
+		currentGameState = null;
+		return flipped;
+	}
+
+	private void computeHash() {
+		hash = (playerNextMove == ConfigOthello.WHITE) ? ZOBRIST_WHITE_TO_MOVE : 0L;
+		for (int p = 0; p < 2; p++)
+			for (long d = discs[p]; d != 0; d &= d - 1)
+				hash ^= ZOBRIST[p][Long.numberOfTrailingZeros(d)];
+	}
+
 	/**
 	 * Helper Method
 	 * @param i	index on current game state.
@@ -385,14 +542,35 @@ public class StateObserverOthello extends ObserverBase{
 	 */
 	public String getCurrentGameState(int i, int j)
 	{
-		return currentGameState[i][j] == 0 ? "Empty" : currentGameState[i][j]  == 1 ? "White" : "Black";
+		int c = getCell(i*ConfigOthello.BOARD_SIZE+j);
+		return c == 0 ? "Empty" : c  == 1 ? "White" : "Black";
 	}
 	
 	// WK now needed to get the right playerNextMove for AsStateObserverOthello (!)
 	// 	  Also needed by passToNextPlayer() in ObserverBase
 	public void setPlayer(int p) {
+		if (p != this.playerNextMove && (p == ConfigOthello.WHITE || this.playerNextMove == ConfigOthello.WHITE))
+			hash ^= ZOBRIST_WHITE_TO_MOVE;
 		this.playerNextMove = p;
 	}
+
+	@Serial
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		getCurrentGameState();			// serialize the int[][] view as well (see currentGameState)
+		out.defaultWriteObject();
+	}
+
+	@Serial
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (discs == null) {			// stream of an older GBG version: only currentGameState is there
+			discs = new long[2];
+			setGameState(currentGameState);
+			legalMoves = 0L;
+			if (availableActions != null)
+				for (ACTIONS a : availableActions) legalMoves |= 1L << a.toInt();
+		}
+	}
 	
 	public int getOpponent(int player)
 	{
@@ -3,7 +3,7 @@ package games.Othello;
 import java.io.Serial;
 import java.io.Serializable;
 import java.text.DecimalFormat;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 
 import controllers.TD.ntuple4.NTuple4ValueFunc;
@@ -13,7 +13,6 @@ import games.*;
 
 import controllers.TD.ntuple2.NTupleFactory;
 import tools.Types;
-import tools.Types.ACTIONS;
 
 
 public class XNTupleFuncsOthello extends XNTupleBase implements XNTupleFuncs, Serializable {
@@ -125,17 +124,17 @@ public class XNTupleFuncsOthello extends XNTupleBase implements XNTupleFuncs, Se
 	@Override
 	public BoardVector getBoardVector(StateObservation so) {
 		assert ( so instanceof StateObserverOthello);
-		int[][] gameState = ((StateObserverOthello) so).getCurrentGameState();
+		StateObserverOthello sot = (StateObserverOthello) so;
 		int[] retVal = new int[getNumCells()];
-		for(int i = 0, n = 0; i < ConfigOthello.BOARD_SIZE; i++){
-			for(int j = 0; j < ConfigOthello.BOARD_SIZE; j++, n++)
-				retVal[n] = gameState[i][j];
-		}
+		Arrays.fill(retVal, ConfigOthello.EMPTY);
+		// read the cells directly from the bitboards:
+		for (long d = sot.getDiscs(ConfigOthello.BLACK); d != 0; d &= d - 1)
+			retVal[Long.numberOfTrailingZeros(d)] = ConfigOthello.BLACK;
+		for (long d = sot.getDiscs(ConfigOthello.WHITE); d != 0; d &= d - 1)
+			retVal[Long.numberOfTrailingZeros(d)] = ConfigOthello.WHITE;
 		if (this.getNumPositionValues()==4) {
-			ArrayList<ACTIONS> availActs = so.getAvailableActions();
-			for (ACTIONS availAct : availActs) {
-				retVal[availAct.toInt()] = 3;
-			}
+			for (long m = sot.getLegalMoves(); m != 0; m &= m - 1)
+				retVal[Long.numberOfTrailingZeros(m)] = 3;
 		}
 		return new BoardVector(retVal);
 	}
@@ -154,10 +153,19 @@ public class XNTupleFuncsOthello extends XNTupleBase implements XNTupleFuncs, Se
 	 */
 	@Override
 	public BoardVector[] symmetryVectors(BoardVector boardVector, int n) {
+		return permutedVectors(boardVector, n);
+	}
+
+	/**
+	 * @return the permutation tables for the 8 symmetries: 3 rotations of the board, its mirror and 3 rotations
+	 * of the mirrored board
+	 */
+	@Override
+	protected int[][] makeSymmetryPermutations() {
 		//int s = 16; // Read the comment above!
 		int s = 8;
 		BoardVector[] symmetryVectors = new BoardVector[s];
-		symmetryVectors[0] = boardVector;
+		symmetryVectors[0] = makeBoardVectorEachCellDifferent();
 
 		for(int i = 1; i < 4; i++) {
 			symmetryVectors[i] = rotate(symmetryVectors[i-1]);
@@ -167,7 +175,7 @@ public class XNTupleFuncsOthello extends XNTupleBase implements XNTupleFuncs, Se
 		{
 			symmetryVectors[j] = rotate(symmetryVectors[j-1]);
 		}
-		return symmetryVectors;
+		return permutationTables(symmetryVectors);
 	}
 
 	/**
@@ -109,6 +109,12 @@ public class CubeConfig {
 	public static int replayBufferCapacity = 500;
 	public static int batchSize = 50;
 
+	/**
+	 * whether the replay buffer of {@link DAVI3Agent} and {@link DAVI4Agent} samples with priorities (prioritized
+	 * experience replay) or uniformly. Set from the selector in tab "RB Pars".
+	 */
+	public static boolean PRIORITIZED_REPLAY = false;
+
 
 	/**
 	 * This influences the behavior in {@link GameBoardCube#selectByTwists1(int) GameBoardCube.selectByTwists1(p)} 
@@ -162,6 +162,21 @@ abstract public class CubeState implements Serializable {
 			tforU = null, tforL = null, tforF = null,
 			tforD = null, tforR = null, tforB = null;
 
+	/**
+	 * {@code invPow[t][k]} and {@code tforPow[t][k]} are the k-th powers (k=1,2,3) of the inverse and forward
+	 * transformations of twist {@code t} (index: {@link Twist#ordinal()}). So {@link #UTw(int) UTw(times)} and the
+	 * other twists need only one pass over {@link #fcol} and {@link #sloc} for any {@code times}.
+	 * [Filled via {@link #generateForwardTs()}.]
+	 */
+	private static int[][][] invPow = null, tforPow = null;
+
+	/**
+	 * Scratch arrays for {@link #permute(int[], int[])} and {@link #apply(CubeState, boolean)}: the new
+	 * {@link #fcol} ({@link #sloc}) is written to {@code fbuf} ({@code sbuf}) and then the two arrays are swapped.
+	 * So twists do not allocate (except for the first one after a copy).
+	 */
+	private transient int[] fbuf, sbuf;
+
 	public CubeState() {
 		// empty, just a stub for  derived classes
 	}
@@ -274,6 +289,25 @@ abstract public class CubeState implements Serializable {
 		}
 
 		assertForwardTs();
+
+		int[][] invs = {null, invU, invL, invF, invD, invR, invB};
+		int[][] tfors = {null, tforU, tforL, tforF, tforD, tforR, tforB};
+		invPow = new int[invs.length][4][];
+		tforPow = new int[invs.length][4][];
+		for (int t=1; t<invs.length; t++) {
+			invPow[t][1] = invs[t];
+			tforPow[t][1] = tfors[t];
+			for (int k=2; k<=3; k++) {
+				// applying invT k times gives fcol[i] <- fcol[invT[...invT[i]]], applying tforT k times gives
+				// sloc[i] <- tforT[...tforT[sloc[i]]]:
+				invPow[t][k] = new int[invF.length];
+				tforPow[t][k] = new int[invF.length];
+				for (int i=0; i<invF.length; i++) {
+					invPow[t][k][i] = invPow[t][k-1][invs[t][i]];
+					tforPow[t][k][i] = tfors[t][tforPow[t][k-1][i]];
+				}
+			}
+		}
 	}
 
 	private static void assertForwardTs() {
@@ -369,79 +403,109 @@ abstract public class CubeState implements Serializable {
 	 * 	 Counter-clockwise twist of the U-face
 	 */
 	protected CubeState UTw() {
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<invU.length; i++) this.fcol[i] = tmp[invU[i]];
-		tmp = this.sloc.clone();
-		for (i=0; i<tforU.length; i++) this.sloc[i] = tforU[tmp[i]]; 
-		return this;
+		return permute(invU, tforU);
 	}
 	
 	/**
 	 * 	 Counter-clockwise twist of the L-face
 	 */
 	protected CubeState LTw() {
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<invL.length; i++) this.fcol[i] = tmp[invL[i]];
-		tmp = this.sloc.clone();
-		for (i=0; i<tforL.length; i++) this.sloc[i] = tforL[tmp[i]]; 
-		return this;
+		return permute(invL, tforL);
 	}
 
 	/**
 	 * 	 Counter-clockwise twist of the F-face
 	 */
 	protected CubeState FTw() {
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<invF.length; i++) this.fcol[i] = tmp[invF[i]];
-		tmp = this.sloc.clone();
-		for (i=0; i<tforF.length; i++) this.sloc[i] = tforF[tmp[i]]; 
-		return this;
+		return permute(invF, tforF);
 	}
 
 	/**
 	 * 	 Counter-clockwise twist of the D-face
 	 */
 	protected CubeState DTw() {
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<invD.length; i++) this.fcol[i] = tmp[invD[i]];
-		tmp = this.sloc.clone();
-		for (i=0; i<tforD.length; i++) this.sloc[i] = tforD[tmp[i]];
-		return this;
+		return permute(invD, tforD);
 	}
 
 	/**
 	 * 	 Counter-clockwise twist of the R-face
 	 */
 	protected CubeState RTw() {
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<invR.length; i++) this.fcol[i] = tmp[invR[i]];
-		tmp = this.sloc.clone();
-		for (i=0; i<tforR.length; i++) this.sloc[i] = tforR[tmp[i]];
-		return this;
+		return permute(invR, tforR);
 	}
 
 	/**
 	 * 	 Counter-clockwise twist of the B-face
 	 */
 	protected CubeState BTw() {
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<invB.length; i++) this.fcol[i] = tmp[invB[i]];
-		tmp = this.sloc.clone();
-		for (i=0; i<tforB.length; i++) this.sloc[i] = tforB[tmp[i]];
+		return permute(invB, tforB);
+	}
+
+	/**
+	 * Apply the permutation with inverse {@code inv} and forward trafo {@code tfor} to {@code this}:
+	 * <pre>
+	 *     fcol[i] &lt;- fcol[inv[i]],     sloc[i] &lt;- tfor[sloc[i]]     </pre>
+	 * The new arrays are written to the scratch arrays {@link #fbuf}, {@link #sbuf} which are then swapped with
+	 * {@link #fcol}, {@link #sloc}.
+	 */
+	protected CubeState permute(int[] inv, int[] tfor) {
+		int[] f = fcolBuffer();
+		for (int i=0; i<inv.length; i++) f[i] = fcol[inv[i]];
+		fbuf = fcol;
+		fcol = f;
+		int[] s = slocBuffer();
+		for (int i=0; i<tfor.length; i++) s[i] = tfor[sloc[i]];
+		sbuf = sloc;
+		sloc = s;
 		return this;
 	}
 
+	/**
+	 * @param t		a twist (not ID)
+	 * @param times	1, 2 or 3
+	 * @return the forward trafo of twist {@code t}, {@code times} * 90 degree counter-clockwise: {@code tfor[j]} is the
+	 * 		new location of a sticker which was in location {@code j} (valid after {@link #generateForwardTs()})
+	 */
+	static int[] forwardTrafo(Twist t, int times) {
+		return tforPow[t.ordinal()][times];
+	}
+
+	/**
+	 * @return the inverse permutation of {@code p}
+	 */
+	protected static int[] inverse(int[] p) {
+		int[] q = new int[p.length];
+		for (int i=0; i<p.length; i++) q[p[i]] = i;
+		return q;
+	}
+
+	private int[] fcolBuffer() {
+		if (fbuf == null || fbuf.length != fcol.length) fbuf = new int[fcol.length];
+		return fbuf;
+	}
+
+	private int[] slocBuffer() {
+		if (sbuf == null || sbuf.length != sloc.length) sbuf = new int[sloc.length];
+		return sbuf;
+	}
+
+	/**
+	 * Twist {@code t}, {@code times} * 90 degree counter-clockwise, with the precomputed powers {@link #invPow},
+	 * {@link #tforPow} (at most 3 at a time, so the result is identical to {@code times} single twists)
+	 */
+	private void twist(Twist t, int times) {
+		int k = t.ordinal();
+		for (int n=times; n>0; n-=3) {
+			int m = Math.min(n, 3);
+			permute(invPow[k][m], tforPow[k][m]);
+		}
+	}
+
 	/**
 	 * U-face twist, {@code times} * 90 degree counter-clockwise
 	 */
 	public CubeState UTw(int times) {
-		for (int i=0; i<times; i++) this.UTw();
+		twist(Twist.U, times);
 		this.twistSeq = this.twistSeq + "U"+times;
 		this.lastTwist = Twist.U;
 		this.lastTimes = times;
@@ -452,7 +516,7 @@ abstract public class CubeState implements Serializable {
 	 * L-face twist, {@code times} * 90 degree counter-clockwise
 	 */
 	public CubeState LTw(int times) {
-		for (int i=0; i<times; i++) this.LTw();
+		twist(Twist.L, times);
 		this.twistSeq = this.twistSeq + "L"+times;
 		this.lastTwist = Twist.L;
 		this.lastTimes = times;
@@ -463,7 +527,7 @@ abstract public class CubeState implements Serializable {
 	 * F-face twist, {@code times} * 90 degree counter-clockwise
 	 */
 	public CubeState FTw(int times) {
-		for (int i=0; i<times; i++) this.FTw();
+		twist(Twist.F, times);
 		this.twistSeq = this.twistSeq + "F"+times;
 		this.lastTwist = Twist.F;
 		this.lastTimes = times;
@@ -474,7 +538,7 @@ abstract public class CubeState implements Serializable {
 	 * U-face twist, {@code times} * 90 degree counter-clockwise
 	 */
 	public CubeState DTw(int times) {
-		for (int i=0; i<times; i++) this.DTw();
+		twist(Twist.D, times);
 		this.twistSeq = this.twistSeq + "D"+times;
 		this.lastTwist = Twist.D;
 		this.lastTimes = times;
@@ -485,7 +549,7 @@ abstract public class CubeState implements Serializable {
 	 * L-face twist, {@code times} * 90 degree counter-clockwise
 	 */
 	public CubeState RTw(int times) {
-		for (int i=0; i<times; i++) this.RTw();
+		twist(Twist.R, times);
 		this.twistSeq = this.twistSeq + "R"+times;
 		this.lastTwist = Twist.R;
 		this.lastTimes = times;
@@ -496,7 +560,7 @@ abstract public class CubeState implements Serializable {
 	 * F-face twist, {@code times} * 90 degree counter-clockwise
 	 */
 	public CubeState BTw(int times) {
-		for (int i=0; i<times; i++) this.BTw();
+		twist(Twist.B, times);
 		this.twistSeq = this.twistSeq + "B"+times;
 		this.lastTwist = Twist.B;
 		this.lastTimes = times;
@@ -514,9 +578,10 @@ abstract public class CubeState implements Serializable {
 	}
 	public CubeState apply(CubeState trafo, boolean doAssert) {
 		assert(trafo.type==Type.TRAFO_P || trafo.type==Type.TRAFO_R) : "Wrong type in apply(trafo) !";
-		int i;
-		int[] tmp = this.fcol.clone();
-		for (i=0; i<fcol.length; i++) this.fcol[i] = tmp[trafo.fcol[i]];
+		int[] f = fcolBuffer();
+		for (int i=0; i<fcol.length; i++) f[i] = fcol[trafo.fcol[i]];
+		fbuf = fcol;
+		fcol = f;
 		apply_sloc(trafo,doAssert);
 		//apply_sloc_slow(trafo,doAssert);			// the slow version (for debug)
 		return this;		
@@ -547,7 +612,7 @@ abstract public class CubeState implements Serializable {
 		//int[] tmp = sloc.clone();
 		//for (int i=0; i<sloc.length; i++)  sloc[trafo.fcol[i]]=tmp[i];// OLD version, WRONG for twists
 
-		int[] invS = sloc.clone();                                      // NEW version 2022-06: works for twists and whole-cube rots
+		int[] invS = slocBuffer();                                      // NEW version 2022-06: works for twists and whole-cube rots
 		for (int i=0; i<sloc.length; i++) invS[sloc[i]]=i;
 		for (int i=0; i<sloc.length; i++) sloc[invS[i]]=trafo.sloc[i];
 
@@ -132,8 +132,7 @@ public class CubeState2x2 extends CubeState {
         CubieTriple ygrCubie = ctFactory.makeCubieTriple();
         assert(this.type==Type.COLOR_P || this.type==Type.COLOR_R) : "Wrong type "+this.type+" in apply(cT) !";
         // 1) apply the color trafo to fcol:
-        int[] tmp = this.fcol.clone();
-        for (int i=0; i<fcol.length; i++) this.fcol[i] = cT.getCCol(tmp[i]);
+        for (int i=0; i<fcol.length; i++) this.fcol[i] = cT.getCCol(fcol[i]);
 
         // 2) apply the color trafo to sloc:
         applyCT_sloc(cT,doAssert);
@@ -406,44 +405,28 @@ public class CubeState2x2 extends CubeState {
 //        System.out.println();
 //    }
 
+    // fcol(INV_UTR[i]) is the color which cubie face i gets after whole-cube rotation uTr(), FOR_UTR is its inverse
+    // (new location of the sticker at i). Precomputed, so that uTr() does not allocate:
+    private static final int[] INV_UTR = {3,0,1,2,22,23,20,21,5,6,7,4,13,14,15,12,10,11,8,9,19,16,17,18};
+    private static final int[] FOR_UTR = inverse(INV_UTR);
+
     /**
      * Whole-cube rotation 90° counter-clockwise around the u-face
      */
     protected CubeState uTr() {
-        int i;
-        // fcol(invT[i]) is the color which cubie face i gets after transformation:
-        int[] invT = {3,0,1,2,22,23,20,21,5,6,7,4,13,14,15,12,10,11,8,9,19,16,17,18};
-        int[] tmp = this.fcol.clone();
-        for (i=0; i<invT.length; i++) this.fcol[i] = tmp[invT[i]];
-        tmp = this.sloc.clone();
-        //for (i=0; i<sloc.length; i++) this.sloc[invT[i]] = tmp[i];    // WRONG!
-        //for (i=0; i<sloc.length; i++) this.sloc[fcol[i]] = i;         // ONLY correct if this is of type TRAFO
-        int[] T = new int[invT.length];                                 // CORRECT for both types, COLOR and TRAFO
-        for (i=0; i<invT.length; i++) T[invT[i]] = i;
-        for (i=0; i<sloc.length; i++) sloc[i] = T[tmp[i]];
-
-        //this.assert_fcol_sloc(" from uTr()");
-        return this;
+        return permute(INV_UTR, FOR_UTR);
     }
 
+    // fcol(INV_FTR[i]) is the color which cubie face i gets after whole-cube rotation fTr(), FOR_FTR is its inverse
+    // (new location of the sticker at i). Precomputed, so that fTr() does not allocate:
+    private static final int[] INV_FTR = {18,19,16,17,1,2,3,0,11,8,9,10,6,7,4,5,15,12,13,14,21,22,23,20};
+    private static final int[] FOR_FTR = inverse(INV_FTR);
+
     /**
      * Whole-cube rotation 90° counter-clockwise around the f-face
      */
     protected CubeState fTr() {
-        int i;
-        // fcol(invT[i]) is the color which cubie face i gets after transformation:
-        int[] invT = {18,19,16,17,1,2,3,0,11,8,9,10,6,7,4,5,15,12,13,14,21,22,23,20};
-        int[] tmp = this.fcol.clone();
-        for (i=0; i<invT.length; i++) this.fcol[i] = tmp[invT[i]];
-        tmp = this.sloc.clone();
-        //for (i=0; i<sloc.length; i++) this.sloc[invT[i]] = tmp[i];    // WRONG!
-        //for (i=0; i<sloc.length; i++) this.sloc[fcol[i]] = i;         // ONLY correct if this is of type TRAFO
-        int[] T = new int[invT.length];                                 // CORRECT for both types, COLOR and TRAFO
-        for (i=0; i<invT.length; i++) T[invT[i]] = i;
-        for (i=0; i<sloc.length; i++) sloc[i] = T[tmp[i]];
-
-        //this.assert_fcol_sloc(" from fTr()");
-        return this;
+        return permute(INV_FTR, FOR_FTR);
     }
 
 }
@@ -193,8 +193,7 @@ public class CubeState3x3 extends CubeState {
     public CubeState applyCT(ColorTrafo cT, boolean doAssert) {
         assert(this.type==Type.COLOR_P || this.type==Type.COLOR_R) : "Wrong type "+this.type+" in apply(cT) !";
         // 1) apply the color trafo to fcol:
-        int[] tmp = this.fcol.clone();
-        for (int i=0; i<fcol.length; i++) this.fcol[i] = cT.getCCol(tmp[i]);
+        for (int i=0; i<fcol.length; i++) this.fcol[i] = cT.getCCol(fcol[i]);
 
         // 2) apply the color trafo to sloc:
         applyCT_sloc(cT,doAssert);
@@ -214,44 +213,30 @@ public class CubeState3x3 extends CubeState {
         return this;
     }
 
+    // fcol(INV_UTR[i]) is the color which cubie face i gets after whole-cube rotation uTr(), FOR_UTR is its inverse
+    // (new location of the sticker at i). Precomputed, so that uTr() does not allocate:
+    private static final int[] INV_UTR = { 6, 7, 0, 1, 2, 3, 4, 5, 44,45,46,47,40,41,42,43, 10,11,12,13,14,15, 8, 9,
+                                          26,27,28,29,30,31,24,25, 20,21,22,23,16,17,18,19, 38,39,32,33,34,35,36,37};
+    private static final int[] FOR_UTR = inverse(INV_UTR);
+
     /**
      * Whole-cube rotation 90° counter-clockwise around the u-face
      */
     protected CubeState uTr() {
-        int i;
-        // fcol(invT[i]) is the color which cubie face i gets after transformation:
-        int[] invT = { 6, 7, 0, 1, 2, 3, 4, 5, 44,45,46,47,40,41,42,43, 10,11,12,13,14,15, 8, 9,
-                      26,27,28,29,30,31,24,25, 20,21,22,23,16,17,18,19, 38,39,32,33,34,35,36,37};
-        int[] tmp = this.fcol.clone();
-        for (i=0; i<invT.length; i++) this.fcol[i] = tmp[invT[i]];
-        tmp = this.sloc.clone();
-        //for (i=0; i<sloc.length; i++) this.sloc[invT[i]] = tmp[i];    // WRONG!
-        //for (i=0; i<sloc.length; i++) this.sloc[fcol[i]] = i;         // ONLY correct if this is of type TRAFO
-        int[] T = new int[invT.length];                                 // CORRECT for both types, COLOR and TRAFO
-        for (i=0; i<invT.length; i++) T[invT[i]] = i;
-        for (i=0; i<sloc.length; i++) sloc[i] = T[tmp[i]];
-
-        return this;
+        return permute(INV_UTR, FOR_UTR);
     }
 
+    // fcol(INV_FTR[i]) is the color which cubie face i gets after whole-cube rotation fTr(), FOR_FTR is its inverse
+    // (new location of the sticker at i). Precomputed, so that fTr() does not allocate:
+    private static final int[] INV_FTR = {36,37,38,39,32,33,34,35,  2, 3, 4, 5, 6, 7, 0, 1, 22,23,16,17,18,19,20,21,
+                                          12,13,14,15, 8, 9,10,11, 30,31,24,25,26,27,28,29, 42,43,44,45,46,47,40,41};
+    private static final int[] FOR_FTR = inverse(INV_FTR);
+
     /**
      * Whole-cube rotation 90° counter-clockwise around the f-face
      */
     protected CubeState fTr() {
-        int i;
-        // fcol(invT[i]) is the color which cubie face i gets after transformation:
-        int[] invT = {36,37,38,39,32,33,34,35,  2, 3, 4, 5, 6, 7, 0, 1, 22,23,16,17,18,19,20,21,
-                      12,13,14,15, 8, 9,10,11, 30,31,24,25,26,27,28,29, 42,43,44,45,46,47,40,41};
-        int[] tmp = this.fcol.clone();
-        for (i=0; i<invT.length; i++) this.fcol[i] = tmp[invT[i]];
-        tmp = this.sloc.clone();
-        //for (i=0; i<sloc.length; i++) this.sloc[invT[i]] = tmp[i];    // WRONG!
-        //for (i=0; i<sloc.length; i++) this.sloc[fcol[i]] = i;         // ONLY correct if this is of type TRAFO
-        int[] T = new int[invT.length];                                 // CORRECT for both types, COLOR and TRAFO
-        for (i=0; i<invT.length; i++) T[invT[i]] = i;
-        for (i=0; i<sloc.length; i++) sloc[i] = T[tmp[i]];
-
-        return this;
+        return permute(INV_FTR, FOR_FTR);
     }
 
     /**
@@ -214,4 +214,9 @@ public class DAVI2Agent extends AgentBase implements PlayAgent {
 									+ ", vm.size="+vm.size();
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 }
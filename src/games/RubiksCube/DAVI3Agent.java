@@ -6,6 +6,8 @@ import java.util.*;
 
 import agentIO.LoadSaveGBG;
 import controllers.PlayAgent;
+import controllers.ReplayBuffer.Buffer.SumTree;
+import controllers.ReplayBuffer.ConfigReplayBuffer;
 import controllers.TD.ntuple4.NTuple4Base;
 import controllers.TD.ntuple4.NTuple4ValueFunc;
 import controllers.TD.ntuple4.NextState4;
@@ -28,7 +30,10 @@ import tools.Types.ACTIONS_VT;
  *      <li> If {@link CubeConfig#REPLAYBUFFER} is false, simplify DAVI further by updating the net in each step only with
  *      the actual (state, target) pair </li>
  *      <li> If {@link CubeConfig#REPLAYBUFFER} is true, maintain a replay buffer of {@link TrainingItem}s and train the net
- *      in batches sampled from this replay buffer. </li>
+ *      in batches sampled from this replay buffer. If {@link CubeConfig#PRIORITIZED_REPLAY} is true, the samples are
+ *      drawn with probabilities proportional to their priorities (prioritized experience replay, same parameters
+ *      as the {@link controllers.ReplayBuffer.Selector.PrioritizedSelector} of the general replay buffer, see
+ *      {@link ConfigReplayBuffer}). </li>
  *  </ul>
  *  It <b>maximizes</b> the value V(s) where each step (twist) adds a negative step reward to V(s).
  *  Only the solved cube s* has V(s*)=0.
@@ -40,7 +45,17 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 
 	protected Random rand;
 
-	protected transient LinkedList<TrainingItem> replayBuffer;
+	/**
+	 * The replay buffer, a ring of at most {@code replayCapacity} items: {@code replayNext} is the slot for the next
+	 * item. If the replay is prioritized, {@code replayPriorities} holds the priorities of the slots.
+	 * {@code replayCapacity} is {@link CubeConfig#replayBufferCapacity} at the time the buffer was created (see
+	 * {@link #resetReplayBuffer()}), so that later changes of the static value do not break the ring.
+	 */
+	protected transient ArrayList<TrainingItem> replayBuffer;
+	private transient int replayCapacity;
+	private transient int replayNext;
+	private transient SumTree replayPriorities;
+	private transient double replayMaxPriority;
 
 //	private NTupleAgt.EligType m_elig;
 //	private int numPlayers;
@@ -107,7 +122,7 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 		setTDParams(tdPar, maxGameNum);
 		m_Net.setHorizon();
 
-		replayBuffer  = new LinkedList<>();
+		resetReplayBuffer();
 
 		setAgentState(AgentState.INIT);
 	}
@@ -134,7 +149,7 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 		// initialize transient members (in case a further training should take place --> see ValidateAgentTest) 
 		this.m_Net.instantiateAfterLoading();   // instantiate transient eList and nTuples
 
-		replayBuffer  = new LinkedList<>();
+		resetReplayBuffer();
 
 		return true;
 	}
@@ -295,7 +310,7 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 
 	/**
 	 * replay buffer training: maintain a replay buffer of recent training experience with capacity
-	 * {@link CubeConfig#replayBufferCapacity}. First play a whole episode and add it (conditionally) to
+	 * {@link CubeConfig#replayBufferCapacity} (as it was when the buffer was created). First play a whole episode and add it (conditionally) to
 	 * the replay buffer. Then perform a training where a batch of samples is drawn randomly from the replay buffer.
 	 * Batch size is {@link CubeConfig#batchSize}.
 	 */
@@ -304,11 +319,7 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 		StateObservation s_t = so.copy();
 		int epiLength = m_oPar.getEpisodeLength();
 		LinkedList<TrainingItem> episodeList = new LinkedList<>();
-		TrainingItem item;
-		int index;
 
-		int curPlayer;
-		double vLast;
 		assert (epiLength != -1) : "trainAgent: Rubik's Cube should not be run with epiLength==-1 !";
 		if (so.equals(def)) {
 			System.err.println("trainAgent: cube should NOT be the default (solved) cube!");
@@ -337,10 +348,7 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 				m_finished = true;
 
 				// successful episode --> put all episodeList elements into replayBuffer
-				for (TrainingItem trainingItem : episodeList) {
-					replayBuffer.addFirst(trainingItem);
-					if (replayBuffer.size() > CubeConfig.replayBufferCapacity) replayBuffer.pollLast();
-				}
+				for (TrainingItem trainingItem : episodeList) addToReplayBuffer(trainingItem);
 
 			}
 			if (s_t.getMoveCounter()>=epiLength) {
@@ -351,8 +359,7 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 				double amount = m_oPar.getIncAmount(); //-0.03;
 				for (TrainingItem trainingItem : episodeList) {
 //					trainingItem.reduceTarget(amount);
-					replayBuffer.addFirst(trainingItem.increaseTarget(amount));
-					if (replayBuffer.size() > CubeConfig.replayBufferCapacity) replayBuffer.pollLast();
+					addToReplayBuffer(trainingItem.increaseTarget(amount));
 				}
 
 			}
@@ -360,31 +367,98 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 		} while(!m_finished);
 		//System.out.println("Final state: "+s_t.stringDescr()+", "+a_t.getVBest());
 
-		// train network from replayBuffer ...
-		if (replayBuffer.size() < CubeConfig.batchSize) {
+		trainFromReplayBuffer(s_t);
+
+		incrementGameNum();
+
+		return false;
+	}
+
+	/**
+	 * Empty the replay buffer. Its priorities are kept only if {@link CubeConfig#PRIORITIZED_REPLAY} is true.
+	 */
+	protected void resetReplayBuffer() {
+		replayCapacity = CubeConfig.replayBufferCapacity;
+		replayBuffer = new ArrayList<>();
+		replayNext = 0;
+		replayPriorities = CubeConfig.PRIORITIZED_REPLAY ? new SumTree(replayCapacity) : null;
+		replayMaxPriority = 1.0;
+	}
+
+	/**
+	 * @return the priorities of the replay buffer slots or null, if the replay is not prioritized
+	 */
+	public SumTree getReplayPriorities() {
+		return replayPriorities;
+	}
+
+	/**
+	 * Add {@code item} to the replay buffer. If it is full, {@code item} replaces the oldest item. A new item gets the
+	 * largest priority seen so far, so that it is sampled at least once with high probability.
+	 */
+	protected void addToReplayBuffer(TrainingItem item) {
+		if (CubeConfig.PRIORITIZED_REPLAY != (replayPriorities != null)) resetReplayBuffer();	// option was switched
+		int slot = replayNext;
+		if (slot == replayBuffer.size()) replayBuffer.add(item);
+		else replayBuffer.set(slot, item);
+		replayNext = (slot + 1) % replayCapacity;
+		if (replayPriorities != null) replayPriorities.set(slot, replayMaxPriority);
+	}
+
+	/**
+	 * @param j	position in the replay buffer, counted from the newest item (j=0)
+	 * @return the slot of this item
+	 */
+	private int replaySlot(int j) {
+		return ((replayNext - 1 - j) % replayCapacity + replayCapacity) % replayCapacity;
+	}
+
+	/**
+	 * Train the network from the replay buffer: with all items, if there are fewer than {@link CubeConfig#batchSize},
+	 * else with {@link CubeConfig#batchSize} samples. The samples are drawn uniformly or - if prioritized - stratified
+	 * proportional to the priorities, and each update is then weighted with the importance-sampling weight
+	 * {@code (p_min/p)^PER_BETA}. The TD error of each update sets the new priority of the item.
+	 *
+	 * @param s_t	the final state of the last episode (for the step reward, only debug info)
+	 */
+	protected void trainFromReplayBuffer(StateObservation s_t) {
+		int size = replayBuffer.size();
+		double reward = s_t.getStepRewardTuple().scTup[0];
+		if (size < CubeConfig.batchSize) {
 			// ... with all samples in replayBuffer
-			for (TrainingItem trainingItem : replayBuffer) {
-				item = trainingItem;
-				curPlayer = item.sowb.getStateObservation().getPlayer();
-				vLast = m_Net.getScoreI(item.sowb, curPlayer);
-				m_Net.updateWeightsTD(item.sowb, curPlayer, vLast, item.target,
-						s_t.getStepRewardTuple().scTup[0], item.sowb.getStateObservation());
-			}
-		} else {
+			for (int j=0; j<size; j++)
+				trainReplayItem(replaySlot(j), 1.0, reward);
+		} else if (replayPriorities == null) {
 			// ... with batchSize random samples
+			for (int i=0; i<CubeConfig.batchSize; i++)
+				trainReplayItem(replaySlot(rand.nextInt(size)), 1.0, Double.NaN);
+		} else {
+			// ... with batchSize prioritized samples
+			double segment = replayPriorities.total() / CubeConfig.batchSize;
 			for (int i=0; i<CubeConfig.batchSize; i++) {
-				index = rand.nextInt(replayBuffer.size());
-				item = replayBuffer.get(index);
-				s_t = item.sowb.getStateObservation();
-				vLast = m_Net.getScoreI(item.sowb,s_t.getPlayer());
-				m_Net.updateWeightsTD(item.sowb, s_t.getPlayer(), vLast, item.target,
-						s_t.getStepRewardTuple().scTup[0], s_t);
+				int slot = replayPriorities.find((i + rand.nextDouble()) * segment);
+				double weight = Math.pow(replayPriorities.min() / replayPriorities.get(slot), ConfigReplayBuffer.PER_BETA);
+				trainReplayItem(slot, weight, Double.NaN);
 			}
 		}
+	}
 
-		incrementGameNum();
-
-		return false;
+	/**
+	 * One (weighted) update of the network with the replay item in {@code slot}
+	 *
+	 * @param reward	only debug info: the step reward, NaN: the step reward of the item's state
+	 */
+	private void trainReplayItem(int slot, double weight, double reward) {
+		TrainingItem item = replayBuffer.get(slot);
+		StateObservation so = item.sowb.getStateObservation();
+		if (Double.isNaN(reward)) reward = so.getStepRewardTuple().scTup[0];
+		double vLast = m_Net.getScoreI(item.sowb, so.getPlayer());
+		double tdError = m_Net.w_updateWeightsTD(item.sowb, so.getPlayer(), weight, vLast, item.target, reward, so);
+		if (replayPriorities != null) {
+			double p = Math.pow(Math.abs(tdError) + ConfigReplayBuffer.PER_EPS, ConfigReplayBuffer.PER_ALPHA);
+			replayPriorities.set(slot, p);
+			if (p > replayMaxPriority) replayMaxPriority = p;
+		}
 	}
 
 //	@Override
@@ -452,6 +526,18 @@ public class DAVI3Agent extends NTuple4Base implements PlayAgent {
 									+ ", active weights="+res[1] + ", horizon="+m_Net.getHorizon();
 	}
 
+	/**
+	 * @return the generators of {@link NTuple4Base} and this class' own {@code rand} (which hides
+	 * {@link NTuple4Base#rand})
+	 */
+	@Override
+	protected Random[] getRandomGenerators() {
+		Random[] base = super.getRandomGenerators();
+		Random[] rands = Arrays.copyOf(base, base.length + 1);
+		rands[base.length] = rand;
+		return rands;
+	}
+
 	// Callback function from constructor NextState(NTupleAgt,StateObservation,ACTIONS). 
 	// Currently, only dummy to make the interface NTupleAgt (which NTupleBase has to implement) happy!
 	public void collectReward(NextState4 ns) {
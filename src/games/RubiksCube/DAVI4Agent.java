@@ -15,7 +15,6 @@ import tools.Types.ACTIONS_VT;
 
 import java.io.Serial;
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -314,100 +313,5 @@ public class DAVI4Agent extends DAVI3Agent implements PlayAgent {
 		return false;
 	}
 
-	/**
-	 * replay buffer training: maintain a replay buffer of recent training experience with capacity
-	 * {@link CubeConfig#replayBufferCapacity}. First play a whole episode and add it (conditionally) to
-	 * the replay buffer. Then perform a training where a batch of samples is drawn randomly from the replay buffer.
-	 * Batch size is {@link CubeConfig#batchSize}.
-	 */
-	public boolean trainAgent_replayBuffer(StateObservation so) {
-		ACTIONS_VT  a_t;
-		StateObservation s_t = so.copy();
-		int epiLength = m_oPar.getEpisodeLength();
-		LinkedList<TrainingItem> episodeList = new LinkedList<>();
-		TrainingItem item;
-		int index;
-
-		int curPlayer;
-		double vLast;
-		assert (epiLength != -1) : "trainAgent: Rubik's Cube should not be run with epiLength==-1 !";
-		if (so.equals(def)) {
-			System.err.println("trainAgent: cube should NOT be the default (solved) cube!");
-			return false;
-		}
-		boolean m_finished = false;
-
-		do {
-			m_numTrnMoves++;		// number of train moves
-
-			a_t = getNextAction2(s_t.partialState(), false, false, true);	// choose action a_t (agent-specific behavior)
-
-			// add a new TrainingElem to episodeList
-			TrainingItem trainItem = new TrainingItem(
-					new StateObsWithBoardVector(s_t.copy(), m_Net.xnf),
-					a_t.getVBest(),
-					this.getGameNum()
-			);
-			episodeList.addFirst(trainItem);
-			//System.out.println(s_t.stringDescr()+", "+a_t.getVBest());
-
-			s_t.advance(a_t, null);		// advance the state
-			s_t.storeBestActionInfo(a_t);	// /WK/ was missing before 2021-09-10. Now stored ScoreTuple is up-to-date.
-
-			if (s_t.isGameOver()) {
-				m_finished = true;
-
-				// successful episode --> put all episodeList elements into replayBuffer
-				for (TrainingItem trainingItem : episodeList) {
-					replayBuffer.addFirst(trainingItem);
-					if (replayBuffer.size() > CubeConfig.replayBufferCapacity) replayBuffer.pollLast();
-				}
-
-			}
-			if (s_t.getMoveCounter()>=epiLength) {
-				m_finished=true;
-
-				// unsuccessful episode --> reduce the target of all elements in episodeList by 'amount'
-				// and put them then into replayBuffer
-				double amount = m_oPar.getIncAmount(); //-0.03;
-				for (TrainingItem trainingItem : episodeList) {
-//					trainingItem.reduceTarget(amount);
-					replayBuffer.addFirst(trainingItem.increaseTarget(amount));
-					if (replayBuffer.size() > CubeConfig.replayBufferCapacity) replayBuffer.pollLast();
-				}
-
-			}
-
-		} while(!m_finished);
-		//System.out.println("Final state: "+s_t.stringDescr()+", "+a_t.getVBest());
-
-		// train network from replayBuffer ...
-		if (replayBuffer.size() < CubeConfig.batchSize) {
-			// ... with all samples in replayBuffer
-			for (TrainingItem trainingItem : replayBuffer) {
-				item = trainingItem;
-				curPlayer = item.sowb.getStateObservation().getPlayer();
-				vLast = m_Net.getScoreI(item.sowb, curPlayer);
-				m_Net.updateWeightsTD(item.sowb, curPlayer, vLast, item.target,
-						s_t.getStepRewardTuple().scTup[0], item.sowb.getStateObservation());
-			}
-		} else {
-			// ... with batchSize random samples
-			for (int i=0; i<CubeConfig.batchSize; i++) {
-				index = rand.nextInt(replayBuffer.size());
-				item = replayBuffer.get(index);
-				s_t = item.sowb.getStateObservation();
-				vLast = m_Net.getScoreI(item.sowb,s_t.getPlayer());
-				m_Net.updateWeightsTD(item.sowb, s_t.getPlayer(), vLast, item.target,
-						s_t.getStepRewardTuple().scTup[0], s_t);
-			}
-		}
-
-		incrementGameNum();
-
-		return false;
-	}
-
-
 }
 
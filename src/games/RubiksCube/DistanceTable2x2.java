@@ -0,0 +1,82 @@
+package games.RubiksCube;
+
+import games.RubiksCube.CubeConfig.CubeSize;
+import games.RubiksCube.CubeConfig.TwistType;
+
+import java.io.IOException;
+
+/**
+ * The exact distance (minimal number of twists in metric {@link CubeConfig#twistType}) to the solved cube for all
+ * 3.674.160 states of the pocket cube (2x2x2). It is the ground truth for evaluating agents: Each cube state returned
+ * by {@link GameBoardCube#chooseStartState(int) chooseStartState(p)} is not necessarily p twists away from the solved
+ * cube, its true distance is {@link #distance(CubeState)}.
+ * <p>
+ * The table is the {@link PatternDatabase} for 6 of the 7 movable corners: their placement determines the 7th
+ * corner, so the PDB index is a perfect hash of {@link CubeState2x2} and its entries are exact. It takes 1.8 MB
+ * (4 bits per state), is computed once by a parallel breadth-first search (a few seconds) and saved to
+ * {@link PatternDatabase#defaultDir()}. It is loaded lazily (memory-mapped) on the first call of {@link #get()}.
+ */
+public class DistanceTable2x2 {
+
+	public static final int SIZE = 3674160;		// = 7! * 3^6
+
+	private static final DistanceTable2x2[] tables = new DistanceTable2x2[TwistType.values().length];
+
+	private final PatternDatabase pdb;
+
+	private DistanceTable2x2(PatternDatabase pdb) {
+		assert pdb.getSize() == SIZE : "unexpected size "+pdb.getSize();
+		this.pdb = pdb;
+	}
+
+	/**
+	 * @return the table for the current {@link CubeConfig#twistType} from {@link PatternDatabase#defaultDir()}. It is
+	 * 		loaded only once per twist type.
+	 */
+	public static synchronized DistanceTable2x2 get() {
+		int t = CubeConfig.twistType.ordinal();
+		if (tables[t] == null)
+			tables[t] = get(PatternDatabase.defaultDir());
+		return tables[t];
+	}
+
+	/**
+	 * @param dir	directory to load the table from (or to build and save it there, if it is not yet there)
+	 * @return the table for the current {@link CubeConfig#twistType}, loaded anew on each call (not cached, because
+	 * 		the files in {@code dir} may be deleted afterwards)
+	 */
+	public static DistanceTable2x2 get(String dir) {
+		if (CubeConfig.cubeSize != CubeSize.POCKET)
+			throw new IllegalStateException("[DistanceTable2x2] only available for the pocket cube");
+		try {
+			return new DistanceTable2x2(PatternDatabase.loadOrBuildDefault(dir, true)[0]);
+		} catch (IOException e) {
+			throw new RuntimeException("[DistanceTable2x2] could not load distance table: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * @return the perfect hash of {@code cs}, a number in {0,...,{@link #SIZE}-1}
+	 */
+	public int index(CubeState cs) {
+		return pdb.index(cs);
+	}
+
+	/**
+	 * @return the minimal number of twists which solve {@code cs}
+	 */
+	public int distance(CubeState cs) {
+		return pdb.distance(cs);
+	}
+
+	public int distance(StateObserverCube so) {
+		return pdb.distance(so.getCubeState());
+	}
+
+	/**
+	 * @return {@code h[d]} = number of states with distance {@code d}
+	 */
+	public long[] histogram() {
+		return pdb.histogram();
+	}
+}
@@ -15,13 +15,15 @@ import tools.TStats.TAggreg;
  * <ul>
  * <li> If mode=0: how many percent of the states are solved within &le; p twists? 
  * <li> If mode=1: how many percent of the states are solved within {@code epiLength} twists? 
+ * <li> If mode=2 (pocket cube only): how many percent of the states are solved with the minimal number of twists,
+ *      which is taken from the exact {@link DistanceTable2x2}? 
  * </ul>  
  * The value of mode is set in the constructor. <br>
  * The value of {@code epiLength} is set from the agent's {@code getParOther().getStopEval()}.<br>
  * The value of {@link CubeConfig#pMax} is set from {@link params.OtherParams} element {@code pMax}.
  */
 public class EvaluatorCube extends Evaluator {
- 	private static final int[] AVAILABLE_MODES = new int[]{-1,0,1};
+ 	private static final int[] AVAILABLE_MODES = new int[]{-1,0,1,2};
 //	private int m_mode;			// now in Evaluator
 	private	int countStates=0;
 	private EvalCubeParams ecp;
@@ -29,7 +31,7 @@ public class EvaluatorCube extends Evaluator {
 	/**
 	 * threshold for each value of m_mode
 	 */
-	protected double[] m_thresh={0.0,0.85,0.9}; 		// thresholds for m_mode=-1,0,1
+	protected double[] m_thresh={0.0,0.85,0.9,0.85}; 	// thresholds for m_mode=-1,0,1,2
 
 	public EvaluatorCube(PlayAgent pa, GameBoard gb, int mode, int verbose) {
 		super(pa, gb, mode, verbose);
@@ -68,6 +70,7 @@ public class EvaluatorCube extends Evaluator {
 			return new EvalResult(lastResult, true, m_msg, m_mode, Double.NaN);
 		case 0:  return evaluateAgent0(m_PlayAgent, m_thresh[1]);
 		case 1:  return evaluateAgent0(m_PlayAgent, m_thresh[2]);
+		case 2:  return evaluateAgent2(m_PlayAgent, m_thresh[3]);
 		default: throw new RuntimeException("Invalid m_mode = "+m_mode);
 		}
 	}
@@ -136,6 +139,62 @@ public class EvaluatorCube extends Evaluator {
 		return new EvalResult(lastResult, lastResult>thresh, m_msg, m_mode, thresh);
 	}
 
+	/**
+	 * For each p = {@code ecp.pMin} ... {@code ecp.pMax}: Generate {@code ecp.evalNmax} scrambled cubes as in
+	 * {@link #evaluateAgent0(PlayAgent, double)} and let the agent solve them within {@code epiLength} twists. Compare
+	 * the number of twists with the true distance d of each cube from {@link DistanceTable2x2} (pocket cube only).
+	 *
+	 * @param pa the agent to evaluate
+	 * @return the percentage of cubes solved with d twists (optimally). The message has also the average optimality
+	 * 			gap (twists - d) of the solved cubes
+	 */
+	private EvalResult evaluateAgent2(PlayAgent pa, double thresh) {
+		if (CubeConfig.cubeSize != CubeConfig.CubeSize.POCKET) {
+			m_msg = "mode 2 is only available for the pocket cube ";
+			lastResult = Double.NaN;
+			return new EvalResult(lastResult, false, m_msg, m_mode, thresh);
+		}
+		DistanceTable2x2 table = DistanceTable2x2.get();
+		StateObservation so;
+		int nOptimal = 0, nSolved = 0;
+		long sumGap = 0;
+
+		countStates=0;
+		for (int p=ecp.pMin; p<=ecp.pMax; p++) {
+			int pOptimal = 0, pSolved = 0, pGap = 0, pDist = 0;
+			for (int n=0; n<ecp.evalNmax; n++) {
+				so = ((GameBoardCube) m_gb).chooseStartState(p);
+				so.resetMoveCounter();
+				int d = table.distance((StateObserverCube) so);
+				pDist += d;
+
+				pa.resetAgent();			// needed if pa is MCTSWrapperAgent
+
+				while (!so.isGameOver() && so.getMoveCounter()<ecp.epiLength) {
+					so.advance(pa.getNextAction2(so.partialState(), false, false, true), null);
+				}
+				if (so.isGameOver()) {
+					pSolved++;
+					pGap += so.getMoveCounter() - d;
+					if (so.getMoveCounter() == d) pOptimal++;
+				}
+			} // for (n)
+			countStates += ecp.evalNmax;
+			nOptimal += pOptimal;
+			nSolved += pSolved;
+			sumGap += pGap;
+			System.out.printf("Finished p = %d (avg. distance %.2f): %.3f solved, %.3f optimal, avg. gap %.3f%n", p,
+					(double) pDist/ecp.evalNmax, (double) pSolved/ecp.evalNmax, (double) pOptimal/ecp.evalNmax,
+					(pSolved==0) ? 0.0 : (double) pGap/pSolved);
+		} // for (p)
+
+		lastResult = (double) nOptimal/countStates;
+		m_msg = pa.getName()+": "+getPrintString() + lastResult
+				+ String.format(" (%.3f solved, avg. gap %.3f)", (double) nSolved/countStates,
+								(nSolved==0) ? 0.0 : (double) sumGap/nSolved);
+		return new EvalResult(lastResult, lastResult>thresh, m_msg, m_mode, thresh);
+	}
+
  	@Override
  	public int[] getAvailableModes() {
  		return AVAILABLE_MODES;
@@ -160,6 +219,7 @@ public class EvaluatorCube extends Evaluator {
 		return switch (m_mode) {
 			case 0 -> countStates + " cubes: % solved with minimal twists (best is 1.0): ";
 			case 1 -> countStates + " cubes: % solved within epiLength=" + ecp.epiLength + " (best is 1.0): ";
+			case 2 -> countStates + " cubes: % solved optimally (best is 1.0): ";
 			default -> null;
 		};
 	}
@@ -169,7 +229,8 @@ public class EvaluatorCube extends Evaluator {
 		// use "<html> ... <br> ... </html>" to get multi-line tooltip text
 		return "<html>-1: none<br>"
 				+ "0: % solved with min. twists, best is 1.0<br>"
-				+ "1: % solved within EpiLength Eval, best is 1.0"
+				+ "1: % solved within EpiLength Eval, best is 1.0<br>"
+				+ "2: % solved optimally (2x2x2 only), best is 1.0"
 				+ "</html>";
 	}
 
@@ -178,6 +239,7 @@ public class EvaluatorCube extends Evaluator {
 		return switch (m_mode) {
 			case 0 -> "% solved with minimal twists";
 			case 1 -> "% solved below epiLength";
+			case 2 -> "% solved optimally";
 			default -> null;
 		};
 	}
@@ -76,6 +76,8 @@ public class GameBoardCube extends GameBoardBase implements GameBoard {
 			CubeConfig.pMax = getArena().m_xab.oPar[0].getpMaxRubiks();
 			if (CubeConfig.pMin<1) CubeConfig.pMin=1;
 			CubeConfig.REPLAYBUFFER = getArena().m_xab.oPar[0].getReplayBuffer();
+			if (getArena().m_xab.rbPar!=null)		// selector 1: PrioritizedSelector
+				CubeConfig.PRIORITIZED_REPLAY = (getArena().m_xab.rbPar[0].getSelectorV() == 1);
 			CubeConfig.EvalNmax = getArena().m_xab.oPar[0].getNumEval();
 
 			CubeConfig.stepReward = getArena().m_xab.tdPar[0].getStepReward();
@@ -0,0 +1,270 @@
+package games.RubiksCube;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.util.ArrayList;
+
+import controllers.AgentBase;
+import controllers.PlayAgent;
+import games.StateObservation;
+import params.ParOther;
+import tools.ScoreTuple;
+import tools.Types.ACTIONS;
+import tools.Types.ACTIONS_VT;
+
+/**
+ *  Optimal solver for the pocket cube and Rubik's cube: IDA* (iterative deepening A*, [Korf1997]) with the
+ *  maximum of several {@link PatternDatabase}s as admissible heuristic. It works for both twist metrics
+ *  {@link CubeConfig#twistType} HTM and QTM.
+ *  <p>
+ *  The search runs on the sticker locations ({@link CubeState#sloc}) only, one {@code int[]} per search depth, so that
+ *  no objects are created in the search tree. Move sequences which are redundant are pruned: two twists of the same
+ *  face in a row (in QTM: except a 2nd quarter twist in the same direction) and twists of opposite faces in the
+ *  non-canonical order (D before U, R before L, B before F).
+ *  <p>
+ *  {@link #getNextAction2(StateObservation, boolean, boolean, boolean)} returns the first twist of an optimal solution
+ *  and keeps the rest of it for the next calls. The value of a state with distance d is
+ *  <pre>
+ *       V = REWARD_POSITIVE + d * stepReward  </pre>
+ *  as for {@link DAVI2Agent}. The agent needs no training, only the pattern databases (which are built on first
+ *  use, see {@link PatternDatabase#loadOrBuildDefault(String, boolean)}).
+ */
+public class IDAStarAgent extends AgentBase implements PlayAgent {
+
+	@Serial
+	private static final long serialVersionUID = 12L;
+
+	/**
+	 * maximal search depth (God's number is 11 (HTM) / 14 (QTM) for the pocket cube and 20 / 26 for Rubik's cube)
+	 */
+	public static final int MAX_DEPTH = 30;
+
+	private transient PatternDatabase[] pdbs;
+	private transient boolean defaultPdbs;		// true: pdbs are the default ones (exact distances for the pocket cube)
+
+	// the search state (transient, set up in solve()):
+	private transient int[] keys;
+	private transient int[][] moves;
+	private transient int[][] stack;		// stack[g] is the sloc after g twists
+	private transient int[] path;
+	private transient long nodes;
+
+	// the remaining twists of the last solution and the cube state where the next of them applies:
+	private transient int[] plan;
+	private transient int planPos;
+	private transient CubeState planState;
+
+	/**
+	 * Agent with the default pattern databases in {@link PatternDatabase#defaultDir()}
+	 */
+	public IDAStarAgent(String name, ParOther oPar) {
+		this(name, oPar, null);
+	}
+
+	/**
+	 * @param pdbs	the pattern databases for the heuristic. If null, take the default ones
+	 */
+	public IDAStarAgent(String name, ParOther oPar, PatternDatabase[] pdbs) {
+		super(name, oPar);
+		this.pdbs = (pdbs == null) ? defaultPDBs() : pdbs;
+		this.defaultPdbs = (pdbs == null);
+		setAgentState(AgentState.TRAINED);
+	}
+
+	private static PatternDatabase[] defaultPDBs() {
+		try {
+			return PatternDatabase.loadOrBuildDefault(PatternDatabase.defaultDir(), true);
+		} catch (IOException e) {
+			throw new RuntimeException("[IDAStarAgent] could not load pattern databases: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * The pattern databases are not saved with the agent, they are reloaded from {@link PatternDatabase#defaultDir()}.
+	 */
+	@Override
+	public boolean instantiateAfterLoading() {
+		super.instantiateAfterLoading();
+		this.pdbs = defaultPDBs();
+		this.defaultPdbs = true;
+		return true;
+	}
+
+	/**
+	 * @param cs	the cube state
+	 * @return an optimal twist sequence which solves {@code cs}, as action numbers {@code 3*face + times-1} (see
+	 * 		{@link StateObserverCube#advance(ACTIONS, java.util.Random)})
+	 */
+	public int[] solve(CubeState cs) {
+		int[] sloc = new int[cs.get_fcol_length()];
+		for (int i=0; i<sloc.length; i++) sloc[i] = cs.get_sloc(i);
+		return solve(sloc);
+	}
+
+	/**
+	 * @param sloc	the sticker locations of the cube state
+	 * @return an optimal twist sequence which solves {@code sloc}
+	 * @throws RuntimeException if there is no solution with at most {@link #MAX_DEPTH} twists
+	 */
+	public int[] solve(int[] sloc) {
+		keys = PatternDatabase.moveKeys();
+		moves = new int[keys.length][];
+		for (int m=0; m<keys.length; m++) moves[m] = PatternDatabase.moveTable(keys[m]);
+		stack = new int[MAX_DEPTH+1][];
+		stack[0] = sloc.clone();
+		for (int g=1; g<=MAX_DEPTH; g++) stack[g] = new int[sloc.length];
+		path = new int[MAX_DEPTH];
+		nodes = 0;
+
+		for (int bound=heuristic(sloc); bound<=MAX_DEPTH; bound++) {
+			if (search(0, bound, -1, 0)) {
+				int[] solution = new int[bound];
+				for (int g=0; g<bound; g++) solution[g] = keys[path[g]];
+				return solution;
+			}
+		}
+		throw new RuntimeException("[IDAStarAgent] no solution with at most "+MAX_DEPTH+" twists");
+	}
+
+	/**
+	 * Depth-first search below {@code stack[g]} for a solution with at most {@code bound} twists
+	 *
+	 * @param lastKey	the key of the twist which led to {@code stack[g]} (-1 for the root)
+	 * @param run		the number of quarter twists of the same face in a row which led to {@code stack[g]} (QTM)
+	 * @return true, if a solution is found. It is then in {@code path[0..g-1]}
+	 */
+	private boolean search(int g, int bound, int lastKey, int run) {
+		nodes++;
+		int[] s = stack[g];
+		int h = heuristic(s);
+		if (h == 0 && isSolved(s)) return g == bound;
+		if (g + Math.max(h, 1) > bound) return false;
+
+		boolean qtm = (CubeConfig.twistType == CubeConfig.TwistType.QTM);
+		int lastFace = (lastKey < 0) ? -1 : lastKey/3;
+		int[] t = stack[g+1];
+		for (int m=0; m<keys.length; m++) {
+			int face = keys[m]/3;
+			int nextRun = 1;
+			if (face == lastFace) {
+				if (!qtm || keys[m] != lastKey || run >= 2) continue;
+				nextRun = run + 1;
+			}
+			if (face + 3 == lastFace) continue;		// opposite faces commute: only U before D etc.
+
+			int[] mv = moves[m];
+			for (int r=0; r<s.length; r++) t[r] = mv[s[r]];
+			path[g] = m;
+			if (search(g+1, bound, keys[m], nextRun)) return true;
+		}
+		return false;
+	}
+
+	private int heuristic(int[] sloc) {
+		int h = 0;
+		for (PatternDatabase pdb : pdbs) h = Math.max(h, pdb.distance(sloc));
+		return h;
+	}
+
+	private static boolean isSolved(int[] sloc) {
+		for (int r=0; r<sloc.length; r++)
+			if (sloc[r] != r) return false;
+		return true;
+	}
+
+	/**
+	 * @return the number of nodes visited by the last call to {@link #solve(int[])}
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return the number of twists of an optimal solution of {@code so}
+	 */
+	public int distance(StateObserverCube so) {
+		return solve(so.getCubeState()).length;
+	}
+
+	// params random and deterministic are just for the interface, not used here (the solver is deterministic)
+	@Override
+	public ACTIONS_VT getNextAction2(StateObservation so, boolean random, boolean deterministic, boolean silent) {
+		assert so instanceof StateObserverCube : "Not a StateObserverCube object";
+		StateObserverCube soC = (StateObserverCube) so;
+		CubeState cs = soC.getCubeState();
+		ArrayList<ACTIONS> acts = so.getAvailableActions();
+		double stepReward = CubeConfig.stepReward;
+
+		if (plan == null || planPos >= plan.length || !cs.isEqual(planState)) {
+			plan = solve(cs);
+			planPos = 0;
+		}
+		int d = plan.length - planPos;
+		int iBest = (d == 0) ? acts.get(0).toInt() : plan[planPos];
+		double vBest = CubeConfig.REWARD_POSITIVE + d * stepReward;
+
+		// the value of each action: exact for the pocket cube (its default PDB holds exact distances), else only for
+		// the best action. The others are NaN (the heuristic is only a lower bound of their distance, its value could
+		// be as high as vBest or higher)
+		boolean exact = defaultPdbs && CubeConfig.cubeSize == CubeConfig.CubeSize.POCKET;
+		double[] vTable = new double[acts.size()];
+		for (int i=0; i<acts.size(); i++) {
+			int iAct = acts.get(i).toInt();
+			if (iAct == iBest && d > 0) {
+				vTable[i] = vBest;
+				continue;
+			}
+			if (!exact) {
+				vTable[i] = Double.NaN;
+				continue;
+			}
+			StateObserverCube newSO = soC.copy();
+			newSO.advance(acts.get(i), null);
+			int[] sloc = new int[cs.get_fcol_length()];
+			for (int j=0; j<sloc.length; j++) sloc[j] = newSO.getCubeState().get_sloc(j);
+			vTable[i] = CubeConfig.REWARD_POSITIVE + (1 + (isSolved(sloc) ? 0 : Math.max(1, heuristic(sloc)))) * stepReward;
+		}
+
+		if (d > 0) {
+			planPos++;
+			StateObserverCube next = soC.copy();
+			next.advance(ACTIONS.fromInt(iBest), null);
+			planState = next.getCubeState();
+		}
+
+		if (!silent)
+			System.out.println("---Best Move: "+iBest+", distance "+d+", "+nodes+" nodes");
+
+		ScoreTuple scBest = new ScoreTuple(new double[]{vBest});
+		return new ACTIONS_VT(iBest, false, vTable, vBest, scBest);
+	}
+
+	/**
+	 * @return 0 for the solved cube, else {@code REWARD_POSITIVE + d*stepReward} with the optimal distance d
+	 */
+	@Override
+	public ScoreTuple getScoreTuple(StateObservation so, ScoreTuple prevTuple) {
+		return estimateGameValueTuple(so, prevTuple);
+	}
+
+	@Override
+	public ScoreTuple estimateGameValueTuple(StateObservation so, ScoreTuple prevTuple) {
+		assert so instanceof StateObserverCube : "Not a StateObserverCube object";
+		int d = distance((StateObserverCube) so);
+		double[] res = {(d == 0) ? 0.0 : CubeConfig.REWARD_POSITIVE + d * CubeConfig.stepReward};
+		return new ScoreTuple(res);
+	}
+
+	@Override
+	public boolean isTrainable() {
+		return false;
+	}
+
+	@Override
+	public String stringDescr2() {
+		StringBuilder sb = new StringBuilder(getClass().getName() + ": " + CubeConfig.twistType + ", pdbs=");
+		for (PatternDatabase pdb : pdbs) sb.append(pdb).append(" ");
+		return sb.toString().trim();
+	}
+
+}
@@ -0,0 +1,471 @@
+package games.RubiksCube;
+
+import games.RubiksCube.CubeConfig.CubeSize;
+import games.RubiksCube.CubeConfig.TwistType;
+import games.RubiksCube.CubeState.Twist;
+import tools.Types;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * A pattern database (PDB) for the pocket cube or Rubik's cube: For a subset of the corner cubies or of the edge
+ * cubies, it stores for every placement of these cubies the minimal number of twists (in metric
+ * {@link CubeConfig#twistType}) which brings them home. This is a lower bound for the number of twists needed to solve
+ * a cube state, the heuristic for {@link IDAStarAgent}.
+ * <p>
+ * A cubie is tracked by the location of one of its stickers (its <b>reference sticker</b>): the location, which is
+ * {@link CubeState#sloc}{@code [ref]}, codes both the cubie's slot and its orientation. The index of a placement is
+ * the rank of the (partial) permutation of the slots times {@code nOri^k} plus the orientations (k tracked cubies,
+ * {@code nOri} = 3 for corners, 2 for edges). Only the slots which the tracked cubies can reach are counted (e.g. 7
+ * corner slots for the pocket cube, where the ygr-cubie is never moved).
+ * <p>
+ * The PDB is built by a breadth-first search backwards from the solved cube, each level in parallel on all cores
+ * ({@link #build(CubieType, int[], int)}). The distances are stored nibble-packed (2 per byte, values above 15 are
+ * cut to 15, which keeps the bound admissible) in files which can be memory-mapped ({@link #load(String, boolean)}).
+ * <p>
+ * File layout (all numbers little-endian):
+ * <pre>
+ *   header   int MAGIC, int VERSION, int cubeSize, int twistType, int cubieType, int k, long size, int[k] cubies
+ *   data     (size+1)/2 bytes, starting at an 8-byte aligned offset. Entry i is in the low (i even) or high (i odd)
+ *            nibble of byte i/2
+ * </pre>
+ */
+public class PatternDatabase {
+
+	public enum CubieType {CORNER, EDGE}
+
+	public static final String SUFFIX = ".pdb";
+
+	private static final int MAGIC = 0x50474247;		// "GBGP" in little-endian order
+	private static final int VERSION = 1;
+
+	private final CubeSize cubeSize;
+	private final TwistType twistType;
+	private final CubieType cubieType;
+	private final int[] cubies;			// the tracked cubies (index into cubieStickers(cubieType))
+	private final int[] refSticker;		// the reference sticker of each tracked cubie
+	private final int nSlots;			// number of slots the tracked cubies can reach
+	private final int nOri;
+	private final int oriCount;			// nOri^k
+	private final int[] slotOf;			// location --> slot (0,...,nSlots-1) or -1
+	private final int[] oriOf;			// location --> orientation
+	private final int[][] locOf;		// [slot][orientation] --> location
+	private final int size;
+	private ByteBuffer data;			// the nibbles
+
+	/**
+	 * Set up the index for the cubies {@code cubies} of type {@code cubieType} for the current
+	 * {@link CubeConfig#cubeSize} and {@link CubeConfig#twistType}. The distances are not yet there.
+	 */
+	private PatternDatabase(CubieType cubieType, int[] cubies) {
+		this.cubeSize = CubeConfig.cubeSize;
+		this.twistType = CubeConfig.twistType;
+		this.cubieType = cubieType;
+		this.cubies = cubies.clone();
+		ensureTrafos();
+		int[][] stickers = cubieStickers(cubieType);
+		int k = cubies.length;
+		refSticker = new int[k];
+		for (int j=0; j<k; j++) refSticker[j] = stickers[cubies[j]][0];
+
+		// the slots reachable from the tracked cubies' home slots:
+		boolean[] reachable = new boolean[stickers.length];
+		int[] slotOfCubie = new int[CubeConfig.cubeSize == CubeSize.POCKET ? 24 : 48];
+		java.util.Arrays.fill(slotOfCubie, -1);
+		for (int c=0; c<stickers.length; c++)
+			for (int loc : stickers[c]) slotOfCubie[loc] = c;
+		ArrayList<Integer> todo = new ArrayList<>();
+		for (int c : cubies) { reachable[c] = true; todo.add(c); }
+		while (!todo.isEmpty()) {
+			int c = todo.remove(todo.size()-1);
+			for (int key : moveKeys()) {
+				int d = slotOfCubie[moveTable(key)[stickers[c][0]]];
+				if (!reachable[d]) { reachable[d] = true; todo.add(d); }
+			}
+		}
+
+		nOri = stickers[0].length;
+		slotOf = new int[slotOfCubie.length];
+		oriOf = new int[slotOfCubie.length];
+		java.util.Arrays.fill(slotOf, -1);
+		ArrayList<int[]> locs = new ArrayList<>();
+		for (int c=0; c<stickers.length; c++) {
+			if (!reachable[c]) continue;
+			for (int o=0; o<nOri; o++) {
+				slotOf[stickers[c][o]] = locs.size();
+				oriOf[stickers[c][o]] = o;
+			}
+			locs.add(stickers[c]);
+		}
+		nSlots = locs.size();
+		locOf = locs.toArray(new int[0][]);
+		if (nSlots > 31 || k > nSlots)
+			throw new IllegalArgumentException("[PatternDatabase] invalid pattern with "+k+" cubies in "+nSlots+" slots");
+
+		long perms = 1, oris = 1;
+		for (int j=0; j<k; j++) {
+			perms *= nSlots - j;
+			oris *= nOri;
+		}
+		if (perms*oris >= Integer.MAX_VALUE)
+			throw new IllegalArgumentException("[PatternDatabase] pattern with "+perms*oris+" entries is too large");
+		oriCount = (int) oris;
+		size = (int) (perms*oris);
+	}
+
+	/**
+	 * The cubies of type {@code cubieType} for the current {@link CubeConfig#cubeSize}, each as the array of its
+	 * sticker locations in the solved cube. Element 0 (the smallest location) is the reference sticker, the others
+	 * follow in the order of {@link CubieTriple#right} or {@link CubieDouble#other}.
+	 */
+	static int[][] cubieStickers(CubieType cubieType) {
+		ArrayList<int[]> cubies = new ArrayList<>();
+		boolean pocket = (CubeConfig.cubeSize == CubeSize.POCKET);
+		if (cubieType == CubieType.EDGE && pocket)
+			throw new IllegalArgumentException("[PatternDatabase] the pocket cube has no edge cubies");
+		int nLoc = pocket ? 24 : 48;
+		for (int i=0; i<nLoc; i++) {
+			if (cubieType == CubieType.CORNER) {
+				int[] right = pocket ? CubieTriple2x2.right_P : CubieTriple3x3.right_R;
+				if (!pocket && i%2 == 1) continue;				// odd locations are edge stickers
+				if (i < right[i] && i < right[right[i]])
+					cubies.add(new int[]{i, right[i], right[right[i]]});
+			} else {
+				if (i%2 == 0) continue;							// even locations are corner stickers
+				if (i < CubieDouble.other[i])
+					cubies.add(new int[]{i, CubieDouble.other[i]});
+			}
+		}
+		return cubies.toArray(new int[0][]);
+	}
+
+	/**
+	 * @return the keys of the twist actions of {@link StateObserverCube} for the current {@link CubeConfig#cubeSize}
+	 * 		and {@link CubeConfig#twistType}: {@code key = 3*face + times-1} with faces U,L,F (,D,R,B)
+	 */
+	static int[] moveKeys() {
+		int nFaces = (CubeConfig.cubeSize == CubeSize.POCKET) ? 3 : 6;
+		boolean htm = (CubeConfig.twistType == TwistType.HTM);
+		return IntStream.range(0, 3*nFaces).filter(key -> htm || key%3 != 1).toArray();
+	}
+
+	/**
+	 * @return the forward trafo for twist action {@code key}, see {@link CubeState#forwardTrafo(Twist, int)}
+	 */
+	static int[] moveTable(int key) {
+		return CubeState.forwardTrafo(Twist.values()[key/3 + 1], key%3 + 1);
+	}
+
+	private static void ensureTrafos() {
+		CubeStateFactory.generateInverseTs();
+		CubeState.generateForwardTs();
+	}
+
+	/**
+	 * @param sloc	the sticker locations of a cube state (only the entries for the reference stickers are used)
+	 * @return the index of the placement of the tracked cubies
+	 */
+	public int index(int[] sloc) {
+		return index(sloc, null);
+	}
+
+	/**
+	 * @param cs	a cube state
+	 * @return the index of the placement of the tracked cubies in {@code cs}
+	 */
+	public int index(CubeState cs) {
+		return index(null, cs);
+	}
+
+	private int index(int[] sloc, CubeState cs) {
+		int used = 0, perm = 0, ori = 0;
+		for (int j=0; j<refSticker.length; j++) {
+			int loc = (cs == null) ? sloc[refSticker[j]] : cs.get_sloc(refSticker[j]);
+			int s = slotOf[loc];
+			perm = perm*(nSlots-j) + Integer.bitCount(~used & ((1 << s) - 1));	// rank of s among the free slots
+			used |= 1 << s;
+			ori = ori*nOri + oriOf[loc];
+		}
+		return perm*oriCount + ori;
+	}
+
+	/**
+	 * The inverse of {@link #index(int[])}: set the entries of {@code sloc} for the reference stickers
+	 */
+	private void unrank(int index, int[] sloc) {
+		int k = refSticker.length;
+		int perm = index / oriCount;
+		int ori = index % oriCount;
+		int[] free = new int[k];
+		int[] o = new int[k];
+		for (int j=k-1; j>=0; j--) {
+			free[j] = perm % (nSlots-j);
+			perm /= nSlots-j;
+			o[j] = ori % nOri;
+			ori /= nOri;
+		}
+		int used = 0;
+		for (int j=0; j<k; j++) {
+			int s = 0;
+			for (int c = free[j]; c > 0 || (used & (1 << s)) != 0; s++)
+				if ((used & (1 << s)) == 0) c--;
+			used |= 1 << s;
+			sloc[refSticker[j]] = locOf[s][o[j]];
+		}
+	}
+
+	/**
+	 * @param sloc	the sticker locations of a cube state, e.g. from {@link CubeState#get_sloc(int)}
+	 * @return a lower bound for the number of twists needed to solve the cube state
+	 */
+	public int distance(int[] sloc) {
+		return get(index(sloc));
+	}
+
+	/**
+	 * @param cs	a cube state
+	 * @return a lower bound for the number of twists needed to solve {@code cs}
+	 */
+	public int distance(CubeState cs) {
+		return get(index(cs));
+	}
+
+	/**
+	 * @return the distance stored for entry {@code index}
+	 */
+	public int get(int index) {
+		return (data.get(index >>> 1) >>> ((index & 1) << 2)) & 0xF;
+	}
+
+	/**
+	 * Build the PDB for the current {@link CubeConfig#cubeSize} and {@link CubeConfig#twistType} by a breadth-first
+	 * search from the solved cube. Each level is expanded in parallel on {@code nThreads} threads.
+	 *
+	 * @param cubieType	corners or edges
+	 * @param cubies	the tracked cubies (indices into the cubies of {@code cubieType}, see {@link #cubieStickers})
+	 * @param nThreads	number of threads
+	 * @return the PDB (in heap memory)
+	 */
+	public static PatternDatabase build(CubieType cubieType, int[] cubies, int nThreads) {
+		PatternDatabase pdb = new PatternDatabase(cubieType, cubies);
+		int size = pdb.size;
+		int nStickers = pdb.slotOf.length;
+		int[] keys = moveKeys();
+		int[][] tables = new int[keys.length][];
+		for (int m=0; m<keys.length; m++) tables[m] = moveTable(keys[m]);
+
+		byte[] dist = new byte[size];			// one byte per entry while building (-1: not yet reached)
+		java.util.Arrays.fill(dist, (byte) -1);
+		int[] solved = new int[nStickers];
+		for (int i=0; i<nStickers; i++) solved[i] = i;
+		dist[pdb.index(solved)] = 0;
+
+		int chunk = 1 << 16;
+		int nChunks = (size + chunk - 1) / chunk;
+		ForkJoinPool pool = new ForkJoinPool(nThreads);
+		long startTime = System.currentTimeMillis();
+		try {
+			for (int d=0; d<Byte.MAX_VALUE; d++) {
+				final byte cur = (byte) d, next = (byte) (d+1);
+				LongAdder found = new LongAdder();
+				pool.submit(() -> IntStream.range(0, nChunks).parallel().forEach(c -> {
+					int[] s = new int[nStickers];
+					int[] t = new int[nStickers];
+					int[] refs = pdb.refSticker;
+					int end = Math.min(size, (c+1)*chunk);
+					for (int index=c*chunk; index<end; index++) {
+						if (dist[index] != cur) continue;
+						pdb.unrank(index, s);
+						for (int[] table : tables) {
+							for (int r : refs) t[r] = table[s[r]];
+							int n = pdb.index(t);
+							if (dist[n] < 0) {			// (concurrent writes of the same value are harmless)
+								dist[n] = next;
+								found.increment();
+							}
+						}
+					}
+				})).get();
+				if (found.sum() == 0) break;
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			throw new RuntimeException("[PatternDatabase] build failed", e);
+		} finally {
+			pool.shutdown();
+		}
+
+		byte[] nibbles = new byte[(size + 1) / 2];
+		for (int i=0; i<size; i++) {
+			int d = (dist[i] < 0) ? 0 : Math.min(dist[i], 15);		// (unreachable entries are never asked for)
+			nibbles[i >>> 1] |= (byte) (d << ((i & 1) << 2));
+		}
+		pdb.data = ByteBuffer.wrap(nibbles);
+		System.out.println("[PatternDatabase] built "+pdb+" in "+(System.currentTimeMillis()-startTime)+" ms");
+		return pdb;
+	}
+
+	/**
+	 * @return {@code h[d]} = number of entries with distance {@code d} (entries which are not reachable count as 0)
+	 */
+	public long[] histogram() {
+		long[] h = new long[16];
+		for (int i=0; i<size; i++) h[get(i)]++;
+		return h;
+	}
+
+	public void save(String filePath) throws IOException {
+		int headerBytes = 32 + 4*cubies.length;
+		int offset = (headerBytes + 7) & ~7;
+		ByteBuffer head = ByteBuffer.allocate(offset).order(ByteOrder.LITTLE_ENDIAN);
+		head.putInt(MAGIC).putInt(VERSION).putInt(cubeSize.ordinal()).putInt(twistType.ordinal())
+			.putInt(cubieType.ordinal()).putInt(cubies.length).putLong(size);
+		for (int c : cubies) head.putInt(c);
+		head.position(0);
+		File parent = new File(filePath).getAbsoluteFile().getParentFile();
+		if (parent != null) parent.mkdirs();
+		try (FileChannel ch = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (head.hasRemaining()) ch.write(head);
+			ByteBuffer d = data.duplicate();
+			d.position(0);
+			while (d.hasRemaining()) ch.write(d);
+		}
+	}
+
+	/**
+	 * Load a PDB saved with {@link #save(String)}. It has to fit to the current {@link CubeConfig#cubeSize} and
+	 * {@link CubeConfig#twistType}.
+	 *
+	 * @param filePath	the file
+	 * @param mapped	if true, the distances stay off-heap in a read-only memory-mapped buffer (the OS pages them in
+	 *                  on demand, and several processes can share them), else they are copied into the heap
+	 * @return the PDB
+	 * @throws IOException if the file can not be read or does not fit
+	 */
+	public static PatternDatabase load(String filePath, boolean mapped) throws IOException {
+		try (FileChannel ch = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+			ByteBuffer head = ByteBuffer.allocate(32).order(ByteOrder.LITTLE_ENDIAN);
+			while (head.hasRemaining() && ch.read(head) >= 0);
+			head.flip();
+			if (head.remaining() < 32 || head.getInt() != MAGIC)
+				throw new IOException("ERROR: " + filePath + " is not a GBG pattern database");
+			int version = head.getInt();
+			if (version != VERSION)
+				throw new IOException("ERROR: " + filePath + " has unsupported version " + version);
+			CubeSize cs = CubeSize.values()[head.getInt()];
+			TwistType tt = TwistType.values()[head.getInt()];
+			if (cs != CubeConfig.cubeSize || tt != CubeConfig.twistType)
+				throw new IOException("ERROR: " + filePath + " is for "+cs+", "+tt+", not for "
+						+CubeConfig.cubeSize+", "+CubeConfig.twistType);
+			CubieType type = CubieType.values()[head.getInt()];
+			int[] cubies = new int[head.getInt()];
+			long size = head.getLong();
+			ByteBuffer cb = ByteBuffer.allocate(4*cubies.length).order(ByteOrder.LITTLE_ENDIAN);
+			while (cb.hasRemaining() && ch.read(cb) >= 0);
+			cb.flip();
+			for (int j=0; j<cubies.length; j++) cubies[j] = cb.getInt();
+
+			PatternDatabase pdb = new PatternDatabase(type, cubies);
+			if (pdb.size != size)
+				throw new IOException("ERROR: " + filePath + " has "+size+" entries instead of "+pdb.size);
+			long offset = (32 + 4L*cubies.length + 7) & ~7;
+			int length = (pdb.size + 1) / 2;
+			if (ch.size() < offset + length)
+				throw new IOException("ERROR: " + filePath + " is truncated");
+			if (mapped) {
+				pdb.data = ch.map(FileChannel.MapMode.READ_ONLY, offset, length);
+			} else {
+				ByteBuffer d = ByteBuffer.allocate(length);
+				while (d.hasRemaining() && ch.read(d, offset + d.position()) >= 0);
+				d.flip();
+				pdb.data = d;
+			}
+			return pdb;
+		}
+	}
+
+	/**
+	 * Load the PDB for the given cubies from directory {@code dir}, if it is there. Otherwise build it (on all cores)
+	 * and save it there.
+	 */
+	public static PatternDatabase loadOrBuild(String dir, CubieType cubieType, int[] cubies, boolean mapped)
+			throws IOException {
+		String filePath = dir + "/" + fileName(cubieType, cubies);
+		if (new File(filePath).exists())
+			return load(filePath, mapped);
+		System.out.println("[PatternDatabase] building "+filePath+" ...");
+		PatternDatabase pdb = build(cubieType, cubies, Runtime.getRuntime().availableProcessors());
+		pdb.save(filePath);
+		return pdb;
+	}
+
+	/**
+	 * The default PDBs for the current {@link CubeConfig#cubeSize}:
+	 * <ul>
+	 *     <li> pocket cube: 6 of the 7 movable corners. This determines the 7th, so the PDB holds the exact distance
+	 *          for all 3.674.160 states.
+	 *     <li> Rubik's cube: 7 of the 8 corners (exact for the corners, 88.179.840 entries) and two PDBs with 6 of the
+	 *          12 edges each (42.577.920 entries each)
+	 * </ul>
+	 * They are loaded from (or built and saved to) directory {@code dir}.
+	 */
+	public static PatternDatabase[] loadOrBuildDefault(String dir, boolean mapped) throws IOException {
+		if (CubeConfig.cubeSize == CubeSize.POCKET) {
+			return new PatternDatabase[] {
+					loadOrBuild(dir, CubieType.CORNER, movableCorners(6), mapped)
+			};
+		}
+		return new PatternDatabase[] {
+				loadOrBuild(dir, CubieType.CORNER, movableCorners(7), mapped),
+				loadOrBuild(dir, CubieType.EDGE, new int[]{0, 1, 2, 3, 4, 5}, mapped),
+				loadOrBuild(dir, CubieType.EDGE, new int[]{6, 7, 8, 9, 10, 11}, mapped)
+		};
+	}
+
+	/**
+	 * @return the first {@code k} corner cubies which are moved by some twist
+	 */
+	private static int[] movableCorners(int k) {
+		ensureTrafos();
+		int[][] stickers = cubieStickers(CubieType.CORNER);
+		int[] keys = moveKeys();
+		return IntStream.range(0, stickers.length)
+				.filter(c -> IntStream.of(keys).anyMatch(key -> moveTable(key)[stickers[c][0]] != stickers[c][0]))
+				.limit(k).toArray();
+	}
+
+	/**
+	 * @return the default directory for PDB files
+	 */
+	public static String defaultDir() {
+		return Types.GUI_DEFAULT_DIR_AGENT + "/RubiksCube/pdb";
+	}
+
+	static String fileName(CubieType cubieType, int[] cubies) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(CubeConfig.cubeSize == CubeSize.POCKET ? "2x2x2" : "3x3x3");
+		sb.append("_").append(CubeConfig.twistType).append("_").append(cubieType.toString().toLowerCase());
+		for (int c : cubies) sb.append("_").append(c);
+		return sb.append(SUFFIX).toString();
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return fileName(cubieType, cubies).replace(SUFFIX, "") + " (" + size + " entries)";
+	}
+}
@@ -118,6 +118,45 @@ public class XNTupleFuncsCube extends XNTupleBase implements XNTupleFuncs, Seria
 	 * @param n number of symmetry vectors to return (n=0 meaning 'all')
 	 * @return a vector {@code equiv} of board vectors
 	 */
+	@Override
+	public boolean symmetryNeedsStateObs() {
+		return true;	// symmetryVectors(StateObsWithBoardVector,int) needs the CubeState
+	}
+
+	/**
+	 * The cube state as two byte arrays {@code fcol} and {@code sloc} (24 or 48 bytes each), instead of a
+	 * {@link StateObserverCube} copy with its {@link CubeState} and available actions.
+	 */
+	private static final class PackedCube implements Serializable {
+		@Serial
+		private static final long serialVersionUID = 12L;
+		final CubeState.Type type;
+		final byte[] fcol;
+		final byte[] sloc;
+
+		PackedCube(CubeState cs) {
+			type = cs.type;
+			fcol = new byte[cs.fcol.length];
+			sloc = new byte[cs.sloc.length];
+			for (int i=0; i<fcol.length; i++) fcol[i] = (byte) cs.fcol[i];
+			for (int i=0; i<sloc.length; i++) sloc[i] = (byte) cs.sloc[i];
+		}
+	}
+
+	@Override
+	public Object packState(StateObservation so) {
+		return new PackedCube(((StateObserverCube) so).getCubeState());
+	}
+
+	@Override
+	public StateObservation unpackState(Object packed) {
+		PackedCube pc = (PackedCube) packed;
+		CubeState cs = CubeState.csFactory.makeCubeState(pc.type);
+		for (int i=0; i<pc.fcol.length; i++) cs.fcol[i] = pc.fcol[i];
+		for (int i=0; i<pc.sloc.length; i++) cs.sloc[i] = pc.sloc[i];
+		return new StateObserverCube(cs);
+	}
+
 	@Override
 	public BoardVector[] symmetryVectors(StateObsWithBoardVector curSOWB, int n) {
 		StateObserverCube so = (StateObserverCube) curSOWB.getStateObservation();
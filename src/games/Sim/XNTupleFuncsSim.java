@@ -223,6 +223,11 @@ public class XNTupleFuncsSim extends XNTupleBase implements XNTupleFuncs, Serial
 		throw new RuntimeException("StateObservation so is not StateObserverSim");
 	}
 
+	@Override
+	public boolean symmetryNeedsStateObs() {
+		return true;	// symmetryVectors(StateObsWithBoardVector,int) needs StateObserverSim
+	}
+
 	@Override
 	public BoardVector[] symmetryVectors(StateObsWithBoardVector curSOWB, int n) {
 		BoardVector boardVector = curSOWB.getBoardVector();
@@ -106,6 +106,20 @@ public interface StateObservation extends PartialState, Serializable{
 	 */
 	String uniqueStringDescr();
 
+	/**
+	 * A 64-bit key for the state with the same semantics as {@link #uniqueStringDescr()}: Equal unique string
+	 * descriptions have to give equal keys, and different states should give different keys with high probability.
+	 * Needed for the transposition table ({@link tools.TranspositionTable}) in {@link MaxNAgent} and
+	 * {@link ExpectimaxNAgent}.
+	 * <p>
+	 * ObserverBase provides a default implementation which hashes {@link #uniqueStringDescr()}. Games should override
+	 * it with a cheaper key, e.g. a Zobrist key maintained incrementally in {@code advance}
+	 * (see {@link tools.ZobristKeys}).
+	 *
+	 * @return	a 64-bit key of the state
+	 */
+	long getHashKey();
+
 	/**
 	 * 
 	 * @return a string representation of action {@code act}
@@ -213,6 +227,38 @@ public interface StateObservation extends PartialState, Serializable{
 	 */
 	void advance(ACTIONS action, Random cmpRand);
 
+	/**
+	 * Whether {@link #undo(int)} is supported: This is an optional make/unmake interface for deterministic games.
+	 * Agents that play many moves on a state and go back afterwards (e.g. the rollouts in MCTS) can then use one
+	 * state instead of a copy for each line of play.
+	 * <p>
+	 * This is a property of the class, checked before the actions are done: it does not tell whether there is an
+	 * action to take back (a fresh copy has none).
+	 * <p>
+	 * ObserverBase provides a default implementation which returns false.
+	 *
+	 * @return true, if the actions done by {@link #advance(ACTIONS, Random)} can be taken back with
+	 * 		{@link #undo(int)}
+	 */
+	boolean canUndo();
+
+	/**
+	 * Take back the last {@code n} actions done by {@link #advance(ACTIONS, Random)}, i.e. restore the state before
+	 * these actions, including its available actions (in the same order), its player and its move counter. Only
+	 * actions which were done on {@code this} object may be taken back, not those done before {@code this} was
+	 * created or copied.
+	 * <p>
+	 * The available actions are set only once, for the state reached. So it is cheaper to take back a whole line of
+	 * play (e.g. an MCTS rollout) with one call than action by action.
+	 * <p>
+	 * Only valid if {@link #canUndo()} is true, ObserverBase provides a default implementation which throws an
+	 * {@link UnsupportedOperationException}. The caller has to ensure that {@code n} is not larger than the number of
+	 * actions done on {@code this} object (the implementations check this with assertions only).
+	 *
+	 * @param n		number of actions to take back (0: nothing changes, e.g. a game-over state stays game over)
+	 */
+	void undo(int n);
+
     /**
      * Advance the current state to a new afterstate (do the deterministic part of advance).<p>
      *
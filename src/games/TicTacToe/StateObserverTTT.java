@@ -9,6 +9,7 @@ import games.ObserverBase;
 import games.StateObservation;
 import tools.Types;
 import tools.Types.ACTIONS;
+import tools.ZobristKeys;
 
 /**
  * Class StateObserverTTT observes the current state of the game.<p>
@@ -28,6 +29,12 @@ public class StateObserverTTT extends ObserverBase implements StateObservation {
 	private int m_Player;			// what we fill into m_Table for the current player's move:
 									// +1 for X (this.getPlayer()==0), -1 for O (this.getPlayer()==1)
 	protected ArrayList<Types.ACTIONS> availableActions = new ArrayList<>();	// holds all available actions
+	private long m_hashKey;			// Zobrist key of m_Table, maintained incrementally in advance()
+
+	/**
+	 * Zobrist numbers for the 9 cells and the 2 pieces X (index 0) and O (index 1)
+	 */
+	private static final long[][] ZOBRIST = ZobristKeys.createTable(9, 2, 9L);
     
 	/**
 	 * change the version ID for serialization only if a newer version is no longer 
@@ -44,11 +51,23 @@ public class StateObserverTTT extends ObserverBase implements StateObservation {
 		setAvailableActions();
 	}
 
+	/**
+	 * @return the Zobrist key of {@code table}, calculated from scratch
+	 */
+	private static long calcHashKey(int[][] table) {
+		long key = 0L;
+		for (int i=0; i<3; i++)
+			for (int j=0; j<3; j++)
+				if (table[i][j]!=0) key ^= ZOBRIST[3*i+j][(table[i][j]==1) ? 0 : 1];
+		return key;
+	}
+
 	public StateObserverTTT(int[][] Table, int Player) {
 		super();
 		m_Table = new int[3][3];
 		TicTDBase.copyTable(Table,m_Table); 
 		m_Player = Player;
+		m_hashKey = calcHashKey(m_Table);
 		setAvailableActions();
 	}
 	
@@ -58,6 +77,7 @@ public class StateObserverTTT extends ObserverBase implements StateObservation {
 		this.m_Table = new int[3][3];
 		TicTDBase.copyTable(other.m_Table,m_Table); 
 		m_Player = other.m_Player;
+		m_hashKey = other.m_hashKey;
 		if (other.availableActions!=null)	// this check is needed when loading older logs
 			this.availableActions = (ArrayList<ACTIONS>) other.availableActions.clone();
 				// Note that clone does only clone the ArrayList, but not the contained ACTIONS, they are 
@@ -115,6 +135,14 @@ public class StateObserverTTT extends ObserverBase implements StateObservation {
 		
  		return sout.toString();
 	}
+
+	/**
+	 * @return the Zobrist key of the board (the player to move is implied by the board)
+	 */
+	@Override
+	public long getHashKey() {
+		return m_hashKey;
+	}
 	
 	/**
 	 * 
@@ -185,6 +213,7 @@ public class StateObserverTTT extends ObserverBase implements StateObservation {
 		
 		assert m_Table[i][j]==0 : "The desired move would alter an already occupied field!";
 		m_Table[i][j] = m_Player;
+		m_hashKey ^= ZOBRIST[iAction][(m_Player==1) ? 0 : 1];
     	
     	setAvailableActions(); 		// IMPORTANT: adjust the available actions (have reduced by one)
     	
@@ -194,6 +223,31 @@ public class StateObserverTTT extends ObserverBase implements StateObservation {
 		super.incrementMoveCounter();
 	}
 
+	@Override
+	public boolean canUndo() {
+		return true;
+	}
+
+	/**
+	 * Take back the last {@code n} actions (see {@link StateObservation#undo(int)}): clear their cells and give the
+	 * move back to the player who made it.
+	 */
+	@Override
+	public void undo(int n) {
+		if (n == 0) return;
+		for (int k=0; k<n; k++) {
+			int iAction = super.undoBase();
+			int j=iAction%3;
+			int i=(iAction-j)/3;
+			
+			m_Player = m_Player*(-1);
+			assert m_Table[i][j]==m_Player : "The field to clear was not set by the last move!";
+			m_Table[i][j] = 0;
+			m_hashKey ^= ZOBRIST[iAction][(m_Player==1) ? 0 : 1];
+		}
+		setAvailableActions();
+	}
+
     @Override
     public ArrayList<Types.ACTIONS> getAllAvailableActions() {
         ArrayList<Types.ACTIONS> allActions = new ArrayList<>();
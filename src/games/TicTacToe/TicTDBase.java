@@ -1117,4 +1117,9 @@ abstract public class TicTDBase  extends AgentBase implements Serializable {
 		this.featmode = featmode;
 	}
 
+	@Override
+	protected Random[] getRandomGenerators() {
+		return new Random[]{rand};
+	}
+
 }
@@ -114,7 +114,8 @@ public class XNTupleFuncsTTT extends XNTupleBase implements XNTupleFuncs, Serial
 	 * <li> the other elements are the board vectors when transforming {@code boardVector}
 	 * 		according to the s-1 other symmetries (e. g. rotation, reflection, if applicable).
 	 * </ul>
-	 * In the case of TicTacToe we have s=8 symmetries (4 board rotations * 2 board flips)
+	 * In the case of TicTacToe we have s=8 symmetries (4 board rotations * 2 board flips). They are applied with the
+	 * permutation tables from {@link #makeSymmetryPermutations()}.
 	 * 
 	 * @param boardVector a certain board in vector representation
 	 * @param n number of symmetry vectors to return (n=0 meaning 'all')
@@ -122,22 +123,21 @@ public class XNTupleFuncsTTT extends XNTupleBase implements XNTupleFuncs, Serial
 	 */
 	@Override
 	public BoardVector[] symmetryVectors(BoardVector boardVector, int n) {
-		int i;
-		if (n==0) n=8;
-		BoardVector[] equiv = new BoardVector[n];
-		equiv[0] = boardVector;
-		for (i = 1; i < 4; i++) {
-			if (i >= n)
-				break;
-			equiv[i] = rotate(equiv[i - 1]);
-		}
-		equiv[i] = flip(boardVector);
-		for (i=5; i < 8; i++) {
-			if (i >= n)
-				break;
-			equiv[i] = rotate(equiv[i - 1]);
-		}
-		return equiv;
+		return permutedVectors(boardVector, n);
+	}
+
+	/**
+	 * @return the permutation tables for the 8 symmetries: 3 rotations of the board, its flip and 3 rotations
+	 * of the flipped board
+	 */
+	@Override
+	protected int[][] makeSymmetryPermutations() {
+		BoardVector[] equiv = new BoardVector[8];
+		equiv[0] = makeBoardVectorEachCellDifferent();
+		for (int i = 1; i < 4; i++) equiv[i] = rotate(equiv[i - 1]);
+		equiv[4] = flip(equiv[0]);
+		for (int i = 5; i < 8; i++) equiv[i] = rotate(equiv[i - 1]);
+		return permutationTables(equiv);
 	}
 	
 	/**
@@ -33,15 +33,23 @@ import gui.DeviationWeightsChart;
 import gui.LineChartSuccess;
 import params.*;
 import starters.MTrain;
+import starters.ParallelMultiTrainer;
 import tools.*;
 import tools.Types.ACTIONS;
 
 import javax.swing.*;
+import java.io.*;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Class {@link XArenaFuncs} contains several methods to train, evaluate and
@@ -72,6 +80,27 @@ public class XArenaFuncs {
 	protected Evaluator m_evaluatorQ = null;
 	protected Evaluator m_evaluatorT = null;
 	protected String lastMsg = "";
+	/**
+	 * if &gt; 1, {@link #multiTrain(int, String, XArenaButtons, GameBoard, String) multiTrain} executes the training
+	 * runs with a {@link ParallelMultiTrainer} on this number of threads (only without GUI)
+	 */
+	public int multiTrainThreads = 1;
+	/**
+	 * if &gt; 1, {@link #competeNPlayer(PlayAgtVector, int, StateObservation, int, int, TSTimeStorage[], ArrayList,
+	 * Random, boolean) competeNPlayer} plays the episodes of a competition in parallel on this number of threads
+	 * (only if {@code verbose < 2}). Results are reproducible for a given {@code cmpRand}, independent of the number of
+	 * threads, but differ from the sequential results (other random streams).
+	 * <p>
+	 * Threads which already run in parallel (the episode workers themselves and the runs of a
+	 * {@link ParallelMultiTrainer}) play their competitions sequentially, see {@link #callWithoutParallelCompete}.
+	 */
+	public static int competeThreads = 1;
+
+	/**
+	 * true in threads which must not start another thread pool in {@link #competeNPlayer}
+	 */
+	private static final ThreadLocal<Boolean> noParallelCompete = ThreadLocal.withInitial(() -> false);
+
 	protected int numPlayers;
 
 	protected Random rand;
@@ -147,6 +176,18 @@ public class XArenaFuncs {
 	 * @see #fetchAgents(XArenaButtons)
 	 */
 	public PlayAgent constructAgent(int n, String sAgent, XArenaButtons m_xab) {
+		return constructAgent(n, sAgent, m_xab, null);
+	}
+
+	/**
+	 * Same as {@link #constructAgent(int, String, XArenaButtons)}, but if {@code seed} is not null, the agent is
+	 * reproducible: its random n-tuples are drawn with {@code seed} and its random generator is seeded with
+	 * {@code seed} (see {@link PlayAgent#setRandomSeed(long)}).
+	 *
+	 * @param seed	the seed or null (no seeding)
+	 * @return a new {@link PlayAgent} (initialized, but not yet trained)
+	 */
+	public PlayAgent constructAgent(int n, String sAgent, XArenaButtons m_xab, Long seed) {
 		PlayAgent pa = null;
 		int maxGameNum = m_xab.getGameNumber();
 //		int featmode = m_xab.tdPar[n].getFeatmode();
@@ -163,14 +204,14 @@ public class XArenaFuncs {
 				case "RHEA-SI" -> pa = new RheaAgentSI(sAgent, null);
 				case "TD-Ntuple-3" -> {
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTupleFactory ntupfac = new NTupleFactory();
+					NTupleFactory ntupfac = (seed==null) ? new NTupleFactory() : new NTupleFactory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					pa = new TDNTuple3Agt(sAgent, m_xab.tdPar[n], m_xab.ntPar[n],
 							m_xab.oPar[n], nTuples, xnf, maxGameNum);
 				}
 				case "TD-Ntuple-4" -> {
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTuple4Factory ntupfac = new NTuple4Factory();
+					NTuple4Factory ntupfac = (seed==null) ? new NTuple4Factory() : new NTuple4Factory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					pa = new TDNTuple4Agt(sAgent, m_xab.tdPar[n], m_xab.ntPar[n],
 							m_xab.oPar[n], m_xab.rbPar[n], m_xab.wrPar[n], nTuples, xnf, maxGameNum);
@@ -179,7 +220,7 @@ public class XArenaFuncs {
 				}
 				case "Sarsa" -> {
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTupleFactory ntupfac = new NTupleFactory();
+					NTupleFactory ntupfac = (seed==null) ? new NTupleFactory() : new NTupleFactory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					// int numOutputs =
 					// m_xab.m_game.gb.getDefaultStartState().getAllAvailableActions().size();
@@ -189,7 +230,7 @@ public class XArenaFuncs {
 				}
 				case "Sarsa-4" -> {
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTuple4Factory ntupfac = new NTuple4Factory();
+					NTuple4Factory ntupfac = (seed==null) ? new NTuple4Factory() : new NTuple4Factory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					ArrayList<ACTIONS> allAvailActions = m_xab.m_arena.gb.getDefaultStartState(null).getAllAvailableActions();
 					pa = new Sarsa4Agt(sAgent, m_xab.tdPar[n], m_xab.ntPar[n],
@@ -197,7 +238,7 @@ public class XArenaFuncs {
 				}
 				case "Qlearn-4" -> {
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTuple4Factory ntupfac = new NTuple4Factory();
+					NTuple4Factory ntupfac = (seed==null) ? new NTuple4Factory() : new NTuple4Factory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					ArrayList<ACTIONS> allAvailActions = m_xab.m_arena.gb.getDefaultStartState(null).getAllAvailableActions();
 					pa = new QLearn4Agt(sAgent, m_xab.tdPar[n], m_xab.ntPar[n],
@@ -234,16 +275,18 @@ public class XArenaFuncs {
 						pa = new Edax2(sAgent, m_xab.edPar[n]);
 				case "DAVI2" ->  // RubiksCube only, see gui_agent_list in XArenaButtonsGui
 						pa = new DAVI2Agent(sAgent, m_xab.oPar[n]);
+				case "IDAStar" ->  // RubiksCube only, see gui_agent_list in XArenaButtonsGui
+						pa = new IDAStarAgent(sAgent, m_xab.oPar[n]);
 				case "DAVI3" -> { // RubiksCube only, see gui_agent_list in XArenaButtonsGui
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTupleFactory ntupfac = new NTupleFactory();
+					NTupleFactory ntupfac = (seed==null) ? new NTupleFactory() : new NTupleFactory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					pa = new DAVI3Agent(sAgent, m_xab.tdPar[n], m_xab.ntPar[n],
 							m_xab.oPar[n], nTuples, xnf, maxGameNum);
 				}
 				case "DAVI4" -> { // RubiksCube only, see gui_agent_list in XArenaButtonsGui
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
-					NTuple4Factory ntupfac = new NTuple4Factory();
+					NTuple4Factory ntupfac = (seed==null) ? new NTuple4Factory() : new NTuple4Factory(seed);
 					int[][] nTuples = ntupfac.makeNTupleSet(m_xab.ntPar[n], xnf);
 					pa = new DAVI4Agent(sAgent, m_xab.tdPar[n], m_xab.ntPar[n],
 							m_xab.oPar[n], nTuples, xnf, maxGameNum, m_xab.m_arena);
@@ -258,6 +301,7 @@ public class XArenaFuncs {
 			m_Arena.showMessage(e.getClass().getName() + ": " + e.getMessage(), "Warning", JOptionPane.WARNING_MESSAGE);
 			e.printStackTrace();
 		}
+		if (pa != null && seed != null) pa.setRandomSeed(seed);
 
 		return pa;
 	} // constructAgent
@@ -488,6 +532,8 @@ public class XArenaFuncs {
 						pa = new DaviNimAgent(sAgent, m_xab.oPar[n]);
 				case "DAVI2" ->  // RubiksCube only, see gui_agent_list in XArenaButtonsGui
 						pa = new DAVI2Agent(sAgent, m_xab.oPar[n]);
+				case "IDAStar" ->  // RubiksCube only, see gui_agent_list in XArenaButtonsGui
+						pa = new IDAStarAgent(sAgent, m_xab.oPar[n]);
 				case "DAVI3" -> { // RubiksCube only, see gui_agent_list in XArenaButtonsGui
 
 					XNTupleFuncs xnf = m_xab.m_arena.makeXNTupleFuncs();
@@ -943,6 +989,9 @@ public class XArenaFuncs {
 
 		System.out.println("*** Starting multiTrain with trainNum = " + trainNum + " ***");
 
+		if (multiTrainThreads > 1 && !m_Arena.hasGUI())
+			return multiTrainParallel(n, sAgent, xab, gb, csvName);
+
 		Measure oQ = new Measure(); // quick eval measure
 		Measure oT = new Measure(); // train eval measure
 		MTrain mTrain;
@@ -1125,6 +1174,46 @@ public class XArenaFuncs {
 
 	} // multiTrain
 
+	/**
+	 * The parallel variant of {@link #multiTrain(int, String, XArenaButtons, GameBoard, String) multiTrain}: train
+	 * {@code trainNum} agents with {@link #multiTrainThreads} threads. Each run has its own agent, evaluators, game board
+	 * and random seed, see {@link ParallelMultiTrainer}. The rows in {@code csvName} are in run order, as in the
+	 * sequential case.
+	 */
+	private PlayAgent multiTrainParallel(int n, String sAgent, XArenaButtons xab, GameBoard gb, String csvName) {
+		DecimalFormat frm3 = new DecimalFormat("+0.000;-0.000");
+		DecimalFormat frm = new DecimalFormat("#0.000");
+		DecimalFormat frm2 = new DecimalFormat("+0.00;-0.00");
+		DecimalFormat frm1 = new DecimalFormat("#0.00");
+		int trainNum = xab.getTrainNumber();
+		int maxGameNum = xab.getGameNumber();
+
+		ParallelMultiTrainer pmt = new ParallelMultiTrainer(multiTrainThreads);
+		for (int i = 0; i < trainNum; i++)
+			pmt.addRun(i, 0.0, 0.0, null);
+		PlayAgent pa = pmt.trainAll(n, sAgent, m_Arena, xab, gb, maxGameNum, csvName, "", "");
+
+		m_evaluatorQ = pmt.getEvaluatorQ();
+		m_evaluatorT = pmt.getEvaluatorT();
+		Measure oQ = pmt.getOQ();
+		Measure oT = pmt.getOT();
+		if (m_evaluatorQ == null || m_evaluatorQ.getMode() == (-1)) {
+			this.lastMsg = "Warning: No evaluation done (Quick Eval Mode = -1)";
+		} else {
+			System.out.println("Avg. " + m_evaluatorQ.getPrintString() + frm3.format(oQ.getMean()) + " +- "
+					+ frm.format(oQ.getStd()));
+			this.lastMsg = (m_evaluatorQ.getPrintString() + frm2.format(oQ.getMean()) + " +- "
+					+ frm1.format(oQ.getStd()) + "");
+		}
+		if (pmt.getDoTrainEval() && m_evaluatorT.getMode() != (-1)) {
+			System.out.println("Avg. " + m_evaluatorT.getPrintString() + frm3.format(oT.getMean()) + " +- "
+					+ frm.format(oT.getStd()));
+		}
+
+		xab.setTrainNumber(trainNum);
+		return pa;
+	}
+
 	// --- the generalization of old method compete() to arbitrary N players ---
 	/**
 	 * Perform a competition of the agents in {@code paVector}, consisting of
@@ -1169,9 +1258,6 @@ public class XArenaFuncs {
 		double sWeight = 1 / (double) competeNum;
 		double moveCount = 0.0;
 		DecimalFormat frm = new DecimalFormat("#0.000");
-		boolean nextMoveSilent = (verbose < 3);
-		StateObservation so;
-		Types.ACTIONS_VT actBest;
 		StringBuilder sMsg;
 		//System.out.println(cmpRand.nextInt(6)+ "   "+cmpRand.nextInt(6)+ "   "+cmpRand.nextInt(6));
 
@@ -1209,76 +1295,273 @@ public class XArenaFuncs {
 			System.out.println("start state: " + startSO);
 		}
 
+		EpisodeResult[] results = null;
+		if (competeThreads > 1 && competeNum > 1 && verbose < 2 && !noParallelCompete.get()) {
+			// parallel mode: each episode gets its own RNG, derived from one base seed
+			long baseSeed = (cmpRand != null) ? cmpRand.nextLong() : new Random().nextLong();
+			results = playEpisodesParallel(qaVector, p0Role, startSO, competeNum, verbose, nextTimes != null,
+					finalSobList != null, baseSeed, deterministic, competeThreads);
+		}
+
 		for (int k = 0; k < competeNum; k++) {
-			for (int i = 0; i < numPlayers; i++)
-				qaVector.pavec[i].resetAgent();
+			EpisodeResult er = (results != null) ? results[k]
+					: playEpisode(qaVector, k, p0Role, startSO, verbose, nextTimes != null, finalSobList != null,
+								  cmpRand, deterministic);
+
+			scMean.combine(er.sc, ScoreTuple.CombineOP.AVG, 0, sWeight);
+			moveCount += er.moveCount;
+			if (er.winnerMsg != null)
+				System.out.println(er.winnerMsg);
+			if (finalSobList != null)
+				finalSobList.add(er.finalSob);
+			if (nextTimes != null)
+				for (long[] pt : er.moveTimes)
+					nextTimes[(int) pt[0]].addNewTimeNS(pt[1]);
+		} // for (k)
 
-			int player = startSO.getPlayer();
-			so = startSO.copy();
+		moveCount /= competeNum;
 
-			if(so.needsRandomization()) {
-				// Randomizing the start state (e.g. roll the dice at a given start state) to make sure there
-				// is a fair competition.
-				so.randomizeStartState(cmpRand);
+		if (verbose > 0) {
+			if (verbose > 1) {
+				System.out.print("Avg ScoreTuple for all players: ");
+				System.out.println("   " + scMean.toStringFrm());
 			}
-			if (verbose > 1)
-				System.out.println("start state = "+so.stringDescr());
-
-			while (true) {
-				long startTNano = System.nanoTime();
-				actBest = qaVector.pavec[player].getNextAction2(so.partialState(), false, deterministic, nextMoveSilent);
-				long endTNano = System.nanoTime();
-				if (nextTimes != null)
-					nextTimes[player].addNewTimeNS(endTNano - startTNano);
-				so.advance(actBest, cmpRand);
-				// --- only debug ---
-				if (verbose > 1) {
-					if (so instanceof StateObserverEWN)
-						System.out.println("k="+k+", dice="+(((StateObsNondeterministic)so).getNextNondeterministicAction().toInt()+1)
-								+ ", actBest="+actBest.toInt());
-					if (so instanceof StateObserver2048)
-						System.out.println("k="+k+", act = "+ actBest.toInt()
-								+ ", so = "+((StateObserver2048)so).stringDescr()
-								+ ", SCORE="+((StateObserver2048)so).getGameScoreRaw(0));
+			System.out.println("Avg # moves in " + competeNum + " episodes = " + frm.format(moveCount));
+		}
+
+		return scMean;
+	}
+
+	/**
+	 * The result of one competition episode, see {@link #playEpisode(PlayAgtVector, int, int, StateObservation, int,
+	 * boolean, boolean, Random, boolean) playEpisode}
+	 */
+	static class EpisodeResult {
+		ScoreTuple sc;
+		int moveCount;
+		String winnerMsg = null;				// only if verbose > 0
+		XStateObs finalSob = null;				// only if requested
+		ArrayList<long[]> moveTimes = new ArrayList<>();	// {player, time [ns]} of each move, only if requested
+	}
+
+	/**
+	 * Play episode {@code k} of a competition (the body of the episode loop in {@link #competeNPlayer(PlayAgtVector,
+	 * int, StateObservation, int, int, TSTimeStorage[], ArrayList, Random, boolean) competeNPlayer}).
+	 *
+	 * @param qaVector		the (already shifted) agents
+	 * @param recordTimes	whether to record the time of each move
+	 * @param keepFinal		whether to keep the final state
+	 * @param rnd			RNG for start state randomization and nondeterministic advance (may be null)
+	 * @return the episode result
+	 */
+	private static EpisodeResult playEpisode(PlayAgtVector qaVector, int k, int p0Role, StateObservation startSO,
+											 int verbose, boolean recordTimes, boolean keepFinal, Random rnd,
+											 boolean deterministic) {
+		int numPlayers = qaVector.getNumPlayers();
+		boolean nextMoveSilent = (verbose < 3);
+		EpisodeResult er = new EpisodeResult();
+		StateObservation so;
+		Types.ACTIONS_VT actBest;
+
+		for (int i = 0; i < numPlayers; i++)
+			qaVector.pavec[i].resetAgent();
+
+		int player = startSO.getPlayer();
+		so = startSO.copy();
+
+		if(so.needsRandomization()) {
+			// Randomizing the start state (e.g. roll the dice at a given start state) to make sure there
+			// is a fair competition.
+			so.randomizeStartState(rnd);
+		}
+		if (verbose > 1)
+			System.out.println("start state = "+so.stringDescr());
+
+		while (true) {
+			long startTNano = System.nanoTime();
+			actBest = qaVector.pavec[player].getNextAction2(so.partialState(), false, deterministic, nextMoveSilent);
+			long endTNano = System.nanoTime();
+			if (recordTimes)
+				er.moveTimes.add(new long[]{player, endTNano - startTNano});
+			so.advance(actBest, rnd);
+			// --- only debug ---
+			if (verbose > 1) {
+				if (so instanceof StateObserverEWN)
+					System.out.println("k="+k+", dice="+(((StateObsNondeterministic)so).getNextNondeterministicAction().toInt()+1)
+							+ ", actBest="+actBest.toInt());
+				if (so instanceof StateObserver2048)
+					System.out.println("k="+k+", act = "+ actBest.toInt()
+							+ ", so = "+((StateObserver2048)so).stringDescr()
+							+ ", SCORE="+((StateObserver2048)so).getGameScoreRaw(0));
+			}
+			so.storeBestActionInfo(actBest);	// /WK/ added 2021-09-10, but probably never needed
+
+
+			if (so.isGameOver()) {
+				er.sc = so.getGameScoreTupleRaw();
+				er.moveCount = so.getMoveCounter();
+				if (verbose > 0)
+					er.winnerMsg = er.sc.printEpisodeWinner(k, so);
+
+				if (keepFinal) {
+					er.finalSob = new XStateObs(so,k,p0Role);
 				}
-				so.storeBestActionInfo(actBest);	// /WK/ added 2021-09-10, but probably never needed
 
+				return er;
 
-				if (so.isGameOver()) {
-					sc = so.getGameScoreTupleRaw();
-					scMean.combine(sc, ScoreTuple.CombineOP.AVG, 0, sWeight);
-					moveCount += so.getMoveCounter();
-					if (verbose > 0)
-						System.out.println(sc.printEpisodeWinner(k, so));
+			} // if (so.isGameOver())
+			if(so.isRoundOver()&&!so.isGameOver()) {
+				so.initRound();
+				assert !so.isRoundOver() : "Error: initRound() did not reset round-over-flag";
+			}
 
-					if (finalSobList != null) {
-						finalSobList.add(new XStateObs(so,k,p0Role));
-					}
+			player = so.getPlayer();
+		} // while(true)
+	}
 
-					break; // out of while
+	/**
+	 * Play the {@code competeNum} episodes of a competition on {@code nThreads} threads. Each thread has its own copy
+	 * of the agents in {@code qaVector} (see {@link #workerVectors(PlayAgtVector, int)}), since most agents have state
+	 * which changes during {@code getNextAction2} (search trees, hash maps, RNGs). The copies are made for each call
+	 * and discarded afterwards. The agents of the caller are not used and not re-seeded.
+	 * <p>
+	 * Episode {@code k} uses its own {@link Random}, seeded with {@link #episodeSeed(long, int) episodeSeed(baseSeed,k)},
+	 * and the agents are re-seeded with this seed as well (see {@link PlayAgent#setRandomSeed(long)}). So the episode
+	 * results do not depend on the number of threads or on which thread plays which episode. The results are returned
+	 * in episode order, the caller aggregates them.
+	 *
+	 * @return the results of all episodes, indexed by episode, or {@code null} if the agents can not be copied
+	 * 		   (then the caller has to play the episodes sequentially)
+	 */
+	static EpisodeResult[] playEpisodesParallel(PlayAgtVector qaVector, int p0Role, StateObservation startSO,
+												int competeNum, int verbose, boolean recordTimes,
+												boolean keepFinal, long baseSeed, boolean deterministic,
+												int nThreads) {
+		int nWorkers = Math.min(nThreads, competeNum);
+		PlayAgtVector[] workerVec = workerVectors(qaVector, nWorkers);
+		if (workerVec == null) {
+			System.out.println("[competeNPlayer] Agents can not be copied, playing episodes sequentially");
+			return null;
+		}
 
-				} // if (so.isGameOver())
-				if(so.isRoundOver()&&!so.isGameOver()) {
-					so.initRound();
-					assert !so.isRoundOver() : "Error: initRound() did not reset round-over-flag";
+		EpisodeResult[] results = new EpisodeResult[competeNum];
+		AtomicInteger nextEpisode = new AtomicInteger(0);
+		List<Callable<Void>> workers = new ArrayList<>();
+		for (int w = 0; w < nWorkers; w++) {
+			PlayAgtVector wVector = workerVec[w];
+			workers.add(() -> callWithoutParallelCompete(() -> {
+				int k;
+				while ((k = nextEpisode.getAndIncrement()) < competeNum) {
+					long seed = episodeSeed(baseSeed, k);
+					for (int i = 0; i < wVector.getNumPlayers(); i++)
+						wVector.pavec[i].setRandomSeed(seed + i);
+					results[k] = playEpisode(wVector, k, p0Role, startSO, verbose, recordTimes, keepFinal,
+											 new Random(seed), deterministic);
 				}
+				return null;
+			}));
+		}
 
-				player = so.getPlayer();
-			} // while(true)
+		ExecutorService executorService = Executors.newWorkStealingPool(nWorkers);
+		try {
+			for (Future<Void> future : executorService.invokeAll(workers))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("[competeNPlayer] interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("[competeNPlayer] episode failed: " + e.getCause().getMessage(), e.getCause());
+		} finally {
+			executorService.shutdown();
+		}
+		return results;
+	}
 
-		} // for (k)
+	/**
+	 * @return the seed for episode {@code k}: a SplitMix64 hash of {@code baseSeed} and {@code k}, so that neighbouring
+	 * 		   episodes get uncorrelated {@link Random} streams
+	 */
+	private static long episodeSeed(long baseSeed, int k) {
+		long z = baseSeed + (k + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
 
-		moveCount /= competeNum;
+	/**
+	 * @return true, if the current thread already runs in parallel to others (an episode worker of
+	 * 		{@link #competeNPlayer} or a run of a {@link ParallelMultiTrainer}), see {@link #callWithoutParallelCompete}
+	 */
+	public static boolean inParallelWorker() {
+		return noParallelCompete.get();
+	}
 
-		if (verbose > 0) {
-			if (verbose > 1) {
-				System.out.print("Avg ScoreTuple for all players: ");
-				System.out.println("   " + scMean.toStringFrm());
+	/**
+	 * Execute {@code task} in the current thread such that {@link #competeNPlayer} plays sequentially there. For
+	 * threads which already run in parallel, so that the thread pools do not nest.
+	 */
+	public static <T> T callWithoutParallelCompete(Callable<T> task) throws Exception {
+		boolean old = noParallelCompete.get();
+		noParallelCompete.set(true);
+		try {
+			return task.call();
+		} finally {
+			noParallelCompete.set(old);
+		}
+	}
+
+	/**
+	 * The agent vectors for {@code nWorkers} workers: worker {@code w} gets its own copy of each agent in
+	 * {@code qaVector}. Agents which occur several times in {@code qaVector} (self-play) occur several times in the
+	 * worker vector as well. The copies are made from the current agents (weights and parameters) and start with
+	 * {@link PlayAgent#resetAgent()}.
+	 *
+	 * @return the worker vectors or {@code null}, if an agent can not be copied
+	 */
+	private static PlayAgtVector[] workerVectors(PlayAgtVector qaVector, int nWorkers) {
+		int numPlayers = qaVector.getNumPlayers();
+		PlayAgtVector[] workerVec = new PlayAgtVector[nWorkers];
+		for (int w = 0; w < nWorkers; w++) {
+			IdentityHashMap<PlayAgent, PlayAgent> copies = new IdentityHashMap<>();
+			PlayAgent[] pavec = new PlayAgent[numPlayers];
+			for (int i = 0; i < numPlayers; i++) {
+				PlayAgent pa = qaVector.pavec[i];
+				PlayAgent copy = copies.get(pa);
+				if (copy == null) {
+					copy = cloneAgent(pa);
+					if (copy == null) return null;
+					copy.resetAgent();
+					copies.put(pa, copy);
+				}
+				pavec[i] = copy;
 			}
-			System.out.println("Avg # moves in " + competeNum + " episodes = " + frm.format(moveCount));
+			workerVec[w] = new PlayAgtVector(pavec);
 		}
+		return workerVec;
+	}
 
-		return scMean;
+	/**
+	 * Deep copy of {@code pa} via (in-memory) serialization, followed by {@link PlayAgent#instantiateAfterLoading()}
+	 * as after loading from disk.
+	 *
+	 * @return the copy or {@code null}, if {@code pa} is not serializable or is a {@link HumanPlayer}
+	 */
+	private static PlayAgent cloneAgent(PlayAgent pa) {
+		if (pa instanceof HumanPlayer) return null;
+		try {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+				oos.writeObject(pa);
+			}
+			PlayAgent copy;
+			try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+				copy = (PlayAgent) ois.readObject();
+			}
+			copy.instantiateAfterLoading();
+			return copy;
+		} catch (IOException | ClassNotFoundException e) {
+			return null;
+		}
 	}
 
 	// --- the generalization of old competeBoth to arbitrary N players ---
@@ -16,7 +16,10 @@ import tools.Types;
  *      <li> {@link #getPositionValuesVector()},
  *      <li> {@link #instantiateAfterLoading()},
  *      <li> {@link #makeBoardVectorEachCellDifferent()},
- *      <li> {@link #symmetryVectors(StateObsWithBoardVector, int)} and
+ *      <li> {@link #symmetryVectors(StateObsWithBoardVector, int)},
+ *      <li> {@link #symmetryVectorsScratch(StateObsWithBoardVector, int)},
+ *      <li> {@link #symmetryPermutations()},
+ *      <li> {@link #symmetryNeedsStateObs()} and
  *      <li> {@link #useActionMap()}
  *  </ul>
  *  from the interface {@link XNTupleFuncs}. All other methods are left as abstract methods.
@@ -31,6 +34,11 @@ abstract public class XNTupleBase implements Serializable, XNTupleFuncs {
     @Serial
     private static final long serialVersionUID = 42L;
 
+	// the symmetry permutation tables (see symmetryPermutations()) and the per-thread scratch buffers for
+	// symmetryVectorsScratch(). Both are set up lazily.
+	private transient volatile int[][] symPerm;
+	private transient volatile ThreadLocal<SymScratch> symScratch;
+
     public XNTupleBase() {	}
 
 	/**
@@ -96,6 +104,147 @@ abstract public class XNTupleBase implements Serializable, XNTupleFuncs {
 	public BoardVector[] symmetryVectors(StateObsWithBoardVector curSOWB, int n) {
 		return symmetryVectors(curSOWB.getBoardVector(),n);
 	}
+
+	@Override
+	public boolean symmetryNeedsStateObs() {
+		return false;
+	}
+
+	/**
+	 * @return a copy of {@code so} (games with a more compact state form may override this)
+	 */
+	@Override
+	public Object packState(StateObservation so) {
+		return so.copy();
+	}
+
+	@Override
+	public StateObservation unpackState(Object packed) {
+		return (StateObservation) packed;
+	}
+
+	/**
+	 * @return the symmetry permutation tables from {@link #makeSymmetryPermutations()}, calculated once
+	 */
+	@Override
+	public int[][] symmetryPermutations() {
+		int[][] perm = symPerm;
+		if (perm == null) {
+			perm = makeSymmetryPermutations();
+			symPerm = perm;
+		}
+		return perm;
+	}
+
+	/**
+	 * Games whose symmetries are pure cell permutations override this method. They can calculate the tables with
+	 * {@link #permutationTables(BoardVector[])} from their symmetry transformations.
+	 *
+	 * @return null (default), if the symmetries are not pure cell permutations, else the tables for
+	 * {@link #symmetryPermutations()}
+	 */
+	protected int[][] makeSymmetryPermutations() {
+		return null;
+	}
+
+	/**
+	 * Helper for {@link #makeSymmetryPermutations()}
+	 *
+	 * @param cellSymmetries	the symmetric board vectors of the board vector 0,1,...,{@link #getNumCells()}-1
+	 * @return the permutation tables
+	 */
+	protected static int[][] permutationTables(BoardVector[] cellSymmetries) {
+		int[][] perm = new int[cellSymmetries.length][];
+		for (int i=0; i<perm.length; i++) perm[i] = cellSymmetries[i].bvec.clone();
+		return perm;
+	}
+
+	/**
+	 * {@link #symmetryVectors(BoardVector, int)} for games with {@link #symmetryPermutations()}: the first n of the s
+	 * symmetric board vectors (all s, if n=0), each in a new array.
+	 */
+	protected BoardVector[] permutedVectors(BoardVector boardVector, int n) {
+		int[][] perm = checkedPermutations(boardVector);
+		if (n==0 || n>perm.length) n=perm.length;
+		BoardVector[] equiv = new BoardVector[n];
+		equiv[0] = boardVector;
+		for (int i=1; i<n; i++) {
+			int[] p = perm[i];
+			int[] bvec = new int[p.length];
+			for (int k=0; k<p.length; k++) bvec[k] = boardVector.bvec[p[k]];
+			equiv[i] = new BoardVector(null);
+			equiv[i].bvec = bvec;
+		}
+		return equiv;
+	}
+
+	/**
+	 * @return the tables of {@link #symmetryPermutations()}, re-calculated if they do not fit to the length of
+	 * {@code boardVector} (because the board size has changed in the meantime)
+	 */
+	private int[][] checkedPermutations(BoardVector boardVector) {
+		int[][] perm = symmetryPermutations();
+		if (perm[0].length != boardVector.bvec.length) {
+			symPerm = null;
+			perm = symmetryPermutations();
+		}
+		return perm;
+	}
+
+	/**
+	 * The default implementation: For games with {@link #symmetryPermutations()} fill the scratch buffer of the
+	 * calling thread with the first n of the s symmetric board vectors (all s, if n=0). For all other games, call
+	 * {@link #symmetryVectors(StateObsWithBoardVector, int)}.
+	 */
+	@Override
+	public BoardVector[] symmetryVectorsScratch(StateObsWithBoardVector curSOWB, int n) {
+		if (symmetryPermutations() == null)
+			return symmetryVectors(curSOWB, n);
+		BoardVector boardVector = curSOWB.getBoardVector();
+		int[][] perm = checkedPermutations(boardVector);
+		if (n==0 || n>perm.length) n=perm.length;
+		int[] bvec = boardVector.bvec;
+
+		ThreadLocal<SymScratch> tl = symScratch;
+		if (tl == null) {
+			tl = new ThreadLocal<>();
+			symScratch = tl;
+		}
+		SymScratch scratch = tl.get();
+		if (scratch == null || scratch.numCells != bvec.length) {
+			scratch = new SymScratch(perm.length, bvec.length);
+			tl.set(scratch);
+		}
+
+		BoardVector[] equiv = scratch.equiv[n];
+		equiv[0] = boardVector;
+		for (int i=1; i<n; i++) {
+			int[] p = perm[i];
+			int[] out = equiv[i].bvec;
+			for (int k=0; k<p.length; k++) out[k] = bvec[p[k]];
+		}
+		return equiv;
+	}
+
+	/**
+	 * The scratch buffer of one thread for {@link #symmetryVectorsScratch(StateObsWithBoardVector, int)}:
+	 * {@code equiv[m]} is the array of length m, all of them share the board vectors 1,...,s-1.
+	 */
+	private static class SymScratch {
+		final int numCells;
+		final BoardVector[][] equiv;
+
+		SymScratch(int s, int numCells) {
+			this.numCells = numCells;
+			BoardVector[] all = new BoardVector[s];
+			for (int i=1; i<s; i++) all[i] = new BoardVector(new int[numCells]);
+			equiv = new BoardVector[s+1][];
+			for (int m=1; m<=s; m++) {
+				equiv[m] = new BoardVector[m];
+				System.arraycopy(all, 1, equiv[m], 1, m-1);
+			}
+		}
+	}
 	
 	@Override
 	abstract public BoardVector[] symmetryVectors(BoardVector boardVector, int n);
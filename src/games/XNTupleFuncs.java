@@ -111,6 +111,44 @@ public interface XNTupleFuncs {
 	 * object in order to construct the symmetric board vectors.)
 	 */
 	BoardVector[] symmetryVectors(StateObsWithBoardVector curSOWB, int n);
+
+	/**
+	 * Same as {@link #symmetryVectors(StateObsWithBoardVector, int)}, but for games with
+	 * {@link #symmetryPermutations()} without allocating: The returned array and its board vectors (except element 0,
+	 * which is {@code curSOWB}'s board vector) are a scratch buffer of the calling thread. They are overwritten by the
+	 * next call of this method in the same thread. So the caller may only read them and must not keep them.
+	 */
+	BoardVector[] symmetryVectorsScratch(StateObsWithBoardVector curSOWB, int n);
+
+	/**
+	 * @return null, if the symmetries of this game are not pure cell permutations. Otherwise, the permutation tables
+	 * {@code perm[i][]} for the s symmetries {@code i=0,...,s-1}, such that
+	 * <pre>
+	 * 		symmetryVectors(boardVector,0)[i].bvec[k] = boardVector.bvec[perm[i][k]]  </pre>
+	 */
+	int[][] symmetryPermutations();
+
+	/**
+	 * @return true, if {@link #symmetryVectors(StateObsWithBoardVector, int)} needs the {@link StateObservation}
+	 * object and not only the {@link BoardVector}. (A compact replay buffer which stores only board vectors has to
+	 * keep the states in this case, see {@link #packState(StateObservation)}.)
+	 */
+	boolean symmetryNeedsStateObs();
+
+	/**
+	 * A compact form of {@code so}, for a replay buffer which has to keep the states if
+	 * {@link #symmetryNeedsStateObs()} is true.
+	 *
+	 * @param so	the state
+	 * @return an object from which {@link #unpackState(Object)} rebuilds a state with the same symmetry vectors
+	 */
+	Object packState(StateObservation so);
+
+	/**
+	 * @param packed	the result of {@link #packState(StateObservation)}
+	 * @return the state rebuilt from {@code packed}
+	 */
+	StateObservation unpackState(Object packed);
 	
 	/**
 	 * Given a certain board array of symmetric (equivalent) states for state <b>{@code so}</b> 
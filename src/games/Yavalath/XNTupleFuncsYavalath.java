@@ -107,24 +107,33 @@ public class XNTupleFuncsYavalath extends XNTupleBase implements XNTupleFuncs, S
      */
      @Override
     public BoardVector[] symmetryVectors(BoardVector boardVector, int n) {
+        return permutedVectors(boardVector, n);
+    }
+
+    /**
+     * @return the permutation tables for the 12 symmetries: 5 rotations of the board, its mirror and 5 rotations
+     * of the mirrored board
+     */
+    @Override
+    protected int[][] makeSymmetryPermutations() {
 
         int syms = getNumSymmetries();
         BoardVector[] symmetryVectors = new BoardVector[syms];
 
         //Original boardvector
-        symmetryVectors[0] = boardVector;
+        symmetryVectors[0] = makeBoardVectorEachCellDifferent();
         //5 rotations clockwise
         for (int i = 1; i < 6; i++) {
             symmetryVectors[i] = rotate(symmetryVectors[i-1]);
         }
 
         //Mirrored original
-        symmetryVectors[6] = mirror(boardVector);
+        symmetryVectors[6] = mirror(symmetryVectors[0]);
         //Another 5 rotations clockwise on the mirrored vector
         for (int i = 7; i < 12; i++) {
             symmetryVectors[i] = rotate(symmetryVectors[i-1]);
         }
-        return symmetryVectors;
+        return permutationTables(symmetryVectors);
 
     }
 
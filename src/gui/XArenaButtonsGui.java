@@ -140,7 +140,7 @@ public class XArenaButtonsGui extends JPanel {
 		String gName = m_arena.getGameName();
 		int offset = (gName.equals("Nim") || gName.equals("Nim3P")) || gName.equals("BlackJack") || gName.equals("KuhnPoker") || gName.equals("2048")
 				   ? 1 : (gName.equals("ConnectFour"))
-				   ? 2 : (gName.equals("Othello") || gName.equals("RubiksCube")) ? 3: 0;
+				   ? 2 : (gName.equals("Othello")) ? 3: (gName.equals("RubiksCube")) ? 4: 0;
 		String[] gui_agent_list = new String[Types.GUI_AGENT_LIST.length+offset];
 		System.arraycopy(Types.GUI_AGENT_LIST, 0, gui_agent_list, 0, Types.GUI_AGENT_LIST.length);
 		switch (gName) {
@@ -153,9 +153,10 @@ public class XArenaButtonsGui extends JPanel {
 			case "Nim3P" -> gui_agent_list[gui_agent_list.length - 1] = "DaviNim";
 			case "2048" -> gui_agent_list[gui_agent_list.length - 1] = "MCTS";	// test: how acts normal MCTS on 2048?
 			case "RubiksCube" -> {
-				gui_agent_list[gui_agent_list.length - 3] = "DAVI2";
-				gui_agent_list[gui_agent_list.length - 2] = "DAVI3";
-				gui_agent_list[gui_agent_list.length - 1] = "DAVI4";
+				gui_agent_list[gui_agent_list.length - 4] = "DAVI2";
+				gui_agent_list[gui_agent_list.length - 3] = "DAVI3";
+				gui_agent_list[gui_agent_list.length - 2] = "DAVI4";
+				gui_agent_list[gui_agent_list.length - 1] = "IDAStar";
 			}
 			case "Othello" -> {
 				gui_agent_list[gui_agent_list.length - 3] = "HeurPlayer";
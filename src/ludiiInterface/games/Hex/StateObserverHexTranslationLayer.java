@@ -24,9 +24,7 @@ public class StateObserverHexTranslationLayer extends StateObserverHex {
 
         for(Move x : ludiiContextMoves){
             int actionInt = conversionHex.getGBGIndexFromLudii(x.actions().get(0).to());
-            int j = actionInt% size;
-            int i = (actionInt-j)/size;
-            board[i][j].setPlayer(conversionHex.getGBGPlayerFromLudii(x.mover()));
+            placeStone(actionInt, conversionHex.getGBGPlayerFromLudii(x.mover()));
             currentPlayer = (conversionHex.getGBGPlayerFromLudii(x.mover()) == 0 ? 1 : 0);
         }
         setAvailableActions();
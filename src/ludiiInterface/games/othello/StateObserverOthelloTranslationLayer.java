@@ -52,11 +52,8 @@ public class StateObserverOthelloTranslationLayer extends StateObserverOthello {
     private void advanceGameState(Move move){
         SystemConversionOthello sysConversion = new SystemConversionOthello();
         int actionInt = sysConversion.getGBGIndexFromLudii(move.actions().get(0).to());
-        int y = actionInt % ConfigOthello.BOARD_SIZE;
-        int x =(actionInt-y) / ConfigOthello.BOARD_SIZE;
         int player = sysConversion.getGBGPlayerFromLudii(move.actions().get(0).state());
-        BaseOthello.flip(currentGameState,x,y,player);
-        currentGameState[x][y] = player;
+        placeDisc(actionInt,player);
     }
 
     /**
@@ -65,6 +62,7 @@ public class StateObserverOthelloTranslationLayer extends StateObserverOthello {
     @Override
     public String stringDescr(){
         StringBuilder sb = new StringBuilder();
+        int[][] currentGameState = getCurrentGameState();
         for (int i = 0; i < ConfigOthello.BOARD_SIZE; i++) {
 
             for (int j = 0; j < ConfigOthello.BOARD_SIZE; j++) {
@@ -26,6 +26,10 @@ import controllers.MCTS.SingleMCTSPlayer;
  * <li> <b>K (UCT)</b>: 	[1.414] parameter K in UCT rule  
  * <li> <b>Tree Depth</b>: 	[ 10] MCTS tree depth 
  * <li> <b>Rollout Depth</b>[200] MCTS rollout depth  
+ * <li> <b>Reuse tree</b>: [false] re-use the subtree of the last move 
+ * <li> <b>Max nodes</b>: [200000] maximum number of nodes kept from the last move's tree 
+ * <li> <b>Threads</b>: [1] number of independent trees searched in parallel (root parallelization) 
+ * <li> <b>Merge</b>: [sum] how the root children of the parallel trees are merged (sum or vote) 
  * </ul>
  * The defaults are defined in {@link ParMCTS}. 
  * 
@@ -42,6 +46,13 @@ public class MCTSParams extends Frame implements Serializable
 	private static final String TIPROLLOUTL = "maximum rollout depth (random moves from a leaf)";
 	private static final String TIPNORMALIZEL = "Normalize rollout value q(reward) to range [0,1]";
 	private static final String TIPSELECTORL = "Which selector to use in tree policy";
+	private static final String TIPREUSEL = "Re-use the subtree of the last move (keep its visit counts and values)";
+	private static final String TIPMAXNODESL = "Maximum number of nodes kept from the last move's tree (0: no limit)";
+	private static final String TIPTHREADSL = "Number of independent trees searched in parallel (1: no parallel search)";
+	private static final String TIPMERGEL = "<html>How the root children of the parallel trees are merged:<br>"
+			+ "sum: add visit counts and values, <br>"
+			+ "vote: the action chosen by most trees"
+			+ "</html>";
 	private static final String TIPVERBOSET = "<html>0: print nothing,<br>"
 			+ "1: one line per MCTS call, <br>"
 			+ "2: for each child (=action) one line, <br>"
@@ -50,6 +61,7 @@ public class MCTSParams extends Frame implements Serializable
 	// use "<html> ... <br> ... </html>" to get multi-line tooltip text
 	
 	private static String[] selTypeString = { "UCT","eps-greedy","roulette wheel" };
+	private static String[] mergeTypeString = { "sum","vote" };
 	
 	JLabel numIter_L;
 	JLabel selector_L;
@@ -59,14 +71,22 @@ public class MCTSParams extends Frame implements Serializable
 	JLabel rollout_L;
 	JLabel verbose_L;
 	JLabel normalize_L;
+	JLabel reuse_L;
+	JLabel maxNodes_L;
+	JLabel threads_L;
+	JLabel merge_L;
 	JTextField numIter_T;
 	JTextField kUCT_T;
 	JTextField epsGreedy_T;
 	JTextField treedep_T;
 	JTextField rollout_T;
 	JTextField verbose_T;
+	JTextField maxNodes_T;
+	JTextField threads_T;
 	JCheckBox normalize;
+	JCheckBox reuse;
 	JComboBox choiceSelector;
+	JComboBox<String> choiceMerge;
 	JPanel mPanel;
 
 	/**
@@ -86,13 +106,27 @@ public class MCTSParams extends Frame implements Serializable
 		kUCT_L = new JLabel("K (UCT)");
 		epsGreedy_L = new JLabel("epsilon (greedy)");
 		normalize_L = new JLabel("Normalize: ");
+		reuse_L = new JLabel("Reuse tree: ");
+		maxNodes_L = new JLabel("Max nodes");
+		threads_L = new JLabel("Threads");
+		merge_L = new JLabel("Merge: ");
 		numIter_T = new JTextField(ParMCTS.DEFAULT_NUM_ITERS+"");			
 		treedep_T = new JTextField(ParMCTS.DEFAULT_TREE_DEPTH+"");		 
 		rollout_T = new JTextField(ParMCTS.DEFAULT_ROLLOUT_DEPTH+"");		 
 		verbose_T = new JTextField(ParMCTS.DEFAULT_VERBOSITY+"");		 
 		kUCT_T = new JTextField(ParMCTS.DEFAULT_K+"");					// 
 		epsGreedy_T = new JTextField(ParMCTS.DEFAULT_EPSILONGREEDY+"");					// 
+		maxNodes_T = new JTextField(ParMCTS.DEFAULT_MAX_NODES+"");
+		threads_T = new JTextField(ParMCTS.DEFAULT_NUM_THREADS+"");
+		choiceMerge = new JComboBox<>(mergeTypeString);
 		normalize = new JCheckBox();
+		reuse = new JCheckBox();
+		reuse.addActionListener(new ActionListener(){
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				enableReusePart();
+			}
+		});
 		choiceSelector = new JComboBox(selTypeString);
 		choiceSelector.addActionListener(new ActionListener(){
 			@Override
@@ -115,6 +149,10 @@ public class MCTSParams extends Frame implements Serializable
 		epsGreedy_L.setToolTipText(TIPEPSILONGREEDY);
 		normalize_L.setToolTipText(TIPNORMALIZEL);
 		selector_L.setToolTipText(TIPSELECTORL);
+		reuse_L.setToolTipText(TIPREUSEL);
+		maxNodes_L.setToolTipText(TIPMAXNODESL);
+		threads_L.setToolTipText(TIPTHREADSL);
+		merge_L.setToolTipText(TIPMERGEL);
 		
 		setLayout(new BorderLayout(10,0));				// rows,columns,hgap,vgap
 		mPanel.setLayout(new GridLayout(0,4,10,10));		
@@ -142,14 +180,20 @@ public class MCTSParams extends Frame implements Serializable
 //		mPanel.add(new Canvas());
 //		mPanel.add(new Canvas());
 
-		mPanel.add(new Canvas());	// add empty row to balance height of fields
-		mPanel.add(new Canvas());
-		mPanel.add(new Canvas());
-		mPanel.add(new Canvas());
+		mPanel.add(maxNodes_L);
+		mPanel.add(maxNodes_T);
+		mPanel.add(reuse_L);
+		mPanel.add(reuse);
+
+		mPanel.add(threads_L);
+		mPanel.add(threads_T);
+		mPanel.add(merge_L);
+		mPanel.add(choiceMerge);
 
 		add(mPanel,BorderLayout.CENTER);
 		
 		enableUCTPart();
+		enableReusePart();
 				
 		pack();
 		setVisible(false);
@@ -169,6 +213,11 @@ public class MCTSParams extends Frame implements Serializable
 		this.epsGreedy_T.setEnabled(selEpsGreedy);
 	}
 	
+	private void enableReusePart() {
+		this.maxNodes_L.setEnabled(reuse.isSelected());
+		this.maxNodes_T.setEnabled(reuse.isSelected());
+	}
+	
 
 	public int getNumIter() {
 		return Integer.valueOf(numIter_T.getText()).intValue();
@@ -198,6 +247,21 @@ public class MCTSParams extends Frame implements Serializable
 	public boolean getNormalize() {
 		return normalize.isSelected();
 	}
+	public boolean getReuseTree() {
+		return reuse.isSelected();
+	}
+	public int getMaxNodes() {
+		return Integer.valueOf(maxNodes_T.getText()).intValue();
+	}
+	public int getNumThreads() {
+		return Integer.valueOf(threads_T.getText()).intValue();
+	}
+	/**
+	 * @return 0: "sum", 1: "vote" 
+	 */
+	public int getMergeMode() {
+		return this.choiceMerge.getSelectedIndex();
+	}
 	public void setNumIter(int value) {
 		numIter_T.setText(value+"");
 	}
@@ -222,6 +286,19 @@ public class MCTSParams extends Frame implements Serializable
 	public void setNormalize(boolean state) {
 		normalize.setSelected(state);
 	}
+	public void setReuseTree(boolean state) {
+		reuse.setSelected(state);
+		enableReusePart();
+	}
+	public void setMaxNodes(int value) {
+		maxNodes_T.setText(value+"");
+	}
+	public void setNumThreads(int value) {
+		threads_T.setText(value+"");
+	}
+	public void setMergeMode(int value) {
+		this.choiceMerge.setSelectedIndex(value);
+	}
 	
 	/**
 	 * Needed to restore the param tab with the parameters from a re-loaded agent
@@ -236,6 +313,10 @@ public class MCTSParams extends Frame implements Serializable
 		setVerbosity(tp.getVerbosity());
 		setNormalize(tp.getNormalize());
 		setSelectMode(tp.getSelectMode());
+		setReuseTree(tp.getReuseTree());
+		setMaxNodes(tp.getMaxNodes());
+		setNumThreads(tp.getNumThreads());
+		setMergeMode(tp.getMergeMode());
 //		System.out.println("numIter= "+tp.getNumIter());
 //		System.out.println("k_UCT= "+tp.getK_UCT());
 		enableUCTPart();
@@ -254,6 +335,10 @@ public class MCTSParams extends Frame implements Serializable
 		setVerbosity(tp.getVerbosity());
 		setNormalize(tp.getNormalize());
 		setSelectMode(tp.getSelectMode());
+		setReuseTree(tp.getReuseTree());
+		setMaxNodes(tp.getMaxNodes());
+		setNumThreads(tp.getNumThreads());
+		setMergeMode(tp.getMergeMode());
 		enableUCTPart();
 	}
 	
@@ -13,6 +13,7 @@ import javax.swing.JTextField;
 
 import controllers.ExpectimaxNAgent;
 import controllers.MaxNAgent;
+import tools.TranspositionTable;
 
 /**
  * This class realizes the parameter settings (GUI tab) for  
@@ -20,6 +21,9 @@ import controllers.MaxNAgent;
  * These parameters and their [defaults] are: <ul>
  * <li> <b>tree depth</b>: 	[10] initial strength of learning parameter 
  * <li> <b>useHashMap</b>: 	[true] (only MaxN) whether to store calculated values in a hash map or not 
+ * <li> <b>TT bits</b>: 	[0] if &gt; 0, use a fixed-size transposition table with 2^bits entries instead of the hash map
+ * <li> <b>alpha-beta</b>: 	[false] (only MaxN, 2-player games) alpha-beta search with iterative deepening
+ * <li> <b>time budget</b>: [0] (only alpha-beta) time budget per move in ms, 0: no limit
  * </ul> 
  * The defaults are defined in {@link ParMaxN}. 
  * 
@@ -33,9 +37,14 @@ public class MaxNParams extends Frame
 
 	JLabel maxnDepth_L;
 	JLabel maxnUseHm_L;
+	JLabel maxnTTBits_L;
 	public JTextField maxnDepth_T;
 	public JCheckBox maxnUseHmTrue;
+	public JTextField maxnTTBits_T;
 	public JCheckBox CBStopOnRoundOver;
+	JLabel maxnTimeBudget_L;
+	public JCheckBox maxnAlphaBeta;
+	public JTextField maxnTimeBudget_T;
 
 	JPanel mPanel;
 	
@@ -47,12 +56,20 @@ public class MaxNParams extends Frame
 		maxnUseHm_L = new JLabel("MaxN Hashmap ");
 		maxnUseHmTrue = new JCheckBox("use hashmap",ParMaxN.DEFAULT_MAXN_USE_HASHMAP);
 		CBStopOnRoundOver = new JCheckBox("StopOnRoundOver", ParMaxN.DEFAULT_STOPONROUNDOVER);
+		maxnTTBits_L = new JLabel("TT bits");
+		maxnTTBits_T = new JTextField(ParMaxN.DEFAULT_MAXN_TT_BITS+"");
+		maxnAlphaBeta = new JCheckBox("alpha-beta", ParMaxN.DEFAULT_MAXN_ALPHA_BETA);
+		maxnTimeBudget_L = new JLabel("Time budget [ms]");
+		maxnTimeBudget_T = new JTextField(ParMaxN.DEFAULT_MAXN_TIME_BUDGET+"");
 		mPanel = new JPanel();		// put the inner buttons into panel mPanel. This panel
 									// can be handed over to a tab of a JTabbedPane object
 									// (see class XArenaTabs)
 		
 		maxnDepth_L.setToolTipText("Tree depth (for MaxN or ExpectimaxN)");
 		maxnUseHm_L.setToolTipText("MaxN: use hashmap to save values of visited states");
+		maxnTTBits_L.setToolTipText("<html>0: hashmap with string keys<br>&gt;0: fixed-size transposition table with 2^bits entries (bits &le; "+TranspositionTable.MAX_BITS+")</html>");
+		maxnAlphaBeta.setToolTipText("MaxN, 2-player games: alpha-beta search with iterative deepening instead of Max-N");
+		maxnTimeBudget_L.setToolTipText("<html>alpha-beta: time budget per move in ms<br>0: no limit</html>");
 		
 		setLayout(new BorderLayout(10,0));				// rows,columns,hgap,vgap
 		mPanel.setLayout(new GridLayout(0,2,10,10));
@@ -66,13 +83,20 @@ public class MaxNParams extends Frame
 		JPanel numbPanel = new JPanel(new GridLayout(0,2,10,10));
 		numbPanel.add(maxnUseHm_L);
 		numbPanel.add(maxnUseHmTrue);
+		numbPanel.add(maxnTTBits_L);
+		numbPanel.add(maxnTTBits_T);
 		mPanel.add(numbPanel);
 		mPanel.add(new Canvas());
 
 		mPanel.add(CBStopOnRoundOver);
 		mPanel.add(new Canvas());
 
-		mPanel.add(new Canvas());
+		JPanel abPanel = new JPanel(new GridLayout(0,2,10,10));
+		abPanel.add(maxnAlphaBeta);
+		abPanel.add(new Canvas());
+		abPanel.add(maxnTimeBudget_L);
+		abPanel.add(maxnTimeBudget_T);
+		mPanel.add(abPanel);
 		mPanel.add(new Canvas());
 
 		add(mPanel,BorderLayout.CENTER);
@@ -89,6 +113,8 @@ public class MaxNParams extends Frame
 	public void enableHashmapPart(boolean enable) {
 		maxnUseHm_L.setEnabled(enable);
 		maxnUseHmTrue.setEnabled(enable);
+		maxnTTBits_L.setEnabled(enable);
+		maxnTTBits_T.setEnabled(enable);
 	}
 	
 	public int getMaxNDepth() {
@@ -100,6 +126,19 @@ public class MaxNParams extends Frame
 	public boolean getStopOnRoundOver() {
 		return CBStopOnRoundOver.isSelected();
 	}
+	/**
+	 * @return the TT bits, clamped to [0, {@link TranspositionTable#MAX_BITS}]
+	 */
+	public int getMaxNTransTableBits() {
+		int bits = Integer.parseInt(maxnTTBits_T.getText());
+		return Math.max(0, Math.min(bits, TranspositionTable.MAX_BITS));
+	}
+	public boolean getMaxNAlphaBeta() {
+		return maxnAlphaBeta.isSelected();
+	}
+	public int getMaxNTimeBudget() {
+		return Integer.parseInt(maxnTimeBudget_T.getText());
+	}
 
 	public void setMaxNDepth(int value) {
 		maxnDepth_T.setText(value+"");
@@ -110,6 +149,15 @@ public class MaxNParams extends Frame
 	public void setStopOnRoundOver(boolean value) {
 		CBStopOnRoundOver.setSelected(value);
 	}
+	public void setMaxNTransTableBits(int value) {
+		maxnTTBits_T.setText(value+"");
+	}
+	public void setMaxNAlphaBeta(boolean bval) {
+		maxnAlphaBeta.setSelected(bval);
+	}
+	public void setMaxNTimeBudget(int value) {
+		maxnTimeBudget_T.setText(value+"");
+	}
 
 	/**
 	 * Needed to restore the param tab with the parameters from a re-loaded agent
@@ -119,6 +167,9 @@ public class MaxNParams extends Frame
 		this.setMaxNDepth(mp.getMaxNDepth());
 		this.setMaxNUseHashmap(mp.getMaxNUseHashmap());
 		this.setStopOnRoundOver(mp.getStopOnRoundOver());
+		this.setMaxNTransTableBits(mp.getMaxNTransTableBits());
+		this.setMaxNAlphaBeta(mp.getMaxNAlphaBeta());
+		this.setMaxNTimeBudget(mp.getMaxNTimeBudget());
 	}
 
 	/**
@@ -129,6 +180,9 @@ public class MaxNParams extends Frame
 		this.setMaxNDepth(mp.getMaxNDepth());
 		this.setMaxNUseHashmap(mp.getMaxNUseHashmap());
 		setStopOnRoundOver(mp.getStopOnRoundOver());
+		setMaxNTransTableBits(mp.getMaxNTransTableBits());
+		setMaxNAlphaBeta(mp.getMaxNAlphaBeta());
+		setMaxNTimeBudget(mp.getMaxNTimeBudget());
 	}
 
 	// --- not needed anymore, we have ParMaxN.setParamDefaults ---
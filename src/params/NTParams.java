@@ -1,6 +1,7 @@
 package params;
 
 import java.awt.BorderLayout;
+import java.awt.Canvas;
 import java.awt.Frame;
 import java.awt.GridLayout;
 import java.io.Serial;
@@ -38,6 +39,8 @@ public class NTParams extends Frame implements Serializable {
 	private static final String TIPUSESYMMETRY = "If checked, use symmetries when training n-tuple agent";
 	private static final String TIPAFTERSTATE = "If checked, use afterstate logic [Jaskowski16] when training n-tuple agent";
 	private static final String TIPNSYMMETRY = "number of symmetries to use (0: all symmetries)";
+	private static final String TIPPRECISION = "<html>precision of the LUT weights (only n-tuple-4 agents):<br>"
+			+"double: 64 bit, float32: 32 bit, int16: 16 bit fixed-point with a scale per n-tuple</html>";
 
 	private final static String[] tcFactorString = { "Immediate", "Accumulating" };
 	private final static String[] tcTransferString = { "id", "TC EXP" };
@@ -45,6 +48,7 @@ public class NTParams extends Frame implements Serializable {
 	private final static String[] ntTupleTypeString={"RandomWalk","RandomPoint"};
 	private final static String[] fixedTupleModeString={"1","2"};
 	private final static String[] plotWghtString = { "none", "wght distr", "tcFactor distr" };
+	private final static String[] precisionString = { "double", "float32", "int16" };	// index = ParNT.PREC_*
 
 	/**
 	 * change the version ID for serialization only if a newer version is no longer 
@@ -70,6 +74,7 @@ public class NTParams extends Frame implements Serializable {
 	JLabel UseSymmetryL;
 	JLabel NSymL;
 	JLabel AfterStateL;
+	JLabel PrecisionL;
 
 	public JTextField tcInitT;
 	public JTextField tcIntervalT;
@@ -89,6 +94,7 @@ public class NTParams extends Frame implements Serializable {
 	public JComboBox<String> NTupleTypeCo;
 	public JComboBox<String> NTupleFixCo;
 	public JComboBox<String> PlotWghtCo;
+	public JComboBox<String> PrecisionCo;
 
 	JPanel ntPanel;
 
@@ -126,6 +132,8 @@ public class NTParams extends Frame implements Serializable {
 		AfterStateL.setToolTipText(TIPAFTERSTATE);
 		NSymL = new JLabel("nSym");
 		NSymL.setToolTipText(TIPNSYMMETRY);
+		PrecisionL = new JLabel("weight precision");
+		PrecisionL.setToolTipText(TIPPRECISION);
 		
 		// These are the initial defaults 
 		// (Other game- and agent-specific defaults are in setParamDefaults, which is called
@@ -172,6 +180,8 @@ public class NTParams extends Frame implements Serializable {
 		NTupleFixCo.setEnabled(true); 
 		PlotWghtCo = new JComboBox<>(plotWghtString);
 		PlotWghtCo.setEnabled(true); 
+		PrecisionCo = new JComboBox<>(precisionString);
+		PrecisionCo.setSelectedIndex(ParNT.DEFAULT_WEIGHT_PRECISION);
 		
 		ntPanel = new JPanel();		// put the inner buttons into panel ntPanel. This panel
 									// can be handed over to a tab of a JTabbedPane object
@@ -225,8 +235,12 @@ public class NTParams extends Frame implements Serializable {
 		ntPanel.add(NTupleSizeT);
 		ntPanel.add(NSymL);
 		ntPanel.add(NSymT);
-//		ntPanel.add(new Canvas());
-//		ntPanel.add(new Canvas());
+
+		// eighth row
+		ntPanel.add(PrecisionL);
+		ntPanel.add(PrecisionCo);
+		ntPanel.add(new Canvas());
+		ntPanel.add(new Canvas());
 		
 		add(ntPanel,BorderLayout.CENTER);
 	
@@ -263,6 +277,7 @@ public class NTParams extends Frame implements Serializable {
 		NSymT.setEnabled(enable);
 		AfterStateC.setEnabled(enable);
 		AfterStateL.setEnabled(true);
+		PrecisionCo.setEnabled(enable);
 
 	}
 	
@@ -425,6 +440,13 @@ public class NTParams extends Frame implements Serializable {
 	public boolean getAFTERSTATE() {
 		return AfterStateC.isSelected();
 	}
+
+	/**
+	 * @return the weight precision {@link ParNT#PREC_DOUBLE}, {@link ParNT#PREC_FLOAT} or {@link ParNT#PREC_INT16}
+	 */
+	public int getWeightPrecision() {
+		return PrecisionCo.getSelectedIndex();
+	}
 	
 	public int getNtupleNumber() {
 		return Integer.parseInt(NTupleNumT.getText());
@@ -499,6 +521,10 @@ public class NTParams extends Frame implements Serializable {
 	public void setAFTERSTATE(boolean useAfterstate) {
 		AfterStateC.setSelected(useAfterstate);
 	}
+
+	public void setWeightPrecision(int weightPrecision) {
+		PrecisionCo.setSelectedIndex(weightPrecision);
+	}
 	
 	public void setNtupleNumber(int numTuple) {
 		NTupleNumT.setText(""+numTuple);
@@ -542,6 +568,7 @@ public class NTParams extends Frame implements Serializable {
 		setFixedNtupleMode(nt.getFixedNtupleMode());
 		setUSESYMMETRY(nt.getUSESYMMETRY());
 		setAFTERSTATE(nt.getAFTERSTATE());
+		setWeightPrecision(nt.getWeightPrecision());
 
 		enableAfterState(nt.getAFTERSTATE());
 		enableTcTransferPart();
@@ -569,6 +596,7 @@ public class NTParams extends Frame implements Serializable {
 		setUSESYMMETRY(nt.getUSESYMMETRY());
 		setNSym(nt.getNSym());
 		setAFTERSTATE(nt.getAFTERSTATE());
+		setWeightPrecision(nt.getWeightPrecision());
 		
 		enableAfterState(nt.getAFTERSTATE());
 		enableTcTransferPart();
@@ -1,5 +1,7 @@
 package params;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 import javax.swing.JPanel;
@@ -21,6 +23,16 @@ public class ParMCTS implements Serializable {
     public static final double DEFAULT_EPSILONGREEDY = 0.05;
     public static final int DEFAULT_VERBOSITY = 0;
     public static final int DEFAULT_SELECT_MODE = 0;	// 0:[UCT], 1:[eps-greedy], 2:[roulette wheel]
+	/**
+	 * maximum number of nodes kept when the tree of the last move is re-used (see {@link #getReuseTree()})
+	 */
+    public static final int DEFAULT_MAX_NODES = 200000;
+	/**
+	 * number of independent trees which {@link controllers.MCTS.MCTSAgentT} searches in parallel (root 
+	 * parallelization), 1: no parallel search
+	 */
+    public static final int DEFAULT_NUM_THREADS = 1;
+    public static final int DEFAULT_MERGE_MODE = 0;		// 0:[sum], 1:[vote]
     private int numIters = DEFAULT_NUM_ITERS;
 	private int rolloutDepth = DEFAULT_ROLLOUT_DEPTH;
     private int treeDepth = DEFAULT_TREE_DEPTH;
@@ -29,6 +41,10 @@ public class ParMCTS implements Serializable {
     private int verbose = DEFAULT_VERBOSITY; 
     private boolean useNormalize = true;
     private int selectMode = DEFAULT_SELECT_MODE;
+    private boolean reuseTree = false;
+    private int maxNodes = DEFAULT_MAX_NODES;
+    private int numThreads = DEFAULT_NUM_THREADS;
+    private int mergeMode = DEFAULT_MERGE_MODE;
 
     /**
      * This member is only constructed when the constructor {@link #ParMCTS(boolean) ParMCTS(boolean withUI)} 
@@ -43,6 +59,26 @@ public class ParMCTS implements Serializable {
 	 */
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Older streams (.agt.zip) do not contain the fields for tree re-use and parallel search. These fields get
+	 * their defaults instead of 0, in particular {@code maxNodes = }{@link #DEFAULT_MAX_NODES} (0 would mean no limit).
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField f = in.readFields();
+		numIters = f.get("numIters", DEFAULT_NUM_ITERS);
+		rolloutDepth = f.get("rolloutDepth", DEFAULT_ROLLOUT_DEPTH);
+		treeDepth = f.get("treeDepth", DEFAULT_TREE_DEPTH);
+		kUCT = f.get("kUCT", DEFAULT_K);
+		epsGreedy = f.get("epsGreedy", DEFAULT_EPSILONGREEDY);
+		verbose = f.get("verbose", DEFAULT_VERBOSITY);
+		useNormalize = f.get("useNormalize", true);
+		selectMode = f.get("selectMode", DEFAULT_SELECT_MODE);
+		reuseTree = f.get("reuseTree", false);
+		maxNodes = f.get("maxNodes", DEFAULT_MAX_NODES);
+		numThreads = f.get("numThreads", DEFAULT_NUM_THREADS);
+		mergeMode = f.get("mergeMode", DEFAULT_MERGE_MODE);
+	}
+
 	public ParMCTS() {	}
     
 	public ParMCTS(boolean withUI) {
@@ -67,6 +103,10 @@ public class ParMCTS implements Serializable {
 		this.verbose = tp.getVerbosity();
 		this.useNormalize = tp.getNormalize();
 		this.selectMode = tp.getSelectMode();
+		this.reuseTree = tp.getReuseTree();
+		this.maxNodes = tp.getMaxNodes();
+		this.numThreads = tp.getNumThreads();
+		this.mergeMode = tp.getMergeMode();
 		
 		if (msparams!=null)
 			msparams.setFrom(this);
@@ -81,6 +121,10 @@ public class ParMCTS implements Serializable {
 		this.verbose = tp.getVerbosity();
 		this.useNormalize = tp.getNormalize();
 		this.selectMode = tp.getSelectMode();
+		this.reuseTree = tp.getReuseTree();
+		this.maxNodes = tp.getMaxNodes();
+		this.numThreads = tp.getNumThreads();
+		this.mergeMode = tp.getMergeMode();
 		
 		if (msparams!=null)
 			msparams.setFrom(this);
@@ -124,6 +168,35 @@ public class ParMCTS implements Serializable {
 	public boolean getNormalize() {
 		return useNormalize;
 	}
+	/**
+	 * @return whether {@link controllers.MCTS.MCTSAgentT} re-uses the subtree of the last move (with the visit 
+	 * 		counts and values of its nodes) instead of building a new tree for each move
+	 */
+	public boolean getReuseTree() {
+		return reuseTree;
+	}
+	/**
+	 * @return maximum number of nodes kept from the tree of the last move (if {@link #getReuseTree()}), 
+	 * 		&le; 0: no limit
+	 */
+	public int getMaxNodes() {
+		return maxNodes;
+	}
+	/**
+	 * @return number of independent trees (each with its own random generator) which 
+	 * 		{@link controllers.MCTS.MCTSAgentT} searches in parallel for each move, &le; 1: one tree, no parallel 
+	 * 		search. Each tree runs {@link #getNumIter()} iterations.
+	 */
+	public int getNumThreads() {
+		return numThreads;
+	}
+	/**
+	 * @return how the root children of the parallel trees (see {@link #getNumThreads()}) are merged:
+	 * 		0: [sum] add their visit counts and values, 1: [vote] take the action chosen by most trees
+	 */
+	public int getMergeMode() {
+		return mergeMode;
+	}
 
 	public void setNumIter(int numIters) {
 		this.numIters = numIters;
@@ -172,6 +245,30 @@ public class ParMCTS implements Serializable {
 		if (msparams!=null)
 			msparams.setNormalize(bNorm);
 	}
+
+	public void setReuseTree(boolean reuseTree) {
+		this.reuseTree = reuseTree;
+		if (msparams!=null)
+			msparams.setReuseTree(reuseTree);
+	}
+
+	public void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+		if (msparams!=null)
+			msparams.setMaxNodes(maxNodes);
+	}
+
+	public void setNumThreads(int numThreads) {
+		this.numThreads = numThreads;
+		if (msparams!=null)
+			msparams.setNumThreads(numThreads);
+	}
+
+	public void setMergeMode(int mergeMode) {
+		this.mergeMode = mergeMode;
+		if (msparams!=null)
+			msparams.setMergeMode(mergeMode);
+	}
 	
 	/**
 	 * Set sensible parameters for a specific agent and specific game. By "sensible
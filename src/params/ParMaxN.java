@@ -13,6 +13,13 @@ import controllers.MaxNAgent;
  * <ul>
  * <li> <b> Tree Depth</b>: [10] depth of search tree
  * <li> <b> Max-N Hashmap</b>: [true] (only MaxN) whether to hash already visited states or not
+ * <li> <b> TT bits</b>: [0] if &gt; 0 (and Max-N Hashmap is set), store the visited states in a fixed-size
+ * 		{@link tools.TranspositionTable} with 2^bits entries under their {@code long} key instead of a
+ * 		{@code HashMap<String,ScoreTuple>}. This bounds the memory for deep searches.
+ * <li> <b> Alpha-beta</b>: [false] (only MaxN, only 2-player games) whether to use alpha-beta (negamax) search with
+ * 		iterative deepening instead of Max-N
+ * <li> <b> Time budget</b>: [0] (only with alpha-beta) time budget per move in ms. The deepest completed iteration
+ * 		is used. 0: no limit, always search to the full tree depth
  * </ul>
  *  <p>
  *  Game- and agent-specific parameters are set with {@link #setParamDefaults(String, String, int)}.
@@ -24,10 +31,16 @@ public class ParMaxN implements Serializable {
     public static int DEFAULT_MAXN_TREE_DEPTH = 10;
     public static boolean DEFAULT_MAXN_USE_HASHMAP = true;
 	public static boolean DEFAULT_STOPONROUNDOVER = true;
+	public static int DEFAULT_MAXN_TT_BITS = 0;
+	public static boolean DEFAULT_MAXN_ALPHA_BETA = false;
+	public static int DEFAULT_MAXN_TIME_BUDGET = 0;
 
     private int maxNTreeDepth = DEFAULT_MAXN_TREE_DEPTH;
     private boolean maxNUseHashmap = DEFAULT_MAXN_USE_HASHMAP;
 	private boolean stopOnRoundOver = DEFAULT_STOPONROUNDOVER;
+	private int maxNTransTableBits = DEFAULT_MAXN_TT_BITS;
+	private boolean maxNAlphaBeta = DEFAULT_MAXN_ALPHA_BETA;
+	private int maxNTimeBudget = DEFAULT_MAXN_TIME_BUDGET;
 
     /**
      * This member is only constructed when the constructor {@link #ParMaxN(boolean) ParMaxN(boolean withUI)}
@@ -62,6 +75,9 @@ public class ParMaxN implements Serializable {
 		this.maxNTreeDepth = op.getMaxNDepth();
 		this.maxNUseHashmap = op.getMaxNUseHashmap();
 		this.stopOnRoundOver = op.getStopOnRoundOver();
+		this.maxNTransTableBits = op.getMaxNTransTableBits();
+		this.maxNAlphaBeta = op.getMaxNAlphaBeta();
+		this.maxNTimeBudget = op.getMaxNTimeBudget();
 
 		if (mnparams!=null)
 			mnparams.setFrom(this);
@@ -71,6 +87,9 @@ public class ParMaxN implements Serializable {
 		this.maxNTreeDepth = op.getMaxNDepth();
 		this.maxNUseHashmap = op.getMaxNUseHashmap();
 		this.stopOnRoundOver = op.getStopOnRoundOver();
+		this.maxNTransTableBits = op.getMaxNTransTableBits();
+		this.maxNAlphaBeta = op.getMaxNAlphaBeta();
+		this.maxNTimeBudget = op.getMaxNTimeBudget();
 
 		if (mnparams!=null)
 			mnparams.setFrom(this);
@@ -104,6 +123,15 @@ public class ParMaxN implements Serializable {
 	public boolean getStopOnRoundOver() {
 		return stopOnRoundOver;
 	}
+	public int getMaxNTransTableBits() {
+		return maxNTransTableBits;
+	}
+	public boolean getMaxNAlphaBeta() {
+		return maxNAlphaBeta;
+	}
+	public int getMaxNTimeBudget() {
+		return maxNTimeBudget;
+	}
 
 	public void setMaxNDepth(int treeDepth) {
 		this.maxNTreeDepth = treeDepth;
@@ -123,6 +151,24 @@ public class ParMaxN implements Serializable {
 			mnparams.setStopOnRoundOver(stopOnRoundOver);
 	}
 
+	public void setMaxNTransTableBits(int bits) {
+		this.maxNTransTableBits = bits;
+		if (mnparams!=null)
+			mnparams.setMaxNTransTableBits(bits);
+	}
+
+	public void setMaxNAlphaBeta(boolean alphaBeta) {
+		this.maxNAlphaBeta = alphaBeta;
+		if (mnparams!=null)
+			mnparams.setMaxNAlphaBeta(alphaBeta);
+	}
+
+	public void setMaxNTimeBudget(int millis) {
+		this.maxNTimeBudget = millis;
+		if (mnparams!=null)
+			mnparams.setMaxNTimeBudget(millis);
+	}
+
 	/**
 	 * Set sensible parameters for a specific agent and specific game. By "sensible
 	 * parameters" we mean parameter producing good results. If withUI, some parameter
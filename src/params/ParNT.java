@@ -28,6 +28,10 @@ public class ParNT implements Serializable {
     public static int DEFAULT_NTUPLE_NUM=10;  
     public static int DEFAULT_NTUPLE_LEN=6;  
     public static int DEFAULT_FIXED_NTUPLE=1;  
+    public static final int PREC_DOUBLE=0;		// weight precision: 64 bit double
+    public static final int PREC_FLOAT=1;		// weight precision: 32 bit float
+    public static final int PREC_INT16=2;		// weight precision: 16 bit fixed-point with a scale per n-tuple
+    public static int DEFAULT_WEIGHT_PRECISION=PREC_DOUBLE;
     
     private double tcInit = DEFAULT_TC_INIT;
     private boolean tc = false;
@@ -44,6 +48,7 @@ public class ParNT implements Serializable {
     private boolean useSymmetry = true;
     private int nSym= 0;							// 0: use all symmetries, if useSymmetry==true
     private boolean afterState = false;
+    private int weightPrecision = DEFAULT_WEIGHT_PRECISION;	// only NTuple4: PREC_DOUBLE, PREC_FLOAT or PREC_INT16
     
     /**
      * This member is only constructed when the constructor {@link #ParNT(boolean) ParNT(boolean withUI)} 
@@ -89,6 +94,7 @@ public class ParNT implements Serializable {
 		this.useSymmetry = nt.getUSESYMMETRY();
 		this.nSym = nt.getNSym();
 		this.afterState = nt.getAFTERSTATE();
+		this.weightPrecision = nt.getWeightPrecision();
 
 		if (ntparams!=null)
 			ntparams.setFrom(this);
@@ -110,6 +116,7 @@ public class ParNT implements Serializable {
 		this.useSymmetry = nt.getUSESYMMETRY();
 		this.nSym = nt.getNSym();
 		this.afterState = nt.getAFTERSTATE();
+		this.weightPrecision = nt.getWeightPrecision();
 
 		if (ntparams!=null)
 			ntparams.setFrom(this);
@@ -198,6 +205,14 @@ public class ParNT implements Serializable {
 		return afterState;
 	}
 
+	/**
+	 * @return the precision of the LUT weights in {@link controllers.TD.ntuple4.NTuple4}: {@link #PREC_DOUBLE},
+	 * 		{@link #PREC_FLOAT} or {@link #PREC_INT16}
+	 */
+	public int getWeightPrecision() {
+		return weightPrecision;
+	}
+
 	public int getPlotWeightMethod() {
 		if (ntparams!=null)
 			return ntparams.getPlotWeightMethod();
@@ -285,6 +300,12 @@ public class ParNT implements Serializable {
 		this.afterState = afterState;
 	}
 
+	public void setWeightPrecision(int weightPrecision) {
+		this.weightPrecision = weightPrecision;
+		if (ntparams!=null)
+			ntparams.setWeightPrecision(weightPrecision);
+	}
+
 	/**
 	 * Set sensible parameters for a specific agent and specific game. By "sensible
 	 * parameters" we mean parameter producing good results.
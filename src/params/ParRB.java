@@ -23,12 +23,14 @@ public class ParRB implements Serializable {
     public static int DEFAULT_CAPACITY = 200;
     public static int DEFAULT_BATCHSIZE = 1;
     public static int DEFAULT_COMBOBOXES = 0; // used for entry based on index;
+    public static boolean DEFAULT_COMPACT = false;
 
     private int capacity = DEFAULT_CAPACITY;
     private boolean useRB = DEFAULT_USERB;
     private int batchSize = DEFAULT_BATCHSIZE;
-    private int selector = DEFAULT_COMBOBOXES;
-    private int pusher = DEFAULT_COMBOBOXES;
+    private int selector = DEFAULT_COMBOBOXES;   // 0: Random, 1: Prioritized (see BaseBuffer)
+    private int pusher = DEFAULT_COMBOBOXES;     // 0: All, 1: Low priority
+    private boolean compact = DEFAULT_COMPACT;  // if true, use CompactBuffer (column-wise storage)
 
     private transient RBParams RBparams = null;
 
@@ -61,6 +63,7 @@ public class ParRB implements Serializable {
         this.batchSize = ep.getBatchSize();
         this.selector = ep.getSelectorV();
         this.pusher = ep.getPusherV();
+        this.compact = ep.getCompact();
         if (RBparams!=null)
             RBparams.setFrom(this);
     }
@@ -71,6 +74,7 @@ public class ParRB implements Serializable {
         this.batchSize = ep.getBatchSize();
         this.selector = ep.getSelector();
         this.pusher = ep.getPusher();
+        this.compact = ep.getCompact();
         if (RBparams!=null)
             RBparams.setFrom(this);
     }
@@ -106,6 +110,16 @@ public class ParRB implements Serializable {
         return useRB;
     }
 
+    public boolean getCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean b) {
+        this.compact = b;
+        if (RBparams!=null)
+            RBparams.setCompact(b);
+    }
+
     public int getBatchSizeV(){return batchSize;}
     public int getPusherV(){return pusher;}
     public int getSelectorV(){return selector;}
@@ -155,6 +169,7 @@ public class ParRB implements Serializable {
                 this.setBatchSize(1);
                 this.setPusher(0);
                 this.setSelector(0);
+                this.setCompact(false);
                 break;
         }
     }
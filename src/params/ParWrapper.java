@@ -32,6 +32,12 @@ import games.XArenaFuncs;
  * <li><b>wrapperMCTS_exploMode</b>: [0] 0: none, 1: proportional to visit counts, 2: epsilon-greedy, only for {@link MCTSWrapperAgent}
  * <li><b>wrapperMCTS_epsInit</b>: [0.1] initial epsilon, only for Exploration Mode = 2
  * <li><b>wrapperMCTS_epsFinal</b>: [0.1] final epsilon, only for Exploration Mode = 2
+ * <li><b>wrapperMCTS_threads</b>: [1] number of threads for {@link MCTSWrapperAgent}. If &gt; 1, the iterations
+ *      are distributed over several threads searching the same tree (tree-parallel MCTS with virtual loss).
+ *      The threads call the wrapped agent concurrently, so it must be thread-safe for prediction (see
+ *      {@link PlayAgentApproximator})
+ * <li><b>wrapperMCTS_batchSize</b>: [1] number of leaves collected by {@link MCTSWrapperAgent} before they are
+ *      evaluated together in one call of the approximator (1: no batching)
  * <li><b>useSoftMax</b>: [true] <br>
  *      A switch for {@link PlayAgentApproximator}:
  *      <ul>
@@ -64,6 +70,8 @@ public class ParWrapper implements Serializable {
     public static double DEFAULT_WRAPPER_MCTS_EPSFINAL = ConfigWrapper.epsilon; //0.15;
     public static boolean DEFAULT_USESOFTMAX = ConfigWrapper.USESOFTMAX; // true
     public static boolean DEFAULT_USELASTMCTS = ConfigWrapper.USELASTMCTS; //true;
+    public static int DEFAULT_WRAPPER_MCTS_THREADS = 1;
+    public static int DEFAULT_WRAPPER_MCTS_BATCHSIZE = 1;
 
     private int wrapperMode = DEFAULT_WRAPPER_MODE;
     private int wrapperNply = DEFAULT_WRAPPER_NPLY;
@@ -76,6 +84,9 @@ public class ParWrapper implements Serializable {
     private double wrapperMCTS_epsFinal = DEFAULT_WRAPPER_MCTS_EPSFINAL;    // MCTSWrapperAgent.adjustEpsilon()
     private boolean useSoftMax = DEFAULT_USESOFTMAX;
     private boolean useLastMCTS = DEFAULT_USELASTMCTS;
+    private int wrapperMCTS_threads = DEFAULT_WRAPPER_MCTS_THREADS;   // older agents (w/o this member) get 0 here,
+                                                                      // which MCTSWrapperAgent treats like 1
+    private int wrapperMCTS_batchSize = DEFAULT_WRAPPER_MCTS_BATCHSIZE;  // same for older agents here
 
     /**
      * This member is only constructed when the constructor
@@ -119,6 +130,8 @@ public class ParWrapper implements Serializable {
         this.wrapperMCTS_epsFinal = wp.getWrapperMCTS_epsFinal();
         this.useSoftMax = wp.getUseSoftMax();
         this.useLastMCTS = wp.getUseLastMCTS();
+        this.wrapperMCTS_threads = wp.getWrapperMCTS_threads();
+        this.wrapperMCTS_batchSize = wp.getWrapperMCTS_batchSize();
 
         if (wrparams !=null)
             wrparams.setFrom(this);
@@ -136,6 +149,8 @@ public class ParWrapper implements Serializable {
         this.wrapperMCTS_epsFinal = wp.getWrapperMCTS_epsFinal();
         this.useSoftMax = wp.getUseSoftMax();
         this.useLastMCTS = wp.getUseLastMCTS();
+        this.wrapperMCTS_threads = wp.getWrapperMCTS_threads();
+        this.wrapperMCTS_batchSize = wp.getWrapperMCTS_batchSize();
 
         if (wrparams !=null)
             wrparams.setFrom(this);
@@ -189,6 +204,10 @@ public class ParWrapper implements Serializable {
 
     public boolean getUseLastMCTS() { return useLastMCTS; }
 
+    public int getWrapperMCTS_threads() { return wrapperMCTS_threads; }
+
+    public int getWrapperMCTS_batchSize() { return wrapperMCTS_batchSize; }
+
     public void setWrapperMode(int mode) {
         this.wrapperMode=mode;
         if (wrparams !=null)
@@ -254,6 +273,18 @@ public class ParWrapper implements Serializable {
             wrparams.setUseLastMCTS(bUseLast);
     }
 
+    public void setWrapperMCTS_threads(final int threads) {
+        this.wrapperMCTS_threads = threads;
+        if (wrparams!=null)
+            wrparams.setWrapperMCTS_threads(threads);
+    }
+
+    public void setWrapperMCTS_batchSize(final int batchSize) {
+        this.wrapperMCTS_batchSize = batchSize;
+        if (wrparams!=null)
+            wrparams.setWrapperMCTS_batchSize(batchSize);
+    }
+
     /**
      * Set sensible parameters for a specific agent and specific game. By "sensible
      * parameters" we mean parameter producing good results. Likewise, some parameter
@@ -16,15 +16,17 @@ public class RBParams extends Frame{
     JLabel batchSize_L;
     JLabel pusher_L;
     JLabel selector_L;
+    JLabel compact_L;
 
     public Checkbox useRP_T;
+    public Checkbox compact_T;
     public JTextField capacity_T;
     public JTextField batchSize_T;
-    private final String[] pushers = new String[]{"All"};
+    private final String[] pushers = new String[]{"All","Low priority"};
     public JComboBox<String> pusher_cb;
 
     public JComboBox<String> selector_cb;
-    private final String[] selectors = new String[]{"Random"};
+    private final String[] selectors = new String[]{"Random","Prioritized"};
 
     Button ok;
     JPanel ePanel;
@@ -35,6 +37,9 @@ public class RBParams extends Frame{
         useRP_T = new Checkbox();
         useRp_L = new JLabel("Use replay buffer");
 
+        compact_T = new Checkbox();
+        compact_L = new JLabel("Compact");
+
         capacity_T = new JTextField("200"); //
         capacity_L = new JLabel("Buffer size");
 
@@ -55,10 +60,13 @@ public class RBParams extends Frame{
         // (see class TicTacToeTabs)
 
         useRp_L.setToolTipText("Use the replay buffer");
+        compact_L.setToolTipText("Store the transitions column-wise as packed board vectors (less memory for large buffers)");
         capacity_L.setToolTipText("Amount of transitions in the buffer");
         batchSize_L.setToolTipText("The amount of transitions sampled from the buffer for each episode (Amount of avg. game length)");
-        selector_L.setToolTipText("The policy used for selecting a transition from the replay buffer");
-        pusher_L.setToolTipText("The policy used for adding transitions to the replay buffer");
+        selector_L.setToolTipText("The policy used for selecting a transition from the replay buffer "
+                + "(Prioritized: proportional to the TD error)");
+        pusher_L.setToolTipText("The policy used for adding transitions to the replay buffer "
+                + "(Low priority: a full buffer overwrites the transition with the smallest TD error)");
         ok.addActionListener( e -> rb_par.setVisible(false) );
         useRP_T.addItemListener( e -> this.enableRBPart() );
 
@@ -67,8 +75,8 @@ public class RBParams extends Frame{
 
         ePanel.add(useRp_L);
         ePanel.add(useRP_T);
-        ePanel.add(new Canvas());
-        ePanel.add(new Canvas());
+        ePanel.add(compact_L);
+        ePanel.add(compact_T);
 
         ePanel.add(capacity_L);
         ePanel.add(capacity_T);
@@ -109,6 +117,13 @@ public class RBParams extends Frame{
         useRP_T.setState(value);
     }
 
+    public boolean getCompact() {
+        return compact_T.getState();
+    }
+    public void setCompact(boolean value) {
+        compact_T.setState(value);
+    }
+
     public void setBatchSize(int i){batchSize_T.setText(i+"");}
     public int getBatchSize(){return Integer.parseInt(batchSize_T.getText());}
 
@@ -131,10 +146,13 @@ public class RBParams extends Frame{
         this.setBatchSize(ep.getBatchSizeV());
         this.setSelector(ep.getSelectorV());
         this.setPusher(ep.getPusherV());
+        this.setCompact(ep.getCompact());
     }
 
     private void enableRBPart() {
         boolean enable = (this.getUseRb());
+        compact_L.setEnabled(enable);
+        compact_T.setEnabled(enable);
         capacity_L.setEnabled(enable);
         capacity_T.setEnabled(enable);
         batchSize_L.setEnabled(enable);
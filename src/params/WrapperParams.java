@@ -28,6 +28,8 @@ import controllers.MaxN2Wrapper;
  * <li><b>Exploration Mode</b>: [0] 0: none, 1: proportional to visit counts, 2: epsilon-greedy, only for {@link MCTSWrapperAgent}
  * <li><b>epsilon init</b>: [0.2] initial epsilon, only for Exploration Mode = 2
  * <li><b>epsilon final</b>: [0.1] final epsilon, only for Exploration Mode = 2
+ * <li><b>Threads MCTS</b>: [1] number of threads searching the same tree in {@link MCTSWrapperAgent}
+ * <li><b>Batch MCTS</b>: [1] number of leaves evaluated together by the approximator in {@link MCTSWrapperAgent}
  * <li><b>USESOFTMAX</b>: [true] <br>
  *      A switch for {@link PlayAgentApproximator}:
  *      <ul>
@@ -66,6 +68,8 @@ public class WrapperParams extends Frame {
     JLabel wMCTSepsFinal_L;
     JLabel wMCTSuseSoft_L;
     JLabel wMCTSuseLast_L;
+    JLabel wMCTSthreads_L;
+    JLabel wMCTSbatch_L;
     public JTextField wNply_T;
     public JTextField wMCTSiter_T;
     public JTextField wMCTSiter_train_T;
@@ -74,6 +78,8 @@ public class WrapperParams extends Frame {
     public JComboBox<String> choiceExplorationMode=new JComboBox<>(exploModeList);
     public JTextField wMCTSepsInit_T;
     public JTextField wMCTSepsFinal_T;
+    public JTextField wMCTSthreads_T;
+    public JTextField wMCTSbatch_T;
     public Checkbox wMCTSuseSoftMax;
     public Checkbox wMCTSuseLastMCTS;
 
@@ -99,6 +105,8 @@ public class WrapperParams extends Frame {
         wMCTSexplorationMode_L = new JLabel("Exploration Mode");
         wMCTSepsInit_L = new JLabel("epsilon init");
         wMCTSepsFinal_L = new JLabel("epsilon final");
+        wMCTSthreads_L = new JLabel("Threads MCTS");
+        wMCTSbatch_L = new JLabel("Batch MCTS");
         wNply_T = new JTextField("0"); 		//
         wMCTSiter_T = new JTextField("0"); 		//
         wMCTSiter_train_T = new JTextField("0"); 		//
@@ -108,6 +116,8 @@ public class WrapperParams extends Frame {
         wMCTSuseLastMCTS = new Checkbox("", false);
         wMCTSepsInit_T = new JTextField("0.1"); 		//
         wMCTSepsFinal_T = new JTextField("0.1"); 		//
+        wMCTSthreads_T = new JTextField("1"); 		//
+        wMCTSbatch_T = new JTextField("1"); 		//
         ok = new Button("OK");
         m_par = this;
         wPanel = new JPanel();  // put the inner buttons into panel wPanel. This panel
@@ -131,6 +141,8 @@ public class WrapperParams extends Frame {
         wMCTSepsFinal_L.setToolTipText("final random move rate for Exploration Mode==2");
         wMCTSuseSoft_L.setToolTipText("Use softMax() in MCTS wrapper");
         wMCTSuseLast_L.setToolTipText("Re-use last MCTS in wrapper");
+        wMCTSbatch_L.setToolTipText("<html>Number of MCTS leaves evaluated together<br>in one approximator call. 1: no batching</html>");
+        wMCTSthreads_L.setToolTipText("<html>Number of threads for MCTS wrapper.<br>&gt; 1: tree-parallel search with virtual loss</html>");
         //notyetready_L.setToolTipText("<html><b>Wrapper pars is not yet integrated!</b></html>");
 
 
@@ -173,14 +185,19 @@ public class WrapperParams extends Frame {
 
         wPanel.add(wMCTSexplorationMode_L);
         wPanel.add(choiceExplorationMode);
-        wPanel.add(new Canvas());
-        wPanel.add(new Canvas());
+        wPanel.add(wMCTSthreads_L);
+        wPanel.add(wMCTSthreads_T);
 
         wPanel.add(wMCTSepsInit_L);
         wPanel.add(wMCTSepsInit_T);
         wPanel.add(wMCTSepsFinal_L);
         wPanel.add(wMCTSepsFinal_T);
 
+        wPanel.add(wMCTSbatch_L);
+        wPanel.add(wMCTSbatch_T);
+        wPanel.add(new Canvas());
+        wPanel.add(new Canvas());
+
         add(wPanel, BorderLayout.CENTER);
         add(ok, BorderLayout.SOUTH);
 
@@ -214,6 +231,10 @@ public class WrapperParams extends Frame {
         wMCTSuseSoftMax.setEnabled(enable);
         wMCTSuseLast_L.setEnabled(enable);
         wMCTSuseLastMCTS.setEnabled(enable);
+        wMCTSthreads_L.setEnabled(enable);
+        wMCTSthreads_T.setEnabled(enable);
+        wMCTSbatch_L.setEnabled(enable);
+        wMCTSbatch_T.setEnabled(enable);
 
         enableWrapMCTSepsilonPart();
     }
@@ -270,6 +291,14 @@ public class WrapperParams extends Frame {
 
     public boolean getUseLastMCTS() { return wMCTSuseLastMCTS.getState(); }
 
+    public int getWrapperMCTS_threads() {
+        return Integer.parseInt(wMCTSthreads_T.getText());
+    }
+
+    public int getWrapperMCTS_batchSize() {
+        return Integer.parseInt(wMCTSbatch_T.getText());
+    }
+
     public void setWrapperMode(int wrapperMode) {
         choiceWrapper.setSelectedIndex(wrapperMode);
     }
@@ -314,6 +343,14 @@ public class WrapperParams extends Frame {
         wMCTSuseLastMCTS.setState(bUseLast);
     }
 
+    public void setWrapperMCTS_threads(final int value) {
+        wMCTSthreads_T.setText(value + "");
+    }
+
+    public void setWrapperMCTS_batchSize(final int value) {
+        wMCTSbatch_T.setText(value + "");
+    }
+
     /**
      * Needed to restore the param tab with the parameters from a re-loaded
      * agent
@@ -332,6 +369,8 @@ public class WrapperParams extends Frame {
         this.setWrapperMCTS_epsFinal(wp.getWrapperMCTS_epsFinal());
         this.setUseSoftMax(wp.getUseSoftMax());
         this.setUseLastMCTS(wp.getUseLastMCTS());
+        this.setWrapperMCTS_threads(wp.getWrapperMCTS_threads());
+        this.setWrapperMCTS_batchSize(wp.getWrapperMCTS_batchSize());
 
         enableWrapNplyPart();
         enableWrapMCTSPart();
@@ -181,6 +181,13 @@ public class GBGBatch extends SetupGBG {
 
 		Properties prop = readProperties(propsName,propsNameDef);
 
+		// optional: number of training runs executed in parallel by batch00, batch02 and batch03 (default: 1)
+		int multiTrainThreads = Integer.parseInt(prop.getProperty("multiTrainThreads","1"));
+		arenaTrain.m_xfun.multiTrainThreads = multiTrainThreads;
+		t_Batch.mTrainSweep.setNumThreads(multiTrainThreads);
+		// optional: number of threads playing the episodes of a competition in parallel (default: 1)
+		XArenaFuncs.competeThreads = Integer.parseInt(prop.getProperty("competeThreads","1"));
+
 		String agtFile = args[2];
 		setupPaths(agtFile,csvName);		// builds filePath
 
@@ -12,10 +12,21 @@ import java.text.DecimalFormat;
 public class MTrainSweep {
     protected Evaluator m_evaluatorQ = null;
     protected Evaluator m_evaluatorT = null;
+    protected int numThreads = 1;
 
     public MTrainSweep() {
     }
 
+    /**
+     * @param numThreads if &gt; 1, the training runs of {@link #multiTrainAlphaSweep(int, double[], double[], Arena,
+     *                   XArenaButtons, GameBoard, String) multiTrainAlphaSweep} and {@link #multiTrainLambdaSweep(int,
+     *                   double[], Arena, XArenaButtons, GameBoard, String) multiTrainLambdaSweep} are executed by a
+     *                   {@link ParallelMultiTrainer} with this number of threads (only without GUI)
+     */
+    public void setNumThreads(int numThreads) {
+        this.numThreads = numThreads;
+    }
+
     /**
      * Perform {@code trainNum} cycles of training and evaluation for PlayAgent, and perform
      * each self-play training with maxGameNum training games.
@@ -120,6 +131,37 @@ public class MTrainSweep {
 
     } // multiTrain_M
 
+    /**
+     * Train all runs of {@code pmt} in parallel, print the average evaluation results and return the last agent.
+     */
+    private PlayAgent trainParallel(ParallelMultiTrainer pmt, int n, Arena t_Game, XArenaButtons xab, GameBoard gb,
+                                    int maxGameNum, String csvName, String userTitle1, String userTitle2) {
+        DecimalFormat frm3 = new DecimalFormat("+0.000;-0.000");
+        DecimalFormat frm = new DecimalFormat("#0.000");
+        int trainNum = xab.getTrainNumber();
+
+        PlayAgent pa = pmt.trainAll(n, xab.getSelectedAgent(n), t_Game, xab, gb, maxGameNum, csvName,
+                userTitle1, userTitle2);
+
+        m_evaluatorQ = pmt.getEvaluatorQ();
+        m_evaluatorT = pmt.getEvaluatorT();
+        if (m_evaluatorQ != null && m_evaluatorQ.getMode()!=(-1))
+        // m_mode=-1 signals: 'no evaluation done' --> oC did not receive evaluation results
+        {
+            Measure oQ = pmt.getOQ();
+            System.out.println("Avg. "+ m_evaluatorQ.getPrintString()+frm3.format(oQ.getMean()) + " +- " + frm.format(oQ.getStd()));
+        }
+        if (pmt.getDoTrainEval() && m_evaluatorT.getMode()!=(-1))
+        // m_mode=-1 signals: 'no evaluation done' --> oT did not receive evaluation results
+        {
+            Measure oT = pmt.getOT();
+            System.out.println("Avg. "+ m_evaluatorT.getPrintString()+frm3.format(oT.getMean()) + " +- " + frm.format(oT.getStd()));
+        }
+
+        xab.setTrainNumber(trainNum);
+        return pa;
+    }
+
     private String removeSubstr(String agtBase, String substr) {
         String[] arr = agtBase.split(substr);
         StringBuilder out= new StringBuilder();
@@ -163,6 +205,21 @@ public class MTrainSweep {
 
         System.out.println("*** Starting multi-training with trainNum = "+trainNum+" ***");
 
+        if (numThreads > 1 && !t_Game.hasGUI()) {
+            ParallelMultiTrainer pmt = new ParallelMultiTrainer(numThreads);
+            for (int i=0; i<trainNum; i++) {
+                for (int k=0; k<alphaArr.length; k++) {
+                    double alpha = alphaArr[k];
+                    double alphaFinal = alphaFinalArr[k];
+                    pmt.addRun(i, alpha, alphaFinal, x -> {
+                        x.tdPar[0].setAlpha(alpha);
+                        x.tdPar[0].setAlphaFinal(alphaFinal);
+                    });
+                }
+            }
+            return trainParallel(pmt, n, t_Game, xab, gb, maxGameNum, csvName, userTitle1, userTitle2);
+        }
+
         for (int i=0; i<trainNum; i++) {
             for (int k=0; k<alphaArr.length; k++) {
 
@@ -190,6 +247,8 @@ public class MTrainSweep {
             } // for (k)
         } // for (i)
 
+        m_evaluatorQ = sTrainer.getEvaluatorQ();
+        m_evaluatorT = sTrainer.getEvaluatorT();
         if (m_evaluatorQ.getMode()!=(-1))
         // m_mode=-1 signals: 'no evaluation done' --> oC did not receive evaluation results
         {
@@ -243,6 +302,14 @@ public class MTrainSweep {
 
         System.out.println("*** Starting multi-training with trainNum = "+trainNum+" ***");
 
+        if (numThreads > 1 && !t_Game.hasGUI()) {
+            ParallelMultiTrainer pmt = new ParallelMultiTrainer(numThreads);
+            for (int i=0; i<trainNum; i++)
+                for (double lambda : lambdaArr)
+                    pmt.addRun(i, lambda, 0, x -> x.tdPar[0].setLambda(lambda));
+            return trainParallel(pmt, n, t_Game, xab, gb, maxGameNum, csvName, userTitle1, userTitle2);
+        }
+
         for (int i=0; i<trainNum; i++) {
             for (double lambda : lambdaArr) {
 
@@ -267,6 +334,8 @@ public class MTrainSweep {
             } // for (k)
         } // for (i)
 
+        m_evaluatorQ = sTrainer.getEvaluatorQ();
+        m_evaluatorT = sTrainer.getEvaluatorT();
         if (m_evaluatorQ.getMode()!=(-1))
         // m_mode=-1 signals: 'no evaluation done' --> oC did not receive evaluation results
         {
@@ -343,6 +412,8 @@ public class MTrainSweep {
             } // for (k)
         } // for (i)
 
+        m_evaluatorQ = sTrainer.getEvaluatorQ();
+        m_evaluatorT = sTrainer.getEvaluatorT();
         if (m_evaluatorQ.getMode()!=(-1))
         // m_mode=-1 signals: 'no evaluation done' --> oC did not receive evaluation results
         {
@@ -0,0 +1,200 @@
+package starters;
+
+import controllers.PlayAgent;
+import games.Arena;
+import games.Evaluator;
+import games.GameBoard;
+import games.XArenaButtons;
+import games.XArenaFuncs;
+import tools.Measure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Perform several independent training runs (as in {@link games.XArenaFuncs#multiTrain(int, String, XArenaButtons,
+ * GameBoard, String) XArenaFuncs.multiTrain} or {@link MTrainSweep}) concurrently on a thread pool.
+ * <p>
+ * Each run has its own {@link SingleTrainer} and therefore its own agent, evaluators, {@link MTrain} list and
+ * measures. Each run gets in addition
+ * <ul>
+ *     <li> its own {@link GameBoard}, because start state selection changes the state of the board: the first run
+ *          trains on the board passed to {@link #trainAll}, the others on boards from
+ *          {@link Arena#makeIndependentGameBoard()},
+ *     <li> its own random seed, with which its agent is constructed (random n-tuples, see
+ *          {@link games.XArenaFuncs#constructAgent(int, String, XArenaButtons, Long) XArenaFuncs.constructAgent}) and
+ *          seeded (see {@link PlayAgent#setRandomSeed(long)}). The seeds are drawn from one generator, so that run
+ *          {@code r} always gets the same seed for a given {@code baseSeed}. So the trained agents are
+ *          reproducible. The evaluation results are not, if the evaluators use opponents with their own random
+ *          numbers.
+ * </ul>
+ * Agent and evaluators are constructed from the (shared) settings in {@link XArenaButtons}, so this construction
+ * &ndash; together with the optional per-run parameter setup, e.g. the alpha value of a sweep &ndash; is done
+ * under a lock on {@code xab}. Only the training itself runs in parallel. The evaluations within a run play their
+ * competitions sequentially (see {@link XArenaFuncs#callWithoutParallelCompete}), so that no thread pools nest.
+ * <p>
+ * After each finished run the {@link MTrain} rows of all finished runs are merged <b>in run order</b> and written to
+ * the CSV file, so the file has the same row order as in a sequential multi-training.
+ * <p>
+ * As in the sequential multi-training, the runs stop prematurely if {@code t_Game.taskState} is no longer
+ * {@link Arena.Task#MULTTRN}: a running run after its next evaluation, a waiting run before it starts.
+ * <p>
+ * Usage:
+ * <pre>
+ *     ParallelMultiTrainer pmt = new ParallelMultiTrainer(nThreads);
+ *     for (int i=0; i&lt;trainNum; i++) pmt.addRun(i, userValue1, userValue2, null);
+ *     pa = pmt.trainAll(n, sAgent, t_Game, xab, gb, maxGameNum, csvName, userTitle1, userTitle2);
+ * </pre>
+ */
+public class ParallelMultiTrainer {
+    private final int nThreads;
+    private final long baseSeed;
+    private final ArrayList<Run> runs = new ArrayList<>();
+    private final Measure oQ = new Measure(); // quick eval measure
+    private final Measure oT = new Measure(); // train eval measure
+    private boolean doTrainEvaluation = false;
+    private Evaluator m_evaluatorQ = null;
+    private Evaluator m_evaluatorT = null;
+
+    private static class Run {
+        final int i;
+        final double userValue1, userValue2;
+        final Consumer<XArenaButtons> setup;
+        final SingleTrainer trainer = new SingleTrainer();
+        long seed;
+        PlayAgent pa = null;
+        boolean finished = false;
+
+        Run(int i, double userValue1, double userValue2, Consumer<XArenaButtons> setup) {
+            this.i = i;
+            this.userValue1 = userValue1;
+            this.userValue2 = userValue2;
+            this.setup = setup;
+        }
+    }
+
+    /**
+     * @param nThreads  the number of runs training in parallel
+     */
+    public ParallelMultiTrainer(int nThreads) {
+        this(nThreads, System.currentTimeMillis());
+    }
+
+    /**
+     * @param nThreads  the number of runs training in parallel
+     * @param baseSeed  seed for the generator which draws the per-run seeds
+     */
+    public ParallelMultiTrainer(int nThreads, long baseSeed) {
+        this.nThreads = Math.max(nThreads, 1);
+        this.baseSeed = baseSeed;
+    }
+
+    /**
+     * Add a training run.
+     *
+     * @param i             the run number (column {@code run} in the CSV file)
+     * @param userValue1    user value 1 (column {@code userValue1} in the CSV file)
+     * @param userValue2    user value 2 (column {@code userValue2} in the CSV file)
+     * @param setup         if not null, it is applied to {@code xab} before the agent of this run is constructed
+     *                      (e.g. to set the parameter value of a sweep)
+     */
+    public void addRun(int i, double userValue1, double userValue2, Consumer<XArenaButtons> setup) {
+        runs.add(new Run(i, userValue1, userValue2, setup));
+    }
+
+    /**
+     * Train all runs added with {@link #addRun(int, double, double, Consumer) addRun}.
+     *
+     * @param n             index of agent to train (usually n=0)
+     * @param sAgent        the name of the agent to train
+     * @param t_Game        the arena, needed to construct agents, evaluators and game boards
+     * @param xab           the settings for agent construction
+     * @param gb            the game board for the first run
+     * @param maxGameNum    number of training episodes per run (if -1, take it from the agent)
+     * @param csvName       results are written to {@code agents/<gameDir>/csv/<csvName>}
+     * @param userTitle1    title of column {@code userValue1}
+     * @param userTitle2    title of column {@code userValue2}
+     * @return the trained agent of the last run (in run order)
+     */
+    public PlayAgent trainAll(int n, String sAgent, Arena t_Game, XArenaButtons xab, GameBoard gb, int maxGameNum,
+                              String csvName, String userTitle1, String userTitle2) {
+        Random seedGen = new Random(baseSeed);
+        for (Run run : runs) run.seed = seedGen.nextLong();
+
+        List<Callable<PlayAgent>> tasks = new ArrayList<>();
+        for (Run run : runs) {
+            tasks.add(() -> XArenaFuncs.callWithoutParallelCompete(() -> {
+                if (t_Game.taskState != Arena.Task.MULTTRN) return null;     // stopped before this run started
+                GameBoard runBoard;
+                PlayAgent pa;
+                synchronized (xab) {
+                    if (run.setup != null) run.setup.accept(xab);
+                    runBoard = (run == runs.get(0)) ? gb : t_Game.makeIndependentGameBoard();
+                    pa = run.trainer.constructForTraining(n, sAgent, t_Game, xab, runBoard, run.seed);
+                }
+                if (pa == null) return null;
+                run.trainer.setStopCondition(() -> t_Game.taskState != Arena.Task.MULTTRN);
+
+                pa = run.trainer.trainConstructed(run.i, pa, runBoard, maxGameNum, run.userValue1, run.userValue2, null);
+                finishRun(run, pa, t_Game, csvName, userTitle1, userTitle2);
+                return pa;
+            }));
+        }
+
+        ExecutorService executorService = Executors.newWorkStealingPool(nThreads);
+        try {
+            for (Future<PlayAgent> future : executorService.invokeAll(tasks))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("[ParallelMultiTrainer] interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("[ParallelMultiTrainer] training run failed", e.getCause());
+        } finally {
+            executorService.shutdown();
+        }
+
+        PlayAgent pa = null;
+        for (Run run : runs) {
+            if (run.pa == null) continue;
+            pa = run.pa;
+            oQ.add(run.trainer.getOQ().getVal());
+            if (run.trainer.getDoTrainEval()) oT.add(run.trainer.getOT().getVal());
+            doTrainEvaluation = run.trainer.getDoTrainEval();
+            m_evaluatorQ = run.trainer.getEvaluatorQ();
+            m_evaluatorT = run.trainer.getEvaluatorT();
+        }
+        return pa;
+    }
+
+    /**
+     * Mark {@code run} as finished and write the merged {@link MTrain} rows of all finished runs (in run order) to
+     * {@code csvName}. Synchronized, because several runs may finish at the same time.
+     */
+    private synchronized void finishRun(Run run, PlayAgent pa, Arena t_Game, String csvName,
+                                        String userTitle1, String userTitle2) {
+        run.pa = pa;
+        run.finished = true;
+        ArrayList<MTrain> mtList = new ArrayList<>();
+        for (Run r : runs)
+            if (r.finished) mtList.addAll(r.trainer.getMtList());
+        MTrain.printMultiTrainList(csvName, mtList, pa, t_Game, userTitle1, userTitle2);
+    }
+
+    /**
+     * @return the final quick evaluation results of all runs (valid after {@link #trainAll(int, String, Arena,
+     * XArenaButtons, GameBoard, int, String, String, String) trainAll})
+     */
+    public Measure getOQ() { return oQ; }
+    public Measure getOT() { return oT; }
+    public boolean getDoTrainEval() { return doTrainEvaluation; }
+    public Evaluator getEvaluatorQ() { return m_evaluatorQ; }
+    public Evaluator getEvaluatorT() { return m_evaluatorT; }
+}
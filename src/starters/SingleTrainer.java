@@ -6,6 +6,7 @@ import games.RubiksCube.StateObserverCube;
 import tools.Measure;
 
 import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
 
 public class SingleTrainer {
 
@@ -15,6 +16,10 @@ public class SingleTrainer {
     protected Evaluator m_evaluatorQ = null;
     protected Evaluator m_evaluatorT = null;
 
+    protected int numEval;
+    protected BooleanSupplier stopRequested = () -> false;
+    protected Long seed = null;             // if not null, the agent's random generators are seeded
+
     public SingleTrainer() {
         this.mtList = new ArrayList<>();         // needed for doSingleTraining
         this.oQ = new Measure();                 //
@@ -23,28 +28,51 @@ public class SingleTrainer {
 
     public PlayAgent doSingleTraining(int n, int i, PlayAgent pa, Arena arenaTrain, XArenaButtons xab,
                                       GameBoard gb, int maxGameNum, double userValue1, double userValue2) { //throws IOException  {
-        int numEval = xab.oPar[n].getNumEval();
-        int gameNum;
-        long actionNum, trnMoveNum;
-        double totalTrainSec, elapsedTime;
-        long elapsedMs;
-        int stopEval = 0;
-        MTrain mTrain;
-        EvalResult eresQ, eresT;
-        double evalQ, evalT = 0.0;
+        PlayAgent qa = constructForTraining(n, arenaTrain, xab, gb);
+        if (qa == null) return pa;
+        return trainConstructed(i, qa, gb, maxGameNum, userValue1, userValue2, xab);
+    }
+
+    /**
+     * First part of {@link #doSingleTraining(int, int, PlayAgent, Arena, XArenaButtons, GameBoard, int, double, double)
+     * doSingleTraining}: construct the agent and the evaluators with the current settings of {@code xab}.
+     *
+     * @return the (possibly wrapped) agent or null, if it could not be constructed
+     */
+    public PlayAgent constructForTraining(int n, Arena arenaTrain, XArenaButtons xab, GameBoard gb) {
+        return constructForTraining(n, xab.getSelectedAgent(n), arenaTrain, xab, gb, null);
+    }
+
+    /**
+     * Same as {@link #constructForTraining(int, Arena, XArenaButtons, GameBoard)}, but for agent {@code sAgent} and
+     * - if {@code seed} is not null - reproducible (see {@link games.XArenaFuncs#constructAgent(int, String,
+     * XArenaButtons, Long) XArenaFuncs.constructAgent}).
+     *
+     * @return the (possibly wrapped) agent or null, if it could not be constructed
+     */
+    public PlayAgent constructForTraining(int n, String sAgent, Arena arenaTrain, XArenaButtons xab, GameBoard gb,
+                                          Long seed) {
+        PlayAgent pa;
 
         // Construct agent anew with the settings of xab. Necessary to build a new set of random n-tuples in each run
         // (if random n-tuple creation is specified)
         try {
-            String sAgent = xab.getSelectedAgent(n);
-            pa = arenaTrain.m_xfun.constructAgent(n, sAgent, xab);
-            pa = arenaTrain.m_xfun.wrapAgentTrain(pa, pa.getParOther(), pa.getParWrapper(), null, gb.getDefaultStartState(null));
+            pa = arenaTrain.m_xfun.constructAgent(n, sAgent, xab, seed);
             if (pa == null) throw new RuntimeException("Could not construct AgentX = " + sAgent);
+            pa = arenaTrain.m_xfun.wrapAgentTrain(pa, pa.getParOther(), pa.getParWrapper(), null, gb.getDefaultStartState(null));
+            if (pa == null) throw new RuntimeException("Could not wrap agent = " + sAgent);
+            this.seed = seed;
+            if (seed != null) pa.setRandomSeed(seed);      // a wrapper re-seeds its wrapped agent as well
         } catch (RuntimeException e) {
             e.printStackTrace(System.err);
-            return pa;
+            return null;
         }
 
+        // numEval needs to be set *after* constructAgent (which contains xab.oPar[n].pushFromOTParams)
+        numEval = xab.oPar[n].getNumEval();
+        if (numEval == 0)
+            numEval = 500; // just for safety, to avoid ArithmeticException in 'gameNum%numEval' below
+
 
         int qem = xab.oPar[n].getQuickEvalMode();
         m_evaluatorQ = xab.m_arena.makeEvaluator(pa, gb, qem, 1);
@@ -57,6 +85,28 @@ public class SingleTrainer {
         if (doTrainEvaluation)
             m_evaluatorT = xab.m_arena.makeEvaluator(pa, gb, tem, 1);
 
+        return pa;
+    }
+
+    /**
+     * Second part of {@link #doSingleTraining(int, int, PlayAgent, Arena, XArenaButtons, GameBoard, int, double, double)
+     * doSingleTraining}: train agent {@code pa}, which was constructed by {@link #constructForTraining(int, Arena,
+     * XArenaButtons, GameBoard) constructForTraining}, and add the evaluation results to {@code mtList}.
+     *
+     * @param xab   if not null, it receives the number of games trained so far (GUI display). Pass null, if several
+     *              runs train in parallel.
+     * @return the trained agent
+     */
+    public PlayAgent trainConstructed(int i, PlayAgent pa, GameBoard gb, int maxGameNum,
+                                      double userValue1, double userValue2, XArenaButtons xab) {
+        int gameNum;
+        long actionNum, trnMoveNum;
+        double totalTrainSec, elapsedTime;
+        long elapsedMs;
+        MTrain mTrain;
+        EvalResult eresQ, eresT;
+        double evalQ, evalT = 0.0;
+
         System.out.println(pa.stringDescr());
         System.out.println(pa.stringDescr2());
 
@@ -85,7 +135,7 @@ public class SingleTrainer {
                 System.out.println(pa.printTrainStatus() + ", " + elapsedTime + " sec");
                 startTime = System.currentTimeMillis();
 
-                xab.setGameNumber(gameNum);
+                if (xab != null) xab.setGameNumber(gameNum);
 
                 eresQ = m_evaluatorQ.eval(pa);
                 evalQ = eresQ.getResult();
@@ -108,6 +158,11 @@ public class SingleTrainer {
                 elapsedMs = (System.currentTimeMillis() - startTime);
                 pa.incrementDurationEvaluationMs(elapsedMs);
 
+                // the random numbers the agent drew during evaluation must not change the rest of its training:
+                if (seed != null) pa.setRandomSeed(seed + gameNum);
+
+                if (stopRequested.getAsBoolean()) break;     // premature exit, see setStopCondition
+
                 startTime = System.currentTimeMillis();
             }    // if (gameNum%numEval==0 )
         } // while
@@ -129,6 +184,15 @@ public class SingleTrainer {
         return pa;
     }
 
+    /**
+     * @param stopRequested     checked after each evaluation in {@link #trainConstructed(int, PlayAgent, GameBoard,
+     *                          int, double, double, XArenaButtons) trainConstructed}: if it returns true, the training
+     *                          run is stopped prematurely (default: never)
+     */
+    public void setStopCondition(BooleanSupplier stopRequested) {
+        this.stopRequested = stopRequested;
+    }
+
     public ArrayList<MTrain> getMtList() {
         return this.mtList;
     }
@@ -136,4 +200,6 @@ public class SingleTrainer {
     public Measure getOQ() { return this.oQ; }
     public Measure getOT() { return this.oT; }
     public boolean getDoTrainEval() { return doTrainEvaluation; }
+    public Evaluator getEvaluatorQ() { return m_evaluatorQ; }
+    public Evaluator getEvaluatorT() { return m_evaluatorT; }
 }
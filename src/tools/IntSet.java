@@ -0,0 +1,93 @@
+package tools;
+
+/**
+ * A small set of {@code int}s with open addressing (linear probing). It is meant for sets that are
+ * filled and cleared very often, e.g. the LUT indices visited during one n-tuple weight update
+ * (see {@link controllers.TD.ntuple4.NTuple4} and {@link controllers.TD.ntuple2.NTuple2}):
+ * <ul>
+ * <li> {@link #add(int)} and {@link #contains(int)} do not box and do not allocate (except when the table grows)
+ * <li> {@link #clear()} is O(1): each slot carries the generation in which it was written, and clearing just starts
+ * 		a new generation
+ * </ul>
+ * The table doubles when it is more than half full, so that a set which needs at most n elements allocates
+ * its memory only once.
+ */
+public class IntSet {
+	private int[] keys;
+	private int[] stamps;		// stamps[i]==gen: slot i is occupied in the current generation
+	private int gen = 1;
+	private int size = 0;
+	private int mask;
+	private int shift;			// 32 - log2(table length)
+
+	public IntSet() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity the expected maximum number of elements (the table is rounded up to a power of 2)
+	 */
+	public IntSet(int capacity) {
+		int n = Integer.highestOneBit(Math.max(2*capacity-1, 2)) << 1;
+		keys = new int[n];
+		stamps = new int[n];
+		mask = n-1;
+		shift = Integer.numberOfLeadingZeros(n)+1;
+	}
+
+	/**
+	 * @param k the element to add
+	 * @return true, if {@code k} was not yet in the set
+	 */
+	public boolean add(int k) {
+		int i = slot(k);
+		if (stamps[i]==gen) return false;
+		keys[i] = k;
+		stamps[i] = gen;
+		if (++size > (mask+1)/2) grow();
+		return true;
+	}
+
+	public boolean contains(int k) {
+		return stamps[slot(k)]==gen;
+	}
+
+	/**
+	 * @return the slot holding {@code k} or the free slot where {@code k} would be inserted
+	 */
+	private int slot(int k) {
+		int i = (k * 0x9E3779B9) >>> shift;		// Fibonacci hashing
+		while (stamps[i]==gen && keys[i]!=k)
+			i = (i+1) & mask;
+		return i;
+	}
+
+	public void clear() {
+		size = 0;
+		if (++gen == Integer.MAX_VALUE) {		// (practically never) restart the generations
+			java.util.Arrays.fill(stamps, 0);
+			gen = 1;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys, oldStamps = stamps;
+		int oldGen = gen;
+		keys = new int[2*oldKeys.length];
+		stamps = new int[2*oldKeys.length];
+		mask = keys.length-1;
+		shift--;
+		gen = 1;
+		for (int j=0; j<oldKeys.length; j++) {
+			if (oldStamps[j]==oldGen) {
+				int i = slot(oldKeys[j]);
+				keys[i] = oldKeys[j];
+				stamps[i] = gen;
+			}
+		}
+	}
+}
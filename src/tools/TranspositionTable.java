@@ -0,0 +1,163 @@
+package tools;
+
+import java.util.Arrays;
+
+import controllers.ExpectimaxNAgent;
+import controllers.MaxNAgent;
+import games.StateObservation;
+
+/**
+ *  A fixed-size transposition table which stores {@link ScoreTuple}s under 64-bit keys
+ *  (see {@link StateObservation#getHashKey()}). It is the bounded-memory alternative to the
+ *  {@code HashMap<String,ScoreTuple>} in {@link MaxNAgent} and {@link ExpectimaxNAgent}.
+ *  <p>
+ *  The table holds {@code 2^bits} entries in primitive arrays (no objects per entry). A key is mapped to a bucket of
+ *  two neighboring entries (open addressing with bucket size 2). Each entry has the remaining search depth with which
+ *  its score tuple was calculated. The replacement policy is:
+ *  <ol>
+ *  <li> an entry with the same key is overwritten, if the new depth is not lower,
+ *  <li> else an empty entry is taken,
+ *  <li> else the entry with the lower depth is replaced (depth-preferred, on ties the second one).
+ *  </ol>
+ *  {@link #retrieve(long, int)} returns only tuples calculated with at least the requested depth.
+ *  <p>
+ *  Each entry may also hold the best move found for its state (as slot in the list of available actions), which
+ *  a search can use for move ordering. An entry may hold only a move and no score tuple, e.g. if the search
+ *  result was just a bound (see {@link #store(long, int, ScoreTuple, int)}).
+ *
+ *	@see ZobristKeys
+ */
+public class TranspositionTable {
+	/**
+	 * the largest allowed {@code bits} (2^26 entries need about 1.3 GB for 2 players)
+	 */
+	public static final int MAX_BITS = 26;
+
+	/**
+	 * the largest depth which is stored, larger depths are stored as {@code MAX_DEPTH}
+	 */
+	public static final int MAX_DEPTH = Byte.MAX_VALUE - 1;
+
+	private final int numPlayers;
+	private final int mask;
+	private final long[] keys;
+	private final byte[] depths;		// remaining depth + 1, 0 marks an empty entry
+	private final boolean[] scored;		// false: the entry holds only a best move
+	private final short[] moves;		// best move slot + 1, 0: none
+	private final int[] counts;			// ScoreTuple.count
+	private final double[] values;		// numPlayers values per entry
+
+	/**
+	 * @param bits			the table has {@code 2^bits} entries
+	 * @param numPlayers	length of the stored score tuples
+	 * @throws IllegalArgumentException if {@code bits} is not in [1, {@link #MAX_BITS}]
+	 */
+	public TranspositionTable(int bits, int numPlayers) {
+		if (bits < 1 || bits > MAX_BITS)
+			throw new IllegalArgumentException("[TranspositionTable] bits="+bits+" has to be in [1,"+MAX_BITS+"]");
+		int size = 1 << bits;
+		this.numPlayers = numPlayers;
+		this.mask = size - 1;
+		this.keys = new long[size];
+		this.depths = new byte[size];
+		this.scored = new boolean[size];
+		this.moves = new short[size];
+		this.counts = new int[size];
+		this.values = new double[size * numPlayers];
+	}
+
+	public int getNumPlayers() {
+		return numPlayers;
+	}
+
+	private int bucket(long key) {
+		return (int) (ZobristKeys.mix(key) & mask) & ~1;
+	}
+
+	/**
+	 * @param key	the state key
+	 * @param depth	the remaining depth the caller needs
+	 * @return the stored score tuple for {@code key} or {@code null}, if there is none with at least {@code depth}
+	 */
+	public ScoreTuple retrieve(long key, int depth) {
+		int b = bucket(key);
+		for (int i=b; i<=b+1; i++) {
+			if (depths[i]!=0 && keys[i]==key) {
+				if (!scored[i] || depths[i]-1 < depth) return null;
+				ScoreTuple sc = new ScoreTuple(numPlayers);
+				System.arraycopy(values, i*numPlayers, sc.scTup, 0, numPlayers);
+				sc.count = counts[i];
+				return sc;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Store {@code sc} under {@code key} according to the replacement policy (see class description).
+	 *
+	 * @param key	the state key
+	 * @param depth	the remaining depth with which {@code sc} was calculated
+	 * @param sc	the score tuple
+	 */
+	public void store(long key, int depth, ScoreTuple sc) {
+		store(key, depth, sc, -1);
+	}
+
+	/**
+	 * Store {@code sc} and the best move under {@code key}. The score tuple is subject to the replacement policy
+	 * (see class description), the move of an entry with the same key is always updated.
+	 *
+	 * @param key	the state key
+	 * @param depth	the remaining depth with which {@code sc} (or {@code move}) was calculated
+	 * @param sc	the score tuple, null: store only the move
+	 * @param move	slot of the best move in the available actions, -1: none (keep the move stored for {@code key})
+	 */
+	public void store(long key, int depth, ScoreTuple sc, int move) {
+		int b = bucket(key);
+		int d = Math.min(depth, MAX_DEPTH) + 1;
+		int slot;
+		if (depths[b]!=0 && keys[b]==key) {
+			slot = b;
+		} else if (depths[b+1]!=0 && keys[b+1]==key) {
+			slot = b+1;
+		} else {
+			if (depths[b]==0) {
+				slot = b;
+			} else if (depths[b+1]==0) {
+				slot = b+1;
+			} else {
+				slot = (depths[b] < depths[b+1]) ? b : b+1;
+			}
+			keys[slot] = key;
+			depths[slot] = (byte) d;
+			scored[slot] = false;
+			moves[slot] = 0;
+		}
+		if (move >= 0) moves[slot] = (short) (move + 1);
+		if (sc != null) {
+			if (scored[slot] && d < depths[slot]) return;
+			scored[slot] = true;
+			counts[slot] = sc.count;
+			System.arraycopy(sc.scTup, 0, values, slot*numPlayers, numPlayers);
+			depths[slot] = (byte) d;
+		} else if (!scored[slot]) {
+			depths[slot] = (byte) d;
+		}
+	}
+
+	/**
+	 * @param key	the state key
+	 * @return the best move stored for {@code key} (slot in the available actions) or -1, if there is none
+	 */
+	public int retrieveMove(long key) {
+		int b = bucket(key);
+		for (int i=b; i<=b+1; i++)
+			if (depths[i]!=0 && keys[i]==key) return moves[i] - 1;
+		return -1;
+	}
+
+	public void clear() {
+		Arrays.fill(depths, (byte) 0);
+	}
+}
@@ -0,0 +1,66 @@
+package tools;
+
+import java.util.Random;
+
+import games.StateObservation;
+
+/**
+ *  Helpers for 64-bit state keys, as returned by {@link StateObservation#getHashKey()}.
+ *  <ul>
+ *  <li> {@link #createTable(int, int, long)} creates the random numbers for Zobrist hashing: a state's key is the
+ *  	 XOR of the table entries of all (cell, value)-pairs on the board, and it can be updated incrementally in
+ *  	 {@code advance}.
+ *  <li> {@link #mix(long)} and {@link #combine(long, long)} build keys for states which are fully described
+ *  	 by a few {@code long} or {@code int} values.
+ *  <li> {@link #hashString(String)} is the fallback for states which have only a string description.
+ *  </ul>
+ *
+ *	@see TranspositionTable
+ */
+public class ZobristKeys {
+
+	private ZobristKeys() {}
+
+	/**
+	 * @param numCells	number of board cells
+	 * @param numValues	number of (non-empty) values a cell can take
+	 * @param seed		the seed, so that keys are the same in each JVM run
+	 * @return	a table {@code long[numCells][numValues]} of random numbers
+	 */
+	public static long[][] createTable(int numCells, int numValues, long seed) {
+		Random rand = new Random(seed);
+		long[][] table = new long[numCells][numValues];
+		for (int i=0; i<numCells; i++)
+			for (int j=0; j<numValues; j++)
+				table[i][j] = rand.nextLong();
+		return table;
+	}
+
+	/**
+	 * The finalizer of SplitMix64: a bijective mapping of {@code long}s with good avalanche behavior.
+	 */
+	public static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return a key for the pair {@code (key, value)}, to be used in a chain {@code combine(combine(k,v1),v2)...}
+	 */
+	public static long combine(long key, long value) {
+		return mix(key * 0x9E3779B97F4A7C15L + value);
+	}
+
+	/**
+	 * FNV-1a hash with 64 bits
+	 */
+	public static long hashString(String s) {
+		long h = 0xCBF29CE484222325L;
+		for (int i=0; i<s.length(); i++) {
+			h ^= s.charAt(i);
+			h *= 0x100000001B3L;
+		}
+		return h;
+	}
+}
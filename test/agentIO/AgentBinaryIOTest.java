@@ -0,0 +1,119 @@
+package agentIO;
+
+import controllers.AgentBase;
+import controllers.PlayAgent;
+import controllers.TD.ntuple4.NTuple4;
+import controllers.TD.ntuple4.NTuple4Base;
+import games.Arena;
+import games.StateObservation;
+import org.junit.Test;
+import params.ParNT;
+import starters.GBGBatch;
+import starters.SetupGBG;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Save an Othello TD-Ntuple-4 agent as {@code *.agt.zip} and as {@code *.agt.bin} (see {@link AgentBinaryIO}) and check
+ * that the binary file loads - into heap arrays and memory-mapped - to the same LUT weights, for all three weight
+ * precisions. Prints the load times.
+ * <p>
+ * The agent is saved without {@link controllers.PlayAgent#getParReplay() ParReplay}, as older agents on disk are: each
+ * file format has to fill in the default.
+ * <p>
+ * A TicTacToe TD-Ntuple-3 agent (its LUTs are part of the streamed metadata) gives the same values after a binary
+ * round trip, and a truncated binary file is rejected with an {@link IOException}.
+ */
+public class AgentBinaryIOTest {
+    String selectedGame = "Othello";
+    String[] scaPar = GBGBatch.setDefaultScaPars(selectedGame);
+
+    @Test
+    public void saveLoadBinary_T() throws IOException, ReflectiveOperationException {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame, scaPar, "", false, true);
+        LoadSaveGBG tdAgentIO = new LoadSaveGBG(arena, null);
+        String dir = System.getProperty("java.io.tmpdir");
+
+        for (int prec : new int[]{ParNT.PREC_DOUBLE, ParNT.PREC_FLOAT, ParNT.PREC_INT16}) {
+            arena.m_xab.ntPar[0].setWeightPrecision(prec);
+            PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+            StateObservation so = arena.getGameBoard().getDefaultStartState(null);
+            for (int k=0; k<20; k++) pa.trainAgent(so);     // a few non-zero weights
+            Field rbPar = AgentBase.class.getDeclaredField("m_rbPar");
+            rbPar.setAccessible(true);
+            rbPar.set(pa, null);                            // as in older agents
+
+            String zipPath = dir + "/binaryIOTest.agt.zip";
+            String binPath = dir + "/binaryIOTest" + AgentBinaryIO.SUFFIX;
+            tdAgentIO.saveGBGAgent(pa, zipPath);
+            tdAgentIO.saveGBGAgent(pa, binPath);
+
+            long t0 = System.currentTimeMillis();
+            PlayAgent paZip = tdAgentIO.loadGBGAgent(zipPath);
+            long t1 = System.currentTimeMillis();
+            PlayAgent paHeap = tdAgentIO.loadGBGAgent(binPath);
+            long t2 = System.currentTimeMillis();
+            PlayAgent paMapped = tdAgentIO.loadGBGAgentMapped(binPath);
+            long t3 = System.currentTimeMillis();
+            System.out.println("[saveLoadBinary_T] precision "+prec+": "
+                    + new File(zipPath).length()/1024 + " kB zip loads in "+(t1-t0)+" ms, "
+                    + new File(binPath).length()/1024 + " kB bin loads in "+(t2-t1)+" ms (heap), "+(t3-t2)+" ms (mapped)");
+
+            NTuple4[] nt = ((NTuple4Base) pa).getNTupleValueFunc().getNTuples();
+            for (PlayAgent qa : new PlayAgent[]{paZip, paHeap, paMapped}) {
+                NTuple4[] nq = ((NTuple4Base) qa).getNTupleValueFunc().getNTuples();
+                assertEquals(nt.length, nq.length);
+                assertNotNull(qa.getParReplay());
+                for (int i=0; i<nt.length; i++) {
+                    assertEquals(prec, nq[i].getWeightPrecision());
+                    assertArrayEquals(nt[i].getWeights(), nq[i].getWeights(), 0.0);
+                }
+            }
+            assertTrue(((NTuple4Base) paMapped).getNTupleValueFunc().getNTuples()[0].isMapped());
+
+            // a memory-mapped agent re-saved as *.agt.zip has its LUTs written as usual
+            tdAgentIO.saveGBGAgent(paMapped, zipPath);
+            PlayAgent paZip2 = tdAgentIO.loadGBGAgent(zipPath);
+            NTuple4[] nz = ((NTuple4Base) paZip2).getNTupleValueFunc().getNTuples();
+            for (int i=0; i<nt.length; i++)
+                assertArrayEquals(nt[i].getWeights(), nz[i].getWeights(), 0.0);
+        }
+    }
+
+    @Test
+    public void binaryNTuple2_T() throws IOException {
+        Arena arena = SetupGBG.setupSelectedGame("TicTacToe", GBGBatch.setDefaultScaPars("TicTacToe"), "",
+                false, true);
+        LoadSaveGBG tdAgentIO = new LoadSaveGBG(arena, null);
+        String binPath = System.getProperty("java.io.tmpdir") + "/binaryIOTest3" + AgentBinaryIO.SUFFIX;
+
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-3", arena.m_xab);
+        for (int k=0; k<100; k++) pa.trainAgent(arena.getGameBoard().getDefaultStartState(null));
+        tdAgentIO.saveGBGAgent(pa, binPath);
+        PlayAgent qa = tdAgentIO.loadGBGAgent(binPath);
+        StateObservation so = arena.getGameBoard().getDefaultStartState(null);
+        while (!so.isGameOver()) {
+            assertArrayEquals(so.stringDescr(), pa.getScoreTuple(so, null).scTup, qa.getScoreTuple(so, null).scTup, 0.0);
+            so.advance(so.getAction(0), null);
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(binPath, "rw")) {
+            raf.setLength(raf.length() / 2);
+        }
+        try {
+            tdAgentIO.loadGBGAgent(binPath);
+            fail("a truncated file should throw an IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package controllers.MCTS;
+
+import games.CFour.StateObserverC4;
+import games.StateObservation;
+import games.TicTacToe.StateObserverTTT;
+import org.junit.Test;
+import params.ParMCTS;
+import params.ParOther;
+import tools.ElapsedCpuTimer;
+import tools.Types;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the tree re-use of {@link MCTSAgentT} ({@link ParMCTS#getReuseTree()}):
+ * <ul>
+ *     <li> from the 2nd move on, the root node has more visits than the iterations of one search
+ *     <li> after {@link MCTSAgentT#resetAgent()} (new episode) nothing is re-used
+ *     <li> {@link SingleTreeNode#makeRoot(int)} prunes the tree to the maximum number of nodes
+ *     <li> a serialized {@link ParMCTS} keeps its tree re-use parameters
+ * </ul>
+ */
+public class MCTSTreeReuseTest {
+
+    private static MCTSAgentT agent(StateObservation so, boolean reuse) {
+        ParMCTS parMCTS = new ParMCTS();
+        parMCTS.setNumIter(2000);
+        parMCTS.setReuseTree(reuse);
+        return new MCTSAgentT("MCTS", so, parMCTS, new ParOther());
+    }
+
+    @Test
+    public void reuseTree_T() {
+        Random rand = new Random(42);
+        for (StateObservation start : new StateObservation[]{new StateObserverTTT(), new StateObserverC4()}) {
+            MCTSAgentT mcts = agent(start, true);
+            for (int episode=0; episode<3; episode++) {
+                mcts.resetAgent();
+                StateObservation so = start.copy();
+                int moves = 0, reused = 0;
+                while (!so.isGameOver()) {
+                    if (so.getPlayer() == 0) {
+                        Types.ACTIONS_VT act = mcts.getNextAction2(so.partialState(), false, true, true);
+                        int visits = mcts.getNRootVisits();
+                        if (moves == 0)
+                            assertEquals(mcts.getNIterations(), visits);
+                        else if (visits > mcts.getNIterations())
+                            reused++;
+                        so.advance(act, null);
+                        moves++;
+                    } else {
+                        // the opponent plays random moves (the tree has a node for them with high probability)
+                        so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+                    }
+                }
+                System.out.println("[reuseTree] "+start.getClass().getSimpleName()+": "+reused+" of "+(moves-1)+" moves re-used a subtree");
+                assertTrue(moves <= 2 || reused > 0);
+            }
+        }
+    }
+
+    @Test
+    public void makeRoot_T() {
+        StateObserverC4 so = new StateObserverC4();
+        MCTSAgentT mcts = agent(so, false);
+        SingleMCTSPlayer player = new SingleMCTSPlayer(mcts, new Random(1), mcts.getParMCTS());
+        player.initActions(so);
+        player.init(so);
+        ElapsedCpuTimer timer = new ElapsedCpuTimer();
+        timer.setMaxTimeMillis(40);
+        player.run(timer, new double[so.getNumAvailableActions()+1]);
+
+        // take the most visited grandchild as new root:
+        SingleTreeNode best = null;
+        for (SingleTreeNode c : player.m_root.children)
+            for (SingleTreeNode g : c.children)
+                if (g != null && (best == null || g.getNVisits() > best.getNVisits())) best = g;
+        assertTrue(best.numDescendants() > 20);
+
+        int visits = best.getNVisits();
+        int kept = best.makeRoot(20);
+        assertNull(best.parent);
+        assertEquals(kept, best.numDescendants());
+        assertTrue(kept <= 20);
+        assertEquals(visits - 1, best.getNVisits());              // without the 'birth' visit
+        assertEquals(0.0, best.totValue, 0.0);                      // as for a new root
+    }
+
+    @Test
+    public void serialize_T() throws Exception {
+        for (int maxNodes : new int[]{0, 1234}) {
+            ParMCTS par = new ParMCTS();
+            par.setReuseTree(true);
+            par.setMaxNodes(maxNodes);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+                oos.writeObject(par);
+            }
+            ParMCTS read;
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+                read = (ParMCTS) ois.readObject();
+            }
+            assertEquals(maxNodes, read.getMaxNodes());             // a stored 0 (no limit) is kept
+            assertTrue(read.getReuseTree());
+            assertEquals(par.getNumIter(), read.getNumIter());
+            assertEquals(par.getK_UCT(), read.getK_UCT(), 0.0);
+        }
+    }
+}
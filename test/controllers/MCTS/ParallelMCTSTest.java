@@ -0,0 +1,143 @@
+package controllers.MCTS;
+
+import games.CFour.StateObserverC4;
+import games.StateObservation;
+import games.TicTacToe.StateObserverTTT;
+import org.junit.Test;
+import params.ParMCTS;
+import params.ParOther;
+import tools.ElapsedCpuTimer;
+import tools.Types;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the root parallelization of {@link MCTSAgentT} ({@link ParMCTS#getNumThreads()}):
+ * <ul>
+ *     <li> after merging, the root has the visits of all trees
+ *     <li> both merge modes ([sum] and [vote]) find the winning move in TicTacToe and return legal moves
+ *     <li> {@link SingleTreeNode#mergeRoot(SingleTreeNode)} adopts the children which only the other tree has
+ *     <li> an interrupted parallel search returns the result of the first tree
+ * </ul>
+ */
+public class ParallelMCTSTest {
+
+    private static MCTSAgentT agent(StateObservation so, int numThreads, int mergeMode, boolean reuse) {
+        ParMCTS parMCTS = new ParMCTS();
+        parMCTS.setNumIter(1000);
+        parMCTS.setNumThreads(numThreads);
+        parMCTS.setMergeMode(mergeMode);
+        parMCTS.setReuseTree(reuse);
+        return new MCTSAgentT("MCTS", so, parMCTS, new ParOther());
+    }
+
+    @Test
+    public void mergedVisits_T() {
+        StateObserverC4 so = new StateObserverC4();
+        for (int mergeMode : new int[]{0, 1}) {
+            MCTSAgentT mcts = agent(so, 4, mergeMode, false);
+            Types.ACTIONS_VT act = mcts.getNextAction2(so.partialState(), false, true, true);
+            assertTrue(so.getAvailableActions().contains(act));
+            // each tree has added its visits of the expanded root children (C4: all 7 children are expanded):
+            assertEquals(4 * mcts.getNIterations(), mcts.getNRootVisits());
+        }
+    }
+
+    @Test
+    public void winningMove_T() {
+        // X (player 0) to move, it wins with the move to cell 2:
+        //   X X .
+        //   O O .
+        //   . . .
+        StateObserverTTT so = new StateObserverTTT();
+        for (int a : new int[]{0, 3, 1, 4}) so.advance(new Types.ACTIONS(a), null);
+        for (int mergeMode : new int[]{0, 1}) {
+            MCTSAgentT mcts = agent(so, 4, mergeMode, false);
+            assertEquals(2, mcts.getNextAction2(so.partialState(), false, true, true).toInt());
+        }
+    }
+
+    @Test
+    public void mergeRoot_T() {
+        // with 3 iterations each tree expands only 3 of the 7 children of the C4 root:
+        StateObserverC4 so = new StateObserverC4();
+        MCTSAgentT mcts = agent(so, 1, 0, false);
+        mcts.getParMCTS().setNumIter(3);
+        SingleTreeNode[] roots = new SingleTreeNode[2];
+        ElapsedCpuTimer timer = new ElapsedCpuTimer();
+        timer.setMaxTimeMillis(1000);
+        for (int k=0; k<2; k++) {
+            SingleMCTSPlayer player = new SingleMCTSPlayer(mcts, new Random(k+1), mcts.getParMCTS());
+            player.initActions(so);
+            player.init(so);
+            player.run(timer, new double[so.getNumAvailableActions()+1]);
+            roots[k] = player.m_root;
+        }
+        SingleTreeNode root = roots[0], other = roots[1];
+        int[] visits = new int[root.children.length];
+        int adopted = 0;
+        for (int i=0; i<visits.length; i++) {
+            if (root.children[i] != null) visits[i] += root.children[i].getNVisits();
+            if (other.children[i] != null) visits[i] += other.children[i].getNVisits();
+            if (root.children[i] == null && other.children[i] != null) adopted++;
+        }
+        assertTrue(adopted > 0);
+
+        root.mergeRoot(other);
+        int sum = 0;
+        for (int i=0; i<visits.length; i++) {
+            sum += visits[i];
+            if (visits[i] == 0) continue;
+            SingleTreeNode c = root.children[i];
+            assertEquals(visits[i], c.getNVisits());
+            assertSame(root, c.parent);
+            if (other.children[i] != null) assertNotSame(other.children[i].m_state, c.m_state);
+        }
+        assertEquals(6, sum);
+        assertEquals(6, root.getNVisits());
+    }
+
+    @Test
+    public void interrupted_T() {
+        StateObserverC4 so = new StateObserverC4();
+        MCTSAgentT mcts = agent(so, 4, 0, false);
+        Thread.currentThread().interrupt();     // the search waits for the other trees after the first one
+        Types.ACTIONS_VT act = mcts.getNextAction2(so.partialState(), false, true, true);
+        assertTrue(Thread.interrupted());
+        assertTrue(so.getAvailableActions().contains(act));
+        assertEquals(mcts.getNIterations(), mcts.getNRootVisits());
+
+        // the next search merges all trees again (with new ones for the interrupted trees):
+        mcts.getNextAction2(so.partialState(), false, true, true);
+        assertEquals(4 * mcts.getNIterations(), mcts.getNRootVisits());
+        mcts.shutdownPool();
+        mcts.getNextAction2(so.partialState(), false, true, true);
+        assertEquals(4 * mcts.getNIterations(), mcts.getNRootVisits());
+        mcts.shutdownPool();
+    }
+
+    @Test
+    public void reuseEpisodes_T() {
+        Random rand = new Random(42);
+        for (int mergeMode : new int[]{0, 1}) {
+            StateObservation start = new StateObserverC4();
+            MCTSAgentT mcts = agent(start, 3, mergeMode, true);
+            for (int episode=0; episode<2; episode++) {
+                mcts.resetAgent();
+                StateObservation so = start.copy();
+                while (!so.isGameOver()) {
+                    Types.ACTIONS act = (so.getPlayer() == 0)
+                            ? mcts.getNextAction2(so.partialState(), false, true, true)
+                            : so.getAction(rand.nextInt(so.getNumAvailableActions()));
+                    assertTrue(so.getAvailableActions().contains(act));
+                    so.advance(act, null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package controllers.MCTSWrapper;
+
+import controllers.MCTSWrapper.stateApproximation.PlayAgentApproximator;
+import controllers.MCTSWrapper.utils.Tuple;
+import controllers.PlayAgent;
+import games.Arena;
+import games.StateObservation;
+import org.junit.Test;
+import params.ParOther;
+import starters.SetupGBG;
+import tools.Types;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the batched leaf evaluation of {@link MCTSWrapperAgent} ({@link params.ParWrapper#getWrapperMCTS_batchSize()}):
+ * <ul>
+ *     <li> {@link PlayAgentApproximator#predictBatch(List)} with a TD-Ntuple-4 agent gives the same values and move
+ *          probabilities as {@link PlayAgentApproximator#predict(StateObservation)}
+ *     <li> the batched search of {@link MCTSWrapperAgent} returns legal moves
+ * </ul>
+ */
+public class BatchPredictTest {
+    String selectedGame = "TicTacToe";
+    String[] scaPar = starters.GBGBatch.setDefaultScaPars(selectedGame);
+
+    private PlayAgent trainedAgent(Arena arena) {
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+        for (int k=0; k<300; k++)
+            pa.trainAgent(arena.getGameBoard().getDefaultStartState(null));
+        return pa;
+    }
+
+    @Test
+    public void predictBatch_T() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        PlayAgentApproximator approximator = new PlayAgentApproximator(trainedAgent(arena));
+
+        // the states of random episodes, evaluated in batches of different size:
+        Random rand = new Random(42);
+        ArrayList<StateObservation> states = new ArrayList<>();
+        for (int episode=0; episode<10; episode++) {
+            StateObservation so = arena.getGameBoard().getDefaultStartState(null);
+            while (!so.isGameOver()) {
+                states.add(so.copy());
+                so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+            }
+        }
+        for (int batchSize : new int[]{1, 5, states.size()}) {
+            for (int start=0; start<states.size(); start+=batchSize) {
+                List<StateObservation> batch = states.subList(start, Math.min(start+batchSize, states.size()));
+                List<Tuple<Double, double[]>> batched = approximator.predictBatch(batch);
+                assertEquals(batch.size(), batched.size());
+                for (int i=0; i<batch.size(); i++) {
+                    Tuple<Double, double[]> single = approximator.predict(batch.get(i));
+                    assertEquals(batch.get(i).stringDescr(), single.element1, batched.get(i).element1, 0.0);
+                    assertArrayEquals(batch.get(i).stringDescr(), single.element2, batched.get(i).element2, 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void batchedSearch_T() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        PlayAgentApproximator approximator = new PlayAgentApproximator(trainedAgent(arena));
+        MCTSWrapperAgent wrapper = new MCTSWrapperAgent(200, 1.0, approximator, "MCTS-Wrapped", -1, new ParOther());
+        wrapper.getParWrapper().setWrapperMCTS_batchSize(8);
+
+        Random rand = new Random(42);
+        for (int episode=0; episode<5; episode++) {
+            wrapper.resetAgent();
+            StateObservation so = arena.getGameBoard().getDefaultStartState(null);
+            while (!so.isGameOver()) {
+                Types.ACTIONS act = (so.getPlayer() == 0)
+                        ? wrapper.getNextAction2(so.partialState(), false, true, true)
+                        : so.getAction(rand.nextInt(so.getNumAvailableActions()));
+                assertTrue(so.getAvailableActions().contains(act));
+                so.advance(act, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package controllers;
+
+import games.CFour.StateObserverC4;
+import games.StateObservation;
+import games.TicTacToe.StateObserverTTT;
+import org.junit.Test;
+import params.ParMaxN;
+import params.ParOther;
+import tools.Types;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check that the alpha-beta search of {@link MaxNAgent} ({@link ParMaxN#getMaxNAlphaBeta()}) yields the same root
+ * value and the same set of best moves as plain Max-N, with and without transposition table:
+ * <ul>
+ *     <li> TicTacToe: random positions, searched to the end of the game
+ *     <li> ConnectFour: random positions, searched with a limited depth
+ * </ul>
+ */
+public class MaxNAlphaBetaTest {
+
+    private static MaxNAgent alphaBeta(int depth, int ttBits) {
+        ParMaxN mPar = new ParMaxN();
+        mPar.setMaxNDepth(depth);
+        mPar.setMaxNAlphaBeta(true);
+        mPar.setMaxNUseHashmap(ttBits > 0);
+        mPar.setMaxNTransTableBits(ttBits);
+        return new MaxNAgent("AlphaBeta", mPar, new ParOther());
+    }
+
+    private static ArrayList<Integer> bestActions(Types.ACTIONS_VT act, StateObservation so) {
+        ArrayList<Integer> best = new ArrayList<>();
+        double[] vTable = act.getVTable();
+        for (int i=0; i<so.getNumAvailableActions(); i++)
+            if (vTable[i] >= act.getVBest() - 1e-8) best.add(so.getAction(i).toInt());
+        return best;
+    }
+
+    private static void compare(StateObservation start, int depth, int numPositions, int maxPlies) {
+        Random rand = new Random(42);
+        MaxNAgent maxN = new MaxNAgent("MaxN", depth, false);
+        MaxNAgent[] alphaBetas = {alphaBeta(depth, 0), alphaBeta(depth, 16)};
+        for (int p=0; p<numPositions; p++) {
+            StateObservation so = start.copy();
+            int plies = rand.nextInt(maxPlies + 1);
+            for (int k=0; k<plies && !so.isGameOver(); k++)
+                so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+            if (so.isGameOver()) continue;
+
+            Types.ACTIONS_VT expected = maxN.getNextAction2(so.partialState(), false, true, true);
+            for (MaxNAgent ab : alphaBetas) {
+                Types.ACTIONS_VT actual = ab.getNextAction2(so.partialState(), false, true, true);
+                String msg = so.stringDescr();
+                assertEquals(msg, expected.getVBest(), actual.getVBest(), 1e-8);
+                assertEquals(msg, bestActions(expected, so), bestActions(actual, so));
+            }
+        }
+    }
+
+    @Test
+    public void tictactoe_T() {
+        compare(new StateObserverTTT(), 9, 30, 6);
+    }
+
+    @Test
+    public void connectFour_T() {
+        compare(new StateObserverC4(), 3, 30, 20);
+    }
+}
@@ -0,0 +1,119 @@
+package controllers.ReplayBuffer.Buffer;
+
+import controllers.PlayAgent;
+import controllers.ReplayBuffer.ConfigReplayBuffer;
+import controllers.TD.ntuple4.NTuple4;
+import controllers.TD.ntuple4.NTuple4Base;
+import controllers.TD.ntuple4.NTuple4ValueFunc;
+import games.Arena;
+import games.RubiksCube.CubeConfig;
+import games.RubiksCube.DAVI3Agent;
+import games.RubiksCube.GameBoardCube;
+import games.StateObsWithBoardVector;
+import games.StateObservation;
+import org.junit.Test;
+import starters.SetupGBG;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check prioritized experience replay:
+ * <ul>
+ *     <li> the {@link controllers.ReplayBuffer.Selector.PrioritizedSelector} selects the slots with frequencies
+ *          proportional to their priorities, and {@link BaseBuffer#getWeight(int)} is {@code (p_min/p)^PER_BETA}
+ *     <li> the importance-sampling weight scales the weight update of the n-tuple network
+ *     <li> {@link DAVI3Agent} with {@link CubeConfig#PRIORITIZED_REPLAY} updates the priorities from the TD errors
+ * </ul>
+ */
+public class PrioritizedReplayTest {
+
+    @Test
+    public void selectionFrequencies_T() {
+        double oldAlpha = ConfigReplayBuffer.PER_ALPHA;
+        ConfigReplayBuffer.PER_ALPHA = 1.0;         // priority = |TD error| + PER_EPS
+        try {
+            int capacity = 4, batchSize = 10000;
+            BaseBuffer buffer = new BaseBuffer(capacity, 1, 0, batchSize);
+            double[] tdError = {1.0, 2.0, 3.0, 4.0};
+            for (int i=0; i<capacity; i++) buffer.updatePriority(i, tdError[i]);
+
+            int[] count = new int[capacity];
+            for (int index : buffer.getBatchIndices()) count[index]++;
+            for (int i=0; i<capacity; i++) {
+                assertEquals(tdError[i] / 10.0, count[i] / (double) batchSize, 1e-3);
+                assertEquals(Math.pow(1.0 / tdError[i], ConfigReplayBuffer.PER_BETA), buffer.getWeight(i), 1e-5);
+            }
+        } finally {
+            ConfigReplayBuffer.PER_ALPHA = oldAlpha;
+        }
+    }
+
+    @Test
+    public void weightedUpdate_T() {
+        String selectedGame = "TicTacToe";
+        String[] scaPar = starters.GBGBatch.setDefaultScaPars(selectedGame);
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+        NTuple4ValueFunc net = ((NTuple4Base) pa).getNTupleValueFunc();
+        StateObservation so = arena.getGameBoard().getDefaultStartState(null);
+        StateObsWithBoardVector sowb = new StateObsWithBoardVector(so, net.xnf);
+
+        // the same delta (vLast and target are given), once with weight 0.25 and once with weight 1:
+        NTuple4[] nt = net.getNTuples();
+        double[][] w0 = weights(nt);
+        net.w_updateWeightsTD(sowb, 0, 0.25, 0.0, 1.0, 0.0, so);
+        double[][] w1 = weights(nt);
+        net.w_updateWeightsTD(sowb, 0, 1.0, 0.0, 1.0, 0.0, so);
+        double[][] w2 = weights(nt);
+
+        boolean changed = false;
+        for (int i=0; i<nt.length; i++)
+            for (int k=0; k<w0[i].length; k++) {
+                assertEquals(0.25 * (w2[i][k] - w1[i][k]), w1[i][k] - w0[i][k], 1e-12);
+                changed |= (w1[i][k] != w0[i][k]);
+            }
+        assertTrue(changed);
+    }
+
+    private static double[][] weights(NTuple4[] nt) {
+        double[][] w = new double[nt.length][];
+        for (int i=0; i<nt.length; i++) w[i] = nt[i].getWeights().clone();
+        return w;
+    }
+
+    @Test
+    public void daviPrioritized_T() {
+        String[] scaPar = {"2x2x2","CSTATE","HTM"};
+        Arena arena = SetupGBG.setupSelectedGame("RubiksCube",scaPar,"",false,true);
+        GameBoardCube gb = new GameBoardCube(arena);
+        boolean oldReplay = CubeConfig.REPLAYBUFFER, oldPrioritized = CubeConfig.PRIORITIZED_REPLAY;
+        int oldBatchSize = CubeConfig.batchSize, oldCapacity = CubeConfig.replayBufferCapacity;
+        CubeConfig.batchSize = 10;
+        CubeConfig.replayBufferCapacity = 20;
+        try {
+            // the settings of the param tabs, which GameBoardCube.updateParams copies to CubeConfig:
+            arena.m_xab.oPar[0].setReplayBuffer(true);
+            arena.m_xab.rbPar[0].setSelector(1);
+            gb.updateParams();
+            assertTrue(CubeConfig.REPLAYBUFFER && CubeConfig.PRIORITIZED_REPLAY);
+
+            DAVI3Agent pa = (DAVI3Agent) arena.m_xfun.constructAgent(0, "DAVI3", arena.m_xab);
+            CubeConfig.replayBufferCapacity = 40;   // a later change does not affect the agent's buffer (ring of 20)
+            for (int k=0; k<30; k++) pa.trainAgent(gb.chooseStartState(3));
+
+            SumTree priorities = pa.getReplayPriorities();
+            assertNotNull(priorities);
+            boolean updated = false;        // new items get priority 1.0 (the initial maximum), trained ones |TD error|
+            for (int i=0; i<20; i++)
+                updated |= (priorities.get(i) > 0 && priorities.get(i) != 1.0);
+            assertTrue(updated);
+        } finally {
+            CubeConfig.REPLAYBUFFER = oldReplay;
+            CubeConfig.PRIORITIZED_REPLAY = oldPrioritized;
+            CubeConfig.batchSize = oldBatchSize;
+            CubeConfig.replayBufferCapacity = oldCapacity;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package controllers.ReplayBuffer.Buffer;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check {@link SumTree} against a linear scan over the priorities.
+ */
+public class SumTreeTest {
+
+    @Test
+    public void sumTree_T() {
+        Random rand = new Random(42);
+        for (int capacity : new int[]{1, 5, 64, 1000}) {
+            SumTree tree = new SumTree(capacity);
+            double[] p = new double[capacity];
+            for (int step=0; step<5*capacity; step++) {
+                int i = rand.nextInt(capacity);
+                p[i] = rand.nextDouble();
+                tree.set(i, p[i]);
+            }
+
+            double total = 0, min = Double.POSITIVE_INFINITY;
+            int argMin = -1;
+            for (int i=0; i<capacity; i++) {
+                total += p[i];
+                if (tree.get(i) > 0 && p[i] < min) { min = p[i]; argMin = i; }
+            }
+            assertEquals(total, tree.total(), 1e-9);
+            assertEquals(min, tree.min(), 0.0);
+            assertEquals(argMin, tree.argMin());
+
+            for (int k=0; k<1000; k++) {
+                double u = rand.nextDouble() * total;
+                int j = 0;
+                double cum = p[0];
+                while (cum <= u && j < capacity-1) cum += p[++j];
+                assertEquals(j, tree.find(u));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package controllers.TD.ntuple4;
+
+import controllers.PlayAgent;
+import games.Arena;
+import games.StateObsWithBoardVector;
+import games.StateObservation;
+import org.junit.Test;
+import starters.SetupGBG;
+import tools.Types.ACTIONS;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test and benchmark the action-to-output lookup in {@link NTuple4ValueFunc#getQFunc}, as used when training
+ * {@link QLearn4Agt} or {@link Sarsa4Agt} on Othello.
+ * <p>
+ * The reference is the former lookup {@code actionMap.get(new ACTIONS(key))} (one {@link ACTIONS} allocation plus
+ * hashing per lookup) on the LUTs of {@link NTuple4ValueFunc#getNTuples()}. Symmetries are switched off, so that
+ * the reference needs only the board itself.
+ */
+public class ActionLookupBenchmarkTest {
+    String selectedGame = "Othello";
+    String[] scaPar = starters.GBGBatch.setDefaultScaPars(selectedGame);
+
+    /**
+     * the Q-value of {@code act} in {@code sowb}, calculated with a {@link HashMap} lookup of the output index
+     */
+    private static double referenceQ(NTuple4ValueFunc net, NTuple4[] nt, HashMap<ACTIONS,Integer> actionMap,
+                                     int numPlayers, StateObsWithBoardVector sowb, int player, ACTIONS act) {
+        int numOutputs = actionMap.size();
+        int o = actionMap.get(new ACTIONS(act.toInt()));
+        double score = 0.0;
+        for (int i=0; i<nt.length/(numPlayers*numOutputs); i++)
+            score += nt[(i*numPlayers + player)*numOutputs + o].getScore(sowb.getBoardVector().bvec);
+        return net.hasSigmoid() ? Math.tanh(score) : score;
+    }
+
+    @Test
+    public void actionLookupBenchmark() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        arena.m_xab.ntPar[0].setUSESYMMETRY(false);
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "Qlearn-4", arena.m_xab);
+        for (int k=0; k<5; k++)
+            pa.trainAgent(arena.getGameBoard().getDefaultStartState(null));     // non-zero weights
+        NTuple4ValueFunc net = ((NTuple4Base) pa).getNTupleValueFunc();
+        NTuple4[] nt = net.getNTuples();
+        StateObservation start = arena.getGameBoard().getDefaultStartState(null);
+        int numPlayers = start.getNumPlayers();
+
+        ArrayList<ACTIONS> allActions = start.getAllAvailableActions();
+        HashMap<ACTIONS,Integer> actionMap = new HashMap<>();
+        for (int i=0; i<allActions.size(); i++)
+            actionMap.put(allActions.get(i), i);
+
+        // states of random episodes, the same Q-values with both lookups:
+        Random rand = new Random(42);
+        ArrayList<StateObsWithBoardVector> states = new ArrayList<>();
+        for (int episode=0; episode<10; episode++) {
+            StateObservation so = start.copy();
+            while (!so.isGameOver()) {
+                StateObsWithBoardVector sowb = new StateObsWithBoardVector(so.copy(), net.xnf);
+                states.add(sowb);
+                for (ACTIONS act : so.getAvailableActions())
+                    assertEquals(referenceQ(net, nt, actionMap, numPlayers, sowb, so.getPlayer(), act),
+                            net.getQFunc(sowb, so.getPlayer(), act), 1e-12);
+                so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+            }
+        }
+
+        int nRuns = 20;
+        double sum1 = 0, sum2 = 0;
+        long lookups = 0;
+        for (int warmup=0; warmup<2; warmup++) {        // 2nd pass is the measured one
+            long startTime = System.nanoTime();
+            for (int r=0; r<nRuns; r++)
+                for (StateObsWithBoardVector sowb : states) {
+                    StateObservation so = sowb.getStateObservation();
+                    for (ACTIONS act : so.getAvailableActions())
+                        sum1 += referenceQ(net, nt, actionMap, numPlayers, sowb, so.getPlayer(), act);
+                }
+            long hashTime = System.nanoTime() - startTime;
+
+            startTime = System.nanoTime();
+            lookups = 0;
+            for (int r=0; r<nRuns; r++)
+                for (StateObsWithBoardVector sowb : states) {
+                    StateObservation so = sowb.getStateObservation();
+                    for (ACTIONS act : so.getAvailableActions()) {
+                        sum2 += net.getQFunc(sowb, so.getPlayer(), act);
+                        lookups++;
+                    }
+                }
+            long tableTime = System.nanoTime() - startTime;
+
+            if (warmup==1)
+                System.out.println("[actionLookupBenchmark] "+lookups+" Q-values: HashMap "+hashTime/1000000+" ms, "
+                        +"getQFunc "+tableTime/1000000+" ms");
+        }
+        assertEquals(sum1, sum2, 1e-6);
+    }
+}
@@ -0,0 +1,124 @@
+package controllers.TD.ntuple4;
+
+import controllers.ReplayBuffer.Buffer.BaseBuffer;
+import controllers.ReplayBuffer.Buffer.CompactBuffer;
+import controllers.ReplayBuffer.Transition.ITransition;
+import games.Arena;
+import games.BoardVector;
+import games.RubiksCube.GameBoardCube;
+import games.StateObservation;
+import games.XNTupleFuncs;
+import org.junit.Test;
+import starters.SetupGBG;
+import tools.ScoreTuple;
+import tools.Types;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Fill a {@link BaseBuffer} and a {@link CompactBuffer} with the same transitions (random TicTacToe episodes) and
+ * check that they give the learner the same values for each slot:
+ * <ul>
+ *     <li> TicTacToe: the compact buffer stores only board vectors
+ *     <li> RubiksCube: the symmetry vectors need the state, the compact buffer keeps it in packed form (see
+ *          {@link XNTupleFuncs#packState(StateObservation)}), the unpacked states have to give the same symmetry vectors
+ * </ul>
+ */
+public class CompactBufferTest {
+    int capacity = 200;
+
+    @Test
+    public void compactBuffer_T() {
+        String selectedGame = "TicTacToe";
+        String[] scaPar = starters.GBGBatch.setDefaultScaPars(selectedGame);
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        XNTupleFuncs xnf = arena.makeXNTupleFuncs();
+        BaseBuffer base = new BaseBuffer(capacity, 0, 0, 1);
+        CompactBuffer compact = new CompactBuffer(capacity, 0, 0, 1, xnf);
+        NTuple4Agt pa = fill(arena, base, compact, () -> arena.getGameBoard().getDefaultStartState(null));
+
+        compareSlots(base, compact, xnf);
+
+        // the debug output of the weight update does not need the next state (a compact transition has none):
+        NTuple4Base.DBG_REWARD = true;
+        try {
+            ITransition t = compact.getTransition(0);
+            ((NTuple4Base) pa).getNTupleValueFunc().w_updateWeightsTD(t.getSLastSOWB(xnf), t.getPlayer(), 1.0,
+                    0.0, 0.0, t.getRNext(), t.getNextSO());
+        } finally {
+            NTuple4Base.DBG_REWARD = false;
+        }
+    }
+
+    @Test
+    public void compactBufferCube_T() {
+        String selectedGame = "RubiksCube";
+        String[] scaPar = {"2x2x2","CSTATE","HTM"};
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        XNTupleFuncs xnf = arena.makeXNTupleFuncs();
+        assertTrue(xnf.symmetryNeedsStateObs());
+        GameBoardCube gb = new GameBoardCube(arena);
+        BaseBuffer base = new BaseBuffer(capacity, 0, 0, 1);
+        CompactBuffer compact = new CompactBuffer(capacity, 0, 0, 1, xnf);
+        fill(arena, base, compact, () -> gb.chooseStartState(5));
+
+        compareSlots(base, compact, xnf);
+        for (int i=0; i<capacity; i++) {
+            BoardVector[] sym1 = xnf.symmetryVectors(base.getTransition(i).getSLastSOWB(xnf), 0);
+            BoardVector[] sym2 = xnf.symmetryVectors(compact.getTransition(i).getSLastSOWB(xnf), 0);
+            assertEquals(sym1.length, sym2.length);
+            for (int k=0; k<sym1.length; k++)
+                assertArrayEquals(sym1[k].bvec, sym2[k].bvec);
+        }
+    }
+
+    /**
+     * Add the same {@code capacity} transitions of random episodes (starting from {@code start}) to both buffers.
+     *
+     * @return the agent used to build the after states
+     */
+    private NTuple4Agt fill(Arena arena, BaseBuffer base, CompactBuffer compact, Supplier<StateObservation> start) {
+        NTuple4Agt pa = (NTuple4Agt) arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+        Random rand = new Random(42);
+        int n = 0;
+        while (n < capacity) {
+            StateObservation so = start.get();
+            ScoreTuple rLast = so.getRewardTuple(true);
+            while (!so.isGameOver() && n < capacity) {
+                ArrayList<Types.ACTIONS> acts = so.getAvailableActions();
+                Types.ACTIONS_VT act = new Types.ACTIONS_VT(acts.get(rand.nextInt(acts.size())).toInt());
+                NextState4 ns = new NextState4(pa, so, act);
+                ScoreTuple R = ns.getNextSO().getRewardTuple(true);
+                int isFinal = ns.getNextSO().isGameOver() ? 1 : 0;
+                base.addTransition(so.getPlayer(), ns, so, rLast, R, isFinal);
+                compact.addTransition(so.getPlayer(), ns, so, rLast, R, isFinal);
+                rLast = R;
+                so = ns.getNextSO();
+                n++;
+            }
+        }
+        return pa;
+    }
+
+    private void compareSlots(BaseBuffer base, CompactBuffer compact, XNTupleFuncs xnf) {
+        assertEquals(base.getMaxBufferIndex(), compact.getMaxBufferIndex());
+        for (int i=0; i<capacity; i++) {
+            ITransition t1 = base.getTransition(i);
+            ITransition t2 = compact.getTransition(i);
+            assertEquals(t1.getPlayer(), t2.getPlayer());
+            assertEquals(t1.isFinalTransition(), t2.isFinalTransition());
+            assertEquals(t1.getRNext(), t2.getRNext(), 0.0);
+            assertEquals(t1.isNextGameOver(), t2.isNextGameOver());
+            assertArrayEquals(t1.getSLastSOWB(xnf).getBoardVector().bvec, t2.getSLastSOWB(xnf).getBoardVector().bvec);
+            if (!t1.isNextGameOver())
+                assertArrayEquals(t1.getAfterStateSOWB(xnf).getBoardVector().bvec,
+                                  t2.getAfterStateSOWB(xnf).getBoardVector().bvec);
+        }
+    }
+}
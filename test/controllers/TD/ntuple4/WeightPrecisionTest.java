@@ -0,0 +1,64 @@
+package controllers.TD.ntuple4;
+
+import agentIO.LoadSaveGBG;
+import controllers.PlayAgent;
+import games.Arena;
+import games.StateObservation;
+import org.junit.Test;
+import params.ParNT;
+import starters.SetupGBG;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Train TicTacToe TD-Ntuple-4 agents with the reduced weight precisions (float32 and int16, see
+ * {@link ParNT#getWeightPrecision()}), save them as {@code *.agt.zip} and check that the reloaded agents have the
+ * same precision, the same LUT weights and the same values on the states of random episodes.
+ */
+public class WeightPrecisionTest {
+    String selectedGame = "TicTacToe";
+    String[] scaPar = starters.GBGBatch.setDefaultScaPars(selectedGame);
+
+    @Test
+    public void saveLoadPrecision_T() throws IOException {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        LoadSaveGBG tdAgentIO = new LoadSaveGBG(arena, null);
+        String zipPath = System.getProperty("java.io.tmpdir") + "/weightPrecisionTest.agt.zip";
+
+        for (int prec : new int[]{ParNT.PREC_FLOAT, ParNT.PREC_INT16}) {
+            arena.m_xab.ntPar[0].setWeightPrecision(prec);
+            PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+            for (int k=0; k<500; k++)
+                pa.trainAgent(arena.getGameBoard().getDefaultStartState(null));
+
+            tdAgentIO.saveGBGAgent(pa, zipPath);
+            PlayAgent qa = tdAgentIO.loadGBGAgent(zipPath);
+
+            NTuple4[] nt = ((NTuple4Base) pa).getNTupleValueFunc().getNTuples();
+            NTuple4[] nq = ((NTuple4Base) qa).getNTupleValueFunc().getNTuples();
+            assertEquals(nt.length, nq.length);
+            boolean trained = false;
+            for (int i=0; i<nt.length; i++) {
+                assertEquals(prec, nq[i].getWeightPrecision());
+                assertArrayEquals(nt[i].getWeights(), nq[i].getWeights(), 0.0);
+                for (double w : nt[i].getWeights()) trained |= (w != 0.0);
+            }
+            assertTrue("precision "+prec+": no weight was trained", trained);
+
+            Random rand = new Random(42);
+            for (int episode=0; episode<20; episode++) {
+                StateObservation so = arena.getGameBoard().getDefaultStartState(null);
+                while (!so.isGameOver()) {
+                    assertArrayEquals(so.stringDescr(), pa.getScoreTuple(so, null).scTup,
+                            qa.getScoreTuple(so, null).scTup, 0.0);
+                    so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package games.CFour;
+
+import games.CFour.openingBook.BookSum;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Check the lock-free {@link TranspositionTable} and the Lazy SMP search of {@link AlphaBetaAgent}
+ * ({@link AlphaBetaAgent#setThreads(int)}): it gives the same game-theoretic values as the search with one thread.
+ */
+public class LazySMPTest {
+
+    @Test
+    public void transpositionTable_T() {
+        TranspositionTable table = new TranspositionTable(1 << 18);
+        Random rand = new Random(42);
+        for (int k=0; k<10000; k++) {
+            long zobr = rand.nextLong();
+            int value = rand.nextInt(2041) - 1020;
+            byte flag = (byte) (1 + rand.nextInt(3));
+            table.put(zobr, value, flag);
+            table.putLow(zobr, -value, flag);
+            long e = table.get(zobr);
+            assertEquals(value, TranspositionTable.value(e));
+            assertEquals(flag, TranspositionTable.flag(e));
+            assertEquals(-value, TranspositionTable.value(table.getLow(zobr)));
+            assertEquals(0L, table.get(zobr ^ (1L << 40)));      // same index, other key
+        }
+        assertEquals(0L, table.get(0L));                            // empty entry
+        table.clear();
+        assertSame(TranspositionTable.shared(1 << 18), TranspositionTable.shared(1 << 18));
+    }
+
+    private static AlphaBetaAgent agent(int nThreads) {
+        AlphaBetaAgent ab = new AlphaBetaAgent(new BookSum());
+        ab.setBooks(true, false, false);
+        ab.setDifficulty(42);
+        ab.setTransPosSize(2);
+        ab.randomizeEqualMoves(false);
+        ab.setThreads(nThreads);
+        return ab;
+    }
+
+    @Test
+    public void lazySMP_T() {
+        Random rand = new Random(42);
+        AlphaBetaAgent single = agent(1);
+        AlphaBetaAgent parallel = agent(4);
+        long t1 = 0, tN = 0;
+        for (int k=0; k<20; k++) {
+            // a random position with 14 pieces, no win yet:
+            StateObserverC4 so = new StateObserverC4();
+            while (so.countPieces() < 14 && !so.isGameOver())
+                so.advance(so.getAvailableActions().get(rand.nextInt(so.getAvailableActions().size())), null);
+            if (so.isGameOver()) continue;
+
+            single.initTranspositionTable();
+            parallel.initTranspositionTable();
+            long start = System.nanoTime();
+            double v1 = single.getScore(so.getBoard(), false);
+            t1 += System.nanoTime() - start;
+            start = System.nanoTime();
+            double vN = parallel.getScore(so.getBoard(), false);
+            tN += System.nanoTime() - start;
+            assertEquals(v1, vN, 0.0);
+        }
+        System.out.println("[lazySMP] 1 thread: "+t1/1000000+" ms, 4 threads: "+tN/1000000+" ms ("
+                + Runtime.getRuntime().availableProcessors()+" cores)");
+        parallel.shutdownHelpers();
+    }
+
+    @Test
+    public void sharedTable_T() {
+        // initTranspositionTable of an agent must not clear the entries of the other agents:
+        TranspositionTable shared = TranspositionTable.shared(1 << 10);
+        AlphaBetaAgent a = agent(1), b = agent(1);
+        a.setTranspositionTable(shared);
+        b.setTranspositionTable(shared);
+        shared.put(42L, 7, (byte) 1);
+        a.initTranspositionTable();
+        assertNull(a.getTranspositionTable());                      // detached, gets an own table
+        assertSame(shared, b.getTranspositionTable());
+        assertEquals(7, TranspositionTable.value(shared.get(42L)));
+    }
+}
@@ -0,0 +1,63 @@
+package games.CFour;
+
+import games.CFour.openingBook.Book;
+import games.CFour.openingBook.BookSum;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Check the memory-mapped, shared opening book {@link Book#shared(int)} against the book read into the heap, and
+ * measure how long the construction of an {@link AlphaBetaAgent} with its books takes.
+ * <p>
+ * Only the normal book (8 pieces) is checked, the deep books are not in the repository.
+ */
+public class OpeningBookTest {
+
+    @Test
+    public void sharedBook_T() throws Exception {
+        Book mapped = Book.shared(Book.NORMALBOOK);
+        assertSame(mapped, Book.shared(Book.NORMALBOOK));
+        assertSame(mapped, new BookSum().getOpeningBook());
+
+        Book heap = new Book(Book.NORMALBOOK);
+        heap.openBook();
+        heap.readBook();
+        heap.closeBook();
+
+        AlphaBetaAgent ab = new AlphaBetaAgent(new BookSum());
+        for (int i=0; i<mapped.getBookSize(); i++) {
+            int[][] b1 = new int[7][6];
+            int[][] b2 = new int[7][6];
+            int value = mapped.getBoard(i, b1);
+            assertEquals(heap.getBoard(i, b2), value);
+            for (int c=0; c<7; c++) assertArrayEquals(b2[c], b1[c]);
+
+            // the binary search finds each position of the book (as AlphaBetaAgent codes it):
+            ab.setBoard(b1);
+            int codedPos = ab.fieldToHuffman(ab.fieldP2, ab.fieldP1, false);
+            int codedPosMirrored = ab.fieldToHuffman(ab.getMirroredField(C4Base.PLAYER2),
+                                                     ab.getMirroredField(C4Base.PLAYER1), true);
+            assertEquals(value, mapped.getValue(codedPos, codedPosMirrored));
+        }
+    }
+
+    @Test
+    public void agentConstruction_T() {
+        long startTime = System.nanoTime();
+        new AlphaBetaAgent(new BookSum()).instantiateAfterLoading();
+        long first = System.nanoTime() - startTime;
+        int N = 100;
+        startTime = System.nanoTime();
+        for (int n=0; n<N; n++) {
+            BookSum books = new BookSum();
+            new AlphaBetaAgent(books);
+            books.getOpeningBook();
+        }
+        long each = (System.nanoTime() - startTime) / N;
+        System.out.println("[agentConstruction] first agent: "+first/1000+" us, then: "+each/1000+" us per agent "
+                + "(with shared books)");
+    }
+}
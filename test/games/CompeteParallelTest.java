@@ -0,0 +1,108 @@
+package games;
+
+import controllers.PlayAgent;
+import controllers.PlayAgtVector;
+import controllers.TD.ntuple4.NTuple4;
+import controllers.TD.ntuple4.NTuple4Base;
+import org.junit.Test;
+import starters.SetupGBG;
+import tools.ScoreTuple;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test the parallel mode of {@link XArenaFuncs#competeNPlayer(PlayAgtVector, int, StateObservation, int, int,
+ * TournamentSystem.TSTimeStorage[], ArrayList, Random, boolean) competeNPlayer}: for a given {@code cmpRand} the
+ * results must not depend on the number of threads, not even if there is only one worker, and the caller's agents
+ * must not be used or re-seeded. Changes of the agent's weights between two competitions have to be seen by the
+ * workers.
+ * <p>
+ * The agents are untrained TD-Ntuple-4 agents: all their values are equal, so each move is a random tie-break with
+ * the agent's own RNG, which is re-seeded for each episode.
+ */
+public class CompeteParallelTest {
+    String selectedGame = "TicTacToe";
+    String[] scaPar = starters.GBGBatch.setDefaultScaPars(selectedGame);
+
+    @Test
+    public void competeParallel_T() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+        PlayAgtVector paVector = new PlayAgtVector(pa, pa);
+        StateObservation startSO = arena.getGameBoard().getDefaultStartState(null);
+        int competeNum = 40;
+
+        ScoreTuple[] sc = new ScoreTuple[3];
+        ArrayList<ArrayList<XStateObs>> finalSobs = new ArrayList<>();
+        int oldThreads = XArenaFuncs.competeThreads;
+        for (int t=0; t<sc.length; t++) {
+            XArenaFuncs.competeThreads = t+2;       // 2, 3, 4 threads
+            ArrayList<XStateObs> finalSobList = new ArrayList<>();
+            sc[t] = XArenaFuncs.competeNPlayer(paVector, 0, startSO, competeNum, 0, null, finalSobList,
+                    new Random(42), false);
+            finalSobs.add(finalSobList);
+            System.out.println("[competeParallel_T] threads="+(t+2)+": "+sc[t].toStringFrm());
+        }
+        XArenaFuncs.competeThreads = oldThreads;
+
+        for (int t=1; t<sc.length; t++) {
+            assertArrayEquals(sc[0].scTup, sc[t].scTup, 1e-12);
+            for (int k=0; k<competeNum; k++)
+                assertEquals(finalSobs.get(0).get(k).getFinalState().stringDescr(),
+                             finalSobs.get(t).get(k).getFinalState().stringDescr());
+        }
+    }
+
+    @Test
+    public void oneVsNThreads_T() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+        PlayAgtVector paVector = new PlayAgtVector(pa, pa);
+        StateObservation startSO = arena.getGameBoard().getDefaultStartState(null);
+        int competeNum = 40;
+        pa.setRandomSeed(7);
+
+        XArenaFuncs.EpisodeResult[] one = XArenaFuncs.playEpisodesParallel(paVector, 0, startSO, competeNum, 0,
+                false, true, 42L, false, 1);
+        XArenaFuncs.EpisodeResult[] four = XArenaFuncs.playEpisodesParallel(paVector, 0, startSO, competeNum, 0,
+                false, true, 42L, false, 4);
+        for (int k=0; k<competeNum; k++) {
+            assertArrayEquals(one[k].sc.scTup, four[k].sc.scTup, 1e-12);
+            assertEquals(one[k].finalSob.getFinalState().stringDescr(), four[k].finalSob.getFinalState().stringDescr());
+        }
+
+        // the caller's agent has played no move and its RNG is still in the state after setRandomSeed(7):
+        assertEquals(new Random(7).nextLong(), ((NTuple4Base) pa).rand.nextLong());
+    }
+
+    @Test
+    public void weightsChanged_T() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        PlayAgent pa = arena.m_xfun.constructAgent(0, "TD-Ntuple-4", arena.m_xab);
+        PlayAgtVector paVector = new PlayAgtVector(pa, pa);
+        StateObservation startSO = arena.getGameBoard().getDefaultStartState(null);
+        int competeNum = 8;
+
+        int oldThreads = XArenaFuncs.competeThreads;
+        for (int round=0; round<3; round++) {
+            // new random weights without training, so gameNum and numLrnActions stay the same. With random weights
+            // and deterministic=true there are no ties: each episode is the same, sequentially and in parallel
+            if (round > 0)
+                for (NTuple4 nt : ((NTuple4Base) pa).getNTupleValueFunc().getNTuples()) nt.initWeights(true);
+            XArenaFuncs.competeThreads = 1;
+            ArrayList<XStateObs> seqList = new ArrayList<>();
+            XArenaFuncs.competeNPlayer(paVector, 0, startSO, 1, 0, null, seqList, new Random(42), true);
+            XArenaFuncs.competeThreads = 4;
+            ArrayList<XStateObs> parList = new ArrayList<>();
+            XArenaFuncs.competeNPlayer(paVector, 0, startSO, competeNum, 0, null, parList, new Random(42), true);
+            if (round > 0)
+                for (XStateObs xso : parList)
+                    assertEquals(seqList.get(0).getFinalState().stringDescr(), xso.getFinalState().stringDescr());
+        }
+        XArenaFuncs.competeThreads = oldThreads;
+    }
+}
@@ -0,0 +1,80 @@
+package games.Hex;
+
+import org.junit.Test;
+import tools.Types;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check the union-find win detection of {@link StateObserverHex} against {@link HexUtils#getWinner(HexTile[][], HexTile)}
+ * in random games, and measure the speed of random playouts.
+ */
+public class UnionFindHexTest {
+
+    @Test
+    public void unionFindVsGetWinner_T() throws Exception {
+        Random rand = new Random(42);
+        int nGames = 2000;
+        for (int size : new int[]{2, 5, 7}) {
+            HexConfig.BOARD_SIZE = size;
+            HexConfig.TILE_COUNT = size * size;
+            for (int g=0; g<nGames; g++) {
+                StateObserverHex so = new StateObserverHex();
+                while (!so.isGameOver()) {
+                    Types.ACTIONS act = so.getAction(rand.nextInt(so.getNumAvailableActions()));
+                    StateObserverHex before = so.copy();
+                    so.advance(act, null);
+
+                    boolean expectedWin = HexUtils.getWinner(so.getBoard(), so.getLastUpdatedTile()) != null;
+                    assertEquals(expectedWin, so.getGameScore(so.getPlayer()) != 0);
+                    assertEquals(HexConfig.PLAYER_NONE, before.getCell(act.toInt()));      // the copy is independent
+                    assertEquals(so.stringDescr(), new StateObserverHex(so).stringDescr());
+                }
+                // there are no draws in Hex, the player to move has lost:
+                assertEquals(HexConfig.REWARD_NEGATIVE, so.getGameScore(so.getPlayer()), 0.0);
+
+                // a serialized and deserialized state has the same board and outcome:
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                new ObjectOutputStream(bos).writeObject(so);
+                StateObserverHex read = (StateObserverHex) new ObjectInputStream(
+                        new ByteArrayInputStream(bos.toByteArray())).readObject();
+                assertEquals(so.stringDescr(), read.stringDescr());
+                assertEquals(so.getGameScore(0), read.getGameScore(0), 0.0);
+            }
+        }
+        HexConfig.BOARD_SIZE = 5;
+        HexConfig.TILE_COUNT = 25;
+    }
+
+    @Test
+    public void playoutSpeed_T() {
+        Random rand = new Random(42);
+        int nGames = 20000;
+        HexConfig.BOARD_SIZE = 7;
+        HexConfig.TILE_COUNT = 49;
+        for (int warmup=0; warmup<2; warmup++) {        // 2nd pass is the measured one
+            long moves = 0;
+            long startTime = System.nanoTime();
+            for (int g=0; g<nGames; g++) {
+                StateObserverHex so = new StateObserverHex();
+                while (!so.isGameOver()) {
+                    so = so.copy();                     // as in tree search: copy, then advance
+                    so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+                    moves++;
+                }
+            }
+            long time = System.nanoTime() - startTime;
+            if (warmup==1)
+                System.out.println("[playoutSpeed] "+nGames+" random 7x7 games, "+moves+" moves: "+time/1000000+" ms, "
+                        +(moves*1000000000L/time)+" moves/s");
+        }
+        HexConfig.BOARD_SIZE = 5;
+        HexConfig.TILE_COUNT = 25;
+    }
+}
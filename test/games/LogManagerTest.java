@@ -0,0 +1,125 @@
+package games;
+
+import games.TicTacToe.StateObserverTTT;
+import org.junit.Test;
+import tools.ScoreTuple;
+import tools.Types;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the advanced logging of {@link LogManager} (background writer, one {@code session.log} per session):
+ * <ul>
+ *     <li> all entries, including the last unflushed ones, are in the log after {@link LogManager#endLoggingSession},
+ *     		with the vTables of {@link Types.ACTIONS_VT} actions
+ *     <li> a truncated {@code session.log} (crash) yields its complete entries
+ * </ul>
+ */
+public class LogManagerTest {
+
+    private static LogManager logManager(File dir) {
+        LogManager lm = new LogManager(dir.getPath() + "/logs", dir.getPath() + "/temp");
+        lm.loggingEnabled = true;
+        lm.advancedLogging = true;
+        lm.verbose = false;
+        return lm;
+    }
+
+    /**
+     * Log one TicTacToe episode. Even moves are logged as {@link Types.ACTIONS_VT}, odd moves as plain actions.
+     *
+     * @return the logged actions
+     */
+    private static ArrayList<Types.ACTIONS> logEpisode(LogManager lm, int sessionid, StateObservation so) {
+        ArrayList<Types.ACTIONS> actions = new ArrayList<>();
+        while (!so.isGameOver()) {
+            Types.ACTIONS act = so.getAction(0);
+            if (actions.size() % 2 == 0) {
+                double[] vTable = new double[so.getNumAvailableActions()];
+                for (int i=0; i<vTable.length; i++) vTable[i] = 0.1*i;
+                act = new Types.ACTIONS_VT(act.toInt(), false, vTable, 0.7, new ScoreTuple(so, 0.7));
+            }
+            so.advance(act, null);
+            lm.addLogEntry(act, so, sessionid);
+            actions.add(act);
+        }
+        return actions;
+    }
+
+    @Test
+    public void endSession_T() throws IOException, ClassNotFoundException {
+        File dir = Files.createTempDirectory("logManagerTest").toFile();
+        LogManager lm = logManager(dir);
+        StateObservation so = new StateObserverTTT();
+        int sessionid = lm.newLoggingSession(so);
+        ArrayList<Types.ACTIONS> actions = logEpisode(lm, sessionid, so);
+        lm.endLoggingSession(sessionid, "TicTacToe");
+
+        // (LogManager uses '\\' as separator, which is part of the file name on Linux: search the whole dir)
+        List<Path> logs;
+        try (Stream<Path> files = Files.walk(dir.toPath())) {
+            logs = files.filter(p -> p.toString().endsWith(".gamelog")).toList();
+        }
+        assertEquals(1, logs.size());
+        LogSessionContainer lsc;
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(logs.get(0).toFile()))) {
+            lsc = (LogSessionContainer) ois.readObject();
+        }
+        assertEquals(actions.size() + 1, lsc.actions.size());          // + start state
+        assertNull(lsc.actions.get(0));
+        for (int i=0; i<actions.size(); i++) {
+            Types.ACTIONS logged = lsc.actions.get(i+1);
+            assertEquals(actions.get(i).getClass(), logged.getClass());
+            assertEquals(actions.get(i).toInt(), logged.toInt());
+            if (logged instanceof Types.ACTIONS_VT)
+                assertArrayEquals(((Types.ACTIONS_VT) actions.get(i)).getVTable(),
+                        ((Types.ACTIONS_VT) logged).getVTable(), 0.0);
+        }
+        assertEquals(so.stringDescr(), lsc.stateObservations.get(actions.size()).stringDescr());
+    }
+
+    @Test
+    public void truncated_T() throws IOException, InterruptedException {
+        File dir = Files.createTempDirectory("logManagerTest").toFile();
+        LogManager lm = logManager(dir);
+        StateObservation so = new StateObserverTTT();
+        int sessionid = lm.newLoggingSession(so);
+        ArrayList<Types.ACTIONS> actions = logEpisode(lm, sessionid, so);
+
+        // wait until the writer has flushed all entries (it does so when the queue is empty)
+        File sessionFile = new File(lm.tempPath + "\\temp_" + sessionid + "\\" + LogManager.SESSION_FILE);
+        long size = -1;
+        for (int k=0; k<50 && (size <= 0 || size != sessionFile.length()); k++) {
+            size = sessionFile.length();
+            Thread.sleep(100);
+        }
+        assertTrue(size > 0);
+
+        // a copy of the file, cut in the middle:
+        String crashPath = dir.getPath() + "/crashed";
+        assertTrue(new File(crashPath).mkdir());
+        File crashFile = new File(crashPath + "\\" + LogManager.SESSION_FILE);
+        Files.copy(sessionFile.toPath(), crashFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        try (RandomAccessFile raf = new RandomAccessFile(crashFile, "rw")) {
+            raf.setLength(size * 2 / 3);
+        }
+        LogSessionContainer lsc = lm.generateLogSessionContainerFromFile(crashPath);
+        int n = lsc.actions.size();
+        assertTrue("entries read: "+n, n > 1 && n < actions.size() + 1);
+        for (int i=1; i<n; i++)
+            assertEquals(actions.get(i-1).toInt(), lsc.actions.get(i).toInt());
+
+        lm.endLoggingSession(sessionid, "TicTacToe");
+    }
+}
@@ -0,0 +1,77 @@
+package games.Othello;
+
+import org.junit.Test;
+import tools.Types.ACTIONS;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check the bitboard implementation of {@link StateObserverOthello} against the int[][] helpers
+ * {@link BaseOthello#possibleActions(int[][], int)} and {@link BaseOthello#flip(int[][], int, int, int)} in random
+ * games, and measure the speed of random playouts.
+ */
+public class BitboardOthelloTest {
+
+    @Test
+    public void bitboardVsArray_T() {
+        Random rand = new Random(42);
+        int nGames = 2000;
+        for (int g=0; g<nGames; g++) {
+            StateObserverOthello so = new StateObserverOthello();
+            int[][] cgs = new int[8][8];
+            BaseOthello.deepCopyGameState(so.getCurrentGameState(), cgs);
+            while (!so.isGameOver()) {
+                int player = so.getPlayer();
+                ArrayList<ACTIONS> expected = BaseOthello.possibleActions(cgs, player);
+                if (expected.isEmpty()) {       // cannot happen: advance() lets the other player move again
+                    player = BaseOthello.getOpponent(player);
+                    expected = BaseOthello.possibleActions(cgs, player);
+                }
+                assertEquals(expected, so.getAvailableActions());
+
+                ACTIONS act = so.getAction(rand.nextInt(so.getNumAvailableActions()));
+                StateObserverOthello before = so.copy();
+                so.advance(act, null);
+                int i = act.toInt() / 8, j = act.toInt() % 8;
+                BaseOthello.flip(cgs, i, j, player);
+                cgs[i][j] = player;
+                for (int r=0; r<8; r++)
+                    assertArrayEquals(cgs[r], so.getCurrentGameState()[r]);
+
+                // the incremental hash equals the hash computed from scratch:
+                StateObserverOthello fresh = so.copy();
+                fresh.setGameState(so.getCurrentGameState());
+                assertEquals(fresh.getHash(), so.getHash());
+                assertEquals(so.getHash(), so.getHashKey());
+                // the copy is independent:
+                assertEquals(before.getCurrentGameState()[i][j], ConfigOthello.EMPTY);
+            }
+        }
+    }
+
+    @Test
+    public void playoutSpeed_T() {
+        Random rand = new Random(42);
+        int nGames = 20000;
+        for (int warmup=0; warmup<2; warmup++) {        // 2nd pass is the measured one
+            long moves = 0;
+            long startTime = System.nanoTime();
+            for (int g=0; g<nGames; g++) {
+                StateObserverOthello so = new StateObserverOthello();
+                while (!so.isGameOver()) {
+                    so = so.copy();                     // as in tree search: copy, then advance
+                    so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+                    moves++;
+                }
+            }
+            long time = System.nanoTime() - startTime;
+            if (warmup==1)
+                System.out.println("[playoutSpeed] "+nGames+" random games, "+moves+" moves: "+time/1000000+" ms, "
+                        +(moves*1000000000L/time)+" moves/s");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package games.RubiksCube;
+
+import org.junit.Test;
+import params.ParOther;
+import tools.Types;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check {@link PatternDatabase} and {@link IDAStarAgent}:
+ * <ul>
+ *     <li> the pocket cube PDB (exact distances) has the known distance distribution in HTM and QTM, and a saved and
+ *          memory-mapped PDB gives the same distances
+ *     <li> IDA* solves scrambled cubes with the optimal number of twists
+ *     <li> without exact distances, IDA* gives a value only for its best action
+ *     <li> {@link DistanceTable2x2} is consistent (d(s) = 1 + min d(s') over the successors s') and its index is a
+ *          perfect hash
+ * </ul>
+ */
+public class IDAStarTest {
+
+    protected final CubeStateFactory csFactory = new CubeStateFactory();
+
+    // number of pocket cube states with distance 0,1,2,... (God's number 11 (HTM) / 14 (QTM))
+    private static final long[] POCKET_HTM = {1, 9, 54, 321, 1847, 9992, 50136, 227536, 870072, 1887748, 623800, 2644};
+    private static final long[] POCKET_QTM = {1, 6, 27, 120, 534, 2256, 8969, 33058, 114149, 360508, 930588, 1350852,
+                                              782536, 90280, 276};
+
+    protected void init(CubeConfig.CubeSize cubeSize, CubeConfig.TwistType twistType) {
+        CubeConfig.cubeSize = cubeSize;
+        CubeConfig.twistType = twistType;
+        new ArenaCube("",false,true);
+        CubeStateFactory.generateInverseTs();
+        CubeState.generateForwardTs();
+    }
+
+    private static CubeState scramble(CubeState cs, int[] keys, int nTwists, Random rand) {
+        for (int p=0; p<nTwists; p++) apply(cs, keys[rand.nextInt(keys.length)]);
+        return cs;
+    }
+
+    private static void apply(CubeState cs, int key) {
+        int times = key%3 + 1;
+        switch (key/3) {
+            case 0 -> cs.UTw(times);
+            case 1 -> cs.LTw(times);
+            case 2 -> cs.FTw(times);
+            case 3 -> cs.DTw(times);
+            case 4 -> cs.RTw(times);
+            default -> cs.BTw(times);
+        }
+    }
+
+    @Test
+    public void pocketPDB_T() throws Exception {
+        File dir = Files.createTempDirectory("pdb").toFile();
+        Random rand = new Random(42);
+        for (CubeConfig.TwistType twistType : CubeConfig.TwistType.values()) {
+            init(CubeConfig.CubeSize.POCKET, twistType);
+            long[] expected = (twistType == CubeConfig.TwistType.HTM) ? POCKET_HTM : POCKET_QTM;
+
+            PatternDatabase[] pdbs = PatternDatabase.loadOrBuildDefault(dir.getPath(), false);
+            assertEquals(1, pdbs.length);
+            assertEquals(3674160, pdbs[0].getSize());
+            long[] hist = pdbs[0].histogram();
+            long[] h = new long[expected.length];
+            System.arraycopy(hist, 0, h, 0, h.length);
+            assertArrayEquals(expected, h);
+
+            // the 2nd call loads the saved file (memory-mapped):
+            PatternDatabase mapped = PatternDatabase.loadOrBuildDefault(dir.getPath(), true)[0];
+            assertArrayEquals(hist, mapped.histogram());
+
+            IDAStarAgent ida = new IDAStarAgent("IDAStar", new ParOther(), new PatternDatabase[]{mapped});
+            int[] keys = PatternDatabase.moveKeys();
+            for (int k=0; k<200; k++) {
+                CubeState cs = scramble(csFactory.makeCubeState(), keys, 20, rand);
+                int[] sloc = new int[cs.get_fcol_length()];
+                for (int i=0; i<sloc.length; i++) sloc[i] = cs.get_sloc(i);
+                int[] solution = ida.solve(cs);
+                assertEquals(mapped.distance(sloc), solution.length);
+                for (int key : solution) apply(cs, key);
+                assertTrue(cs.isEqual(csFactory.makeCubeState()));
+            }
+        }
+        for (File f : dir.listFiles()) f.delete();
+        dir.delete();
+        init(CubeConfig.CubeSize.POCKET, CubeConfig.TwistType.HTM);
+    }
+
+    @Test
+    public void pocketDistanceTable_T() throws Exception {
+        File dir = Files.createTempDirectory("pdb").toFile();
+        Random rand = new Random(42);
+        for (CubeConfig.TwistType twistType : CubeConfig.TwistType.values()) {
+            init(CubeConfig.CubeSize.POCKET, twistType);
+            DistanceTable2x2 table = DistanceTable2x2.get(dir.getPath());
+            int[] keys = PatternDatabase.moveKeys();
+            assertEquals(0, table.distance(csFactory.makeCubeState()));
+
+            HashMap<Integer, CubeState> seen = new HashMap<>();
+            for (int k=0; k<2000; k++) {
+                CubeState cs = scramble(csFactory.makeCubeState(), keys, 1 + rand.nextInt(20), rand);
+                int d = table.distance(cs);
+                int dMin = Integer.MAX_VALUE;
+                for (int key : keys) {
+                    CubeState next = csFactory.makeCubeState(cs);
+                    apply(next, key);
+                    dMin = Math.min(dMin, table.distance(next));
+                }
+                if (d == 0)
+                    assertTrue(cs.isEqual(csFactory.makeCubeState()));    // the scramble may undo itself
+                else
+                    assertEquals(d, 1 + dMin);
+
+                int index = table.index(cs);
+                assertTrue(index >= 0 && index < DistanceTable2x2.SIZE);
+                CubeState other = seen.put(index, cs);
+                assertTrue(other == null || other.isEqual(cs));
+            }
+        }
+        for (File f : dir.listFiles()) f.delete();
+        dir.delete();
+        init(CubeConfig.CubeSize.POCKET, CubeConfig.TwistType.HTM);
+    }
+
+    @Test
+    public void rubiksIDAStar_T() {
+        Random rand = new Random(42);
+        for (CubeConfig.TwistType twistType : CubeConfig.TwistType.values()) {
+            init(CubeConfig.CubeSize.RUBIKS, twistType);
+            PatternDatabase[] pdbs = {
+                    PatternDatabase.build(PatternDatabase.CubieType.CORNER, new int[]{0, 1, 2, 3}, 4),
+                    PatternDatabase.build(PatternDatabase.CubieType.EDGE, new int[]{0, 1, 2, 3}, 4)
+            };
+            IDAStarAgent ida = new IDAStarAgent("IDAStar", new ParOther(), pdbs);
+            IDAStarAgent noHeur = new IDAStarAgent("ID", new ParOther(), new PatternDatabase[0]);  // plain iterative deepening
+            int[] keys = PatternDatabase.moveKeys();
+            for (int k=0; k<50; k++) {
+                CubeState cs = scramble(csFactory.makeCubeState(), keys, 1 + rand.nextInt(5), rand);
+                int[] solution = ida.solve(cs);
+                assertEquals(noHeur.solve(cs).length, solution.length);
+                for (int key : solution) apply(cs, key);
+                assertTrue(cs.isEqual(csFactory.makeCubeState()));
+            }
+        }
+        init(CubeConfig.CubeSize.POCKET, CubeConfig.TwistType.HTM);
+    }
+
+    @Test
+    public void vTable_T() {
+        // (pocket cube in HTM: StateObserverCube takes its set of actions from the config when the class is loaded,
+        // these actions are in all sets)
+        init(CubeConfig.CubeSize.POCKET, CubeConfig.TwistType.HTM);
+        PatternDatabase[] pdbs = {PatternDatabase.build(PatternDatabase.CubieType.CORNER, new int[]{0, 1, 2}, 4)};
+        IDAStarAgent ida = new IDAStarAgent("IDAStar", new ParOther(), pdbs);
+        Random rand = new Random(42);
+        int[] keys = PatternDatabase.moveKeys();
+        for (int k=0; k<10; k++) {
+            // only the best action has a value (a PDB which is not exact gives no exact values for the others):
+            StateObserverCube so = new StateObserverCube(scramble(csFactory.makeCubeState(), keys, 5, rand));
+            if (so.isGameOver()) continue;
+            Types.ACTIONS_VT act = ida.getNextAction2(so, false, true, true);
+            double[] vTable = act.getVTable();
+            for (int i=0; i<vTable.length; i++) {
+                if (so.getAction(i).toInt() == act.toInt())
+                    assertEquals(act.getVBest(), vTable[i], 0.0);
+                else
+                    assertTrue(Double.isNaN(vTable[i]));
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package games.RubiksCube;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Check that the permutation-table twists of {@link CubeState} give the same {@code fcol} and {@code sloc} as the
+ * former implementation (clone the arrays, then apply {@code invT} and {@code tforT} {@code times} times), and
+ * compare the twists per second of both.
+ */
+public class TwistEngineTest {
+
+    protected final CubeStateFactory csFactory = new CubeStateFactory();
+
+    protected void init(CubeConfig.CubeSize cubeSize) {
+        CubeConfig.cubeSize = cubeSize;
+        new ArenaCube("",false,true);
+        CubeStateFactory.generateInverseTs();
+        CubeState.generateForwardTs();
+    }
+
+    private static int[][] invTs() {
+        return new int[][]{CubeState.invU, CubeState.invL, CubeState.invF,
+                           CubeState.invD, CubeState.invR, CubeState.invB};
+    }
+
+    /**
+     * the former twist implementation, on raw arrays
+     */
+    private static void legacyTwist(int[] fcol, int[] sloc, int[] invT, int[] tforT, int times) {
+        for (int n=0; n<times; n++) {
+            int[] tmp = fcol.clone();
+            for (int i=0; i<invT.length; i++) fcol[i] = tmp[invT[i]];
+            tmp = sloc.clone();
+            for (int i=0; i<tforT.length; i++) sloc[i] = tforT[tmp[i]];
+        }
+    }
+
+    private static CubeState twist(CubeState cs, int t, int times) {
+        return switch (t) {
+            case 0 -> cs.UTw(times);
+            case 1 -> cs.LTw(times);
+            case 2 -> cs.FTw(times);
+            case 3 -> cs.DTw(times);
+            case 4 -> cs.RTw(times);
+            default -> cs.BTw(times);
+        };
+    }
+
+    @Test
+    public void twistsIdentical_T() {
+        Random rand = new Random(42);
+        for (CubeConfig.CubeSize cubeSize : CubeConfig.CubeSize.values()) {
+            init(cubeSize);
+            int nTwists = (cubeSize == CubeConfig.CubeSize.POCKET) ? 3 : 6;
+            int[][] inv = invTs();
+            int[][] tfor = new int[inv.length][];
+            for (int t=0; t<inv.length; t++) tfor[t] = CubeState.inverse(inv[t]);
+
+            for (int k=0; k<1000; k++) {
+                CubeState cs = csFactory.makeCubeState();
+                int[] fcol = new int[cs.get_fcol_length()];
+                int[] sloc = new int[cs.get_fcol_length()];
+                for (int i=0; i<fcol.length; i++) {
+                    fcol[i] = cs.get_fcol(i);
+                    sloc[i] = cs.get_sloc(i);
+                }
+                for (int p=0; p<20; p++) {
+                    int t = rand.nextInt(nTwists);
+                    int times = 1 + rand.nextInt(3);
+                    if (p % 5 == 4) cs = csFactory.makeCubeState(cs);      // twists after a copy as well
+                    twist(cs, t, times);
+                    legacyTwist(fcol, sloc, inv[t], tfor[t], times);
+                    for (int i=0; i<fcol.length; i++) {
+                        assertEquals(fcol[i], cs.get_fcol(i));
+                        assertEquals(sloc[i], cs.get_sloc(i));
+                    }
+                }
+                assert cs.assertTwistSequence() : "twistSeq does not match for "+cs.getTwistSeq();
+            }
+        }
+        init(CubeConfig.CubeSize.POCKET);
+    }
+
+    @Test
+    public void twistSpeed_T() {
+        for (CubeConfig.CubeSize cubeSize : CubeConfig.CubeSize.values()) {
+            init(cubeSize);
+            int nTwists = (cubeSize == CubeConfig.CubeSize.POCKET) ? 3 : 6;
+            int[][] inv = invTs();
+            int[][] tfor = new int[inv.length][];
+            for (int t=0; t<inv.length; t++) tfor[t] = CubeState.inverse(inv[t]);
+            int N = 2000000;
+
+            for (int warmup=0; warmup<2; warmup++) {        // 2nd pass is the measured one
+                Random rand = new Random(42);
+                CubeState cs = csFactory.makeCubeState();
+                long startTime = System.nanoTime();
+                for (int n=0; n<N; n++) {
+                    twist(cs, rand.nextInt(nTwists), 1 + rand.nextInt(3)).clearLast();
+                    if (n % 20 == 19) cs.twistSeq = "";             // (keep the twist sequence string short)
+                }
+                long tNew = System.nanoTime() - startTime;
+
+                rand = new Random(42);
+                int[] fcol = new int[cs.get_fcol_length()];
+                int[] sloc = new int[cs.get_fcol_length()];
+                startTime = System.nanoTime();
+                for (int n=0; n<N; n++) {
+                    int t = rand.nextInt(nTwists);
+                    legacyTwist(fcol, sloc, inv[t], tfor[t], 1 + rand.nextInt(3));
+                }
+                long tOld = System.nanoTime() - startTime;
+
+                if (warmup==1)
+                    System.out.println("[twistSpeed] "+cubeSize+", "+N+" twists: permutation tables "
+                            + (N*1000000000L/tNew)+" twists/s, former clone-based "
+                            + (N*1000000000L/tOld)+" twists/s");
+            }
+        }
+        init(CubeConfig.CubeSize.POCKET);
+    }
+}
@@ -0,0 +1,92 @@
+package games;
+
+import games.CFour.StateObserverC4;
+import games.Hex.StateObserverHex;
+import games.Nim.StateObserverNim;
+import games.Othello.StateObserverOthello;
+import games.TicTacToe.StateObserverTTT;
+import org.junit.Test;
+import tools.Types;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check {@link StateObservation#undo(int)} for the games which support it: after random episodes (and partial
+ * episodes on copies) each state reached by taking the actions back is the same as the state before the action.
+ * Taking back an action which was not done on the object fails an assertion.
+ */
+public class StateUndoTest {
+
+    private static StateObservation[] games() {
+        return new StateObservation[] {new StateObserverTTT(), new StateObserverC4(), new StateObserverOthello(),
+                                       new StateObserverHex(), new StateObserverNim()};
+    }
+
+    private static String describe(StateObservation so) {
+        StringBuilder sb = new StringBuilder(so.stringDescr());
+        sb.append(" p=").append(so.getPlayer()).append(" c=").append(so.getMoveCounter())
+          .append(" cp=").append(so.getCreatingPlayer()).append(" over=").append(so.isGameOver())
+          .append(" h=").append(so.getHashKey()).append(" moves=").append(((ObserverBase) so).getLastMoves());
+        for (Types.ACTIONS act : so.getAvailableActions()) sb.append(" ").append(act.toInt());
+        for (int i = 0; i < so.getNumPlayers(); i++) sb.append(" s=").append(so.getGameScore(i));
+        return sb.toString();
+    }
+
+    private static boolean undoFails(StateObservation so) {
+        try {
+            so.undo(1);
+        } catch (AssertionError e) {
+            return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void noAction_T() {
+        for (StateObservation start : games())
+            assertTrue(start.getClass().getSimpleName(), undoFails(start.copy()));
+
+        // Othello and Hex cannot take back the actions done before the copy (their undo data is not copied):
+        for (StateObservation start : new StateObservation[]{new StateObserverOthello(), new StateObserverHex()}) {
+            StateObservation so = start.copy();
+            so.advance(so.getAction(0), null);
+            assertTrue(start.getClass().getSimpleName(), undoFails(so.copy()));
+        }
+    }
+
+    @Test
+    public void undo_T() {
+        Random rand = new Random(42);
+        for (StateObservation start : games()) {
+            assertTrue(start.canUndo());
+            for (int episode=0; episode<50; episode++) {
+                // start from a random state on a copy (undo goes back to this state only):
+                StateObservation so = start.copy();
+                for (int k=rand.nextInt(4); k>0 && !so.isGameOver(); k--)
+                    so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+                so = so.copy();
+
+                ArrayList<String> before = new ArrayList<>();
+                while (!so.isGameOver()) {
+                    before.add(describe(so));
+                    so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+                }
+                String over = describe(so);
+                so.undo(0);                     // e.g. an MCTS rollout from a game-over leaf
+                assertEquals(over, describe(so));
+                // take back one or several actions at a time:
+                for (int k=before.size(); k>0; ) {
+                    int n = Math.min(k, 1 + rand.nextInt(3));
+                    so.undo(n);
+                    k -= n;
+                    assertEquals(before.get(k), describe(so));
+                    assertEquals(before.get(k), describe(so.copy()));
+                }
+            }
+        }
+    }
+}
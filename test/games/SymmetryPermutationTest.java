@@ -0,0 +1,131 @@
+package games;
+
+import games.CFour.XNTupleFuncsC4;
+import games.Hex.XNTupleFuncsHex;
+import games.Othello.XNTupleFuncsOthello;
+import games.TicTacToe.XNTupleFuncsTTT;
+import games.Yavalath.XNTupleFuncsYavalath;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check the symmetry permutation tables of the games whose symmetries are pure cell permutations:
+ * <ul>
+ *     <li> the tables form a group (identity first, closed under composition)
+ *     <li> the tables give the same board vectors as the games' rotate/flip helpers, applied as in the
+ *          implementations of {@code symmetryVectors} before the tables
+ *     <li> {@link XNTupleFuncs#symmetryVectorsScratch(StateObsWithBoardVector, int)} gives the same board vectors
+ *          as {@link XNTupleFuncs#symmetryVectors(BoardVector, int)}, and it allocates nothing
+ * </ul>
+ */
+public class SymmetryPermutationTest {
+
+    private static XNTupleBase[] games() {
+        return new XNTupleBase[] {new XNTupleFuncsTTT(), new XNTupleFuncsC4(), new XNTupleFuncsOthello(),
+                                  new XNTupleFuncsHex(), new XNTupleFuncsYavalath()};
+    }
+
+    private static BoardVector randomBoard(XNTupleFuncs xnf, Random rand) {
+        int[] bvec = new int[xnf.getNumCells()];
+        for (int k=0; k<bvec.length; k++) bvec[k] = rand.nextInt(xnf.getNumPositionValues());
+        return new BoardVector(bvec);
+    }
+
+    @Test
+    public void permutationGroup_T() {
+        for (XNTupleBase xnf : games()) {
+            int[][] perm = xnf.symmetryPermutations();
+            assertNotNull(perm);
+            assertEquals(xnf.getNumSymmetries(), perm.length);
+            HashSet<String> all = new HashSet<>();
+            for (int[] p : perm) all.add(Arrays.toString(p));
+            assertEquals(perm.length, all.size());                     // all different
+            for (int k=0; k<perm[0].length; k++) assertEquals(k, perm[0][k]);
+
+            for (int[] p : perm) {
+                for (int[] q : perm) {
+                    int[] pq = new int[p.length];
+                    for (int k=0; k<p.length; k++) pq[k] = p[q[k]];
+                    assertTrue(all.contains(Arrays.toString(pq)));
+                }
+            }
+        }
+    }
+
+    /**
+     * The symmetry vectors of {@code bv} as they were calculated before the permutation tables: {@code bv} and
+     * {@code nRot-1} successive rotations of it, then the flip of {@code bv} and {@code nRot-1} successive rotations
+     * of the flip. The helpers are private, so they are called via reflection.
+     */
+    private static BoardVector[] oldSymmetryVectors(XNTupleBase xnf, BoardVector bv, String rotName, String flipName,
+                                                    int nRot) throws ReflectiveOperationException {
+        Method flip = xnf.getClass().getDeclaredMethod(flipName, BoardVector.class);
+        flip.setAccessible(true);
+        Method rot = null;
+        if (rotName != null) {
+            rot = xnf.getClass().getDeclaredMethod(rotName, BoardVector.class);
+            rot.setAccessible(true);
+        }
+        BoardVector[] equiv = new BoardVector[2*nRot];
+        equiv[0] = bv;
+        for (int i=1; i<nRot; i++) equiv[i] = (BoardVector) rot.invoke(xnf, equiv[i-1]);
+        equiv[nRot] = (BoardVector) flip.invoke(xnf, bv);
+        for (int i=nRot+1; i<2*nRot; i++) equiv[i] = (BoardVector) rot.invoke(xnf, equiv[i-1]);
+        return equiv;
+    }
+
+    @Test
+    public void oldImplementation_T() throws ReflectiveOperationException {
+        Random rand = new Random(42);
+        XNTupleBase[] xnfs = games();
+        String[] rotName = {"rotate", null, "rotate", null, "rotate"};
+        String[] flipName = {"flip", "flip", "mirrorHorizontally", "rotateBoard2", "mirror"};
+        int[] nRot = {4, 1, 4, 1, 6};
+        for (int g=0; g<xnfs.length; g++) {
+            for (int r=0; r<20; r++) {
+                BoardVector bv = randomBoard(xnfs[g], rand);
+                BoardVector[] expected = oldSymmetryVectors(xnfs[g], bv, rotName[g], flipName[g], nRot[g]);
+                BoardVector[] equiv = xnfs[g].symmetryVectors(bv, 0);
+                assertEquals(expected.length, equiv.length);
+                for (int i=0; i<equiv.length; i++) assertArrayEquals(expected[i].bvec, equiv[i].bvec);
+            }
+        }
+    }
+
+    @Test
+    public void scratchVectors_T() {
+        Random rand = new Random(42);
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (XNTupleBase xnf : games()) {
+            for (int n : new int[]{0, 1, xnf.getNumSymmetries()}) {
+                for (int r=0; r<100; r++) {
+                    BoardVector bv = randomBoard(xnf, rand);
+                    BoardVector[] expected = xnf.symmetryVectors(bv, n);
+                    BoardVector[] equiv = xnf.symmetryVectorsScratch(new StateObsWithBoardVector(null, bv), n);
+                    assertEquals(expected.length, equiv.length);
+                    for (int i=0; i<equiv.length; i++) assertArrayEquals(expected[i].bvec, equiv[i].bvec);
+                }
+            }
+
+            StateObsWithBoardVector sowb = new StateObsWithBoardVector(null, randomBoard(xnf, rand));
+            long sum = 0;
+            for (int r=0; r<20000; r++) sum += xnf.symmetryVectorsScratch(sowb, 0).length;      // warm-up
+            long before = mx.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int r=0; r<100000; r++) sum += xnf.symmetryVectorsScratch(sowb, 0).length;
+            long bytes = mx.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+            System.out.println("[scratchVectors] "+xnf.getClass().getSimpleName()+": "+bytes+" bytes for 100000 calls");
+            assertTrue(sum > 0);
+            assertTrue("too much garbage: "+bytes, bytes < 100000);
+        }
+    }
+}
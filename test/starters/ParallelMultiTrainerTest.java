@@ -0,0 +1,73 @@
+package starters;
+
+import controllers.PlayAgent;
+import controllers.TD.ntuple4.NTuple4;
+import controllers.TD.ntuple4.NTuple4Base;
+import games.Arena;
+import games.XArenaButtons;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Check that {@link ParallelMultiTrainer} is reproducible: two multi-trainings of TicTacToe TD-Ntuple-4 agents with
+ * random n-tuples and the same base seed yield the same n-tuples and the same weights, although the evaluations in
+ * between use an opponent (Max-N) with its own random tie-breaks. A different base seed yields different n-tuples.
+ */
+public class ParallelMultiTrainerTest {
+    String selectedGame = "TicTacToe";
+    String[] scaPar = GBGBatch.setDefaultScaPars(selectedGame);
+    String csvName = "parallelMultiTrainerTest.csv";
+
+    private static class Result {
+        final ArrayList<int[]> nTuples = new ArrayList<>();
+        final ArrayList<double[]> weights = new ArrayList<>();
+    }
+
+    private Result train(Arena arena, long baseSeed) {
+        XArenaButtons xab = arena.m_xab;
+        ParallelMultiTrainer pmt = new ParallelMultiTrainer(2, baseSeed);
+        for (int i=0; i<2; i++) pmt.addRun(i, 0.0, 0.0, null);
+        PlayAgent pa = pmt.trainAll(0, "TD-Ntuple-4", arena, xab, arena.getGameBoard(), 200, csvName, "", "");
+
+        Result res = new Result();
+        for (NTuple4 nt : ((NTuple4Base) pa).getNTupleValueFunc().getNTuples()) {
+            int[] cells = new int[nt.getLength()];
+            for (int k=0; k<cells.length; k++) cells[k] = nt.getPosition(k);
+            res.nTuples.add(cells);
+            res.weights.add(nt.getWeights());
+        }
+        return res;
+    }
+
+    @Test
+    public void reproducible_T() {
+        Arena arena = SetupGBG.setupSelectedGame(selectedGame,scaPar,"",false,true);
+        arena.m_xab.ntPar[0].setRandomness(true);
+        arena.m_xab.ntPar[0].setRandomWalk(true);
+        arena.m_xab.oPar[0].setNumEval(100);
+        arena.m_xab.oPar[0].setQuickEvalMode(2);
+        arena.m_xab.oPar[0].setTrainEvalMode(-1);
+        arena.taskState = Arena.Task.MULTTRN;
+
+        Result r1 = train(arena, 42);
+        Result r2 = train(arena, 42);
+        Result r3 = train(arena, 43);
+        new File("agents/"+selectedGame+"/csv/"+csvName).delete();
+
+        assertEquals(r1.weights.size(), r2.weights.size());
+        boolean differentNTuples = false;
+        for (int i=0; i<r1.weights.size(); i++) {
+            assertArrayEquals(r1.nTuples.get(i), r2.nTuples.get(i));
+            assertArrayEquals(r1.weights.get(i), r2.weights.get(i), 0.0);
+            differentNTuples |= !Arrays.equals(r1.nTuples.get(i), r3.nTuples.get(i));
+        }
+        assertTrue("another base seed should give other random n-tuples", differentNTuples);
+    }
+}
@@ -0,0 +1,35 @@
+package tools;
+
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntSetTest {
+
+    /**
+     * Compare {@link IntSet} with {@link HashSet} on random add/contains/clear sequences (including growth of the
+     * table and LUT-like index ranges)
+     */
+    @Test
+    public void testAgainstHashSet() {
+        Random rand = new Random(42);
+        IntSet set = new IntSet(4);
+        HashSet<Integer> ref = new HashSet<>();
+        for (int round=0; round<2000; round++) {
+            int n = rand.nextInt(100);
+            int range = (round%2==0) ? 50 : 1_000_000;
+            for (int j=0; j<n; j++) {
+                int k = rand.nextInt(range);
+                assertEquals(ref.contains(k), set.contains(k));
+                assertEquals(ref.add(k), set.add(k));
+            }
+            assertEquals(ref.size(), set.size());
+            set.clear();
+            ref.clear();
+            assertEquals(0, set.size());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package tools;
+
+import games.Hex.StateObserverHex;
+import games.StateObservation;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Check {@link TranspositionTable}:
+ * <ul>
+ *     <li> put/get with the depth rule of {@link TranspositionTable#retrieve(long, int)}
+ *     <li> keys which collide in one bucket: both fit, a third one replaces the entry with the lower depth
+ *     <li> best moves are kept with the score tuples, an entry with only a move yields no score tuple
+ *     <li> an invalid table size throws an {@link IllegalArgumentException}
+ *     <li> {@link StateObserverHex#getHashKey()} is equal for transpositions and different for different positions
+ * </ul>
+ */
+public class TranspositionTableTest {
+
+    private static ScoreTuple tuple(double v0, double v1) {
+        ScoreTuple sc = new ScoreTuple(2);
+        sc.scTup[0] = v0;
+        sc.scTup[1] = v1;
+        return sc;
+    }
+
+    @Test
+    public void putGet_T() {
+        TranspositionTable tt = new TranspositionTable(10, 2);
+        tt.store(42L, 3, tuple(0.5, -0.5));
+        ScoreTuple sc = tt.retrieve(42L, 3);
+        assertNotNull(sc);
+        assertEquals(0.5, sc.scTup[0], 0.0);
+        assertEquals(-0.5, sc.scTup[1], 0.0);
+        assertNotNull(tt.retrieve(42L, 2));                 // a deeper result is good enough
+        assertNull(tt.retrieve(42L, 4));                    // a shallower one is not
+        assertNull(tt.retrieve(43L, 0));
+
+        tt.store(42L, 1, tuple(1.0, -1.0));                 // lower depth: ignored
+        assertEquals(0.5, tt.retrieve(42L, 0).scTup[0], 0.0);
+        tt.store(42L, 5, tuple(1.0, -1.0));                 // higher depth: overwritten
+        assertEquals(1.0, tt.retrieve(42L, 5).scTup[0], 0.0);
+
+        tt.clear();
+        assertNull(tt.retrieve(42L, 0));
+    }
+
+    @Test
+    public void collision_T() {
+        // find three keys in the same bucket of a table with 2^4 entries (8 buckets of 2 entries):
+        int bits = 4;
+        HashMap<Long, ArrayList<Long>> byBucket = new HashMap<>();
+        ArrayList<Long> keys = null;
+        Random rand = new Random(42);
+        while (keys == null || keys.size() < 3) {
+            long key = rand.nextLong();
+            keys = byBucket.computeIfAbsent(ZobristKeys.mix(key) & ((1 << bits) - 2), b -> new ArrayList<>());
+            keys.add(key);
+        }
+        long k1 = keys.get(0), k2 = keys.get(1), k3 = keys.get(2);
+
+        TranspositionTable tt = new TranspositionTable(bits, 2);
+        tt.store(k1, 2, tuple(1, -1));
+        tt.store(k2, 5, tuple(2, -2));
+        assertEquals(1, tt.retrieve(k1, 0).scTup[0], 0.0);
+        assertEquals(2, tt.retrieve(k2, 0).scTup[0], 0.0);
+
+        tt.store(k3, 3, tuple(3, -3));                      // replaces k1, which has the lower depth
+        assertNull(tt.retrieve(k1, 0));
+        assertEquals(2, tt.retrieve(k2, 0).scTup[0], 0.0);
+        assertEquals(3, tt.retrieve(k3, 0).scTup[0], 0.0);
+    }
+
+    @Test
+    public void moves_T() {
+        TranspositionTable tt = new TranspositionTable(10, 2);
+        assertEquals(-1, tt.retrieveMove(42L));
+        tt.store(42L, 3, null, 4);                          // only a move
+        assertEquals(4, tt.retrieveMove(42L));
+        assertNull(tt.retrieve(42L, 0));
+
+        tt.store(42L, 2, tuple(0.5, -0.5), 1);              // a score tuple may follow with any depth
+        assertEquals(1, tt.retrieveMove(42L));
+        assertEquals(0.5, tt.retrieve(42L, 2).scTup[0], 0.0);
+        tt.store(42L, 1, tuple(1.0, -1.0), 6);              // lower depth: only the move is updated
+        assertEquals(6, tt.retrieveMove(42L));
+        assertEquals(0.5, tt.retrieve(42L, 2).scTup[0], 0.0);
+        tt.store(42L, 5, tuple(1.0, -1.0));                 // no move: the stored one is kept
+        assertEquals(6, tt.retrieveMove(42L));
+        assertEquals(1.0, tt.retrieve(42L, 5).scTup[0], 0.0);
+    }
+
+    @Test
+    public void invalidBits_T() {
+        for (int bits : new int[]{0, TranspositionTable.MAX_BITS + 1, 31}) {
+            try {
+                new TranspositionTable(bits, 2);
+                fail("bits="+bits+" should throw");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void hexHashKey_T() {
+        Random rand = new Random(42);
+        HashMap<Long, String> seen = new HashMap<>();
+        for (int episode=0; episode<50; episode++) {
+            StateObservation so = new StateObserverHex();
+            while (!so.isGameOver()) {
+                String previous = seen.put(so.getHashKey(), so.stringDescr());
+                if (previous != null) assertEquals(previous, so.stringDescr());
+                so.advance(so.getAction(rand.nextInt(so.getNumAvailableActions())), null);
+            }
+        }
+
+        // the same position reached by two move orders:
+        StateObservation a = new StateObserverHex(), b = new StateObserverHex();
+        for (int k : new int[]{0, 5, 2, 7}) a.advance(new Types.ACTIONS(k), null);
+        for (int k : new int[]{2, 7, 0, 5}) b.advance(new Types.ACTIONS(k), null);
+        assertEquals(a.getHashKey(), b.getHashKey());
+        b.undo(1);
+        assertTrue(a.getHashKey() != b.getHashKey());
+    }
+}